@@ -1,10 +1,15 @@
 // src/pages/Dashboard.jsx
 import { useEffect, useState } from "react";
 import api from "../services/api";
+import { subscribeLedger, applySummaryDelta } from "../services/ledgerStream";
+import {
+  LineChart, Line, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer
+} from "recharts";
 
 export default function Dashboard() {
   const [summary, setSummary] = useState({ income: 0, expense: 0, balance: 0 });
   const [recent, setRecent] = useState([]);
+  const [balanceSeries, setBalanceSeries] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
 
@@ -12,7 +17,7 @@ export default function Dashboard() {
     const fetchData = async () => {
       try {
         setLoading(true);
-        const [sumRes, txnRes] = await Promise.all([
+        const [sumRes, txnRes, balRes] = await Promise.all([
           api.get("/transactions/summary/my"),
           api.get("/transactions/my", {
             params: {
@@ -23,10 +28,13 @@ export default function Dashboard() {
               end: new Date().toISOString().slice(0, 10),
             },
           }),
+          // running balance for the last 90 days, computed server-side
+          api.get("/transactions/balance", { params: { interval: "day" } }),
         ]);
 
         setSummary(sumRes.data || { income: 0, expense: 0, balance: 0 });
         setRecent(txnRes.data ? txnRes.data.slice(0, 5) : []);
+        setBalanceSeries(balRes.data?.points || []);
       } catch (err) {
         console.error("Failed to load dashboard:", err);
         setError("Failed to load dashboard data");
@@ -35,6 +43,13 @@ export default function Dashboard() {
       }
     };
     fetchData();
+
+    // keep the summary cards live instead of refetching after every write
+    return subscribeLedger({
+      onSummary: (full) => setSummary(full),
+      onLedger: (evt) => setSummary((prev) => applySummaryDelta(prev, evt.summaryDelta)),
+      onResync: fetchData,
+    });
   }, []);
 
   return (
@@ -73,6 +88,24 @@ export default function Dashboard() {
             </div>
           </div>
 
+          {/* Balance over time */}
+          <div className="bg-white p-6 rounded-lg shadow mb-10">
+            <h2 className="text-xl font-semibold mb-4 text-sky-800">
+              Balance (last 90 days)
+            </h2>
+            <div style={{ width: "100%", height: 260 }}>
+              <ResponsiveContainer>
+                <LineChart data={balanceSeries}>
+                  <CartesianGrid strokeDasharray="3 3" />
+                  <XAxis dataKey="date" minTickGap={24} />
+                  <YAxis />
+                  <Tooltip formatter={(v) => `₹${Number(v).toFixed(2)}`} />
+                  <Line type="monotone" dataKey="balance" stroke="#0284C7" dot={false} />
+                </LineChart>
+              </ResponsiveContainer>
+            </div>
+          </div>
+
           {/* Recent Transactions */}
           <div className="bg-white p-6 rounded-lg shadow">
             <h2 className="text-xl font-semibold mb-4 text-sky-800">
@@ -0,0 +1,32 @@
+// src/services/ledgerStream.js
+// Live ledger updates over Server-Sent Events (replaces refetch-after-write polling).
+
+const baseURL = import.meta.env.VITE_API_URL || "http://localhost:8080";
+
+// Subscribe to /events/stream. Handlers: onSummary(full), onLedger(event), onResync().
+// Returns an unsubscribe function.
+export function subscribeLedger({ onSummary, onLedger, onResync } = {}) {
+  const token = localStorage.getItem("token");
+  if (!token) return () => {};
+
+  // EventSource can't send an Authorization header, so the token goes in the query string
+  const source = new EventSource(
+    `${baseURL}/events/stream?access_token=${encodeURIComponent(token)}`
+  );
+
+  source.addEventListener("summary", (e) => onSummary && onSummary(JSON.parse(e.data)));
+  source.addEventListener("ledger", (e) => onLedger && onLedger(JSON.parse(e.data)));
+  source.addEventListener("resync", () => onResync && onResync());
+
+  return () => source.close();
+}
+
+// Apply a summaryDelta from a "ledger" event to a summary object.
+export function applySummaryDelta(summary, delta) {
+  if (!delta) return summary;
+  return {
+    income: (summary.income || 0) + delta.income,
+    expense: (summary.expense || 0) + delta.expense,
+    balance: (summary.balance || 0) + delta.balance,
+  };
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Blocking vs reactive report reads at high concurrency: throughput, p50/p99 latency and the
+# peak number of JVM threads while the load runs.
+#   blocking: /transactions/my, /transactions/summary/my, /expenses/summary/category (Tomcat thread per request)
+#   reactive: the same paths under /reactive (R2DBC, reports.reactive.enabled=true)
+#
+# usage: bench/report-concurrency-bench.sh [concurrency] [seconds]
+#   BENCH_PORT           port to use (default 18081)
+#   BENCH_ROWS           transactions seeded for the bench user (default 2000)
+#   BENCH_TOMCAT_THREADS server.tomcat.threads.max for both runs (default 50)
+# Needs hey (https://github.com/rakyll/hey) and a jar from mvn package -DskipTests.
+# Database settings come from application.properties or SPRING_DATASOURCE_* env variables;
+# the R2DBC url from REPORTS_REACTIVE_URL (default r2dbc:mysql://localhost:3306/finance_tracker).
+# Not run yet: it needs MySQL and hey, and no results have been recorded.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY=${1:-200}
+SECONDS_PER_RUN=${2:-20}
+PORT=${BENCH_PORT:-18081}
+ROWS=${BENCH_ROWS:-2000}
+THREADS=${BENCH_TOMCAT_THREADS:-50}
+BASE="http://localhost:$PORT"
+JAR=$(ls target/tracker-*.jar 2>/dev/null | grep -v plain | head -1 || true)
+if [[ -z "$JAR" ]]; then
+  echo "no target/tracker-*.jar, run: mvn package -DskipTests" >&2
+  exit 1
+fi
+command -v hey > /dev/null || { echo "hey not found: go install github.com/rakyll/hey@latest" >&2; exit 1; }
+
+java -jar "$JAR" --server.port="$PORT" --server.tomcat.threads.max="$THREADS" \
+  --reports.reactive.enabled=true --ratelimit.enabled=false --idempotency.enabled=false \
+  > target/bench-reports.log 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+until curl -s -o /dev/null "$BASE/"; do
+  kill -0 "$PID" 2>/dev/null || { echo "server failed to start, see target/bench-reports.log" >&2; exit 1; }
+  sleep 0.2
+done
+
+# bench user with a ledger large enough that every report does real work
+USER_NAME="bench-$(date +%s)"
+curl -s -o /dev/null -H 'Content-Type: application/json' \
+  -d "{\"username\":\"$USER_NAME\",\"email\":\"$USER_NAME@example.com\",\"password\":\"bench\"}" "$BASE/users/register"
+TOKEN=$(curl -s -H 'Content-Type: application/json' \
+  -d "{\"username\":\"$USER_NAME\",\"password\":\"bench\"}" "$BASE/users/login" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+AUTH="Authorization: Bearer $TOKEN"
+echo "seeding $ROWS transactions for $USER_NAME ..."
+for ((i = 0; i < ROWS; i++)); do
+  day=$(date -d "-$((i % 365)) days" +%F)
+  type=$([[ $((i % 4)) == 0 ]] && echo credit || echo debit)
+  echo "{\"amount\":$((5 + i % 200)),\"type\":\"$type\",\"description\":\"bench $i\",\"date\":\"$day\"}"
+done | xargs -d '\n' -P 8 -I{} curl -s -o /dev/null -H "$AUTH" -H 'Content-Type: application/json' -d '{}' "$BASE/transactions/add"
+
+START=$(date -d '-365 days' +%F)
+END=$(date +%F)
+PATHS=("/transactions/my?start=$START&end=$END" "/transactions/summary/my" "/expenses/summary/category")
+
+threads() { awk '/^Threads:/ {print $2}' "/proc/$PID/status"; }
+
+run() {
+  local label=$1 url=$2 peak=0 out sampler
+  out=$(mktemp)
+  hey -z "${SECONDS_PER_RUN}s" -c "$CONCURRENCY" -H "$AUTH" "$url" > "$out" &
+  sampler=$!
+  while kill -0 "$sampler" 2>/dev/null; do
+    t=$(threads); (( t > peak )) && peak=$t
+    sleep 0.2
+  done
+  printf '%-10s %-48s %10s %10s %10s %8s\n' "$label" "${url#$BASE}" \
+    "$(awk '/Requests\/sec/ {printf "%.0f", $2}' "$out")" \
+    "$(awk '/ 50%/ {printf "%.0f", $3 * 1000}' "$out")" \
+    "$(awk '/ 99%/ {printf "%.0f", $3 * 1000}' "$out")" \
+    "$peak"
+  rm -f "$out"
+}
+
+echo "concurrency=$CONCURRENCY tomcat.threads.max=$THREADS ${SECONDS_PER_RUN}s per run, idle threads=$(threads)"
+printf '%-10s %-48s %10s %10s %10s %8s\n' path endpoint "req/s" "p50 (ms)" "p99 (ms)" threads
+for p in "${PATHS[@]}"; do
+  run blocking "$BASE$p"
+  run reactive "$BASE/reactive$p"
+done
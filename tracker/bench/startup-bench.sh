@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Startup-time and first-request-latency benchmark for the run modes built by
+#   mvn -Pfast-start package            (jvm, aot, aot+cds)
+#   mvn -Pfast-start,native native:compile   (native, optional)
+#
+# usage: bench/startup-bench.sh [runs]
+#   BENCH_PORT           port to use (default 18080)
+#   BENCH_FIRST_REQUEST  path of the request timed after startup (default /users/login,
+#                        a failed login: security filter chain + Jackson + one JPA query)
+#   BENCH_PROFILE        Spring profile(s) (default fast)
+# Database settings come from application.properties or SPRING_DATASOURCE_* env variables.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+FIRST=${BENCH_FIRST_REQUEST:-/users/login}
+PROFILE=${BENCH_PROFILE:-fast}
+DIR=target/fast-start
+JAR=$(ls "$DIR"/tracker-*.jar 2>/dev/null | head -1 || true)
+if [[ -z "$JAR" ]]; then
+  echo "no $DIR/tracker-*.jar, run: mvn -Pfast-start package -DskipTests" >&2
+  exit 1
+fi
+
+declare -A CMD
+CMD[jvm]="java -jar $JAR"
+CMD[aot]="java -Dspring.aot.enabled=true -jar $JAR"
+CMD[aot+cds]="java -XX:SharedArchiveFile=$DIR/application.jsa -Xlog:cds=off -Dspring.aot.enabled=true -jar $JAR"
+MODES=(jvm aot aot+cds)
+if [[ -x target/tracker ]]; then
+  CMD[native]="target/tracker"
+  MODES+=(native)
+fi
+
+now_ms() { date +%s%3N; }
+
+first_request() {
+  if [[ "$FIRST" == /users/login ]]; then
+    curl -s -o /dev/null -w '%{time_total}' -H 'Content-Type: application/json' \
+      -d '{"username":"bench-nobody","password":"x"}' "http://localhost:$PORT$FIRST"
+  else
+    curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT$FIRST"
+  fi
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print (NR%2 ? a[(NR+1)/2] : (a[NR/2]+a[NR/2+1])/2)}'; }
+
+printf '%-9s %14s %14s %14s\n' mode "ready (ms)" "first req (ms)" "RSS (MB)"
+for mode in "${MODES[@]}"; do
+  ready=(); first=(); rss=()
+  for ((i = 0; i < RUNS; i++)); do
+    start=$(now_ms)
+    ${CMD[$mode]} --server.port="$PORT" --spring.profiles.active="$PROFILE" > "target/bench-$mode.log" 2>&1 &
+    pid=$!
+    # ready = first HTTP answer from the unauthenticated root endpoint
+    until curl -s -o /dev/null "http://localhost:$PORT/"; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$mode failed to start, see target/bench-$mode.log" >&2
+        exit 1
+      fi
+      sleep 0.02
+    done
+    ready+=($(( $(now_ms) - start )))
+    first+=("$(awk -v s="$(first_request)" 'BEGIN {printf "%.0f", s * 1000}')")
+    rss+=("$(awk '/VmRSS/ {printf "%.0f", $2 / 1024}' /proc/$pid/status 2>/dev/null || echo 0)")
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+  done
+  printf '%-9s %14s %14s %14s\n' "$mode" \
+    "$(printf '%s\n' "${ready[@]}" | median)" \
+    "$(printf '%s\n' "${first[@]}" | median)" \
+    "$(printf '%s\n' "${rss[@]}" | median)"
+done
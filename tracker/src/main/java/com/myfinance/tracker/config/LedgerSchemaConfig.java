@@ -0,0 +1,75 @@
+package com.myfinance.tracker.config;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.cfg.SchemaToolingSettings;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * MySQL refuses foreign keys on partitioned tables. Once db/mysql/partition-ledger.sql has
+ * partitioned the ledger, ddl-auto must leave those tables alone (their schema is then
+ * changed by hand); unpartitioned databases keep the foreign keys the entities declare.
+ */
+@Configuration
+public class LedgerSchemaConfig {
+
+    private static final Set<String> PARTITIONED_TABLES = Set.of("transactions");
+
+    // ✅ Only on the partitioned path: skip the partitioned tables in schema updates
+    @Bean
+    @ConditionalOnProperty(name = "ledger.partitioning.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer partitionedLedgerSchemaFilter() {
+        return properties -> properties.put(SchemaToolingSettings.HBM2DDL_FILTER_PROVIDER, new SkipPartitioned());
+    }
+
+    static final class SkipPartitioned implements SchemaFilterProvider, SchemaFilter {
+
+        @Override
+        public boolean includeNamespace(Namespace namespace) {
+            return true;
+        }
+
+        @Override
+        public boolean includeTable(Table table) {
+            return !PARTITIONED_TABLES.contains(table.getName().toLowerCase());
+        }
+
+        @Override
+        public boolean includeSequence(Sequence sequence) {
+            return true;
+        }
+
+        @Override
+        public SchemaFilter getCreateFilter() {
+            return this;
+        }
+
+        @Override
+        public SchemaFilter getDropFilter() {
+            return this;
+        }
+
+        @Override
+        public SchemaFilter getTruncatorFilter() {
+            return this;
+        }
+
+        @Override
+        public SchemaFilter getMigrateFilter() {
+            return this;
+        }
+
+        @Override
+        public SchemaFilter getValidateFilter() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.myfinance.tracker.config;
+
+import com.myfinance.tracker.dto.AuthResponse;
+import com.myfinance.tracker.dto.ColumnarExpenses;
+import com.myfinance.tracker.dto.ColumnarTransactions;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.BudgetAlert;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection/resource hints for the GraalVM native image (mvn -Pfast-start,native native:compile).
+ * Spring AOT already covers beans and JPA entities; what it cannot see is JJWT creating its
+ * implementation classes by name, and types serialised by Jackson behind {@code ResponseEntity<?>}
+ * or inside SSE payloads.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        AuthResponse.class, TransactionDto.class, ColumnarTransactions.class, ColumnarExpenses.class,
+        LedgerEntry.class, Transaction.class, Expense.class, Category.class, User.class,
+        Budget.class, BudgetAlert.class, ReportJob.class
+})
+public class NativeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        // jjwt-impl / jjwt-jackson are runtime-only, so they are referenced by name
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+                "io.jsonwebtoken.impl.io.RuntimeClasspathSerializerLocator",
+                "io.jsonwebtoken.impl.io.RuntimeClasspathDeserializerLocator",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.myfinance.tracker.config;
+
+import com.myfinance.tracker.monitoring.SlowQueryLog;
+import com.myfinance.tracker.monitoring.TimedDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryMonitoringConfig {
+
+    // ✅ Wrap the pool so every JDBC statement is timed (see TimedDataSource / SlowQueryLog)
+    @Bean
+    @ConditionalOnProperty(name = "monitoring.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog,
+                                                                 ObjectProvider<MeterRegistry> meters) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(ds, slowQueryLog::getIfAvailable, meters::getIfAvailable);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.myfinance.tracker.config;
 
+import com.myfinance.tracker.security.IdempotencyFilter;
 import com.myfinance.tracker.security.JwtFilter;
+import com.myfinance.tracker.security.RateLimitFilter;
 import com.myfinance.tracker.security.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,10 +27,16 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
     private final CustomUserDetailsService userDetailsService;
 
-    public SecurityConfig(JwtFilter jwtFilter, CustomUserDetailsService userDetailsService) {
+    public SecurityConfig(JwtFilter jwtFilter, RateLimitFilter rateLimitFilter,
+                          IdempotencyFilter idempotencyFilter,
+                          CustomUserDetailsService userDetailsService) {
         this.jwtFilter = jwtFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.idempotencyFilter = idempotencyFilter;
         this.userDetailsService = userDetailsService;
     }
 
@@ -42,6 +51,10 @@ public class SecurityConfig {
 
             // ✅ Authorization rules
             .authorizeHttpRequests(auth -> auth
+                // an SSE stream can outlive its token, so only its completion dispatch skips the check;
+                // other ASYNC dispatches get the context JwtFilter saved on the request
+                .requestMatchers(request -> request.getDispatcherType() == DispatcherType.ASYNC
+                        && "/events/stream".equals(request.getServletPath())).permitAll()
                 .requestMatchers("/", "/users/register", "/users/login", "/error").permitAll()
                 .anyRequest().authenticated()
             )
@@ -51,7 +64,13 @@ public class SecurityConfig {
 
             // ✅ Authentication provider + filter
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+
+            // ✅ Rate limiting once the caller is known
+            .addFilterAfter(rateLimitFilter, JwtFilter.class)
+
+            // ✅ Replay retried creates carrying an Idempotency-Key
+            .addFilterAfter(idempotencyFilter, RateLimitFilter.class);
 
         return http.build();
     }
@@ -83,8 +102,8 @@ public class SecurityConfig {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(List.of("http://localhost:5173"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", IdempotencyFilter.HEADER));
+        config.setExposedHeaders(List.of("Authorization", IdempotencyFilter.REPLAYED_HEADER));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,68 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.dto.AggregationQuery;
+import com.myfinance.tracker.service.AggregationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/reports")
+public class AggregationController {
+
+    private final AggregationService aggregationService;
+
+    public AggregationController(AggregationService aggregationService) {
+        this.aggregationService = aggregationService;
+    }
+
+    /**
+     * GET /reports/aggregate?source=transactions&dimension=month&measure=sum
+     *     &start=2025-01-01&end=2025-12-31&type=debit&category=Food&category=Rent
+     *     &minAmount=10&maxAmount=500&currency=EUR
+     * source: transactions | expenses; dimension: day | week | month | year | category | type;
+     * measure: sum | count | avg | min | max. All filters are optional.
+     */
+    @GetMapping("/aggregate")
+    public ResponseEntity<?> aggregate(
+            Authentication authentication,
+            @RequestParam(defaultValue = "transactions") String source,
+            @RequestParam(defaultValue = "month") String dimension,
+            @RequestParam(defaultValue = "sum") String measure,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String type,
+            @RequestParam(name = "category", required = false) List<String> categories,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String currency) {
+        AggregationQuery q = new AggregationQuery();
+        try {
+            q.setSource(AggregationQuery.Source.valueOf(source.trim().toUpperCase()));
+            q.setDimension(AggregationQuery.Dimension.valueOf(dimension.trim().toUpperCase()));
+            q.setMeasure(AggregationQuery.Measure.valueOf(measure.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown source, dimension or measure"));
+        }
+        q.setStart(start);
+        q.setEnd(end);
+        q.setType(type);
+        q.setCategories(categories);
+        q.setMinAmount(minAmount);
+        q.setMaxAmount(maxAmount);
+        q.setCurrency(currency);
+
+        try {
+            return ResponseEntity.ok(aggregationService.aggregate(authentication.getName(), q));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(Map.of("message", e.getReason()));
+        }
+    }
+}
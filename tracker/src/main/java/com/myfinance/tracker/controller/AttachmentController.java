@@ -0,0 +1,214 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.model.Attachment;
+import com.myfinance.tracker.service.AttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/attachments")
+public class AttachmentController {
+
+    // Tomcat request attributes for sendfile: the connector copies the file to the socket itself
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentService attachmentService;
+
+    public AttachmentController(AttachmentService attachmentService) {
+        this.attachmentService = attachmentService;
+    }
+
+    /**
+     * POST /attachments?kind=expense&entryId=42&name=receipt.jpg with the raw file as the body
+     * (no multipart). The body is streamed to disk as it arrives; the type is detected from
+     * the content.
+     */
+    @PostMapping
+    public ResponseEntity<?> upload(@RequestParam String kind,
+                                    @RequestParam Long entryId,
+                                    @RequestParam(required = false) String name,
+                                    HttpServletRequest request,
+                                    Authentication authentication) throws IOException {
+        if (request.getContentLengthLong() > attachmentService.getMaxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("message", "Attachment is larger than " + attachmentService.getMaxBytes() + " bytes"));
+        }
+        try (InputStream body = request.getInputStream()) {
+            Attachment saved = attachmentService.upload(authentication.getName(), kind, entryId, name, body);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // GET /attachments?kind=expense&entryId=42 → metadata of the entry's attachments
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam String kind, @RequestParam Long entryId,
+                                  Authentication authentication) {
+        try {
+            List<Attachment> list = attachmentService.list(authentication.getName(), kind, entryId);
+            return ResponseEntity.ok(list);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /attachments/{id}/content → the file. Supports a single {@code Range: bytes=...}
+     * (206), {@code If-Range} and {@code If-None-Match}; the ETag is the content hash, so it
+     * never changes for an attachment.
+     */
+    @GetMapping("/{id}/content")
+    public void content(@PathVariable Long id, Authentication authentication,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Attachment a;
+        try {
+            a = attachmentService.get(authentication.getName(), id);
+        } catch (RuntimeException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        }
+        Path file = attachmentService.file(a);
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Attachment content is missing");
+            return;
+        }
+
+        String etag = "\"" + a.getSha256() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(a.getContentType());
+        if (a.getFileName() != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.inline().filename(a.getFileName(), StandardCharsets.UTF_8).build().toString());
+        }
+
+        long start = 0;
+        long end = size; // exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] r = parseRange(range, size);
+            if (r == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (r.length == 2) {
+                start = r[0];
+                end = r[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+        send(file, start, end, request, response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id, Authentication authentication) {
+        try {
+            attachmentService.delete(authentication.getName(), id);
+            return ResponseEntity.ok(Map.of("message", "Attachment deleted successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // sendfile when the connector offers it, else FileChannel.transferTo into the response stream
+    private static void send(Path file, long start, long end, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long n = channel.transferTo(position, end - position, out);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+        }
+    }
+
+    /**
+     * Parse a Range header against a file of {@code size} bytes: {start, endExclusive} for one
+     * satisfiable range, an empty array to ignore the header (not bytes, or several ranges,
+     * which we answer with the whole file), null when unsatisfiable.
+     */
+    static long[] parseRange(String header, long size) {
+        String h = header.trim();
+        if (!h.startsWith("bytes=") || h.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = h.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // suffix: the last N bytes
+                long n = Long.parseLong(last);
+                if (n <= 0 || size == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - n), size};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size : Math.min(size, Long.parseLong(last) + 1);
+            if (!last.isEmpty() && Long.parseLong(last) < start) {
+                return new long[0]; // malformed, not unsatisfiable
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
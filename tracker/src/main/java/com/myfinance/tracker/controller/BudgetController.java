@@ -0,0 +1,49 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.BudgetAlert;
+import com.myfinance.tracker.service.BudgetService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/budgets")
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    public BudgetController(BudgetService budgetService) {
+        this.budgetService = budgetService;
+    }
+
+    @GetMapping
+    public List<Budget> getMyBudgets(Authentication authentication) {
+        return budgetService.getBudgets(authentication.getName());
+    }
+
+    @PostMapping("/add")
+    public Budget addBudget(@RequestBody Budget budget, Authentication authentication) {
+        return budgetService.addBudget(authentication.getName(), budget);
+    }
+
+    @PutMapping("/update/{id}")
+    public Budget updateBudget(@PathVariable Long id, @RequestBody Budget budget, Authentication authentication) {
+        return budgetService.updateBudget(authentication.getName(), id, budget);
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public ResponseEntity<String> deleteBudget(@PathVariable Long id, Authentication authentication) {
+        budgetService.deleteBudget(authentication.getName(), id);
+        return ResponseEntity.ok("Budget deleted successfully");
+    }
+
+    // GET /budgets/alerts → most recent threshold crossings
+    @GetMapping("/alerts")
+    public List<BudgetAlert> getMyAlerts(Authentication authentication) {
+        return budgetService.getRecentAlerts(authentication.getName());
+    }
+}
@@ -1,8 +1,12 @@
 package com.myfinance.tracker.controller;
 
+import com.myfinance.tracker.dto.ColumnarExpenses;
+import com.myfinance.tracker.dto.ColumnarTransactions;
+import com.myfinance.tracker.dto.LedgerFilter;
 import com.myfinance.tracker.model.Expense;
 import com.myfinance.tracker.service.ExpenseService;
 import com.myfinance.tracker.service.ExpenseReportService;
+import com.myfinance.tracker.service.LedgerFilterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -23,10 +28,13 @@ public class ExpenseController {
 
     private final ExpenseService expenseService;
     private final ExpenseReportService reportService;
+    private final LedgerFilterService filterService;
 
-    public ExpenseController(ExpenseService expenseService, ExpenseReportService reportService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseReportService reportService,
+                             LedgerFilterService filterService) {
         this.expenseService = expenseService;
         this.reportService = reportService;
+        this.filterService = filterService;
     }
 
     @PostMapping("/add")
@@ -35,31 +43,50 @@ public class ExpenseController {
         return expenseService.addExpense(username, expense);
     }
 
+    // GET /expenses/filter → same parameters as /transactions/filter; description matches the title
+    @GetMapping("/filter")
+    public ResponseEntity<?> filter(LedgerFilter filter, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(filterService.expenses(authentication.getName(), filter));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * GET /expenses/my
      * Requires both start and end to return results. Otherwise returns empty list.
+     * Supports the same columnar/binary Accept types as /transactions/my.
      */
     @GetMapping("/my")
-    public ResponseEntity<List<Expense>> getMyExpenses(
+    public ResponseEntity<?> getMyExpenses(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestHeader(value = "Accept", required = false) String accept) {
 
         String username = authentication.getName();
         log.info("GET /expenses/my for user='{}' start={} end={}", username, start, end);
 
         if (start == null || end == null) {
             log.info("Returning empty expenses list because start or end missing");
-            return ResponseEntity.ok(Collections.emptyList());
+            return respond(Collections.emptyList(), accept);
         }
 
         if (end.isBefore(start)) {
             log.warn("Invalid expense date range: end < start");
-            return ResponseEntity.ok(Collections.emptyList());
+            return respond(Collections.emptyList(), accept);
         }
 
         List<Expense> list = expenseService.getUserExpensesInRange(username, start, end);
         log.info("Returning {} expenses for user='{}'", list.size(), username);
+        return respond(list, accept);
+    }
+
+    private ResponseEntity<?> respond(List<Expense> list, String accept) {
+        if (accept != null && accept.contains(ColumnarTransactions.MEDIA_TYPE)) {
+            return ResponseEntity.ok(ColumnarExpenses.from(list));
+        }
         return ResponseEntity.ok(list);
     }
 
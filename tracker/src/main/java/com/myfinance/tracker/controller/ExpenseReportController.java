@@ -3,6 +3,7 @@ package com.myfinance.tracker.controller;
 import com.myfinance.tracker.model.User;
 import com.myfinance.tracker.repository.UserRepository;
 import com.myfinance.tracker.service.ExpenseReportService;
+import com.myfinance.tracker.service.FxRateTable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -16,33 +17,34 @@ public class ExpenseReportController {
 
     private final ExpenseReportService reportService;
     private final UserRepository userRepository;
+    private final FxRateTable fx;
 
-    public ExpenseReportController(ExpenseReportService reportService, UserRepository userRepository) {
+    public ExpenseReportController(ExpenseReportService reportService, UserRepository userRepository, FxRateTable fx) {
         this.reportService = reportService;
         this.userRepository = userRepository;
+        this.fx = fx;
     }
 
-    private Long currentUserId(Authentication authentication) {
+    private User currentUser(Authentication authentication) {
         String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
+        return userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        return user.getId();
     }
 
     // GET /expenses/summary/category
     @GetMapping("/category")
     public Map<String, Double> getCategorySummary(Authentication authentication) {
         System.out.println(">>> /expenses/summary/category CALLED");
-        Long userId = currentUserId(authentication);
-        return reportService.getTotalByCategory(userId);
+        User user = currentUser(authentication);
+        return reportService.getTotalByCategory(user.getId(), fx.baseOf(user));
     }
 
     // GET /expenses/summary/monthly
     @GetMapping("/monthly")
     public Map<String, Double> getMonthlySummary(Authentication authentication) {
         System.out.println(">>> /expenses/summary/monthly CALLED");
-        Long userId = currentUserId(authentication);
-        return reportService.getTotalByMonth(userId);
+        User user = currentUser(authentication);
+        return reportService.getTotalByMonth(user.getId(), fx.baseOf(user));
     }
 
     // GET /expenses/summary/range?start=2025-08-01&end=2025-08-31
@@ -52,8 +54,8 @@ public class ExpenseReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
         System.out.println(">>> /expenses/summary/range CALLED");
-        Long userId = currentUserId(authentication);
-        return reportService.getTotalInRange(userId, start, end);
+        User user = currentUser(authentication);
+        return reportService.getTotalInRange(user.getId(), fx.baseOf(user), start, end);
     }
 
     // ✅ NEW: GET /expenses/summary/range/category?start=2025-08-01&end=2025-08-31
@@ -63,7 +65,7 @@ public class ExpenseReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
         System.out.println(">>> /expenses/summary/range/category CALLED");
-        Long userId = currentUserId(authentication);
-        return reportService.getTotalByCategoryInRange(userId, start, end);
+        User user = currentUser(authentication);
+        return reportService.getTotalByCategoryInRange(user.getId(), fx.baseOf(user), start, end);
     }
 }
@@ -0,0 +1,57 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.service.LedgerJournalService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/journal")
+public class JournalController {
+
+    private final LedgerJournalService journalService;
+
+    public JournalController(LedgerJournalService journalService) {
+        this.journalService = journalService;
+    }
+
+    // GET /journal?after=0&limit=100 → the caller's ledger events after an id, oldest first
+    @GetMapping
+    public ResponseEntity<?> events(Authentication authentication,
+                                    @RequestParam(defaultValue = "0") long after,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(journalService.events(authentication.getName(), after, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // GET /journal/projections/{name} → summary | monthly | category, from snapshot + tail
+    @GetMapping("/projections/{name}")
+    public ResponseEntity<?> projection(Authentication authentication, @PathVariable String name) {
+        try {
+            return ResponseEntity.ok(journalService.projection(authentication.getName(), name));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /journal/projections/{name}/rebuild?replace=false → replay the projection from the
+     * start of the journal and list where it differs from the live one; replace=true also
+     * makes the rebuilt state the snapshot.
+     */
+    @PostMapping("/projections/{name}/rebuild")
+    public ResponseEntity<?> rebuild(Authentication authentication, @PathVariable String name,
+                                     @RequestParam(defaultValue = "false") boolean replace) {
+        try {
+            return ResponseEntity.ok(journalService.rebuild(authentication.getName(), name, replace));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.service.LedgerStreamService;
+import com.myfinance.tracker.service.TransactionService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/events")
+public class LedgerStreamController {
+
+    private final LedgerStreamService streamService;
+    private final TransactionService transactionService;
+
+    public LedgerStreamController(LedgerStreamService streamService, TransactionService transactionService) {
+        this.streamService = streamService;
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * GET /events/stream
+     * Emits "summary" once, then a "ledger" event (with a summaryDelta) per write.
+     * EventSource cannot set headers, so the JWT may also be passed as ?access_token=.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication) {
+        String username = authentication.getName();
+        return streamService.subscribe(username, transactionService.getSummaryByUsername(username));
+    }
+}
@@ -0,0 +1,54 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.service.MerchantSketchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/reports/merchants")
+public class MerchantController {
+
+    private final MerchantSketchService merchantService;
+
+    public MerchantController(MerchantSketchService merchantService) {
+        this.merchantService = merchantService;
+    }
+
+    /**
+     * GET /reports/merchants/top?n=10&by=amount → heaviest merchants from the per-user sketch,
+     * each with the most its weight can be overstated. by: amount | count.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<?> top(Authentication authentication,
+                                 @RequestParam(defaultValue = "10") int n,
+                                 @RequestParam(defaultValue = "amount") String by) {
+        try {
+            return ResponseEntity.ok(merchantService.top(authentication.getName(), n, by));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // GET /reports/merchants/exact?n=10&by=amount → same shape, from a full scan (for verification)
+    @GetMapping("/exact")
+    public ResponseEntity<?> exact(Authentication authentication,
+                                   @RequestParam(defaultValue = "10") int n,
+                                   @RequestParam(defaultValue = "amount") String by) {
+        try {
+            return ResponseEntity.ok(merchantService.exact(authentication.getName(), n, by));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // POST /reports/merchants/rebuild → reset the sketch from exact totals
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild(Authentication authentication) {
+        merchantService.rebuild(authentication.getName());
+        return ResponseEntity.ok(merchantService.top(authentication.getName(), 10, "amount"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.service.ReactiveReportService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Same reads as TransactionController and ExpenseReportController, served from R2DBC.
+ * Spring MVC subscribes to the returned Flux/Mono and frees the request thread until the
+ * data is there. The ndjson list is written one row at a time and asks for the next row only
+ * after the previous one was flushed. Authentication is the normal JwtFilter chain.
+ */
+@RestController
+@RequestMapping("/reactive")
+@ConditionalOnProperty(name = "reports.reactive.enabled", havingValue = "true")
+public class ReactiveReportController {
+
+    private final ReactiveReportService reports;
+
+    public ReactiveReportController(ReactiveReportService reports) {
+        this.reports = reports;
+    }
+
+    // GET /reactive/transactions/my?start=...&end=... → one JSON object per line
+    @GetMapping(value = "/transactions/my", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDto> getMyTransactions(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        // same contract as /transactions/my: nothing without a valid range
+        if (start == null || end == null || end.isBefore(start)) {
+            return Flux.empty();
+        }
+        return reports.transactionsInRange(authentication.getName(), start, end);
+    }
+
+    @GetMapping("/transactions/summary/my")
+    public Mono<Map<String, Double>> getMySummary(Authentication authentication) {
+        return reports.transactionSummary(authentication.getName());
+    }
+
+    @GetMapping("/expenses/summary/category")
+    public Mono<Map<String, Double>> getCategorySummary(Authentication authentication) {
+        return reports.expenseTotalByCategory(authentication.getName());
+    }
+
+    @GetMapping("/expenses/summary/monthly")
+    public Mono<Map<String, Double>> getMonthlySummary(Authentication authentication) {
+        return reports.expenseTotalByMonth(authentication.getName());
+    }
+
+    @GetMapping("/expenses/summary/range")
+    public Mono<Double> getRangeSummary(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return reports.expenseTotalInRange(authentication.getName(), start, end);
+    }
+
+    @GetMapping("/expenses/summary/range/category")
+    public Mono<Map<String, Double>> getRangeCategorySummary(
+            Authentication authentication,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return reports.expenseTotalByCategoryInRange(authentication.getName(), start, end);
+    }
+}
@@ -0,0 +1,60 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.service.ReportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/reports/jobs")
+public class ReportJobController {
+
+    private final ReportJobService jobService;
+
+    public ReportJobController(ReportJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    // POST /reports/jobs {"startYear":2023,"endYear":2025,"format":"csv"} → 202 with the job,
+    // or 200 with an earlier finished job when the data has not changed since
+    @PostMapping
+    public ResponseEntity<ReportJob> submit(@RequestBody ReportJob request, Authentication authentication) {
+        ReportJob job = jobService.submit(authentication.getName(), request);
+        HttpStatus status = job.getStatus() == ReportJob.Status.DONE ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @GetMapping
+    public List<ReportJob> getMyJobs(Authentication authentication) {
+        return jobService.getJobs(authentication.getName());
+    }
+
+    @GetMapping("/{id}")
+    public ReportJob getJob(@PathVariable Long id, Authentication authentication) {
+        return jobService.getJob(authentication.getName(), id);
+    }
+
+    // GET /reports/jobs/{id}/result → the file, once status is DONE
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> download(@PathVariable Long id, Authentication authentication) {
+        ReportJob job = jobService.getJob(authentication.getName(), id);
+        Path file = jobService.getResult(authentication.getName(), id);
+        MediaType type = "json".equals(job.getFormat())
+                ? MediaType.APPLICATION_JSON : new MediaType("text", "csv");
+        String name = "statement-" + job.getStartYear() + "-" + job.getEndYear() + "." + job.getFormat();
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                .body(new FileSystemResource(file));
+    }
+}
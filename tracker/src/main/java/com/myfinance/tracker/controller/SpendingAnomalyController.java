@@ -0,0 +1,33 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.model.SpendingAnomaly;
+import com.myfinance.tracker.model.SpendingStats;
+import com.myfinance.tracker.service.SpendingAnomalyService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/anomalies")
+public class SpendingAnomalyController {
+
+    private final SpendingAnomalyService anomalyService;
+
+    public SpendingAnomalyController(SpendingAnomalyService anomalyService) {
+        this.anomalyService = anomalyService;
+    }
+
+    // GET /anomalies → most recent unusual debits, newest first
+    @GetMapping
+    public List<SpendingAnomaly> getMyAnomalies(Authentication authentication) {
+        return anomalyService.getRecentAnomalies(authentication.getName());
+    }
+
+    // GET /anomalies/stats → running mean/spread/rate per category
+    @GetMapping("/stats")
+    public List<SpendingStats> getMyStats(Authentication authentication) {
+        return anomalyService.getStats(authentication.getName());
+    }
+}
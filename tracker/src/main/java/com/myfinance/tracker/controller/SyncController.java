@@ -0,0 +1,35 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.service.SyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * GET /sync?since=42&limit=500 → transactions and expenses created or updated after change
+     * sequence 42, ids deleted since then, and the sequence to send next time.
+     */
+    @GetMapping
+    public ResponseEntity<?> changesSince(Authentication authentication,
+                                          @RequestParam(defaultValue = "0") long since,
+                                          @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(syncService.changesSince(authentication.getName(), since, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
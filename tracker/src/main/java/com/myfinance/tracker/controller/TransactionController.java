@@ -1,16 +1,28 @@
 package com.myfinance.tracker.controller;
 
+import com.myfinance.tracker.dto.BalanceSeries;
+import com.myfinance.tracker.dto.ColumnarTransactions;
+import com.myfinance.tracker.dto.LedgerFilter;
+import com.myfinance.tracker.dto.TagFilter;
 import com.myfinance.tracker.dto.TransactionDto;
-import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.service.BalanceSeriesService;
+import com.myfinance.tracker.service.LedgerFilterService;
+import com.myfinance.tracker.service.TransactionIndexService;
 import com.myfinance.tracker.service.TransactionService;
-import com.myfinance.tracker.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -24,11 +36,18 @@ public class TransactionController {
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
     private final TransactionService transactionService;
-    private final UserRepository userRepository;
-
-    public TransactionController(TransactionService transactionService, UserRepository userRepository) {
+    private final BalanceSeriesService balanceSeriesService;
+    private final TransactionIndexService transactionIndex;
+    private final LedgerFilterService filterService;
+
+    public TransactionController(TransactionService transactionService,
+                                 BalanceSeriesService balanceSeriesService,
+                                 TransactionIndexService transactionIndex,
+                                 LedgerFilterService filterService) {
         this.transactionService = transactionService;
-        this.userRepository = userRepository;
+        this.balanceSeriesService = balanceSeriesService;
+        this.transactionIndex = transactionIndex;
+        this.filterService = filterService;
     }
 
     @PostMapping("/add")
@@ -49,16 +68,59 @@ public class TransactionController {
         return ResponseEntity.ok("Transaction deleted successfully");
     }
 
+    // PUT /transactions/{id}/tags with a JSON array, e.g. ["work","trip-2026"] → replaces the tags
+    @PutMapping("/{id}/tags")
+    public ResponseEntity<?> updateTags(@PathVariable Long id, @RequestBody List<String> tags,
+                                        Authentication authentication) {
+        try {
+            return ResponseEntity.ok(transactionService.updateTags(authentication.getName(), id, tags));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /transactions/tagged?tags=work,trip-2026&from=2026-07&to=2026-09&notCategories=groceries
+     * → the match count and the {@code limit} most recently written matches, from the in-memory
+     * bitmap index (see TagFilter for every parameter).
+     */
+    @GetMapping("/tagged")
+    public ResponseEntity<?> getTagged(TagFilter filter,
+                                       @RequestParam(defaultValue = "100") int limit,
+                                       Authentication authentication) {
+        try {
+            return ResponseEntity.ok(transactionIndex.filter(authentication.getName(), filter, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /transactions/filter?start=2026-01-01&end=2026-03-31&minAmount=50&categories=Travel,Food
+     * &description=uber&type=debit&limit=50&after=... → one page, newest first (see LedgerFilter)
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filter(LedgerFilter filter, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(filterService.transactions(authentication.getName(), filter));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * GET /transactions/my
      * Only returns transactions when BOTH start and end are provided.
      * If start or end is missing, returns empty list (frontend should display message).
+     * Send "Accept: application/vnd.myfinance.columnar+json" for the column-per-field layout,
+     * or application/cbor / application/x-jackson-smile for a binary encoding of the rows.
      */
     @GetMapping("/my")
-    public ResponseEntity<List<TransactionDto>> getMyTransactions(
+    public ResponseEntity<?> getMyTransactions(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestHeader(value = "Accept", required = false) String accept) {
 
         String username = authentication.getName();
         log.info("Received GET /transactions/my for user='{}' with start={} end={}", username, start, end);
@@ -66,25 +128,93 @@ public class TransactionController {
         // If either date is missing, return empty list (frontend will ask user to apply filter)
         if (start == null || end == null) {
             log.info("Returning empty list because start or end is null");
-            return ResponseEntity.ok(Collections.emptyList());
+            return respond(Collections.emptyList(), accept);
         }
 
         // Validate range
         if (end.isBefore(start)) {
             log.warn("Invalid date range: end < start ({} > {}) - returning empty list", start, end);
-            return ResponseEntity.ok(Collections.emptyList());
+            return respond(Collections.emptyList(), accept);
         }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
         List<TransactionDto> list =
                 transactionService.getTransactionsByUsernameInRangeDto(username, start, end);
         log.info("Returning {} transactions for user='{}' (start={}, end={})",
                 list.size(), username, start, end);
+        return respond(list, accept);
+    }
+
+    // Helper: columnar layout only when the client asked for it explicitly
+    private ResponseEntity<?> respond(List<TransactionDto> list, String accept) {
+        if (accept != null && accept.contains(ColumnarTransactions.MEDIA_TYPE)) {
+            return ResponseEntity.ok(ColumnarTransactions.from(list));
+        }
         return ResponseEntity.ok(list);
     }
 
+    /**
+     * GET /transactions/export?start=YYYY-MM-DD&end=YYYY-MM-DD → CSV download, newest first.
+     * Without a range every transaction is exported, archived years included.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMyTransactions(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        String username = authentication.getName();
+        List<TransactionDto> list = transactionService.getTransactionsByUsernameInRangeDto(username, start, end);
+        log.info("Exporting {} transactions for user='{}' (start={}, end={})", list.size(), username, start, end);
+
+        StreamingResponseBody body = out -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            w.write("id,date,type,category,description,amount,currency\n");
+            for (TransactionDto t : list) {
+                w.write(t.getId() + "," + t.getDate() + "," + csv(t.getType()) + "," + csv(t.getCategoryName()) + ","
+                        + csv(t.getDescription()) + "," + t.getAmount() + "," + csv(t.getCurrency()) + "\n");
+            }
+            w.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.csv\"")
+                .body(body);
+    }
+
+    // Helper: quote a CSV field only when it needs it
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * GET /transactions/balance?start=YYYY-MM-DD&end=YYYY-MM-DD&interval=day|week
+     * Running balance in the base currency; defaults to the last 90 days, daily.
+     */
+    @GetMapping("/balance")
+    public ResponseEntity<?> getMyBalanceSeries(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(defaultValue = "day") String interval) {
+        LocalDate to = end != null ? end : LocalDate.now();
+        LocalDate from = start != null ? start : to.minusDays(89);
+        if (!"day".equals(interval) && !"week".equals(interval)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "interval must be day or week"));
+        }
+        try {
+            BalanceSeries series = balanceSeriesService.getBalanceSeries(
+                    authentication.getName(), from, to, "week".equals(interval));
+            return ResponseEntity.ok(series);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     // ✅ NEW: Dashboard summary endpoint (income, expense, balance)
     @GetMapping("/summary/my")
     public ResponseEntity<Map<String, Double>> getMySummary(Authentication authentication) {
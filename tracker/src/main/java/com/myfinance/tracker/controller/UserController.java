@@ -1,12 +1,14 @@
 package com.myfinance.tracker.controller;
 
 import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.service.FxRateTable;
 import com.myfinance.tracker.service.UserService;
 import com.myfinance.tracker.security.JwtUtil;
 import com.myfinance.tracker.dto.AuthResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -22,6 +24,9 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private FxRateTable fx;
+
     // ✅ REGISTER USER (with validation + friendly messages)
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -106,6 +111,7 @@ public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token
         profile.put("id", user.getId());
         profile.put("username", user.getUsername());
         profile.put("email", user.getEmail());
+        profile.put("baseCurrency", fx.baseOf(user));
 
         return ResponseEntity.ok(profile);
 
@@ -117,6 +123,17 @@ public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token
 }
 
 
+    // ✅ PUT /users/profile/currency {"currency":"EUR"} → set reporting currency
+    @PutMapping("/profile/currency")
+    public ResponseEntity<?> updateBaseCurrency(@RequestBody Map<String, String> body, Authentication authentication) {
+        try {
+            User user = userService.updateBaseCurrency(authentication.getName(), body.get("currency"));
+            return ResponseEntity.ok(Map.of("baseCurrency", user.getBaseCurrency()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(message(e.getMessage()));
+        }
+    }
+
     // Helper for clean JSON messages
     private Map<String, String> message(String msg) {
         Map<String, String> map = new HashMap<>();
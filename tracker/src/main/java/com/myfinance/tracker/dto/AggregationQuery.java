@@ -0,0 +1,77 @@
+package com.myfinance.tracker.dto;
+
+import com.myfinance.tracker.event.LedgerEntry;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.List;
+
+/**
+ * One ad-hoc aggregation: group the caller's transactions or expenses by a dimension and
+ * compute a measure, optionally filtered. Everything here maps onto fixed SQL fragments in
+ * AggregationRepository, so no request value is ever spliced into SQL.
+ */
+@Data
+@NoArgsConstructor
+public class AggregationQuery {
+
+    public enum Source { TRANSACTIONS, EXPENSES }
+
+    public enum Measure { SUM, COUNT, AVG, MIN, MAX }
+
+    public enum Dimension {
+        DAY, WEEK, MONTH, YEAR, CATEGORY, TYPE;
+
+        // SQL expression for the group key; x = transactions, c = categories
+        public String sql(Source source) {
+            switch (this) {
+                case DAY: return "x.date";
+                case WEEK: return "YEARWEEK(x.date, 3)"; // ISO weeks, e.g. 202503
+                case MONTH: return "DATE_FORMAT(x.date, '%Y-%m')";
+                case YEAR: return "YEAR(x.date)";
+                case CATEGORY: return "c.name";
+                default: return "x.type";
+            }
+        }
+
+        // label for a key value returned by sql()
+        public String label(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (this == WEEK) {
+                int yw = ((Number) value).intValue();
+                return String.format("%04d-W%02d", yw / 100, yw % 100);
+            }
+            return value.toString();
+        }
+
+        // same key computed in Java, for rows read back from the archive
+        public String keyOf(LedgerEntry e) {
+            LocalDate d = e.getDate();
+            switch (this) {
+                case DAY: return d.toString();
+                case WEEK: return String.format("%04d-W%02d",
+                        d.get(IsoFields.WEEK_BASED_YEAR), d.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTH: return String.format("%04d-%02d", d.getYear(), d.getMonthValue());
+                case YEAR: return String.valueOf(d.getYear());
+                case CATEGORY: return e.getCategory();
+                default: return e.getType();
+            }
+        }
+    }
+
+    private Source source = Source.TRANSACTIONS;
+    private Dimension dimension = Dimension.MONTH;
+    private Measure measure = Measure.SUM;
+    private LocalDate start;
+    private LocalDate end;
+    private String type;
+    private List<String> categories;
+    private Double minAmount;
+    private Double maxAmount;
+    // rows in this currency only (null on a row = fx.default-currency); defaults to the base currency
+    private String currency;
+}
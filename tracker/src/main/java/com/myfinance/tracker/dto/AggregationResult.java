@@ -0,0 +1,43 @@
+package com.myfinance.tracker.dto;
+
+import java.util.List;
+
+/**
+ * Response of /reports/aggregate: one row per group key, in key order.
+ */
+public class AggregationResult {
+
+    private final String dimension;
+    private final String measure;
+    private final String currency;
+    private final List<Row> rows;
+
+    public AggregationResult(String dimension, String measure, String currency, List<Row> rows) {
+        this.dimension = dimension;
+        this.measure = measure;
+        this.currency = currency;
+        this.rows = rows;
+    }
+
+    public static class Row {
+        private final String key;
+        private final double value;
+        private final long count;
+
+        public Row(String key, double value, long count) {
+            this.key = key;
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getKey() { return key; }
+        public double getValue() { return value; }
+        public long getCount() { return count; }
+    }
+
+    // Getters
+    public String getDimension() { return dimension; }
+    public String getMeasure() { return measure; }
+    public String getCurrency() { return currency; }
+    public List<Row> getRows() { return rows; }
+}
@@ -0,0 +1,46 @@
+package com.myfinance.tracker.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Running balance over a date range: {@code opening} is the balance before the first day,
+ * each point is the balance at the end of its day (or week) and the change since the
+ * previous point.
+ */
+public class BalanceSeries {
+
+    private final String currency;
+    private final String interval;
+    private final double opening;
+    private final List<Point> points;
+
+    public BalanceSeries(String currency, String interval, double opening, List<Point> points) {
+        this.currency = currency;
+        this.interval = interval;
+        this.opening = opening;
+        this.points = List.copyOf(points);
+    }
+
+    public static class Point {
+        private final LocalDate date;
+        private final double balance;
+        private final double change;
+
+        public Point(LocalDate date, double balance, double change) {
+            this.date = date;
+            this.balance = balance;
+            this.change = change;
+        }
+
+        public LocalDate getDate() { return date; }
+        public double getBalance() { return balance; }
+        public double getChange() { return change; }
+    }
+
+    // Getters
+    public String getCurrency() { return currency; }
+    public String getInterval() { return interval; }
+    public double getOpening() { return opening; }
+    public List<Point> getPoints() { return points; }
+}
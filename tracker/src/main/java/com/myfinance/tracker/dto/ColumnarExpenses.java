@@ -0,0 +1,70 @@
+package com.myfinance.tracker.dto;
+
+import com.myfinance.tracker.model.Expense;
+
+import java.util.List;
+
+/**
+ * Column-oriented form of a {@code List<Expense>}, same layout rules as
+ * {@link ColumnarTransactions}.
+ */
+public class ColumnarExpenses {
+
+    private final int count;
+    private final long[] id;
+    private final String[] title;
+    private final double[] amount;
+    private final long[] date;
+    private final String[] categories;
+    private final int[] category;
+    private final String[] currencies;
+    private final int[] currency;
+
+    private ColumnarExpenses(int count, long[] id, String[] title, double[] amount, long[] date,
+                             String[] categories, int[] category, String[] currencies, int[] currency) {
+        this.count = count;
+        this.id = id;
+        this.title = title;
+        this.amount = amount;
+        this.date = date;
+        this.categories = categories;
+        this.category = category;
+        this.currencies = currencies;
+        this.currency = currency;
+    }
+
+    public static ColumnarExpenses from(List<Expense> rows) {
+        int n = rows.size();
+        long[] id = new long[n];
+        String[] title = new String[n];
+        double[] amount = new double[n];
+        long[] date = new long[n];
+        int[] category = new int[n];
+        int[] currency = new int[n];
+        ColumnarTransactions.Dictionary categoryDict = new ColumnarTransactions.Dictionary();
+        ColumnarTransactions.Dictionary currencyDict = new ColumnarTransactions.Dictionary();
+
+        for (int i = 0; i < n; i++) {
+            Expense e = rows.get(i);
+            id[i] = e.getId() == null ? 0L : e.getId();
+            title[i] = e.getTitle();
+            amount[i] = e.getAmount() == null ? 0.0 : e.getAmount();
+            date[i] = e.getDate() == null ? 0L : e.getDate().toEpochDay();
+            category[i] = categoryDict.encode(e.getCategory());
+            currency[i] = currencyDict.encode(e.getCurrency());
+        }
+        return new ColumnarExpenses(n, id, title, amount, date, categoryDict.values(), category,
+                currencyDict.values(), currency);
+    }
+
+    // Getters
+    public int getCount() { return count; }
+    public long[] getId() { return id; }
+    public String[] getTitle() { return title; }
+    public double[] getAmount() { return amount; }
+    public long[] getDate() { return date; }
+    public String[] getCategories() { return categories; }
+    public int[] getCategory() { return category; }
+    public String[] getCurrencies() { return currencies; }
+    public int[] getCurrency() { return currency; }
+}
@@ -0,0 +1,108 @@
+package com.myfinance.tracker.dto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented form of a {@code List<TransactionDto>}: one array per field instead of one
+ * object per row, so field names are written once per response. Dates are epoch days and
+ * type/category/currency are indexes into small dictionaries ({@code -1} = no category).
+ */
+public class ColumnarTransactions {
+
+    public static final String MEDIA_TYPE = "application/vnd.myfinance.columnar+json";
+
+    private final int count;
+    private final long[] id;
+    private final String[] description;
+    private final double[] amount;
+    private final long[] date;
+    private final String[] types;
+    private final int[] type;
+    private final String[] categories;
+    private final int[] category;
+    private final String[] currencies;
+    private final int[] currency;
+
+    private ColumnarTransactions(int count, long[] id, String[] description, double[] amount, long[] date,
+                                 String[] types, int[] type, String[] categories, int[] category,
+                                 String[] currencies, int[] currency) {
+        this.count = count;
+        this.id = id;
+        this.description = description;
+        this.amount = amount;
+        this.date = date;
+        this.types = types;
+        this.type = type;
+        this.categories = categories;
+        this.category = category;
+        this.currencies = currencies;
+        this.currency = currency;
+    }
+
+    public static ColumnarTransactions from(List<TransactionDto> rows) {
+        int n = rows.size();
+        long[] id = new long[n];
+        String[] description = new String[n];
+        double[] amount = new double[n];
+        long[] date = new long[n];
+        int[] type = new int[n];
+        int[] category = new int[n];
+        int[] currency = new int[n];
+        Dictionary typeDict = new Dictionary();
+        Dictionary categoryDict = new Dictionary();
+        Dictionary currencyDict = new Dictionary();
+
+        for (int i = 0; i < n; i++) {
+            TransactionDto t = rows.get(i);
+            id[i] = t.getId() == null ? 0L : t.getId();
+            description[i] = t.getDescription();
+            amount[i] = t.getAmount();
+            date[i] = t.getDate() == null ? 0L : t.getDate().toEpochDay();
+            type[i] = typeDict.encode(t.getType());
+            category[i] = categoryDict.encode(t.getCategoryName());
+            currency[i] = currencyDict.encode(t.getCurrency());
+        }
+        return new ColumnarTransactions(n, id, description, amount, date,
+                typeDict.values(), type, categoryDict.values(), category,
+                currencyDict.values(), currency);
+    }
+
+    // Getters
+    public int getCount() { return count; }
+    public long[] getId() { return id; }
+    public String[] getDescription() { return description; }
+    public double[] getAmount() { return amount; }
+    public long[] getDate() { return date; }
+    public String[] getTypes() { return types; }
+    public int[] getType() { return type; }
+    public String[] getCategories() { return categories; }
+    public int[] getCategory() { return category; }
+    public String[] getCurrencies() { return currencies; }
+    public int[] getCurrency() { return currency; }
+
+    // Helper: assigns dense codes in first-seen order; null maps to -1
+    static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String[] values() {
+            return values.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.myfinance.tracker.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filter for /transactions/filter and /expenses/filter, bound from query parameters. Every
+ * field is optional and they combine with AND; {@code categories} matches any of the names,
+ * {@code description} is a case-insensitive substring (the title, for expenses). Results come
+ * newest first, {@code limit} at a time; pass a page's {@code nextCursor} as {@code after}.
+ * LedgerFilterService rejects shapes no index can serve.
+ */
+@Data
+@NoArgsConstructor
+public class LedgerFilter {
+    private Double minAmount;
+    private Double maxAmount;
+    private String type;
+    private List<String> categories = new ArrayList<>();
+    private String description;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate start;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate end;
+
+    private int limit = 50;
+    private String after;
+}
@@ -0,0 +1,21 @@
+package com.myfinance.tracker.dto;
+
+import java.util.List;
+
+/**
+ * One page of a LedgerFilter result. {@code nextCursor} is the (date, id) of the last row,
+ * "2026-07-14:1234"; null when there are no more rows.
+ */
+public class LedgerPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public LedgerPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
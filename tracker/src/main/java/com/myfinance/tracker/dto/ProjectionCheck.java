@@ -0,0 +1,36 @@
+package com.myfinance.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of replaying a projection from the start of the journal and comparing it with the
+ * live (snapshot + tail) state and with what the report queries return, all at the same event.
+ * Values are per currency, before any conversion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionCheck {
+    private String name;
+    private long lastEventId;
+    private int eventsReplayed;
+    private boolean matches;
+    private boolean replaced;
+    private List<Difference> differences;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Difference {
+        private String key;
+        private String currency;
+        private Double live;
+        private Double rebuilt;
+        // the report endpoints' own queries over the ledger tables and archive totals
+        private Double reported;
+    }
+}
@@ -0,0 +1,20 @@
+package com.myfinance.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * A ledger projection as of journal event {@code lastEventId}: key (month, category,
+ * income/expense) → currency → total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionView {
+    private String name;
+    private long lastEventId;
+    private Map<String, Map<String, Double>> values;
+}
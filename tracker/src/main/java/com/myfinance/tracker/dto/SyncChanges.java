@@ -0,0 +1,51 @@
+package com.myfinance.tracker.dto;
+
+import com.myfinance.tracker.model.Expense;
+
+import java.util.List;
+
+/**
+ * Answer to {@code /sync?since=N}: rows created or updated and rows deleted after change
+ * sequence N, up to and including {@code seq}. The client stores {@code seq} and sends it as
+ * {@code since} next time; while {@code more} is true it should ask again straight away.
+ */
+public class SyncChanges {
+
+    private final long since;
+    private final long seq;
+    private final boolean more;
+    private final List<TransactionDto> transactions;
+    private final List<Expense> expenses;
+    private final List<Deleted> deleted;
+
+    public SyncChanges(long since, long seq, boolean more, List<TransactionDto> transactions,
+                       List<Expense> expenses, List<Deleted> deleted) {
+        this.since = since;
+        this.seq = seq;
+        this.more = more;
+        this.transactions = transactions;
+        this.expenses = expenses;
+        this.deleted = deleted;
+    }
+
+    public static class Deleted {
+        private final String kind;
+        private final Long id;
+
+        public Deleted(String kind, Long id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        public String getKind() { return kind; }
+        public Long getId() { return id; }
+    }
+
+    // Getters
+    public long getSince() { return since; }
+    public long getSeq() { return seq; }
+    public boolean isMore() { return more; }
+    public List<TransactionDto> getTransactions() { return transactions; }
+    public List<Expense> getExpenses() { return expenses; }
+    public List<Deleted> getDeleted() { return deleted; }
+}
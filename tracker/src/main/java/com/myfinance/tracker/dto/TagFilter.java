@@ -0,0 +1,28 @@
+package com.myfinance.tracker.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boolean filter over the caller's transactions, answered by TransactionBitmaps: every tag in
+ * {@code tags}, at least one of {@code anyTags}, one of {@code categories}, the type and the
+ * month range must match, and nothing in {@code notTags}/{@code notCategories} may. Empty
+ * lists and null fields do not restrict. Bound from query parameters, e.g.
+ * {@code ?tags=work,trip-2026&from=2026-07&to=2026-09&notCategories=groceries}.
+ */
+@Data
+@NoArgsConstructor
+public class TagFilter {
+    private List<String> tags = new ArrayList<>();
+    private List<String> anyTags = new ArrayList<>();
+    private List<String> notTags = new ArrayList<>();
+    private List<String> categories = new ArrayList<>();
+    private List<String> notCategories = new ArrayList<>();
+    private String type;
+    private YearMonth from;
+    private YearMonth to;
+}
@@ -0,0 +1,21 @@
+package com.myfinance.tracker.dto;
+
+import java.util.List;
+
+/**
+ * Result of a TagFilter: how many live transactions match, and the {@code limit} most
+ * recently written of them, newest date first.
+ */
+public class TaggedTransactions {
+
+    private final int total;
+    private final List<TransactionDto> transactions;
+
+    public TaggedTransactions(int total, List<TransactionDto> transactions) {
+        this.total = total;
+        this.transactions = transactions;
+    }
+
+    public int getTotal() { return total; }
+    public List<TransactionDto> getTransactions() { return transactions; }
+}
@@ -0,0 +1,56 @@
+package com.myfinance.tracker.dto;
+
+import java.util.List;
+
+/**
+ * Heaviest merchants by amount (base currency) or by number of debits. From the sketch,
+ * each weight may overstate the true value by up to its {@code error}, and a merchant
+ * that is not listed weighs at most {@code maxUnlisted}. {@code guaranteed} means the
+ * merchant is in the true top N whatever the errors are. Exact answers have no error.
+ */
+public class TopMerchants {
+
+    private final String by;
+    private final boolean exact;
+    private final String currency;
+    private final double total;
+    private final double maxUnlisted;
+    private final List<Merchant> merchants;
+
+    public TopMerchants(String by, boolean exact, String currency, double total, double maxUnlisted,
+                        List<Merchant> merchants) {
+        this.by = by;
+        this.exact = exact;
+        this.currency = currency;
+        this.total = total;
+        this.maxUnlisted = maxUnlisted;
+        this.merchants = merchants;
+    }
+
+    public static class Merchant {
+        private final String name;
+        private final double weight;
+        private final double error;
+        private final boolean guaranteed;
+
+        public Merchant(String name, double weight, double error, boolean guaranteed) {
+            this.name = name;
+            this.weight = weight;
+            this.error = error;
+            this.guaranteed = guaranteed;
+        }
+
+        public String getName() { return name; }
+        public double getWeight() { return weight; }
+        public double getError() { return error; }
+        public boolean isGuaranteed() { return guaranteed; }
+    }
+
+    // Getters
+    public String getBy() { return by; }
+    public boolean isExact() { return exact; }
+    public String getCurrency() { return currency; }
+    public double getTotal() { return total; }
+    public double getMaxUnlisted() { return maxUnlisted; }
+    public List<Merchant> getMerchants() { return merchants; }
+}
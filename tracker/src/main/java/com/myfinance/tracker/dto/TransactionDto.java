@@ -1,6 +1,11 @@
 package com.myfinance.tracker.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Transaction;
+
 import java.time.LocalDate;
+import java.util.List;
 
 public class TransactionDto {
     private Long id;
@@ -9,15 +14,40 @@ public class TransactionDto {
     private LocalDate date;
     private String type;
     private String categoryName;
+    private String currency;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> tags;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean archived; // in cold storage: read-only, PUT/DELETE of its id are refused
 
     // Constructor
     public TransactionDto(Long id, String description, double amount, LocalDate date, String type, String categoryName) {
+        this(id, description, amount, date, type, categoryName, null);
+    }
+
+    public TransactionDto(Long id, String description, double amount, LocalDate date, String type,
+                          String categoryName, String currency) {
         this.id = id;
         this.description = description;
         this.amount = amount;
         this.date = date;
         this.type = type;
         this.categoryName = categoryName;
+        this.currency = currency;
+    }
+
+    public static TransactionDto of(Transaction t) {
+        TransactionDto dto = new TransactionDto(t.getId(), t.getDescription(), t.getAmount(), t.getDate(), t.getType(),
+                t.getCategory() != null ? t.getCategory().getName() : null, t.getCurrency());
+        dto.setTags(t.getTags());
+        return dto;
+    }
+
+    public static TransactionDto archived(LedgerEntry e) {
+        TransactionDto dto = new TransactionDto(e.getId(), e.getDescription(), e.getAmount(), e.getDate(), e.getType(),
+                e.getCategory(), e.getCurrency());
+        dto.archived = true;
+        return dto;
     }
 
     // Getters
@@ -27,4 +57,9 @@ public class TransactionDto {
     public LocalDate getDate() { return date; }
     public String getType() { return type; }
     public String getCategoryName() { return categoryName; }
+    public String getCurrency() { return currency; }
+    public List<String> getTags() { return tags; }
+    public boolean isArchived() { return archived; }
+
+    public void setTags(List<String> tags) { this.tags = tags; }
 }
@@ -0,0 +1,59 @@
+package com.myfinance.tracker.event;
+
+import com.myfinance.tracker.model.User;
+
+/**
+ * Published by TransactionService/ExpenseService for every row they create, update or
+ * delete, including the mirrored Transaction/Expense copies. {@code before} is null for
+ * creates and {@code after} is null for deletes.
+ */
+public class LedgerChangedEvent {
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    private final Long userId;
+    private final String username;
+    private final String baseCurrency;
+    private final Action action;
+    private final LedgerEntry before;
+    private final LedgerEntry after;
+
+    public LedgerChangedEvent(Long userId, String username, String baseCurrency, Action action,
+                              LedgerEntry before, LedgerEntry after) {
+        this.userId = userId;
+        this.username = username;
+        this.baseCurrency = baseCurrency;
+        this.action = action;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static LedgerChangedEvent created(User user, LedgerEntry after) {
+        return new LedgerChangedEvent(user.getId(), user.getUsername(), user.getBaseCurrency(),
+                Action.CREATED, null, after);
+    }
+
+    public static LedgerChangedEvent updated(User user, LedgerEntry before, LedgerEntry after) {
+        return new LedgerChangedEvent(user.getId(), user.getUsername(), user.getBaseCurrency(),
+                Action.UPDATED, before, after);
+    }
+
+    public static LedgerChangedEvent deleted(User user, LedgerEntry before) {
+        return new LedgerChangedEvent(user.getId(), user.getUsername(), user.getBaseCurrency(),
+                Action.DELETED, before, null);
+    }
+
+    // the row as it is now, or as it was for deletes
+    public LedgerEntry getEntry() {
+        return after != null ? after : before;
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    // user's base currency at write time; null = fx.default-currency
+    public String getBaseCurrency() { return baseCurrency; }
+    public Action getAction() { return action; }
+    public LedgerEntry getBefore() { return before; }
+    public LedgerEntry getAfter() { return after; }
+}
@@ -0,0 +1,90 @@
+package com.myfinance.tracker.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Immutable copy of a transaction or expense row at the moment of a write, so listeners
+ * never touch (possibly lazy or already deleted) entities. Read back from the ledger journal
+ * as JSON.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LedgerEntry {
+
+    public static final String TRANSACTION = "transaction";
+    public static final String EXPENSE = "expense";
+
+    private final String kind;
+    private final Long id;
+    private final String type;
+    private final double amount;
+    private final String currency;
+    private final LocalDate date;
+    private final Long categoryId;
+    private final String category;
+    private final String description;
+    private final List<String> tags;
+
+    public LedgerEntry(String kind, Long id, String type, double amount, String currency, LocalDate date,
+                       Long categoryId, String category, String description) {
+        this(kind, id, type, amount, currency, date, categoryId, category, description, List.of());
+    }
+
+    @JsonCreator
+    public LedgerEntry(@JsonProperty("kind") String kind, @JsonProperty("id") Long id,
+                       @JsonProperty("type") String type, @JsonProperty("amount") double amount,
+                       @JsonProperty("currency") String currency, @JsonProperty("date") LocalDate date,
+                       @JsonProperty("categoryId") Long categoryId, @JsonProperty("category") String category,
+                       @JsonProperty("description") String description, @JsonProperty("tags") List<String> tags) {
+        this.kind = kind;
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.currency = currency;
+        this.date = date;
+        this.categoryId = categoryId;
+        this.category = category;
+        this.description = description;
+        this.tags = tags != null ? tags : List.of();
+    }
+
+    public static LedgerEntry of(Transaction t) {
+        return new LedgerEntry(TRANSACTION, t.getId(), t.getType(), t.getAmount(), t.getCurrency(), t.getDate(),
+                t.getCategory() != null ? t.getCategory().getId() : null,
+                t.getCategory() != null ? t.getCategory().getName() : null,
+                t.getDescription(),
+                t.getTags() != null ? List.copyOf(t.getTags()) : List.of());
+    }
+
+    public static LedgerEntry of(Expense e) {
+        return new LedgerEntry(EXPENSE, e.getId(), "debit", e.getAmount() == null ? 0.0 : e.getAmount(),
+                e.getCurrency(), e.getDate(), e.getCategoryId(), e.getCategory(), e.getTitle());
+    }
+
+    public boolean isTransaction() {
+        return TRANSACTION.equals(kind);
+    }
+
+    public boolean isCredit() {
+        return "credit".equalsIgnoreCase(type);
+    }
+
+    // Getters
+    public String getKind() { return kind; }
+    public Long getId() { return id; }
+    public String getType() { return type; }
+    public double getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public LocalDate getDate() { return date; }
+    public Long getCategoryId() { return categoryId; }
+    public String getCategory() { return category; }
+    public String getDescription() { return description; }
+    // transactions only; never null
+    public List<String> getTags() { return tags; }
+}
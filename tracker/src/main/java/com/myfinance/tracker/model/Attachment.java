@@ -0,0 +1,51 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A receipt attached to an expense or transaction. Only metadata lives here; the bytes are a
+ * file in AttachmentStore named by {@code sha256}, shared by every row with the same content.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "attachments",
+       uniqueConstraints = @UniqueConstraint(name = "uk_attachments_entry_sha",
+               columnNames = {"user_id", "entry_kind", "entry_id", "sha256"}),
+       indexes = {
+        @Index(name = "idx_attachments_entry", columnList = "user_id, entry_kind, entry_id"),
+        @Index(name = "idx_attachments_sha", columnList = "sha256")
+})
+public class Attachment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // LedgerEntry.TRANSACTION or LedgerEntry.EXPENSE
+    @Column(name = "entry_kind", nullable = false, length = 16)
+    private String entryKind;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    private long size;
+
+    @Column(length = 64)
+    private String contentType; // detected from the content, not taken from the request
+
+    private String fileName;
+
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
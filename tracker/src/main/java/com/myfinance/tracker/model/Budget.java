@@ -0,0 +1,46 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Monthly spending limit for one category. {@code spent} is a running counter for the
+ * month starting at {@code periodStart}; it is adjusted on every debit write instead of
+ * being recomputed from the expense table.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "budgets",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "category"}))
+public class Budget {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(nullable = false)
+    private Double monthlyLimit;
+
+    // fraction of the limit that triggers the early warning, e.g. 0.8
+    private Double alertThreshold;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate periodStart;
+
+    private double spent;
+
+    // 0 = below threshold, 1 = threshold crossed, 2 = limit exceeded
+    private int alertLevel;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
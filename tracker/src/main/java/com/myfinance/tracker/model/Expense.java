@@ -1,33 +1,81 @@
 package com.myfinance.tracker.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
 import java.time.LocalDate;
+import java.util.List;
 
+/**
+ * Read-only view of the debit rows of {@code transactions}: every debit is an expense, with
+ * the same id. Writes go through ExpenseService, which writes the transaction. The queries
+ * over this entity read {@code transactions} and its indexes directly (MySQL merges the
+ * derived table). Rows of the former {@code expense} table are LegacyExpense until
+ * ExpenseMergeService has folded them in.
+ *
+ * Only the category id is stored; {@code category} is the name, filled in from
+ * CategoryDictionary for the response, and the name clients send when writing.
+ */
 @Entity
+@Immutable
+@Subselect("SELECT t.id, t.user_id, t.description AS title, t.amount, t.category_id, t.currency, " +
+           "t.change_seq, t.date FROM transactions t WHERE LOWER(t.type) = 'debit'")
+@Synchronize("transactions")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "expense")
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String title;
     private Double amount;
+
+    @Column(name = "category_id")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long categoryId;
+
+    @Transient
     private String category;
 
-    @Column(nullable = false)
+    @Column(length = 3)
+    private String currency; // ISO 4217; null = legacy default currency
+
+    @Column(name = "change_seq")
+    private Long changeSeq; // per-user write sequence for /sync; null = written before it existed
+
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate date;
 
-    @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
-    @JsonIgnoreProperties("user")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    @JsonIgnore
 
     private User user;
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private List<SpendingAnomaly> anomalies; // raised by the write that returned this row; not stored
+
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean archived; // read back from cold storage by a filter; archived rows are read-only
+
+    // the expense a debit transaction appears as
+    public static Expense of(Transaction t) {
+        return new Expense(t.getId(), t.getDescription(), t.getAmount(),
+                t.getCategory() != null ? t.getCategory().getId() : null,
+                t.getCategory() != null ? t.getCategory().getName() : null,
+                t.getCurrency(), t.getChangeSeq(), t.getDate(), t.getUser(), t.getAnomalies(), false);
+    }
 }
@@ -0,0 +1,57 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Durable half of the Idempotency-Key store (see IdempotencyStore). A row is inserted as
+ * IN_PROGRESS before the request runs, so the unique (owner, idem_key) constraint decides
+ * which of several concurrent duplicates executes; it is then filled with the response that
+ * later retries replay until {@code expiresAt}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner", "idem_key"}),
+       indexes = @Index(columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+    public enum Status { IN_PROGRESS, COMPLETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // username of the caller; keys are scoped per user
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(name = "idem_key", nullable = false, length = 128)
+    private String key;
+
+    // SHA-256 of method, path and body; a reused key with a different request is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private Integer responseStatus;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(length = 1024 * 1024)
+    private byte[] responseBody;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    // refreshed while the request runs; an IN_PROGRESS row whose heartbeat stops is taken over
+    private LocalDateTime heartbeatAt;
+}
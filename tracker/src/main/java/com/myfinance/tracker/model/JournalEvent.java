@@ -0,0 +1,60 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the append-only ledger journal (LedgerJournal): a create, update or delete of a
+ * transaction or expense, with the row before and after as LedgerEntry JSON. Rows are only
+ * ever inserted. A user's events are in commit order by {@code id}, because every ledger
+ * write holds the user row lock (ChangeSequence) while it appends.
+ *
+ * {@code BASELINE} marks where replay starts: the rows that existed when the user's journal
+ * began follow it as CREATED events carrying the baseline's change sequence. They are copied a
+ * page at a time; each page ends with {@code BASELINE_PAGE} (entryId = the last row copied) and
+ * the last with {@code BASELINE_END}. Writes may commit between pages, so until BASELINE_END a
+ * replay skips events of rows the copy has not reached yet: the copy reads their current state.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_journal",
+       indexes = @Index(name = "idx_ledger_journal_user", columnList = "user_id, id"))
+public class JournalEvent {
+
+    public static final String BASELINE = "BASELINE";
+    public static final String BASELINE_PAGE = "BASELINE_PAGE";
+    public static final String BASELINE_END = "BASELINE_END";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+
+    private Long changeSeq;
+
+    @Column(nullable = false, length = 16)
+    private String action; // LedgerChangedEvent.Action name, or BASELINE
+
+    @Column(length = 16)
+    private String kind;
+
+    private Long entryId;
+
+    @Column(name = "before_json", length = 2000)
+    @JsonRawValue
+    private String before;
+
+    @Column(name = "after_json", length = 2000)
+    @JsonRawValue
+    private String after;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,56 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One closed year of a user's transactions or expenses, moved out of the hot tables by
+ * LedgerArchiveService. {@code payload} is the gzip'd column-per-field encoding written by
+ * LedgerArchiveCodec; the row is rewritten (and {@code version} bumped) when late entries
+ * for the same year are archived.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_archive",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "kind", "archive_year"}))
+public class LedgerArchive {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // LedgerEntry.TRANSACTION or LedgerEntry.EXPENSE
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Column(name = "archive_year", nullable = false)
+    private int year;
+
+    private int rowCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate firstDate;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastDate;
+
+    private LocalDateTime archivedAt;
+
+    @Version
+    private long version;
+
+    @Lob
+    @Column(nullable = false, length = 64 * 1024 * 1024)
+    @JsonIgnore
+    private byte[] payload;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
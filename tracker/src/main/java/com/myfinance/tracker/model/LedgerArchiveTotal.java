@@ -0,0 +1,58 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Pre-summed amounts of one {@link LedgerArchive} row per (day, type, currency, category),
+ * rewritten together with the archive. Summaries and reports over archived years sum these
+ * in SQL instead of decoding whole years; the day stays in the key because foreign amounts
+ * convert at the rate of their own day.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_archive_totals",
+       indexes = @Index(name = "idx_archive_totals_user_kind_date", columnList = "user_id, kind, entry_date"))
+public class LedgerArchiveTotal {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "archive_id", nullable = false)
+    private Long archiveId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // LedgerEntry.TRANSACTION or LedgerEntry.EXPENSE, as on the archive
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Column(name = "archive_year", nullable = false)
+    private int year;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate date;
+
+    @Column(length = 16)
+    private String type;
+
+    @Column(length = 3)
+    private String currency; // null = legacy default currency
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    private String category; // name when the rows were archived
+
+    private double amount;
+
+    private int entries;
+
+    public boolean isCredit() {
+        return "credit".equalsIgnoreCase(type);
+    }
+}
@@ -0,0 +1,38 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind when a transaction or expense is deleted, so /sync can tell clients to
+ * drop their copy. Carries the change sequence of the deleting write.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_tombstones",
+       indexes = @Index(name = "idx_tombstones_user_seq", columnList = "user_id, change_seq"))
+public class LedgerTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // LedgerEntry.TRANSACTION or LedgerEntry.EXPENSE
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
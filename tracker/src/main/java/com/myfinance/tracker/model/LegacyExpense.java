@@ -0,0 +1,38 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * A row of the former {@code expense} table, which held a second copy of every debit. Nothing
+ * writes here any more; ExpenseMergeService folds the remaining rows into {@code transactions}
+ * and deletes them.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "expense",
+       indexes = @Index(name = "idx_expense_user_seq", columnList = "user_id, change_seq"))
+public class LegacyExpense {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String title;
+    private Double amount;
+    private String category;
+
+    @Column(length = 3)
+    private String currency;
+
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+}
@@ -0,0 +1,43 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A user's top merchants as two SpaceSaving summaries over normalised debit descriptions:
+ * one weighted by amount (base currency), one by number of debits. Both payloads are
+ * SpaceSaving.encode() output, a few KB at the default capacity, rewritten on every debit.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "merchant_sketches",
+       uniqueConstraints = @UniqueConstraint(columnNames = "user_id"))
+public class MerchantSketch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Lob
+    @Column(length = 1024 * 1024)
+    @JsonIgnore
+    private byte[] byAmount;
+
+    @Lob
+    @Column(length = 1024 * 1024)
+    @JsonIgnore
+    private byte[] byCount;
+
+    private LocalDateTime updatedAt;
+
+    // last exact rebuild; null = built only from writes since the sketch was introduced
+    private LocalDateTime rebuiltAt;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
@@ -0,0 +1,36 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * An id from the former {@code expense} table that ExpenseMergeService folded into a debit
+ * transaction with a different id. Clients that have not synced since may still send the old
+ * id, which can now name another row, so /expenses refuses it for a while (see ExpenseService).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "merged_expense_ids",
+       uniqueConstraints = @UniqueConstraint(name = "uk_merged_expense_user_legacy", columnNames = {"user_id", "legacy_id"}))
+public class MergedExpenseId {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "legacy_id", nullable = false)
+    private Long legacyId;
+
+    // the debit transaction (expense) the legacy row lives on as now
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private LocalDateTime mergedAt;
+}
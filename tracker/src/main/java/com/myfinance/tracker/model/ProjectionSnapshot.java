@@ -0,0 +1,38 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A LedgerProjection's state for one user after journal event {@code lastEventId}, so reading
+ * the projection replays only the events after it. Replaced in place; {@code version} is the
+ * projection's version when it was written, and a snapshot of another version is ignored.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_projection_snapshots",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "name"}))
+public class ProjectionSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 32)
+    private String name;
+
+    private int version;
+
+    private long lastEventId;
+
+    @Lob
+    @Column(length = 1024 * 1024)
+    private String state; // JSON object of key → value
+
+    private LocalDateTime createdAt;
+}
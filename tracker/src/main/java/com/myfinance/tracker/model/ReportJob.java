@@ -0,0 +1,64 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A background report run by ReportJobService. The result is a file in the local report
+ * store; {@code dataVersion} records the user's change sequence it was built from, so a DONE
+ * job can be handed out again for an identical request until the user's ledger changes.
+ * The instance that queued a job refreshes {@code heartbeatAt} until it finishes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "report_jobs")
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // only "annual-statement" for now
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    // "csv" or "json"
+    @Column(nullable = false, length = 8)
+    private String format;
+
+    private int startYear;
+    private int endYear;
+
+    @Column(length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String error;
+
+    private Long resultBytes;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime heartbeatAt;
+
+    @JsonIgnore
+    private String dataVersion;
+
+    @JsonIgnore
+    private String resultPath;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
@@ -0,0 +1,39 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "spending_anomalies", indexes = @Index(columnList = "user_id, createdAt"))
+public class SpendingAnomaly {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String category;
+    private String kind;      // "AMOUNT" or "FREQUENCY"
+    private String entryKind; // LedgerEntry.TRANSACTION or LedgerEntry.EXPENSE
+    private Long entryId;
+
+    private double amount;    // base currency
+    private double mean;      // category mean before this debit
+    private double stdDev;
+    private double score;     // z-score for AMOUNT, recent/long-run rate ratio for FREQUENCY
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
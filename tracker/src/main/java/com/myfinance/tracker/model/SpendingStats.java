@@ -0,0 +1,48 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Running statistics of one user's debits in one category, in the user's base currency.
+ * {@code mean}/{@code m2} are Welford accumulators (variance = m2 / (count - 1)) and
+ * {@code rate} is an exponentially decayed debit count as of {@code rateDay}. The row is
+ * updated in place on every debit write; history is never rescanned.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "spending_stats",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "category"}))
+public class SpendingStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String category;
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    private double rate;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate rateDay;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate firstDay;
+
+    // true while the decayed rate is above the burst threshold, so a burst is flagged once
+    private boolean burst;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+}
@@ -0,0 +1,30 @@
+package com.myfinance.tracker.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transaction tags in one column, comma-separated ("trip-2026,work"); no tags is NULL. Tags
+ * never contain commas (TransactionService.normaliseTags), and keeping them on the row means
+ * reading a transaction never costs a second query.
+ */
+@Converter
+public class TagsConverter implements AttributeConverter<List<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<String> tags) {
+        return tags == null || tags.isEmpty() ? null : String.join(",", tags);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        if (column == null || column.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(column.split(",")));
+    }
+}
@@ -1,11 +1,21 @@
 package com.myfinance.tracker.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+       indexes = {
+           @Index(name = "idx_transactions_user_seq", columnList = "user_id, change_seq"),
+           // LedgerFilterService access paths (the date one is also created by db/mysql/partition-ledger.sql)
+           @Index(name = "idx_transactions_user_date", columnList = "user_id, date"),
+           @Index(name = "idx_transactions_user_category", columnList = "user_id, category_id, date")
+       })
 public class Transaction {
 
     @Id
@@ -14,12 +24,24 @@ public class Transaction {
 
     private double amount;
 
+    @Column(nullable = false) // part of the partitioned primary key (db/mysql/partition-ledger.sql)
     private LocalDate date;
 
     private String description;
 
     private String type; // "credit" or "debit"
 
+    @Column(length = 3)
+    private String currency; // ISO 4217; null on rows written before currencies existed
+
+    @Column(name = "change_seq")
+    private Long changeSeq; // per-user write sequence for /sync; null on rows written before it existed
+
+    @Convert(converter = TagsConverter.class)
+    @Column(length = 400)
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> tags = new ArrayList<>(); // lower-case, distinct, sorted (TransactionService.normaliseTags)
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonIgnoreProperties({"transactions", "password"})
@@ -30,6 +52,11 @@ public class Transaction {
     @JoinColumn(name = "category_id")
     private Category category;
 
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private List<SpendingAnomaly> anomalies; // raised by the write that returned this row; not stored
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -66,6 +93,27 @@ public class Transaction {
         this.type = type;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
     public User getUser() {
         return user;
     }
@@ -79,4 +127,11 @@ public class Transaction {
     public void setCategory(Category category) {
         this.category = category;
     }
+
+    public List<SpendingAnomaly> getAnomalies() {
+        return anomalies;
+    }
+    public void setAnomalies(List<SpendingAnomaly> anomalies) {
+        this.anomalies = anomalies;
+    }
 }
@@ -0,0 +1,37 @@
+package com.myfinance.tracker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Saved copy of a user's in-memory tag/category/type/month bitmaps (TransactionBitmaps.encode()),
+ * so the index is back after a restart by replaying only the writes after {@code changeSeq}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "transaction_index_snapshots",
+       uniqueConstraints = @UniqueConstraint(columnNames = "user_id"))
+public class TransactionIndexSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Lob
+    @Column(length = 64 * 1024 * 1024)
+    @JsonIgnore
+    private byte[] data;
+
+    // the user's change sequence the bitmaps include
+    private long changeSeq;
+
+    private int rowCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -16,11 +16,24 @@ public class User {
     private String password;
     private String email;
 
+    @Column(length = 3)
+    private String baseCurrency; // reports are converted into this; null = fx.default-currency
+
+    // last change sequence handed out to this user's ledger writes (ChangeSequence); only
+    // ever written by its atomic UPDATE, never by entity flushes
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long changeSeq;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     @JsonIgnore  // 👈 This prevents infinite recursion
     private List<Transaction> transactions;
 
     // Getters and Setters
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
     public Long getId() {
         return id;
     }
@@ -49,6 +62,13 @@ public class User {
         this.email = email;
     }
 
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
     public List<Transaction> getTransactions() {
         return transactions;
     }
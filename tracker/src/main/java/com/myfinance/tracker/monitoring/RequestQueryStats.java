@@ -0,0 +1,84 @@
+package com.myfinance.tracker.monitoring;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * JDBC activity of the current HTTP request, kept in a thread-local between
+ * RequestTimingFilter's {@link #begin()} and {@link #end()}. Statements run outside a
+ * request (scheduled jobs, report workers) are not counted.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long statementNanos;
+    private long slowestNanos;
+    private String slowestSql;
+    private int connections;
+    private long connectionHoldNanos;
+    private String user;
+
+    private RequestQueryStats() {
+    }
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        statementNanos += nanos;
+        if (nanos > slowestNanos) {
+            slowestNanos = nanos;
+            slowestSql = sql;
+        }
+        if (user == null) {
+            // the first statements (JwtFilter loading the user) run before authentication: keep trying
+            user = nameOf(SecurityContextHolder.getContext());
+        }
+    }
+
+    // the caller once the request is authenticated; anything earlier leaves it open
+    void recordUser(SecurityContext context) {
+        if (user == null && context != null) {
+            user = nameOf(context);
+        }
+    }
+
+    void recordConnection(long heldNanos) {
+        connections++;
+        connectionHoldNanos += heldNanos;
+    }
+
+    public int getStatements() { return statements; }
+    public long getStatementNanos() { return statementNanos; }
+    public long getSlowestNanos() { return slowestNanos; }
+    public String getSlowestSql() { return slowestSql; }
+    public int getConnections() { return connections; }
+    public long getConnectionHoldNanos() { return connectionHoldNanos; }
+    public String getUser() {
+        if (user == null) {
+            user = nameOf(SecurityContextHolder.getContext());
+        }
+        return user != null ? user : "-";
+    }
+
+    private static String nameOf(SecurityContext context) {
+        Authentication auth = context.getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken ? null : auth.getName();
+    }
+}
@@ -0,0 +1,87 @@
+package com.myfinance.tracker.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Outermost filter: opens the per-request JDBC counters and, when the whole request took
+ * longer than {@code monitoring.slow-request-ms}, logs one summary line to
+ * {@code tracker.slowrequest} with the statement count, time spent in JDBC, connection
+ * checkouts and hold time, and the slowest statement. Streaming (async) requests are skipped; they are long by design.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("tracker.slowrequest");
+    private static final int MAX_SQL_CHARS = 300;
+    // the SSE stream carries its JWT as ?access_token= (see JwtFilter)
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("(^|&)access_token=[^&]*");
+
+    private final long thresholdNanos;
+
+    public RequestTimingFilter(@Value("${monitoring.slow-request-ms:1000}") long thresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestQueryStats stats = RequestQueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            // the chain has cleared the security context; JwtFilter left a copy on the request
+            stats.recordUser((SecurityContext) request.getAttribute(
+                    RequestAttributeSecurityContextRepository.DEFAULT_REQUEST_ATTR_NAME));
+            long nanos = System.nanoTime() - start;
+            if (nanos >= thresholdNanos && !request.isAsyncStarted()) {
+                logSummary(request, response, stats, nanos);
+            }
+        }
+    }
+
+    private void logSummary(HttpServletRequest request, HttpServletResponse response,
+                            RequestQueryStats stats, long nanos) {
+        String sql = stats.getSlowestSql();
+        if (sql != null && sql.length() > MAX_SQL_CHARS) {
+            sql = sql.substring(0, MAX_SQL_CHARS) + "…";
+        }
+        String query = redact(request.getQueryString());
+        log.warn("slow_request method={} path=\"{}\" status={} user={} ms={} statements={} db_ms={} connections={} conn_held_ms={} slowest_ms={} slowest_sql=\"{}\"",
+                request.getMethod(),
+                query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query,
+                response.getStatus(),
+                stats.getUser(),
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                stats.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(stats.getStatementNanos()),
+                stats.getConnections(),
+                TimeUnit.NANOSECONDS.toMillis(stats.getConnectionHoldNanos()),
+                TimeUnit.NANOSECONDS.toMillis(stats.getSlowestNanos()),
+                sql == null ? "" : sql);
+    }
+
+    static String redact(String query) {
+        return query == null ? null : ACCESS_TOKEN.matcher(query).replaceAll("$1access_token=[redacted]");
+    }
+}
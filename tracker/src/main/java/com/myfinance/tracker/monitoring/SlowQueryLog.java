@@ -0,0 +1,158 @@
+package com.myfinance.tracker.monitoring;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one JSON line per slow statement to the {@code tracker.slowquery} logger: SQL, the
+ * count and types of the bound parameters, rows, elapsed time, the calling application method
+ * and, for SELECTs, the EXPLAIN plan. Parameter values are user data (descriptions, emails,
+ * password hashes), so they are only written with {@code monitoring.slow-query.param-values}. Everything after the timing check runs on a single background thread with
+ * a bounded queue, so a burst of slow queries never adds EXPLAIN round-trips to requests;
+ * entries that do not fit are dropped and counted.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger("tracker.slowquery");
+    private static final int MAX_PARAM_CHARS = 100;
+
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final boolean paramValues;
+    private final MeterRegistry meters;
+    private final ObjectMapper json = new ObjectMapper();
+    private final ThreadPoolExecutor writer;
+
+    public SlowQueryLog(MeterRegistry meters,
+                        @Value("${monitoring.slow-query-ms:200}") long thresholdMs,
+                        @Value("${monitoring.slow-query.explain:true}") boolean explain,
+                        @Value("${monitoring.slow-query.param-values:false}") boolean paramValues,
+                        @Value("${monitoring.slow-query.queue-capacity:256}") int queueCapacity) {
+        this.meters = meters;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.explain = explain;
+        this.paramValues = paramValues;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "slow-query-log");
+                    t.setDaemon(true);
+                    return t;
+                }, (r, executor) -> meters.counter("jdbc.slow.queries", "outcome", "dropped").increment());
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Called on the executing thread once a statement has crossed the threshold.
+     * {@code target} is the unwrapped DataSource, so the EXPLAIN itself is not timed.
+     */
+    void record(DataSource target, String sql, List<Object> params, long rows, long nanos, String caller) {
+        meters.counter("jdbc.slow.queries", "outcome", "logged").increment();
+        RequestQueryStats stats = RequestQueryStats.current();
+        String user = stats != null ? stats.getUser() : "-";
+        String thread = Thread.currentThread().getName();
+        writer.execute(() -> write(target, sql, params, rows, nanos, caller, user, thread));
+    }
+
+    private void write(DataSource target, String sql, List<Object> params, long rows, long nanos,
+                       String caller, String user, String thread) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("event", "slow_query");
+        entry.put("ms", TimeUnit.NANOSECONDS.toMillis(nanos));
+        entry.put("rows", rows);
+        entry.put("caller", caller);
+        entry.put("user", user);
+        entry.put("thread", thread);
+        entry.put("sql", sql);
+        entry.put("param_count", params.size());
+        entry.put("params", paramValues ? render(params) : types(params));
+        if (explain && isSelect(sql)) {
+            entry.put("plan", explain(target, sql, params));
+        }
+        try {
+            log.warn(json.writeValueAsString(entry));
+        } catch (JsonProcessingException e) {
+            log.warn("slow_query ms={} sql={}", entry.get("ms"), sql);
+        }
+    }
+
+    private List<Object> explain(DataSource target, String sql, List<Object> params) {
+        List<Object> plan = new ArrayList<>();
+        try (Connection c = target.getConnection();
+             PreparedStatement ps = c.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int col = 1; col <= meta.getColumnCount(); col++) {
+                        row.put(meta.getColumnLabel(col), rs.getObject(col));
+                    }
+                    plan.add(row);
+                }
+            }
+        } catch (SQLException e) {
+            plan.add("EXPLAIN failed: " + e.getMessage());
+        }
+        return plan;
+    }
+
+    private static boolean isSelect(String sql) {
+        String s = sql.stripLeading();
+        return s.regionMatches(true, 0, "select", 0, 6) || s.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    // Helper: the Java type of each bound value, so the line shows the shape of the call but no data
+    static List<String> types(List<Object> params) {
+        List<String> out = new ArrayList<>(params.size());
+        for (Object p : params) {
+            out.add(p == null ? "null" : p.getClass().getSimpleName());
+        }
+        return out;
+    }
+
+    private static List<String> render(List<Object> params) {
+        List<String> out = new ArrayList<>(params.size());
+        for (Object p : params) {
+            if (p == null) {
+                out.add("null");
+            } else if (p instanceof byte[] bytes) {
+                out.add("<" + bytes.length + " bytes>");
+            } else {
+                String s = String.valueOf(p);
+                out.add(s.length() > MAX_PARAM_CHARS ? s.substring(0, MAX_PARAM_CHARS) + "…" : s);
+            }
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,257 @@
+package com.myfinance.tracker.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DataSource wrapper that times every statement with JDK proxies around the pool's
+ * connections, statements and result sets. Each statement costs two {@code nanoTime} calls
+ * and a per-request counter update; parameters are captured only into a small list, and
+ * caller lookup and logging happen only for statements above the slow-query threshold.
+ * Connection hold time (checkout to close) goes to the {@code jdbc.connections.held} timer.
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+    private final Supplier<SlowQueryLog> slowLog;
+    private final Supplier<MeterRegistry> meters;
+    private volatile Timer holdTimer;
+
+    public TimedDataSource(DataSource target, Supplier<SlowQueryLog> slowLog, Supplier<MeterRegistry> meters) {
+        super(target);
+        this.slowLog = slowLog;
+        this.meters = meters;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // proxies compare by identity; the target would never consider a proxy equal to itself
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class
+                && (method.getName().equals("equals") || method.getName().equals("hashCode"));
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private void released(long heldNanos) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.recordConnection(heldNanos);
+        }
+        Timer timer = holdTimer;
+        if (timer == null) {
+            MeterRegistry registry = meters.get();
+            if (registry == null) {
+                return;
+            }
+            timer = holdTimer = Timer.builder("jdbc.connections.held")
+                    .description("Time a pooled connection is checked out")
+                    .register(registry);
+        }
+        timer.record(heldNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final long acquiredAt = System.nanoTime();
+        private boolean closed;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (method.getName().equals("close") && !closed) {
+                closed = true;
+                released(System.nanoTime() - acquiredAt);
+            }
+            Object result = TimedDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> type = result instanceof PreparedStatement
+                        ? method.getReturnType() : Statement.class;
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final List<Object> params = new ArrayList<>();
+        private PendingQuery pending;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+                return TimedDataSource.invoke(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                params.clear();
+            } else if (name.equals("close")) {
+                finishPending();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return TimedDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            Object result = TimedDataSource.invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.recordStatement(sql, nanos);
+            }
+            SlowQueryLog log = slowLog.get();
+            boolean slow = log != null && log.isSlow(nanos);
+            if (result instanceof ResultSet rs) {
+                // rows are only known once the result set has been read
+                PendingQuery q = new PendingQuery(sql, slow ? List.copyOf(params) : null, nanos,
+                        slow ? caller() : null);
+                pending = q;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, new ResultSetHandler(rs, q, this));
+            }
+            if (slow) {
+                log.record(getTargetDataSource(), sql, new ArrayList<>(params), rowsOf(result), nanos, caller());
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            while (params.size() < index) {
+                params.add(null);
+            }
+            params.set(index - 1, value);
+        }
+
+        void finishPending() {
+            PendingQuery q = pending;
+            pending = null;
+            if (q != null && q.params != null) {
+                slowLog.get().record(getTargetDataSource(), q.sql, q.params, q.rows, q.nanos, q.caller);
+            }
+        }
+
+        private long rowsOf(Object result) throws SQLException {
+            if (result instanceof Integer n) return n;
+            if (result instanceof Long n) return n;
+            if (result instanceof int[] batch) {
+                long sum = 0;
+                for (int n : batch) sum += Math.max(n, 0);
+                return sum;
+            }
+            return target.getUpdateCount();
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final PendingQuery query;
+        private final StatementHandler owner;
+
+        ResultSetHandler(ResultSet target, PendingQuery query, StatementHandler owner) {
+            this.target = target;
+            this.query = query;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = TimedDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                query.rows++;
+            } else if (name.equals("close")) {
+                owner.finishPending();
+            }
+            return result;
+        }
+    }
+
+    private static final class PendingQuery {
+        final String sql;
+        final List<Object> params; // null unless the statement was slow
+        final long nanos;
+        final String caller;
+        long rows;
+
+        PendingQuery(String sql, List<Object> params, long nanos, String caller) {
+            this.sql = sql;
+            this.params = params;
+            this.nanos = nanos;
+            this.caller = caller;
+        }
+    }
+
+    // first application frame outside this class, e.g. "ExpenseReportService.getTotalByCategoryInRange:88"
+    static String caller() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("com.myfinance.tracker.")
+                        && f.getDeclaringClass().getNestHost() != TimedDataSource.class
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("-"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.dto.AggregationQuery;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Builds one grouped SQL statement per AggregationQuery. The group expression and table come
+ * from the query's enums; filters are bound parameters. Each group returns SUM/COUNT/MIN/MAX
+ * together, so any measure can be derived and partial groups (e.g. from the archive) merged.
+ */
+@Repository
+public class AggregationRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AggregationRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public static class Group {
+        public final String key;
+        public double sum;
+        public long count;
+        public double min;
+        public double max;
+
+        public Group(String key, double sum, long count, double min, double max) {
+            this.key = key;
+            this.sum = sum;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+        }
+
+        public void add(double amount) {
+            min = count == 0 ? amount : Math.min(min, amount);
+            max = count == 0 ? amount : Math.max(max, amount);
+            sum += amount;
+            count++;
+        }
+    }
+
+    public List<Group> aggregate(Long userId, AggregationQuery q, LocalDate start, LocalDate end,
+                                 String currency, String legacyCurrency) {
+        boolean transactions = q.getSource() == AggregationQuery.Source.TRANSACTIONS;
+        String key = q.getDimension().sql(q.getSource());
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(key).append(" AS k, ")
+                .append("SUM(x.amount) AS s, COUNT(*) AS n, MIN(x.amount) AS lo, MAX(x.amount) AS hi FROM ");
+        sql.append("transactions x LEFT JOIN categories c ON c.id = x.category_id");
+        // date bounds first: they are what lets MySQL prune year partitions
+        sql.append(" WHERE x.date BETWEEN :start AND :end AND x.user_id = :userId")
+                .append(" AND COALESCE(x.currency, :legacy) = :currency");
+        if (!transactions) {
+            sql.append(" AND LOWER(x.type) = 'debit'"); // expenses are the debit rows
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("start", start)
+                .addValue("end", end)
+                .addValue("currency", currency)
+                .addValue("legacy", legacyCurrency);
+        if (q.getType() != null && transactions) {
+            sql.append(" AND x.type = :type");
+            params.addValue("type", q.getType());
+        }
+        if (q.getCategories() != null && !q.getCategories().isEmpty()) {
+            sql.append(" AND c.name IN (:categories)");
+            params.addValue("categories", q.getCategories());
+        }
+        if (q.getMinAmount() != null) {
+            sql.append(" AND x.amount >= :minAmount");
+            params.addValue("minAmount", q.getMinAmount());
+        }
+        if (q.getMaxAmount() != null) {
+            sql.append(" AND x.amount <= :maxAmount");
+            params.addValue("maxAmount", q.getMaxAmount());
+        }
+        sql.append(" GROUP BY ").append(key).append(" ORDER BY ").append(key);
+
+        return jdbc.query(sql.toString(), params, (rs, i) -> new Group(
+                q.getDimension().label(rs.getObject("k")),
+                rs.getDouble("s"),
+                rs.getLong("n"),
+                rs.getDouble("lo"),
+                rs.getDouble("hi")));
+    }
+}
@@ -0,0 +1,40 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.Attachment;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+    List<Attachment> findByUserIdAndEntryKindAndEntryIdOrderByCreatedAt(Long userId, String entryKind, Long entryId);
+
+    Optional<Attachment> findFirstByUserIdAndEntryKindAndEntryIdAndSha256(Long userId, String entryKind,
+                                                                         Long entryId, String sha256);
+
+    // download checks the owner
+    @EntityGraph(attributePaths = "user")
+    Optional<Attachment> findWithUserById(Long id);
+
+    boolean existsBySha256(String sha256);
+
+    // the entry was deleted: drop its attachment rows in one statement (files go in the next sweep)
+    @Modifying
+    @Query("DELETE FROM Attachment a WHERE a.user.id = :userId AND a.entryKind IN :kinds AND a.entryId = :entryId")
+    int deleteByEntry(@Param("userId") Long userId, @Param("kinds") Collection<String> kinds,
+                      @Param("entryId") Long entryId);
+
+    // ExpenseMergeService: a legacy expense's attachments follow it to its transaction
+    @Modifying
+    @Query("UPDATE Attachment a SET a.entryId = :to WHERE a.user.id = :userId AND a.entryKind = :kind " +
+           "AND a.entryId = :from")
+    int moveEntry(@Param("userId") Long userId, @Param("kind") String kind,
+                  @Param("from") Long from, @Param("to") Long to);
+}
@@ -0,0 +1,13 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.BudgetAlert;
+import com.myfinance.tracker.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long> {
+    List<BudgetAlert> findTop50ByUserOrderByCreatedAtDesc(User user);
+}
@@ -0,0 +1,28 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    List<Budget> findByUser(User user);
+    boolean existsByUserAndCategory(User user, String category);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<Budget> findWithUserById(Long id);
+
+    // row lock so concurrent debits for the same budget apply their deltas one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Budget b WHERE b.user.id = :userId AND b.category = :category")
+    Optional<Budget> findForUpdate(@Param("userId") Long userId, @Param("category") String category);
+}
@@ -4,13 +4,21 @@ import com.myfinance.tracker.model.Category;
 import com.myfinance.tracker.model.User;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    Optional<Category> findByName(String name);
     List<Category> findByUser(User user);
 
+    // CategoryDictionary: rows [id, name] of the user's categories and the shared ones
+    @Query("SELECT c.id, c.name FROM Category c WHERE c.user.id = :userId OR c.user IS NULL")
+    List<Object[]> findIdsAndNamesByUserId(@Param("userId") Long userId);
+
+    // names are not unique per user; the oldest one wins
+    Optional<Category> findFirstByUserAndNameOrderByIdAsc(User user, String name);
+
 }
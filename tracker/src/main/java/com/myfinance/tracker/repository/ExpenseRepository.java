@@ -2,38 +2,88 @@ package com.myfinance.tracker.repository;
 
 import com.myfinance.tracker.model.Expense;
 import com.myfinance.tracker.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+// Expense is a view over debit transactions: everything here reads the transactions table
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
     List<Expense> findByUser(User user);
+
+    // /sync: rows written after a change sequence, oldest change first
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId AND e.changeSeq > :since ORDER BY e.changeSeq")
+    List<Expense> findChangedSince(@Param("userId") Long userId, @Param("since") long since, Pageable page);
+
+    List<Expense> findByUserIdAndChangeSeq(Long userId, Long changeSeq);
+
+    // ownership checks read the owner's username, fetch it in the same select
+    @EntityGraph(attributePaths = "user")
+    Optional<Expense> findWithUserById(Long id);
     // in ExpenseRepository
 List<Expense> findByUserAndDateBetween(User user, LocalDate start, LocalDate end);
 
     // ✅ new method for sorting expenses by date descending
     List<Expense> findByUserOrderByDateDesc(User user);
 
-    @Query("SELECT e.category, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId GROUP BY e.category")
-    List<Object[]> getTotalByCategory(@Param("userId") Long userId);
+    // Report queries below only sum rows already in the base currency (null currency = :legacy);
+    // getForeignCurrencyTotals returns the rest grouped finely enough to convert per day.
+    // Categories come back as ids (idx_transactions_user_category); CategoryDictionary names them.
 
-    @Query(value = "SELECT YEAR(e.date) AS yr, MONTH(e.date) AS mon, SUM(e.amount) AS total " +
-                   "FROM expense e WHERE e.user_id = :userId GROUP BY YEAR(e.date), MONTH(e.date) ORDER BY yr, mon",
-           nativeQuery = true)
-    List<Object[]> getTotalByYearMonth(@Param("userId") Long userId);
+    @Query("SELECT e.categoryId, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId " +
+           "AND COALESCE(e.currency, :legacy) = :base GROUP BY e.categoryId")
+    List<Object[]> getTotalByCategory(@Param("userId") Long userId,
+                                      @Param("base") String base,
+                                      @Param("legacy") String legacy);
 
-    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :start AND :end")
+    @Query("SELECT YEAR(e.date), MONTH(e.date), SUM(e.amount) FROM Expense e WHERE e.user.id = :userId " +
+           "AND COALESCE(e.currency, :legacy) = :base " +
+           "GROUP BY YEAR(e.date), MONTH(e.date) ORDER BY YEAR(e.date), MONTH(e.date)")
+    List<Object[]> getTotalByYearMonth(@Param("userId") Long userId,
+                                       @Param("base") String base,
+                                       @Param("legacy") String legacy);
+
+    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :start AND :end " +
+           "AND COALESCE(e.currency, :legacy) = :base")
     Double getTotalInDateRange(@Param("userId") Long userId,
                                @Param("start") LocalDate start,
-                               @Param("end") LocalDate end);
+                               @Param("end") LocalDate end,
+                               @Param("base") String base,
+                               @Param("legacy") String legacy);
 
-    @Query("SELECT e.category, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :start AND :end GROUP BY e.category")
+    @Query("SELECT e.categoryId, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId AND e.date BETWEEN :start AND :end " +
+           "AND COALESCE(e.currency, :legacy) = :base GROUP BY e.categoryId")
     List<Object[]> getTotalByCategoryInDateRange(@Param("userId") Long userId,
                                                  @Param("start") LocalDate start,
-                                                 @Param("end") LocalDate end);
+                                                 @Param("end") LocalDate end,
+                                                 @Param("base") String base,
+                                                 @Param("legacy") String legacy);
+
+    // rows: [year, month, category id, sum]
+    @Query("SELECT YEAR(e.date), MONTH(e.date), e.categoryId, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId " +
+           "AND e.date BETWEEN :start AND :end AND COALESCE(e.currency, :legacy) = :base " +
+           "GROUP BY YEAR(e.date), MONTH(e.date), e.categoryId")
+    List<Object[]> getTotalByMonthAndCategoryInDateRange(@Param("userId") Long userId,
+                                                         @Param("start") LocalDate start,
+                                                         @Param("end") LocalDate end,
+                                                         @Param("base") String base,
+                                                         @Param("legacy") String legacy);
+
+    // rows: [category id, currency, date, sum] for everything not in the base currency
+    @Query("SELECT e.categoryId, e.currency, e.date, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId " +
+           "AND e.date BETWEEN :start AND :end AND COALESCE(e.currency, :legacy) <> :base " +
+           "GROUP BY e.categoryId, e.currency, e.date")
+    List<Object[]> getForeignCurrencyTotals(@Param("userId") Long userId,
+                                            @Param("start") LocalDate start,
+                                            @Param("end") LocalDate end,
+                                            @Param("base") String base,
+                                            @Param("legacy") String legacy);
 }
@@ -0,0 +1,33 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByOwnerAndKey(String owner, String key);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.owner = :owner AND r.key = :key")
+    int deleteByOwnerAndKey(@Param("owner") String owner, @Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.heartbeatAt = :now WHERE r.owner = :owner AND r.key = :key "
+            + "AND r.status = com.myfinance.tracker.model.IdempotencyRecord.Status.IN_PROGRESS")
+    int touch(@Param("owner") String owner, @Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.JournalEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JournalEventRepository extends JpaRepository<JournalEvent, Long> {
+
+    // where the user's replay starts; null until the journal has a baseline for them
+    @Query("SELECT MAX(e.id) FROM JournalEvent e WHERE e.userId = :userId AND e.action = 'BASELINE'")
+    Long findBaselineId(@Param("userId") Long userId);
+
+    // the latest BASELINE_PAGE or BASELINE_END after a baseline: how far its copy got
+    @Query("SELECT e FROM JournalEvent e WHERE e.userId = :userId AND e.id > :baseline " +
+           "AND e.action IN ('BASELINE_PAGE', 'BASELINE_END') ORDER BY e.id DESC")
+    List<JournalEvent> findCopyProgress(@Param("userId") Long userId, @Param("baseline") long baseline, Pageable page);
+
+    boolean existsByUserIdAndActionAndIdGreaterThan(Long userId, String action, Long id);
+
+    // events after an id, oldest first
+    @Query("SELECT e FROM JournalEvent e WHERE e.userId = :userId AND e.id > :after ORDER BY e.id")
+    List<JournalEvent> findAfter(@Param("userId") Long userId, @Param("after") long after, Pageable page);
+}
@@ -0,0 +1,33 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.LedgerArchive;
+import com.myfinance.tracker.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerArchiveRepository extends JpaRepository<LedgerArchive, Long> {
+    Optional<LedgerArchive> findByUserAndKindAndYear(User user, String kind, int year);
+
+    // rows: [id, version, year, kind] without loading the payload
+    @Query("SELECT a.id, a.version, a.year, a.kind FROM LedgerArchive a WHERE a.user.id = :userId AND a.kind IN :kinds " +
+           "AND a.year BETWEEN :fromYear AND :toYear ORDER BY a.year")
+    List<Object[]> findIndex(@Param("userId") Long userId,
+                             @Param("kinds") Collection<String> kinds,
+                             @Param("fromYear") int fromYear,
+                             @Param("toYear") int toYear);
+
+    // archives written before LedgerArchiveTotal existed
+    @Query("SELECT a.id FROM LedgerArchive a WHERE NOT EXISTS " +
+           "(SELECT t.id FROM LedgerArchiveTotal t WHERE t.archiveId = a.id)")
+    List<Long> findIdsWithoutTotals();
+
+    @Query("SELECT a.payload FROM LedgerArchive a WHERE a.id = :id")
+    byte[] findPayload(@Param("id") Long id);
+}
@@ -0,0 +1,37 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.LedgerArchiveTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LedgerArchiveTotalRepository extends JpaRepository<LedgerArchiveTotal, Long> {
+
+    @Query("SELECT t FROM LedgerArchiveTotal t WHERE t.userId = :userId AND t.kind = :kind " +
+           "AND t.date BETWEEN :start AND :end")
+    List<LedgerArchiveTotal> findInRange(@Param("userId") Long userId,
+                                         @Param("kind") String kind,
+                                         @Param("start") LocalDate start,
+                                         @Param("end") LocalDate end);
+
+    // expense-kind totals, plus transaction debits of years that have no expense archive
+    @Query("SELECT t FROM LedgerArchiveTotal t WHERE t.userId = :userId AND t.date BETWEEN :start AND :end " +
+           "AND (t.kind = :expenseKind OR (t.kind = :transactionKind AND LOWER(t.type) = 'debit' " +
+           "AND NOT EXISTS (SELECT a.id FROM LedgerArchive a WHERE a.user.id = :userId " +
+           "AND a.kind = :expenseKind AND a.year = t.year)))")
+    List<LedgerArchiveTotal> findDebitsInRange(@Param("userId") Long userId,
+                                               @Param("expenseKind") String expenseKind,
+                                               @Param("transactionKind") String transactionKind,
+                                               @Param("start") LocalDate start,
+                                               @Param("end") LocalDate end);
+
+    @Modifying
+    @Query("DELETE FROM LedgerArchiveTotal t WHERE t.archiveId = :archiveId")
+    int deleteByArchiveId(@Param("archiveId") Long archiveId);
+}
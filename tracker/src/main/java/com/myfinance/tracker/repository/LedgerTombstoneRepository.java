@@ -0,0 +1,19 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.LedgerTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerTombstoneRepository extends JpaRepository<LedgerTombstone, Long> {
+
+    @Query("SELECT d FROM LedgerTombstone d WHERE d.userId = :userId AND d.changeSeq > :since ORDER BY d.changeSeq")
+    List<LedgerTombstone> findChangedSince(@Param("userId") Long userId, @Param("since") long since, Pageable page);
+
+    List<LedgerTombstone> findByUserIdAndChangeSeq(Long userId, Long changeSeq);
+}
@@ -0,0 +1,23 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.LegacyExpense;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LegacyExpenseRepository extends JpaRepository<LegacyExpense, Long> {
+
+    @Query("SELECT DISTINCT e.userId FROM LegacyExpense e")
+    List<Long> findUserIds(Pageable page);
+
+    // oldest dates first, so a batch can be cut after a whole day
+    List<LegacyExpense> findByUserIdOrderByDateAscIdAsc(Long userId, Pageable page);
+
+    List<LegacyExpense> findByUserIdAndDateLessThanEqual(Long userId, LocalDate date);
+}
@@ -0,0 +1,21 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.MerchantSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MerchantSketchRepository extends JpaRepository<MerchantSketch, Long> {
+    Optional<MerchantSketch> findByUserId(Long userId);
+
+    // row lock so concurrent debits of one user fold into the sketch one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MerchantSketch s WHERE s.user.id = :userId")
+    Optional<MerchantSketch> findForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,18 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.MergedExpenseId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MergedExpenseIdRepository extends JpaRepository<MergedExpenseId, Long> {
+
+    // the caller's own legacy id, looked up before the row it may collide with is read
+    @Query("SELECT m FROM MergedExpenseId m WHERE m.legacyId = :legacyId " +
+           "AND m.userId = (SELECT u.id FROM User u WHERE u.username = :username)")
+    Optional<MergedExpenseId> findForUser(@Param("username") String username, @Param("legacyId") Long legacyId);
+}
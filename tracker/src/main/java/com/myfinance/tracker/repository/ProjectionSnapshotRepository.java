@@ -0,0 +1,12 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.ProjectionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProjectionSnapshotRepository extends JpaRepository<ProjectionSnapshot, Long> {
+    Optional<ProjectionSnapshot> findByUserIdAndName(Long userId, String name);
+}
@@ -0,0 +1,49 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    List<ReportJob> findTop20ByUserOrderByCreatedAtDesc(User user);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<ReportJob> findWithUserById(Long id);
+
+    // same request already queued, running or done
+    Optional<ReportJob> findFirstByUserAndTypeAndFormatAndStartYearAndEndYearAndCurrencyAndStatusInOrderByCreatedAtDesc(
+            User user, String type, String format, int startYear, int endYear, String currency,
+            Collection<ReportJob.Status> statuses);
+
+    List<ReportJob> findByStatusAndFinishedAtBefore(ReportJob.Status status, LocalDateTime cutoff);
+
+    long countByUserAndStatusIn(User user, Collection<ReportJob.Status> statuses);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids")
+    int touch(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // jobs whose instance stopped heartbeating never finish on their own
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.status = com.myfinance.tracker.model.ReportJob.Status.FAILED, " +
+           "j.error = :error, j.finishedAt = :now WHERE j.status IN :statuses " +
+           "AND COALESCE(j.heartbeatAt, j.createdAt) < :cutoff")
+    int failStale(@Param("statuses") Collection<ReportJob.Status> statuses,
+                  @Param("error") String error,
+                  @Param("cutoff") LocalDateTime cutoff,
+                  @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.SpendingStats;
+import com.myfinance.tracker.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SpendingStatsRepository extends JpaRepository<SpendingStats, Long> {
+    List<SpendingStats> findByUserOrderByCategory(User user);
+
+    // row lock so concurrent debits in one category fold into the accumulators one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SpendingStats s WHERE s.user.id = :userId AND s.category = :category")
+    Optional<SpendingStats> findForUpdate(@Param("userId") Long userId, @Param("category") String category);
+}
@@ -0,0 +1,14 @@
+package com.myfinance.tracker.repository;
+
+import com.myfinance.tracker.model.TransactionIndexSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TransactionIndexSnapshotRepository extends JpaRepository<TransactionIndexSnapshot, Long> {
+    Optional<TransactionIndexSnapshot> findByUserId(Long userId);
+
+    void deleteByUserId(Long userId);
+}
@@ -3,18 +3,132 @@ package com.myfinance.tracker.repository;
 import com.myfinance.tracker.model.Transaction;
 import com.myfinance.tracker.model.User;
 import com.myfinance.tracker.model.Category;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
     List<Transaction> findByUser(User user);
+    // category is read for every row when mapping to TransactionDto; fetch it in the same select
+    @EntityGraph(attributePaths = "category")
     List<Transaction> findByUserAndDateBetween(User user, LocalDate start, LocalDate end);
     List<Transaction> findByUserAndCategory(User user, Category category);
 
     // ✅ new method to get all user transactions sorted by latest first
+    @EntityGraph(attributePaths = "category")
     List<Transaction> findByUserOrderByDateDesc(User user);
+
+    @EntityGraph(attributePaths = "category")
+    List<Transaction> findByUserAndDateBetweenOrderByDateDesc(User user, LocalDate start, LocalDate end);
+
+    // journal baseline: the user's rows in id order, one page after another
+    @EntityGraph(attributePaths = "category")
+    List<Transaction> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable page);
+
+    // /sync: rows written after a change sequence, oldest change first
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.changeSeq > :since ORDER BY t.changeSeq")
+    List<Transaction> findChangedSince(@Param("userId") Long userId, @Param("since") long since, Pageable page);
+
+    @EntityGraph(attributePaths = "category")
+    List<Transaction> findByUserIdAndChangeSeq(Long userId, Long changeSeq);
+
+    // delete checks the owner and reads the category name for the budget counter
+    @EntityGraph(attributePaths = {"user", "category"})
+    Optional<Transaction> findWithUserAndCategoryById(Long id);
+
+    // owner of the entry, row-locked until commit: a concurrent delete either waits or has already removed it
+    @Query(value = "SELECT user_id FROM transactions WHERE id = :id " +
+                   "AND (:debitOnly = FALSE OR LOWER(type) = 'debit') FOR UPDATE", nativeQuery = true)
+    Long lockOwnerId(@Param("id") Long id, @Param("debitOnly") boolean debitOnly);
+
+    // per-category totals of rows already in the base currency (null currency = :legacy)
+    @Query("SELECT c.name, SUM(t.amount) FROM Transaction t JOIN t.category c WHERE t.user.id = :userId " +
+           "AND COALESCE(t.currency, :legacy) = :base GROUP BY c.name")
+    List<Object[]> getTotalByCategory(@Param("userId") Long userId,
+                                      @Param("base") String base,
+                                      @Param("legacy") String legacy);
+
+    // rows: [type, currency, sum]; the income/expense summary before conversion
+    @Query("SELECT t.type, t.currency, SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId " +
+           "GROUP BY t.type, t.currency")
+    List<Object[]> getTotalsByTypeAndCurrency(@Param("userId") Long userId);
+
+    // rows: [type, currency, date, sum]; the income/expense summary, fine enough to convert per day
+    @Query("SELECT t.type, t.currency, t.date, SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId " +
+           "GROUP BY t.type, t.currency, t.date")
+    List<Object[]> getTotalsByTypeCurrencyAndDate(@Param("userId") Long userId);
+
+    // rows: [category, currency, date, sum] for the rest, fine enough to convert per day
+    @Query("SELECT c.name, t.currency, t.date, SUM(t.amount) FROM Transaction t JOIN t.category c " +
+           "WHERE t.user.id = :userId AND COALESCE(t.currency, :legacy) <> :base " +
+           "GROUP BY c.name, t.currency, t.date")
+    List<Object[]> getForeignCurrencyTotalsByCategory(@Param("userId") Long userId,
+                                                      @Param("base") String base,
+                                                      @Param("legacy") String legacy);
+
+    // Running-balance inputs: credits count positive, anything else negative (as in the summary).
+    // rows: [date, currency, signed sum] per day in the range
+    @Query("SELECT t.date, t.currency, SUM(CASE WHEN LOWER(t.type) = 'credit' THEN t.amount ELSE -t.amount END) " +
+           "FROM Transaction t WHERE t.user.id = :userId AND t.date BETWEEN :start AND :end " +
+           "GROUP BY t.date, t.currency")
+    List<Object[]> getSignedTotalsByDay(@Param("userId") Long userId,
+                                        @Param("start") LocalDate start,
+                                        @Param("end") LocalDate end);
+
+    // opening balance from rows already in the base currency
+    @Query("SELECT SUM(CASE WHEN LOWER(t.type) = 'credit' THEN t.amount ELSE -t.amount END) " +
+           "FROM Transaction t WHERE t.user.id = :userId AND t.date < :before " +
+           "AND COALESCE(t.currency, :legacy) = :base")
+    Double getSignedTotalBefore(@Param("userId") Long userId,
+                                @Param("before") LocalDate before,
+                                @Param("base") String base,
+                                @Param("legacy") String legacy);
+
+    // rows: [date, currency, signed sum] for the opening balance's other currencies
+    @Query("SELECT t.date, t.currency, SUM(CASE WHEN LOWER(t.type) = 'credit' THEN t.amount ELSE -t.amount END) " +
+           "FROM Transaction t WHERE t.user.id = :userId AND t.date < :before " +
+           "AND COALESCE(t.currency, :legacy) <> :base GROUP BY t.date, t.currency")
+    List<Object[]> getForeignSignedTotalsBefore(@Param("userId") Long userId,
+                                                @Param("before") LocalDate before,
+                                                @Param("base") String base,
+                                                @Param("legacy") String legacy);
+
+    // exact merchant totals (MerchantSketchService): rows [description, currency, date, sum, count]
+    // of debits; descriptions are normalised and amounts converted per day by the caller
+    @Query("SELECT t.description, t.currency, t.date, SUM(t.amount), COUNT(t) FROM Transaction t " +
+           "WHERE t.user.id = :userId AND LOWER(t.type) = 'debit' GROUP BY t.description, t.currency, t.date")
+    List<Object[]> getDebitTotalsByDescription(@Param("userId") Long userId);
+
+    // TransactionIndexService: rows [id, type, category name, date, tags] of a user, all of them or
+    // those written after a change sequence
+    @Query("SELECT t.id, t.type, c.name, t.date, t.tags FROM Transaction t LEFT JOIN t.category c " +
+           "WHERE t.user.id = :userId ORDER BY t.id")
+    List<Object[]> findIndexRows(@Param("userId") Long userId);
+
+    @Query("SELECT t.id, t.type, c.name, t.date, t.tags FROM Transaction t LEFT JOIN t.category c " +
+           "WHERE t.user.id = :userId AND t.changeSeq > :since ORDER BY t.id")
+    List<Object[]> findIndexRowsChangedSince(@Param("userId") Long userId, @Param("since") long since);
+
+    // the rows a bitmap filter matched; the user check keeps a stale index from leaking rows
+    @EntityGraph(attributePaths = "category")
+    List<Transaction> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // ExpenseMergeService: the rows a batch of legacy expenses may duplicate
+    @EntityGraph(attributePaths = "category")
+    List<Transaction> findByUserIdAndDateIn(Long userId, Collection<LocalDate> dates);
+
+    // users with rows old enough for LedgerArchiveService to move
+    @Query("SELECT DISTINCT t.user.id FROM Transaction t WHERE t.date < :cutoff")
+    List<Long> findUserIdsWithEntriesBefore(@Param("cutoff") LocalDate cutoff);
 }
@@ -2,6 +2,9 @@ package com.myfinance.tracker.repository;
 
 import com.myfinance.tracker.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +14,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // row lock on the user until commit, so sequences of one user commit in order
+    @Modifying
+    @Query(value = "UPDATE users SET change_seq = COALESCE(change_seq, 0) + 1 WHERE id = :id", nativeQuery = true)
+    int incrementChangeSeq(@Param("id") Long id);
+
+    @Query(value = "SELECT change_seq FROM users WHERE id = :id", nativeQuery = true)
+    Long findChangeSeq(@Param("id") Long id);
+
+    // the same row lock without taking a sequence: waits for the user's ledger writes in flight
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
 }
@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -20,6 +22,8 @@ public class JwtFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
     private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+    // the stateless chain reads this back on the ASYNC dispatch of a streaming response
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
 
     public JwtFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
         this.jwtUtil = jwtUtil;
@@ -38,10 +42,16 @@ public class JwtFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
+        String authHeader = request.getHeader("Authorization");
         String username = null;
         String jwt = null;
 
+        // EventSource can't send headers, so the SSE stream may carry the token as a query param
+        if (authHeader == null && "/events/stream".equals(request.getServletPath())) {
+            String token = request.getParameter("access_token");
+            if (token != null) authHeader = "Bearer " + token;
+        }
+
         log.debug("JwtFilter: request path={}, Authorization header present={}", request.getServletPath(), authHeader != null);
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -68,6 +78,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    contextRepository.saveContext(SecurityContextHolder.getContext(), request, response);
                     log.debug("JwtFilter: Authentication set for user={}", username);
                 } else {
                     log.debug("JwtFilter: Token invalid for user={}", username);
@@ -0,0 +1,196 @@
+package com.myfinance.tracker.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs after JwtFilter. Every request takes tokens from the caller's bucket (user, or IP
+ * when anonymous) and from the global bucket of its endpoint class; report endpoints cost
+ * more, and date-ranged reads cost more the wider the range.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass { REPORT, WRITE, READ }
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final boolean enabled;
+    private final long userCapacity;
+    private final double userRefillPerSecond;
+    private final int maxKeys;
+    private final int daysPerExtraToken;
+    private final Map<EndpointClass, Integer> weights = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, TokenBucket> globalBuckets = new EnumMap<>(EndpointClass.class);
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    // shared by everyone who arrives while the key map is full
+    private final TokenBucket overflowBucket;
+
+    private final MeterRegistry meters;
+
+    public RateLimitFilter(MeterRegistry meters,
+                           @Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.user.capacity:60}") long userCapacity,
+                           @Value("${ratelimit.user.refill-per-second:5}") double userRefillPerSecond,
+                           @Value("${ratelimit.global.report.capacity:400}") long reportCapacity,
+                           @Value("${ratelimit.global.report.refill-per-second:100}") double reportRefill,
+                           @Value("${ratelimit.global.write.capacity:400}") long writeCapacity,
+                           @Value("${ratelimit.global.write.refill-per-second:100}") double writeRefill,
+                           @Value("${ratelimit.global.read.capacity:1000}") long readCapacity,
+                           @Value("${ratelimit.global.read.refill-per-second:300}") double readRefill,
+                           @Value("${ratelimit.weight.report:5}") int reportWeight,
+                           @Value("${ratelimit.weight.write:2}") int writeWeight,
+                           @Value("${ratelimit.weight.read:1}") int readWeight,
+                           @Value("${ratelimit.weight.days-per-extra-token:90}") int daysPerExtraToken,
+                           @Value("${ratelimit.max-keys:10000}") int maxKeys) {
+        this.meters = meters;
+        this.enabled = enabled;
+        this.userCapacity = userCapacity;
+        this.userRefillPerSecond = userRefillPerSecond;
+        this.maxKeys = maxKeys;
+        this.daysPerExtraToken = daysPerExtraToken;
+        weights.put(EndpointClass.REPORT, reportWeight);
+        weights.put(EndpointClass.WRITE, writeWeight);
+        weights.put(EndpointClass.READ, readWeight);
+        globalBuckets.put(EndpointClass.REPORT, new TokenBucket(reportCapacity, reportRefill));
+        globalBuckets.put(EndpointClass.WRITE, new TokenBucket(writeCapacity, writeRefill));
+        globalBuckets.put(EndpointClass.READ, new TokenBucket(readCapacity, readRefill));
+        this.overflowBucket = new TokenBucket(userCapacity, userRefillPerSecond);
+        meters.gaugeMapSize("ratelimit.keys", List.of(), userBuckets);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        EndpointClass endpointClass = classify(request);
+        int weight = weightOf(request, endpointClass);
+        long now = System.nanoTime();
+
+        TokenBucket userBucket = bucketFor(callerKey(request));
+        long wait = userBucket.tryAcquire(weight, now);
+        if (wait > 0) {
+            reject(response, endpointClass, "user", wait);
+            return;
+        }
+
+        wait = globalBuckets.get(endpointClass).tryAcquire(weight, now);
+        if (wait > 0) {
+            userBucket.refund(weight);
+            reject(response, endpointClass, "global", wait);
+            return;
+        }
+
+        counter(endpointClass, "allowed").increment();
+        filterChain.doFilter(request, response);
+    }
+
+    // drop buckets that have fully refilled; they hold no information
+    @Scheduled(fixedRateString = "${ratelimit.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        userBuckets.entrySet().removeIf(e -> e.getValue().isIdle(now));
+    }
+
+    EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equalsIgnoreCase(method)) {
+            return EndpointClass.WRITE;
+        }
+        String path = request.getServletPath();
+        if (path.startsWith("/expenses/summary") || path.startsWith("/transactions/summary")
+                || path.equals("/transactions/my") || path.equals("/expenses/my")
+                || path.equals("/transactions/export") || path.equals("/reports/aggregate")
+                || path.equals("/transactions/balance") || path.startsWith("/reactive/")) {
+            return EndpointClass.REPORT;
+        }
+        return EndpointClass.READ;
+    }
+
+    // never more than a full user bucket: a heavier request could never be admitted
+    int weightOf(HttpServletRequest request, EndpointClass endpointClass) {
+        int weight = weights.get(endpointClass);
+        if (endpointClass != EndpointClass.REPORT || daysPerExtraToken <= 0) {
+            return (int) Math.min(weight, userCapacity);
+        }
+        try {
+            String start = request.getParameter("start");
+            String end = request.getParameter("end");
+            if (start != null && end != null) {
+                long days = ChronoUnit.DAYS.between(LocalDate.parse(start), LocalDate.parse(end));
+                weight += (int) Math.min(Math.max(days, 0) / daysPerExtraToken, userCapacity);
+            }
+        } catch (RuntimeException ignored) {
+            // malformed dates are rejected by the controller; charge the base weight
+        }
+        return (int) Math.min(weight, userCapacity);
+    }
+
+    private String callerKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated()) {
+            return "user:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucketFor(String key) {
+        TokenBucket bucket = userBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (userBuckets.size() >= maxKeys) {
+            evictIdle();
+            if (userBuckets.size() >= maxKeys) {
+                return overflowBucket;
+            }
+        }
+        return userBuckets.computeIfAbsent(key, k -> new TokenBucket(userCapacity, userRefillPerSecond));
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpointClass, String scope, long waitNanos)
+            throws IOException {
+        counter(endpointClass, "rejected_" + scope).increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("RateLimitFilter: {} limit hit for class={}, retry after {}s", scope, endpointClass, retryAfter);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"message\":\"Too many requests. Retry in " + retryAfter + " s.\"}");
+    }
+
+    private Counter counter(EndpointClass endpointClass, String outcome) {
+        return meters.counter("ratelimit.requests",
+                "class", endpointClass.name().toLowerCase(), "outcome", outcome);
+    }
+}
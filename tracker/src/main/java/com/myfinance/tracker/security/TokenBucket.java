@@ -0,0 +1,54 @@
+package com.myfinance.tracker.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: the whole state is one "theoretical arrival time"
+ * updated with a CAS, so concurrent requests never block each other.
+ */
+public class TokenBucket {
+
+    // nanoTime has an arbitrary, possibly negative origin, so the state starts at the first call
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final long emissionIntervalNanos; // time to refill one token
+    private final long burstToleranceNanos;   // capacity expressed as time
+    private final AtomicLong tat = new AtomicLong(UNSET);
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = capacity * emissionIntervalNanos;
+    }
+
+    /**
+     * Take {@code weight} tokens. Returns 0 when allowed, otherwise the nanoseconds to wait
+     * until the request would fit.
+     */
+    public long tryAcquire(int weight, long nowNanos) {
+        long increment = weight * emissionIntervalNanos;
+        while (true) {
+            long current = tat.get();
+            // compared by difference, as nanoTime values must be
+            long newTat = (current == UNSET || current - nowNanos < 0 ? nowNanos : current) + increment;
+            long wait = newTat - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    // give back tokens taken for a request that was rejected further down the chain
+    public void refund(int weight) {
+        long decrement = weight * emissionIntervalNanos;
+        tat.updateAndGet(t -> t == UNSET ? t : t - decrement);
+    }
+
+    // a bucket that has refilled completely carries no state and can be dropped
+    public boolean isIdle(long nowNanos) {
+        long current = tat.get();
+        return current == UNSET || current - nowNanos <= 0;
+    }
+}
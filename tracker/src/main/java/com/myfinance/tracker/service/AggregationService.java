@@ -0,0 +1,129 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.AggregationQuery;
+import com.myfinance.tracker.dto.AggregationResult;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.AggregationRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ad-hoc group-by reports. The grouping runs in the database as a single statement; only
+ * years already moved to cold storage are folded in here, from the archive's decoded rows.
+ * Amounts are not converted: a query covers one currency (the base currency by default).
+ */
+@Service
+public class AggregationService {
+
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
+    private final AggregationRepository aggregationRepository;
+    private final UserRepository userRepository;
+    private final LedgerArchiveService archive;
+    private final FxRateTable fx;
+    private final QueryCoalescer coalescer;
+
+    public AggregationService(AggregationRepository aggregationRepository,
+                              UserRepository userRepository,
+                              LedgerArchiveService archive,
+                              FxRateTable fx,
+                              QueryCoalescer coalescer) {
+        this.aggregationRepository = aggregationRepository;
+        this.userRepository = userRepository;
+        this.archive = archive;
+        this.fx = fx;
+        this.coalescer = coalescer;
+    }
+
+    public AggregationResult aggregate(String username, AggregationQuery q) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        // ✅ bad queries are 400s; anything else thrown below is a server error
+        String requested = q.getCurrency();
+        if (requested != null && !requested.isBlank()
+                && !fx.convertible(requested.trim().toUpperCase(), fx.baseOf(user))) {
+            throw badQuery("Unsupported currency: " + requested);
+        }
+        String currency = fx.resolveForWrite(requested, user);
+        if (q.getDimension() == AggregationQuery.Dimension.TYPE && q.getSource() == AggregationQuery.Source.EXPENSES) {
+            throw badQuery("Expenses have no type; group them by another dimension");
+        }
+        LocalDate start = q.getStart() != null ? q.getStart() : ALL_START;
+        LocalDate end = q.getEnd() != null ? q.getEnd() : ALL_END;
+        if (end.isBefore(start)) {
+            throw badQuery("end must not be before start");
+        }
+
+        List<AggregationRepository.Group> groups = coalescer.execute("aggregate",
+                () -> aggregationRepository.aggregate(user.getId(), q, start, end, currency, fx.legacyCurrency()),
+                user.getId(), q, start, end, currency);
+
+        Map<String, AggregationRepository.Group> byKey = new LinkedHashMap<>();
+        for (AggregationRepository.Group g : groups) {
+            byKey.put(g.key, new AggregationRepository.Group(g.key, g.sum, g.count, g.min, g.max));
+        }
+        boolean mergedArchive = false;
+        for (LedgerEntry e : archived(user.getId(), q, start, end)) {
+            if (matches(e, q, currency)) {
+                String key = q.getDimension().keyOf(e);
+                byKey.computeIfAbsent(key, k -> new AggregationRepository.Group(k, 0.0, 0, 0.0, 0.0))
+                        .add(e.getAmount());
+                mergedArchive = true;
+            }
+        }
+
+        List<AggregationRepository.Group> ordered = new ArrayList<>(byKey.values());
+        if (mergedArchive) {
+            ordered.sort(Comparator.comparing(g -> g.key, Comparator.nullsFirst(Comparator.naturalOrder())));
+        }
+        List<AggregationResult.Row> rows = new ArrayList<>(ordered.size());
+        for (AggregationRepository.Group g : ordered) {
+            rows.add(new AggregationResult.Row(g.key, valueOf(g, q.getMeasure()), g.count));
+        }
+        return new AggregationResult(q.getDimension().name().toLowerCase(), q.getMeasure().name().toLowerCase(),
+                currency, rows);
+    }
+
+    private List<LedgerEntry> archived(Long userId, AggregationQuery q, LocalDate start, LocalDate end) {
+        return q.getSource() == AggregationQuery.Source.TRANSACTIONS
+                ? archive.archivedTransactions(userId, start, end)
+                : archive.archivedExpenses(userId, start, end);
+    }
+
+    // the archive's rows get the same filters the SQL applies
+    private static ResponseStatusException badQuery(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+
+    private boolean matches(LedgerEntry e, AggregationQuery q, String currency) {
+        String rowCurrency = e.getCurrency() != null ? e.getCurrency() : fx.legacyCurrency();
+        return rowCurrency.equals(currency)
+                && (q.getType() == null || q.getSource() != AggregationQuery.Source.TRANSACTIONS
+                    || q.getType().equals(e.getType()))
+                && (q.getCategories() == null || q.getCategories().isEmpty()
+                    || q.getCategories().contains(e.getCategory()))
+                && (q.getMinAmount() == null || e.getAmount() >= q.getMinAmount())
+                && (q.getMaxAmount() == null || e.getAmount() <= q.getMaxAmount());
+    }
+
+    private static double valueOf(AggregationRepository.Group g, AggregationQuery.Measure measure) {
+        switch (measure) {
+            case COUNT: return g.count;
+            case AVG: return g.count == 0 ? 0.0 : g.sum / g.count;
+            case MIN: return g.min;
+            case MAX: return g.max;
+            default: return g.sum;
+        }
+    }
+}
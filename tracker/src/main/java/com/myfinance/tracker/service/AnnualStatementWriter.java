@@ -0,0 +1,129 @@
+package com.myfinance.tracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes a yearly expense statement (month × category totals, per-year category totals and a
+ * year total, in the user's base currency) one year at a time, so memory stays bounded by a
+ * single year however long the requested span is.
+ *
+ * CSV columns: {@code year,month,category,amount,currency}; month is {@code ALL} on the per-year
+ * rows and category is empty on the year-total row.
+ */
+@Component
+public class AnnualStatementWriter {
+
+    private final ExpenseReportService reportService;
+    private final ObjectMapper objectMapper;
+
+    public AnnualStatementWriter(ExpenseReportService reportService, ObjectMapper objectMapper) {
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(Long userId, String base, int startYear, int endYear, String format, Writer out)
+            throws IOException {
+        if ("json".equals(format)) {
+            writeJson(userId, base, startYear, endYear, out);
+        } else {
+            writeCsv(userId, base, startYear, endYear, out);
+        }
+    }
+
+    private void writeCsv(Long userId, String base, int startYear, int endYear, Writer out) throws IOException {
+        out.write("year,month,category,amount,currency\n");
+        for (int year = startYear; year <= endYear; year++) {
+            Map<String, Map<String, Double>> months = monthsOf(userId, base, year);
+            Map<String, Double> byCategory = new LinkedHashMap<>();
+            double total = 0.0;
+            for (Map.Entry<String, Map<String, Double>> month : months.entrySet()) {
+                for (Map.Entry<String, Double> c : month.getValue().entrySet()) {
+                    row(out, year, month.getKey(), c.getKey(), c.getValue(), base);
+                    byCategory.merge(c.getKey(), c.getValue(), Double::sum);
+                    total += c.getValue();
+                }
+            }
+            for (Map.Entry<String, Double> c : byCategory.entrySet()) {
+                row(out, year, "ALL", c.getKey(), c.getValue(), base);
+            }
+            out.write(year + ",ALL,," + round(total) + "," + base + "\n");
+            out.flush();
+        }
+    }
+
+    private void writeJson(Long userId, String base, int startYear, int endYear, Writer out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartObject();
+        json.writeStringField("currency", base);
+        json.writeArrayFieldStart("years");
+        for (int year = startYear; year <= endYear; year++) {
+            Map<String, Map<String, Double>> months = monthsOf(userId, base, year);
+            Map<String, Double> byCategory = new LinkedHashMap<>();
+            double total = 0.0;
+
+            json.writeStartObject();
+            json.writeNumberField("year", year);
+            json.writeArrayFieldStart("months");
+            for (Map.Entry<String, Map<String, Double>> month : months.entrySet()) {
+                double monthTotal = 0.0;
+                json.writeStartObject();
+                json.writeStringField("month", month.getKey());
+                json.writeObjectFieldStart("byCategory");
+                for (Map.Entry<String, Double> c : month.getValue().entrySet()) {
+                    json.writeNumberField(label(c.getKey()), round(c.getValue()));
+                    byCategory.merge(c.getKey(), c.getValue(), Double::sum);
+                    monthTotal += c.getValue();
+                }
+                json.writeEndObject();
+                json.writeNumberField("total", round(monthTotal));
+                json.writeEndObject();
+                total += monthTotal;
+            }
+            json.writeEndArray();
+            json.writeObjectFieldStart("byCategory");
+            for (Map.Entry<String, Double> c : byCategory.entrySet()) {
+                json.writeNumberField(label(c.getKey()), round(c.getValue()));
+            }
+            json.writeEndObject();
+            json.writeNumberField("total", round(total));
+            json.writeEndObject();
+            json.flush();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private Map<String, Map<String, Double>> monthsOf(Long userId, String base, int year) {
+        return reportService.getMonthlyCategoryTotals(userId, base,
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    private static void row(Writer out, int year, String month, String category, double amount, String base)
+            throws IOException {
+        out.write(year + "," + month + "," + csv(label(category)) + "," + round(amount) + "," + base + "\n");
+    }
+
+    private static String label(String category) {
+        return category == null ? "Uncategorized" : category;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,251 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Attachment;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.AttachmentRepository;
+import com.myfinance.tracker.repository.ExpenseRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Receipt attachments for expenses and transactions. The bytes go to AttachmentStore; only
+ * metadata rows are written here. Uploading the same file to the same entry twice returns
+ * the first row (a unique key on entry and digest backs this), so retries need no
+ * Idempotency-Key.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+    private static final int SNIFF_BYTES = 16;
+
+    private final AttachmentRepository attachmentRepository;
+    private final ExpenseRepository expenseRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final AttachmentStore store;
+    private final TransactionTemplate tx;
+    private final long maxBytes;
+    private final Duration sweepGrace;
+
+    public AttachmentService(AttachmentRepository attachmentRepository,
+                             ExpenseRepository expenseRepository,
+                             TransactionRepository transactionRepository,
+                             UserRepository userRepository,
+                             AttachmentStore store,
+                             TransactionTemplate tx,
+                             @Value("${attachments.max-bytes:20971520}") long maxBytes,
+                             @Value("${attachments.sweep-grace-minutes:60}") long sweepGraceMinutes) {
+        this.attachmentRepository = attachmentRepository;
+        this.expenseRepository = expenseRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.store = store;
+        this.tx = tx;
+        this.maxBytes = maxBytes;
+        this.sweepGrace = Duration.ofMinutes(sweepGraceMinutes);
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Stream an upload into the store and record it against the entry. Deliberately not one
+     * transaction: the ownership check and the metadata insert are short transactions of their
+     * own, so a slow client never holds a pooled connection while the body arrives. The insert
+     * re-checks the entry under its row lock, so an entry deleted meanwhile gets no row.
+     */
+    public Attachment upload(String username, String kind, Long entryId, String fileName, InputStream body) {
+        User user = findUser(username);
+        checkOwnedEntry(user, kind, entryId);
+
+        BufferedInputStream in = new BufferedInputStream(body, SNIFF_BYTES);
+        String contentType = sniff(in);
+        if (contentType == null) {
+            throw new RuntimeException("Only JPEG, PNG, WebP, HEIC images and PDF files can be attached");
+        }
+        AttachmentStore.Stored stored = store.put(in, maxBytes);
+
+        try {
+            return tx.execute(status -> record(user, kind, entryId, stored, contentType, fileName));
+        } catch (DataIntegrityViolationException duplicate) {
+            // the same file reached the same entry concurrently: return the row that won
+            return attachmentRepository
+                    .findFirstByUserIdAndEntryKindAndEntryIdAndSha256(user.getId(), kind, entryId, stored.getSha256())
+                    .orElseThrow(() -> duplicate);
+        }
+    }
+
+    private Attachment record(User user, String kind, Long entryId, AttachmentStore.Stored stored,
+                              String contentType, String fileName) {
+        Long owner = transactionRepository.lockOwnerId(entryId, LedgerEntry.EXPENSE.equals(kind));
+        if (owner == null || !owner.equals(user.getId())) {
+            throw new RuntimeException(kind + " not found");
+        }
+        return attachmentRepository
+                .findFirstByUserIdAndEntryKindAndEntryIdAndSha256(user.getId(), kind, entryId, stored.getSha256())
+                .orElseGet(() -> {
+                    Attachment a = new Attachment();
+                    a.setEntryKind(kind);
+                    a.setEntryId(entryId);
+                    a.setSha256(stored.getSha256());
+                    a.setSize(stored.getSize());
+                    a.setContentType(contentType);
+                    a.setFileName(cleanFileName(fileName));
+                    a.setCreatedAt(LocalDateTime.now());
+                    a.setUser(user);
+                    return attachmentRepository.saveAndFlush(a);
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Attachment> list(String username, String kind, Long entryId) {
+        User user = findUser(username);
+        checkKind(kind);
+        return attachmentRepository.findByUserIdAndEntryKindAndEntryIdOrderByCreatedAt(user.getId(), kind, entryId);
+    }
+
+    @Transactional(readOnly = true)
+    public Attachment get(String username, Long id) {
+        Attachment a = attachmentRepository.findWithUserById(id)
+                .orElseThrow(() -> new RuntimeException("Attachment not found"));
+        if (!a.getUser().getUsername().equals(username)) {
+            throw new RuntimeException("Attachment not found");
+        }
+        return a;
+    }
+
+    public Path file(Attachment attachment) {
+        return store.path(attachment.getSha256());
+    }
+
+    // the row goes now; the file stays until the sweep finds nothing pointing at it
+    @Transactional
+    public void delete(String username, Long id) {
+        attachmentRepository.delete(get(username, id));
+    }
+
+    // runs inside the writer's transaction: a deleted expense or transaction takes its attachments along
+    @EventListener
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (event.getAction() == LedgerChangedEvent.Action.DELETED) {
+            LedgerEntry entry = event.getBefore();
+            // a debit transaction is also the expense with the same id
+            List<String> kinds = entry.isTransaction() && "debit".equalsIgnoreCase(entry.getType())
+                    ? List.of(LedgerEntry.TRANSACTION, LedgerEntry.EXPENSE)
+                    : List.of(entry.getKind());
+            attachmentRepository.deleteByEntry(event.getUserId(), kinds, entry.getId());
+        }
+    }
+
+    @Scheduled(cron = "${attachments.sweep-cron:0 45 3 * * *}")
+    public void sweep() {
+        int deleted = store.sweep(Instant.now().minus(sweepGrace), attachmentRepository::existsBySha256);
+        if (deleted > 0) {
+            log.info("Attachment sweep: deleted {} unreferenced files", deleted);
+        }
+    }
+
+    // content type from the leading bytes; the client's Content-Type is not trusted
+    static String sniff(BufferedInputStream in) {
+        byte[] head = new byte[SNIFF_BYTES];
+        int n;
+        try {
+            in.mark(SNIFF_BYTES);
+            n = in.readNBytes(head, 0, SNIFF_BYTES);
+            in.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        head = Arrays.copyOf(head, n);
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, 0, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        if (startsWith(head, 4, 'f', 't', 'y', 'p') && n >= 12) {
+            String brand = new String(head, 8, 4, StandardCharsets.US_ASCII);
+            if (brand.startsWith("hei") || brand.equals("hevc") || brand.equals("mif1")) {
+                return "image/heic";
+            }
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... expected) {
+        if (data.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((data[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkOwnedEntry(User user, String kind, Long entryId) {
+        checkKind(kind);
+        User owner = LedgerEntry.EXPENSE.equals(kind)
+                ? expenseRepository.findWithUserById(entryId).map(e -> e.getUser()).orElse(null)
+                : transactionRepository.findWithUserAndCategoryById(entryId).map(t -> t.getUser()).orElse(null);
+        if (owner == null || !owner.getId().equals(user.getId())) {
+            throw new RuntimeException(kind + " not found");
+        }
+    }
+
+    private static void checkKind(String kind) {
+        if (!LedgerEntry.EXPENSE.equals(kind) && !LedgerEntry.TRANSACTION.equals(kind)) {
+            throw new RuntimeException("kind must be " + LedgerEntry.EXPENSE + " or " + LedgerEntry.TRANSACTION);
+        }
+    }
+
+    // keep the last path segment, printable characters only
+    private static String cleanFileName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String base = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        base = base.replaceAll("[\\p{Cntrl}\"]", "").trim();
+        if (base.length() > 255) {
+            base = base.substring(base.length() - 255);
+        }
+        return base.isEmpty() ? null : base;
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
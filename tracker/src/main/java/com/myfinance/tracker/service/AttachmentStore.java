@@ -0,0 +1,173 @@
+package com.myfinance.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store for attachments: a file lives at {@code ab/cd/<sha256>} under
+ * attachments.dir and is written once, however many attachment rows point at it. Uploads are
+ * copied to a temp file in 64 KB chunks while being hashed, then renamed into place; an
+ * upload whose hash already exists only refreshes the file's mtime and is discarded. The
+ * dedup check and the sweep's delete hold the same per-digest lock, so a file cannot be
+ * swept between an upload finding it and refreshing it.
+ */
+@Component
+public class AttachmentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentStore.class);
+    private static final int CHUNK = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final Path tmp;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public AttachmentStore(@Value("${attachments.dir:${app.data-dir}/attachments}") String dir) {
+        this.root = Paths.get(dir).toAbsolutePath();
+        this.tmp = root.resolve("tmp");
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public static class Stored {
+        private final String sha256;
+        private final long size;
+
+        Stored(String sha256, long size) {
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public String getSha256() { return sha256; }
+        public long getSize() { return size; }
+    }
+
+    // Stream the upload to disk; at most maxBytes are accepted
+    public Stored put(InputStream in, long maxBytes) {
+        Path part = null;
+        try {
+            Files.createDirectories(tmp);
+            part = tmp.resolve(UUID.randomUUID() + ".part");
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            byte[] buffer = new byte[CHUNK];
+            try (OutputStream out = Files.newOutputStream(part)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new RuntimeException("Attachment is larger than " + maxBytes + " bytes");
+                    }
+                    sha.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+            if (size == 0) {
+                throw new RuntimeException("Attachment is empty");
+            }
+
+            String hash = HexFormat.of().formatHex(sha.digest());
+            Path target = path(hash);
+            synchronized (lockFor(hash)) {
+                if (Files.exists(target)) {
+                    // dedup hit: keep the existing file, and tell the sweep it was just used
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    Files.delete(part);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException raced) {
+                        Files.delete(part); // same content uploaded concurrently
+                    }
+                }
+            }
+            return new Stored(hash, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    public Path path(String sha256) {
+        if (sha256 == null || !sha256.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a sha256: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    /**
+     * Delete files not modified since {@code before} that {@code referenced} no longer knows,
+     * plus abandoned temp files. Dedup hits refresh the mtime under the digest's lock, and the
+     * age is checked again under that lock before deleting, so a file that an in-flight upload
+     * is about to reference is never older than the grace period.
+     */
+    public int sweep(Instant before, Predicate<String> referenced) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(file).toInstant().isAfter(before)) {
+                    continue;
+                }
+                if (file.startsWith(tmp)) {
+                    if (Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                    continue;
+                }
+                String hash = file.getFileName().toString();
+                synchronized (lockFor(hash)) {
+                    if (Files.exists(file) && !Files.getLastModifiedTime(file).toInstant().isAfter(before)
+                            && !referenced.test(hash) && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Attachment sweep failed: {}", e.toString());
+        }
+        return deleted;
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.toString());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.BalanceSeries;
+import com.myfinance.tracker.model.LedgerArchiveTotal;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Balance-over-time for the dashboard chart. The database returns one signed total per
+ * (day, currency); those land in a {@code double[]} indexed by day offset and a single
+ * prefix-sum pass turns them into balances, so the cost follows the number of days in the
+ * range rather than the number of transactions. The opening balance is one SUM for base
+ * currency rows plus per-day groups for the others.
+ */
+@Service
+public class BalanceSeriesService {
+
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final LedgerArchiveService archive;
+    private final FxRateTable fx;
+    private final QueryCoalescer coalescer;
+    private final int maxDays;
+
+    public BalanceSeriesService(TransactionRepository transactionRepository,
+                                UserRepository userRepository,
+                                LedgerArchiveService archive,
+                                FxRateTable fx,
+                                QueryCoalescer coalescer,
+                                @Value("${balance.series.max-days:3660}") int maxDays) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.archive = archive;
+        this.fx = fx;
+        this.coalescer = coalescer;
+        this.maxDays = maxDays;
+    }
+
+    public BalanceSeries getBalanceSeries(String username, LocalDate start, LocalDate end, boolean weekly) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+        if (end.isBefore(start)) {
+            throw new RuntimeException("end must not be before start");
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > maxDays) {
+            throw new RuntimeException("Date range is limited to " + maxDays + " days");
+        }
+        String base = fx.baseOf(user);
+        return coalescer.execute("getBalanceSeries",
+                () -> load(user.getId(), base, start, end, weekly), user.getId(), base, start, end, weekly);
+    }
+
+    private BalanceSeries load(Long userId, String base, LocalDate start, LocalDate end, boolean weekly) {
+        String legacy = fx.legacyCurrency();
+
+        Double baseBefore = transactionRepository.getSignedTotalBefore(userId, start, base, legacy);
+        double opening = baseBefore == null ? 0.0 : baseBefore;
+        for (Object[] r : transactionRepository.getForeignSignedTotalsBefore(userId, start, base, legacy)) {
+            opening += converted(r, base);
+        }
+        for (LedgerArchiveTotal t : archive.transactionTotals(userId, ALL_START, start.minusDays(1))) {
+            opening += signed(t, base);
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        double[] delta = new double[days];
+        long first = start.toEpochDay();
+        for (Object[] r : transactionRepository.getSignedTotalsByDay(userId, start, end)) {
+            delta[(int) (((LocalDate) r[0]).toEpochDay() - first)] += converted(r, base);
+        }
+        for (LedgerArchiveTotal t : archive.transactionTotals(userId, start, end)) {
+            delta[(int) (t.getDate().toEpochDay() - first)] += signed(t, base);
+        }
+        return fold(base, start, opening, delta, weekly);
+    }
+
+    // prefix sums over the daily deltas; weekly series keep each week's last day (Sunday) and the range end
+    static BalanceSeries fold(String currency, LocalDate start, double opening, double[] delta, boolean weekly) {
+        List<BalanceSeries.Point> points = new ArrayList<>(weekly ? delta.length / 7 + 2 : delta.length);
+        double balance = opening;
+        double lastReported = opening;
+        for (int i = 0; i < delta.length; i++) {
+            balance += delta[i];
+            LocalDate day = start.plusDays(i);
+            if (!weekly || day.getDayOfWeek() == DayOfWeek.SUNDAY || i == delta.length - 1) {
+                points.add(new BalanceSeries.Point(day, balance, balance - lastReported));
+                lastReported = balance;
+            }
+        }
+        return new BalanceSeries(currency, weekly ? "week" : "day", opening, points);
+    }
+
+    // r = [date, currency, signed sum]
+    private double converted(Object[] r, String base) {
+        double sum = r[2] == null ? 0.0 : ((Number) r[2]).doubleValue();
+        return fx.convert(sum, (String) r[1], base, (LocalDate) r[0]);
+    }
+
+    private double signed(LedgerArchiveTotal t, String base) {
+        double amount = fx.convert(t.getAmount(), t.getCurrency(), base, t.getDate());
+        return t.isCredit() ? amount : -amount;
+    }
+}
@@ -0,0 +1,230 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.BudgetAlert;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.BudgetAlertRepository;
+import com.myfinance.tracker.repository.BudgetRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class BudgetService {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetService.class);
+    private static final double DEFAULT_THRESHOLD = 0.8;
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetAlertRepository alertRepository;
+    private final ExpenseReportService reportService;
+    private final UserRepository userRepository;
+    private final FxRateTable fx;
+
+    public BudgetService(BudgetRepository budgetRepository,
+                         BudgetAlertRepository alertRepository,
+                         ExpenseReportService reportService,
+                         UserRepository userRepository,
+                         FxRateTable fx) {
+        this.budgetRepository = budgetRepository;
+        this.alertRepository = alertRepository;
+        this.reportService = reportService;
+        this.userRepository = userRepository;
+        this.fx = fx;
+    }
+
+    // ✅ List budgets; stale counters are rolled to the current month on the way out
+    @Transactional
+    public List<Budget> getBudgets(String username) {
+        User user = findUser(username);
+        List<Budget> budgets = budgetRepository.findByUser(user);
+        LocalDate current = currentPeriod();
+        for (Budget b : budgets) {
+            if (rollIfStale(b, current)) {
+                budgetRepository.save(b);
+            }
+        }
+        return budgets;
+    }
+
+    // ✅ Create budget, seeding the counter once from this month's expenses
+    @Transactional
+    public Budget addBudget(String username, Budget budget) {
+        User user = findUser(username);
+        validate(budget);
+        if (budgetRepository.existsByUserAndCategory(user, budget.getCategory())) {
+            throw new RuntimeException("Budget already exists for category: " + budget.getCategory());
+        }
+
+        LocalDate start = currentPeriod();
+        budget.setId(null);
+        budget.setUser(user);
+        budget.setPeriodStart(start);
+        budget.setSpent(spentInPeriod(user, budget.getCategory(), start));
+        budget.setAlertLevel(levelFor(budget, budget.getSpent()));
+        return budgetRepository.save(budget);
+    }
+
+    // ✅ Update limit/threshold; the running counter is kept as is
+    @Transactional
+    public Budget updateBudget(String username, Long id, Budget updated) {
+        Budget existing = findOwned(username, id);
+        validate(updated);
+        if (!existing.getCategory().equals(updated.getCategory())) {
+            throw new RuntimeException("Budget category cannot be changed");
+        }
+
+        existing.setMonthlyLimit(updated.getMonthlyLimit());
+        existing.setAlertThreshold(updated.getAlertThreshold());
+        rollIfStale(existing, currentPeriod());
+        // re-arm alerts relative to the new limit without firing retroactively
+        existing.setAlertLevel(levelFor(existing, existing.getSpent()));
+        return budgetRepository.save(existing);
+    }
+
+    @Transactional
+    public void deleteBudget(String username, Long id) {
+        budgetRepository.delete(findOwned(username, id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BudgetAlert> getRecentAlerts(String username) {
+        return alertRepository.findTop50ByUserOrderByCreatedAtDesc(findUser(username));
+    }
+
+    /**
+     * Apply a debit delta (negative when a debit is removed) to the budget for this category.
+     * O(1): one locked row read and one write. Debits dated outside the current month do not
+     * touch the counter. Amounts are converted to the user's base currency first.
+     */
+    @Transactional
+    public void recordDebit(User user, String category, LocalDate date, double amount, String currency) {
+        if (user == null || category == null || category.isBlank() || date == null || amount == 0.0) {
+            return;
+        }
+        double baseAmount = fx.convert(amount, currency, fx.baseOf(user), date);
+
+        budgetRepository.findForUpdate(user.getId(), category).ifPresent(b -> {
+            LocalDate current = currentPeriod();
+            rollIfStale(b, current);
+            if (!date.withDayOfMonth(1).equals(current)) {
+                budgetRepository.save(b);
+                return;
+            }
+
+            double after = Math.max(0.0, b.getSpent() + baseAmount);
+            b.setSpent(after);
+
+            int level = levelFor(b, after);
+            if (level > b.getAlertLevel()) {
+                fireAlerts(b, b.getAlertLevel(), level);
+            }
+            // also lower the level so a later re-crossing fires again
+            b.setAlertLevel(level);
+            budgetRepository.save(b);
+        });
+    }
+
+    /**
+     * Re-express a user's budgets after a base currency change: limits convert at today's rate
+     * and this month's counters are recounted in the new currency. No alerts fire for the move.
+     */
+    @Transactional
+    public void rebase(User user, String from, String to) {
+        List<Budget> budgets = budgetRepository.findByUser(user);
+        if (budgets.isEmpty()) {
+            return;
+        }
+        LocalDate start = currentPeriod();
+        Map<String, Double> spent = reportService.getTotalByCategoryInRange(
+                user.getId(), to, start, start.withDayOfMonth(start.lengthOfMonth()));
+        for (Budget b : budgets) {
+            b.setMonthlyLimit(fx.convert(b.getMonthlyLimit(), from, to, LocalDate.now()));
+            b.setPeriodStart(start);
+            b.setSpent(spent.getOrDefault(b.getCategory(), 0.0));
+            b.setAlertLevel(levelFor(b, b.getSpent()));
+            budgetRepository.save(b);
+        }
+    }
+
+    // Helper: lazily move the counter to a new month instead of rescanning history
+    private boolean rollIfStale(Budget b, LocalDate current) {
+        if (b.getPeriodStart() != null && !b.getPeriodStart().isBefore(current)) {
+            return false;
+        }
+        b.setPeriodStart(current);
+        b.setSpent(0.0);
+        b.setAlertLevel(0);
+        return true;
+    }
+
+    private int levelFor(Budget b, double spent) {
+        double limit = b.getMonthlyLimit();
+        if (spent > limit) {
+            return 2;
+        }
+        double threshold = b.getAlertThreshold() != null ? b.getAlertThreshold() : DEFAULT_THRESHOLD;
+        return spent >= limit * threshold ? 1 : 0;
+    }
+
+    private void fireAlerts(Budget b, int fromLevel, int toLevel) {
+        for (int level = fromLevel + 1; level <= toLevel; level++) {
+            BudgetAlert alert = new BudgetAlert();
+            alert.setBudgetId(b.getId());
+            alert.setCategory(b.getCategory());
+            alert.setLevel(level == 2 ? "EXCEEDED" : "THRESHOLD");
+            alert.setSpent(b.getSpent());
+            alert.setMonthlyLimit(b.getMonthlyLimit());
+            alert.setPeriodStart(b.getPeriodStart());
+            alert.setCreatedAt(LocalDateTime.now());
+            alert.setUser(b.getUser());
+            alertRepository.save(alert);
+            log.info("Budget alert {} for budget={} category='{}' spent={} limit={}",
+                    alert.getLevel(), b.getId(), b.getCategory(), b.getSpent(), b.getMonthlyLimit());
+        }
+    }
+
+    private double spentInPeriod(User user, String category, LocalDate start) {
+        LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
+        return reportService.getTotalByCategoryInRange(user.getId(), fx.baseOf(user), start, end)
+                .getOrDefault(category, 0.0);
+    }
+
+    private void validate(Budget budget) {
+        if (budget.getCategory() == null || budget.getCategory().isBlank()) {
+            throw new RuntimeException("Budget category cannot be empty");
+        }
+        if (budget.getMonthlyLimit() == null || budget.getMonthlyLimit() <= 0) {
+            throw new RuntimeException("Budget limit must be positive");
+        }
+        Double t = budget.getAlertThreshold();
+        if (t != null && (t <= 0 || t > 1)) {
+            throw new RuntimeException("Alert threshold must be between 0 and 1");
+        }
+    }
+
+    private Budget findOwned(String username, Long id) {
+        Budget existing = budgetRepository.findWithUserById(id)
+                .orElseThrow(() -> new RuntimeException("Budget not found"));
+        if (!existing.getUser().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized");
+        }
+        return existing;
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private LocalDate currentPeriod() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+}
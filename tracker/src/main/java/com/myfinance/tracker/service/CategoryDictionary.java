@@ -0,0 +1,183 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user category id ↔ name dictionary. Expense rows and the expense reports carry only
+ * {@code category_id}; names are attached here when rows are serialised, and category names
+ * in filters become ids before the query. A user's categories are read in one query and kept
+ * until CategoryService changes them here, or for {@code categories.dictionary.ttl-ms}, which
+ * bounds how long a rename or delete on another instance goes unseen. An id or name the
+ * dictionary does not know (a category created since, possibly by another instance) reloads
+ * the user once. If it is still unknown, it is remembered as missing for
+ * {@code categories.dictionary.missing-ttl-ms} only, so a repeated request for it does not
+ * reload every time, and a category created meanwhile shows up soon after.
+ */
+@Component
+public class CategoryDictionary {
+
+    private static final int MAX_MISSING = 1000; // per user; filters can send any names
+
+    private final CategoryRepository categoryRepository;
+    private final Map<Long, Names> users;
+    private final long ttlNanos;
+    private final long missingTtlNanos;
+
+    public CategoryDictionary(CategoryRepository categoryRepository,
+                              @Value("${categories.dictionary.max-users:10000}") int maxUsers,
+                              @Value("${categories.dictionary.ttl-ms:60000}") long ttlMs,
+                              @Value("${categories.dictionary.missing-ttl-ms:10000}") long missingTtlMs) {
+        this.categoryRepository = categoryRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.missingTtlNanos = TimeUnit.MILLISECONDS.toNanos(missingTtlMs);
+        // least recently read users drop out and are reloaded on their next read
+        this.users = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Names> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    // one user's categories, and the shared ones; replaced whole on reload, misses included
+    private static final class Names {
+        final long loadedAt = System.nanoTime();
+        final Map<Long, String> byId = new ConcurrentHashMap<>();
+        final Map<String, List<Long>> byName = new HashMap<>(); // lowercased: names are not unique
+        final Map<Long, Long> missingIds = new ConcurrentHashMap<>(); // id → when it was missed
+        final Map<String, Long> missingNames = new ConcurrentHashMap<>(); // lowercased name → when
+
+        Names(List<Object[]> rows) {
+            for (Object[] r : rows) {
+                Long id = (Long) r[0];
+                String name = (String) r[1];
+                byId.put(id, name);
+                byName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(id);
+            }
+        }
+
+    }
+
+    // name of a category the user's rows point at; null for no category
+    public String name(Long userId, Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        Names names = cached(userId);
+        if (names != null && (names.byId.containsKey(categoryId) || missing(names.missingIds, categoryId))) {
+            return names.byId.get(categoryId);
+        }
+        names = reload(userId);
+        String name = names.byId.get(categoryId);
+        if (name == null) {
+            // a row may point at another user's category: look it up once, by id only
+            name = categoryRepository.findById(categoryId).map(Category::getName).orElse(null);
+            if (name != null) {
+                names.byId.put(categoryId, name);
+            } else {
+                remember(names.missingIds, categoryId);
+            }
+        }
+        return name;
+    }
+
+    // ids of the user's categories with these names, ignoring case
+    public Set<Long> ids(Long userId, Collection<String> categories) {
+        if (categories.isEmpty()) {
+            return Set.of();
+        }
+        Names names = cached(userId);
+        if (names == null || !categories.stream().allMatch(c -> knows(names, c))) {
+            Names loaded = reload(userId);
+            for (String c : categories) {
+                if (!loaded.byName.containsKey(c.toLowerCase(Locale.ROOT))) {
+                    remember(loaded.missingNames, c.toLowerCase(Locale.ROOT));
+                }
+            }
+            return collect(loaded, categories);
+        }
+        return collect(names, categories);
+    }
+
+    // fill in the category names of rows read from the expense view
+    public List<Expense> named(Long userId, List<Expense> rows) {
+        for (Expense e : rows) {
+            e.setCategory(name(userId, e.getCategoryId()));
+        }
+        return rows;
+    }
+
+    /**
+     * Drop a user's dictionary once the current transaction commits, for writes that rename
+     * or delete categories; a null user (a shared category) drops every user's.
+     */
+    public void forget(Long userId) {
+        Runnable drop = userId != null ? () -> users.remove(userId) : users::clear;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop.run();
+                }
+            });
+        } else {
+            drop.run();
+        }
+    }
+
+    // the user's entry, unless it is older than the ttl
+    private Names cached(Long userId) {
+        Names names = users.get(userId);
+        return names != null && System.nanoTime() - names.loadedAt < ttlNanos ? names : null;
+    }
+
+    private Names reload(Long userId) {
+        Names names = new Names(categoryRepository.findIdsAndNamesByUserId(userId));
+        users.put(userId, names);
+        return names;
+    }
+
+    private boolean knows(Names names, String category) {
+        String key = category.toLowerCase(Locale.ROOT);
+        return names.byName.containsKey(key) || missing(names.missingNames, key);
+    }
+
+    private <T> boolean missing(Map<T, Long> missing, T key) {
+        Long since = missing.get(key);
+        return since != null && System.nanoTime() - since < missingTtlNanos;
+    }
+
+    private static <T> void remember(Map<T, Long> missing, T key) {
+        if (missing.size() >= MAX_MISSING) {
+            missing.clear();
+        }
+        missing.put(key, System.nanoTime());
+    }
+
+    private static Set<Long> collect(Names names, Collection<String> categories) {
+        Set<Long> ids = new HashSet<>();
+        for (String c : categories) {
+            ids.addAll(names.byName.getOrDefault(c.toLowerCase(Locale.ROOT), List.of()));
+        }
+        return ids;
+    }
+}
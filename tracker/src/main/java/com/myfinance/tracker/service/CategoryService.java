@@ -13,15 +13,22 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryDictionary categoryDictionary;
+
     public List<Category> getCategoriesByUser(User user) {
         return categoryRepository.findByUser(user);
     }
 
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        categoryDictionary.forget(saved.getUser() != null ? saved.getUser().getId() : null);
+        return saved;
     }
 
     public void deleteCategory(Long id) {
+        categoryRepository.findById(id).ifPresent(c ->
+                categoryDictionary.forget(c.getUser() != null ? c.getUser().getId() : null));
         categoryRepository.deleteById(id);
     }
 }
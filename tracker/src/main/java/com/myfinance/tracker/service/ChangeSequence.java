@@ -0,0 +1,62 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.LedgerTombstone;
+import com.myfinance.tracker.repository.LedgerTombstoneRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user change sequence for ledger writes, read back by /sync. The counter lives on the
+ * user row and is bumped with one atomic UPDATE per write transaction; every row that
+ * transaction touches gets the same number. The UPDATE keeps the user row locked until
+ * commit, so a user's sequences become visible in order and a client that has seen N never
+ * misses a later commit numbered N or lower.
+ */
+@Component
+public class ChangeSequence {
+
+    private final UserRepository userRepository;
+    private final LedgerTombstoneRepository tombstoneRepository;
+
+    public ChangeSequence(UserRepository userRepository, LedgerTombstoneRepository tombstoneRepository) {
+        this.userRepository = userRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    // sequence for the current transaction's writes of this user; must run inside a transaction
+    public long next(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Ledger writes must run in a transaction");
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Long> reserved = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (reserved == null) {
+            reserved = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, reserved);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+                }
+            });
+        }
+        return reserved.computeIfAbsent(userId, this::increment);
+    }
+
+    public void recordDelete(Long userId, String kind, Long entryId) {
+        tombstoneRepository.save(new LedgerTombstone(null, userId, kind, entryId, next(userId), LocalDateTime.now()));
+    }
+
+    private long increment(Long userId) {
+        if (userRepository.incrementChangeSeq(userId) != 1) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        return userRepository.findChangeSeq(userId);
+    }
+}
@@ -0,0 +1,443 @@
+package com.myfinance.tracker.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the Roaring layout (Chambi, Lemire et al.). Values are
+ * split by their high 16 bits into chunks of 65536. A chunk holding at most 4096 values is a
+ * sorted char[] (2 bytes per value), a denser one a 1024-word bitset (1 bit per possible
+ * value), so neither form is ever larger than 8 KB. AND/OR/ANDNOT walk both chunk lists in
+ * key order and combine matching chunks; AND skips every chunk the other side lacks.
+ */
+public class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int size;
+
+    public boolean add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key, new Chunk());
+        }
+        return chunks[i].add((char) value);
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (i < 0 || !chunks[i].remove((char) value)) {
+            return false;
+        }
+        if (chunks[i].card == 0) {
+            removeChunk(i);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && chunks[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += chunks[i].card;
+        }
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap out = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                out.append(keys[i], chunks[i].and(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap out = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                out.append(keys[i], chunks[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                out.append(other.keys[j], other.chunks[j].copy());
+                j++;
+            } else {
+                out.append(keys[i], chunks[i].or(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap out = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                out.append(keys[i], chunks[i].andNot(other.chunks[j]));
+            } else {
+                out.append(keys[i], chunks[i].copy());
+            }
+        }
+        return out;
+    }
+
+    public static CompressedBitmap orAll(Collection<CompressedBitmap> bitmaps) {
+        CompressedBitmap out = new CompressedBitmap();
+        for (CompressedBitmap b : bitmaps) {
+            out = out.or(b);
+        }
+        return out;
+    }
+
+    public CompressedBitmap copy() {
+        return or(new CompressedBitmap());
+    }
+
+    // ascending order
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int[] n = {0};
+        forEach(v -> out[n[0]++] = v);
+        return out;
+    }
+
+    // approximate heap footprint of the values, for stats
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            bytes += 2 + (chunks[i].words != null ? WORDS * 8L : chunks[i].card * 2L);
+        }
+        return bytes;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            Chunk c = chunks[i];
+            out.writeChar(keys[i]);
+            out.writeInt(c.card);
+            if (c.words != null) {
+                for (long w : c.words) {
+                    out.writeLong(w);
+                }
+            } else {
+                for (int k = 0; k < c.card; k++) {
+                    out.writeChar(c.values[k]);
+                }
+            }
+        }
+    }
+
+    public static CompressedBitmap read(DataInputStream in) throws IOException {
+        CompressedBitmap b = new CompressedBitmap();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            char key = in.readChar();
+            Chunk c = new Chunk();
+            c.card = in.readInt();
+            if (c.card > ARRAY_MAX) {
+                c.values = null;
+                c.words = new long[WORDS];
+                for (int k = 0; k < WORDS; k++) {
+                    c.words[k] = in.readLong();
+                }
+            } else {
+                c.values = new char[c.card];
+                for (int k = 0; k < c.card; k++) {
+                    c.values[k] = in.readChar();
+                }
+            }
+            b.append(key, c);
+        }
+        return b;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+    }
+
+    // add a chunk after every existing key; empty results are dropped
+    private void append(char key, Chunk chunk) {
+        if (chunk != null && chunk.card > 0) {
+            insertChunk(size, key, chunk);
+        }
+    }
+
+    private void insertChunk(int i, char key, Chunk chunk) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            chunks = Arrays.copyOf(chunks, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(chunks, i, chunks, i + 1, size - i);
+        keys[i] = key;
+        chunks[i] = chunk;
+        size++;
+    }
+
+    private void removeChunk(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(chunks, i + 1, chunks, i, size - i - 1);
+        chunks[--size] = null;
+    }
+
+    // 65536 possible values: a sorted char[] while sparse, a bitset once dense
+    private static final class Chunk {
+        char[] values = new char[4];
+        long[] words;
+        int card;
+
+        boolean add(char v) {
+            if (words != null) {
+                long mask = 1L << v;
+                if ((words[v >>> 6] & mask) != 0) {
+                    return false;
+                }
+                words[v >>> 6] |= mask;
+                card++;
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if (i >= 0) {
+                return false;
+            }
+            if (card == ARRAY_MAX) {
+                toBitset();
+                return add(v);
+            }
+            i = -i - 1;
+            if (card == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, card * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, card - i);
+            values[i] = v;
+            card++;
+            return true;
+        }
+
+        boolean remove(char v) {
+            if (words != null) {
+                long mask = 1L << v;
+                if ((words[v >>> 6] & mask) == 0) {
+                    return false;
+                }
+                words[v >>> 6] &= ~mask;
+                card--;
+                if (card <= ARRAY_MAX) {
+                    toArray();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(values, i + 1, values, i, card - i - 1);
+            card--;
+            return true;
+        }
+
+        boolean contains(char v) {
+            if (words != null) {
+                return (words[v >>> 6] & (1L << v)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, card, v) >= 0;
+        }
+
+        Chunk and(Chunk o) {
+            if (words == null || o.words == null) {
+                // walk the sparse side, probe the other
+                Chunk sparse = words == null ? this : o;
+                Chunk other = sparse == this ? o : this;
+                Chunk out = new Chunk();
+                out.values = new char[Math.min(sparse.card, Math.max(other.card, 1))];
+                for (int k = 0; k < sparse.card; k++) {
+                    char v = sparse.values[k];
+                    if (other.contains(v)) {
+                        out.values[out.card++] = v;
+                    }
+                }
+                return out;
+            }
+            Chunk out = bitset();
+            for (int k = 0; k < WORDS; k++) {
+                out.words[k] = words[k] & o.words[k];
+                out.card += Long.bitCount(out.words[k]);
+            }
+            return out.normalise();
+        }
+
+        Chunk or(Chunk o) {
+            if (words == null && o.words == null && card + o.card <= ARRAY_MAX) {
+                Chunk out = new Chunk();
+                out.values = new char[card + o.card];
+                int i = 0;
+                int j = 0;
+                while (i < card || j < o.card) {
+                    char v;
+                    if (j >= o.card || (i < card && values[i] < o.values[j])) {
+                        v = values[i++];
+                    } else if (i >= card || values[i] > o.values[j]) {
+                        v = o.values[j++];
+                    } else {
+                        v = values[i++];
+                        j++;
+                    }
+                    out.values[out.card++] = v;
+                }
+                return out;
+            }
+            Chunk out = bitset();
+            setInto(out.words);
+            o.setInto(out.words);
+            for (long w : out.words) {
+                out.card += Long.bitCount(w);
+            }
+            return out.normalise();
+        }
+
+        Chunk andNot(Chunk o) {
+            if (words == null) {
+                Chunk out = new Chunk();
+                out.values = new char[Math.max(card, 1)];
+                for (int k = 0; k < card; k++) {
+                    if (!o.contains(values[k])) {
+                        out.values[out.card++] = values[k];
+                    }
+                }
+                return out;
+            }
+            Chunk out = bitset();
+            System.arraycopy(words, 0, out.words, 0, WORDS);
+            if (o.words != null) {
+                for (int k = 0; k < WORDS; k++) {
+                    out.words[k] &= ~o.words[k];
+                }
+            } else {
+                for (int k = 0; k < o.card; k++) {
+                    out.words[o.values[k] >>> 6] &= ~(1L << o.values[k]);
+                }
+            }
+            for (long w : out.words) {
+                out.card += Long.bitCount(w);
+            }
+            return out.normalise();
+        }
+
+        Chunk copy() {
+            Chunk out = new Chunk();
+            out.card = card;
+            out.words = words == null ? null : words.clone();
+            out.values = words == null ? Arrays.copyOf(values, Math.max(card, 1)) : null;
+            return out;
+        }
+
+        void forEach(int high, IntConsumer action) {
+            if (words == null) {
+                for (int k = 0; k < card; k++) {
+                    action.accept(high | values[k]);
+                }
+                return;
+            }
+            for (int k = 0; k < WORDS; k++) {
+                long w = words[k];
+                while (w != 0) {
+                    action.accept(high | (k << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        private void setInto(long[] target) {
+            if (words != null) {
+                for (int k = 0; k < WORDS; k++) {
+                    target[k] |= words[k];
+                }
+            } else {
+                for (int k = 0; k < card; k++) {
+                    target[values[k] >>> 6] |= 1L << values[k];
+                }
+            }
+        }
+
+        private static Chunk bitset() {
+            Chunk c = new Chunk();
+            c.values = null;
+            c.words = new long[WORDS];
+            return c;
+        }
+
+        private Chunk normalise() {
+            if (words != null && card <= ARRAY_MAX) {
+                toArray();
+            }
+            return this;
+        }
+
+        private void toBitset() {
+            long[] w = new long[WORDS];
+            for (int k = 0; k < card; k++) {
+                w[values[k] >>> 6] |= 1L << values[k];
+            }
+            words = w;
+            values = null;
+        }
+
+        private void toArray() {
+            char[] v = new char[Math.max(card, 1)];
+            int[] n = {0};
+            forEach(0, x -> v[n[0]++] = (char) x);
+            values = v;
+            words = null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.LegacyExpense;
+import com.myfinance.tracker.model.MergedExpenseId;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.AttachmentRepository;
+import com.myfinance.tracker.repository.LegacyExpenseRepository;
+import com.myfinance.tracker.repository.MergedExpenseIdRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Online migration of the former {@code expense} table into {@code transactions}, where
+ * expenses now live as debit rows. Runs in the background while the app serves traffic, one
+ * user batch per database transaction under that user's row lock (ChangeSequence), so it
+ * never races the user's own writes. A batch holds whole days, so duplicates on one date are
+ * always paired in the same batch.
+ *
+ * Every legacy row either pairs with the debit transaction it mirrored (same change sequence,
+ * or same date, amount and title for rows older than /sync) or, when that copy is missing,
+ * becomes a new debit. A paired transaction without a category takes the expense's, which was
+ * free text and often never reached the copy. Attachments move to the transaction's id, /sync
+ * clients get a tombstone for the old expense id and the row under its new one, the old id is
+ * recorded as a MergedExpenseId so stale edits to it are refused, and the legacy row is deleted. Budgets already counted every expense once and are left alone.
+ */
+@Service
+public class ExpenseMergeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseMergeService.class);
+
+    private final LegacyExpenseRepository legacyRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final AttachmentRepository attachmentRepository;
+    private final MergedExpenseIdRepository mergedIds;
+    private final ExpenseService expenseService;
+    private final ChangeSequence changes;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ExpenseMergeService(LegacyExpenseRepository legacyRepository,
+                               TransactionRepository transactionRepository,
+                               UserRepository userRepository,
+                               AttachmentRepository attachmentRepository,
+                               MergedExpenseIdRepository mergedIds,
+                               ExpenseService expenseService,
+                               ChangeSequence changes,
+                               ApplicationEventPublisher events,
+                               TransactionTemplate tx,
+                               @Value("${ledger.expense-merge.enabled:true}") boolean enabled,
+                               @Value("${ledger.expense-merge.batch-size:500}") int batchSize) {
+        this.legacyRepository = legacyRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.attachmentRepository = attachmentRepository;
+        this.mergedIds = mergedIds;
+        this.expenseService = expenseService;
+        this.changes = changes;
+        this.events = events;
+        this.tx = tx;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.expense-merge.delay-ms:60000}",
+               initialDelayString = "${ledger.expense-merge.delay-ms:60000}")
+    public void scheduledMerge() {
+        if (enabled) {
+            mergeAll();
+        }
+    }
+
+    // Merge every remaining legacy row; returns how many were merged
+    public int mergeAll() {
+        int merged = 0;
+        int users = 0;
+        List<Long> userIds;
+        while (!(userIds = legacyRepository.findUserIds(PageRequest.of(0, 100))).isEmpty()) {
+            for (Long userId : userIds) {
+                Integer n;
+                do {
+                    n = tx.execute(status -> mergeBatch(userId));
+                    merged += n == null ? 0 : n;
+                } while (n != null && n > 0);
+                users++;
+            }
+        }
+        if (merged > 0) {
+            log.info("Expense merge: folded {} legacy expense rows of {} users into transactions", merged, users);
+        }
+        return merged;
+    }
+
+    public long remaining() {
+        return legacyRepository.count();
+    }
+
+    // one batch of one user: the oldest batchSize rows, extended to the end of the last day
+    private int mergeBatch(Long userId) {
+        List<LegacyExpense> first = legacyRepository.findByUserIdOrderByDateAscIdAsc(userId, PageRequest.of(0, batchSize));
+        if (first.isEmpty()) {
+            return 0;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            legacyRepository.deleteAllInBatch(first); // nobody left to show them to
+            return first.size();
+        }
+        long seq = changes.next(userId); // locks the user row for the rest of the batch
+        List<LegacyExpense> rows = legacyRepository.findByUserIdAndDateLessThanEqual(userId,
+                first.get(first.size() - 1).getDate());
+
+        Set<LocalDate> dates = rows.stream().map(LegacyExpense::getDate).collect(Collectors.toSet());
+        List<Transaction> debits = transactionRepository.findByUserIdAndDateIn(userId, dates).stream()
+                .filter(t -> "debit".equalsIgnoreCase(t.getType()))
+                .collect(Collectors.toList());
+        Map<Long, Transaction> debitsById = debits.stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        Set<Long> liveDebitIds = transactionRepository.findByUserIdAndIdIn(userId,
+                        rows.stream().map(LegacyExpense::getId).collect(Collectors.toList())).stream()
+                .filter(t -> "debit".equalsIgnoreCase(t.getType()))
+                .map(Transaction::getId)
+                .collect(Collectors.toSet());
+        Set<Long> paired = new HashSet<>();
+
+        for (LegacyExpense e : rows) {
+            Transaction t = pair(e, debits, paired);
+            if (t == null) {
+                t = new Transaction();
+                t.setDescription(e.getTitle() != null ? e.getTitle() : "");
+                t.setAmount(e.getAmount() == null ? 0.0 : e.getAmount());
+                t.setType("debit");
+                t.setDate(e.getDate());
+                t.setCurrency(e.getCurrency());
+                t.setUser(user);
+                t.setCategory(expenseService.categoryFor(user, e.getCategory()));
+                t.setChangeSeq(seq);
+                t = transactionRepository.save(t);
+                events.publishEvent(LedgerChangedEvent.created(user, LedgerEntry.of(t)));
+            } else if (t.getCategory() == null && e.getCategory() != null && !e.getCategory().isBlank()) {
+                LedgerEntry before = LedgerEntry.of(t);
+                t.setCategory(expenseService.categoryFor(user, e.getCategory()));
+                t.setChangeSeq(seq);
+                events.publishEvent(LedgerChangedEvent.updated(user, before, LedgerEntry.of(t)));
+            } else {
+                t.setChangeSeq(seq); // /sync clients fetch it again, now as the expense with this id
+            }
+            paired.add(t.getId());
+
+            if (!e.getId().equals(t.getId())) {
+                attachmentRepository.moveEntry(userId, LedgerEntry.EXPENSE, e.getId(), t.getId());
+                mergedIds.save(new MergedExpenseId(null, userId, e.getId(), t.getId(), LocalDateTime.now()));
+                if (liveDebitIds.contains(e.getId())) {
+                    // the old expense id is now another expense: resend that one instead of deleting it
+                    Transaction other = debitsById.get(e.getId());
+                    if (other == null) {
+                        other = transactionRepository.findById(e.getId()).orElse(null);
+                    }
+                    if (other != null) {
+                        other.setChangeSeq(seq);
+                    }
+                } else {
+                    changes.recordDelete(userId, LedgerEntry.EXPENSE, e.getId());
+                }
+            }
+        }
+        legacyRepository.deleteAllInBatch(rows);
+        return rows.size();
+    }
+
+    // the unpaired debit this expense was written with, if it still exists
+    private static Transaction pair(LegacyExpense e, List<Transaction> debits, Set<Long> paired) {
+        double amount = e.getAmount() == null ? 0.0 : e.getAmount();
+        String title = e.getTitle() != null ? e.getTitle() : "";
+        Transaction sameFields = null;
+        for (Transaction t : debits) {
+            if (paired.contains(t.getId()) || !t.getDate().equals(e.getDate())) {
+                continue;
+            }
+            // both copies were written under one change sequence
+            if (e.getChangeSeq() != null && e.getChangeSeq().equals(t.getChangeSeq())) {
+                return t;
+            }
+            if (sameFields == null && t.getAmount() == amount
+                    && Objects.equals(t.getDescription() != null ? t.getDescription() : "", title)
+                    && (e.getChangeSeq() == null || t.getChangeSeq() == null)) {
+                sameFields = t;
+            }
+        }
+        return sameFields;
+    }
+}
@@ -1,5 +1,6 @@
 package com.myfinance.tracker.service;
 
+import com.myfinance.tracker.model.LedgerArchiveTotal;
 import com.myfinance.tracker.repository.ExpenseRepository;
 import org.springframework.stereotype.Service;
 
@@ -7,30 +8,102 @@ import java.time.LocalDate;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * Expense reports in the caller's base currency. Base-currency rows are summed by the
+ * database as before; rows in other currencies come back grouped per (key, currency, day)
+ * and are converted through FxRateTable while folding them into the same result.
+ * Years moved to cold storage by LedgerArchiveService are folded in the same way.
+ * The database groups on category ids; CategoryDictionary turns them into names, merging
+ * categories that share a name.
+ */
 @Service
 public class ExpenseReportService {
 
+    // widest range MySQL DATE accepts, used for the all-time reports
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
     private final ExpenseRepository expenseRepository;
+    private final QueryCoalescer coalescer;
+    private final FxRateTable fx;
+    private final LedgerArchiveService archive;
+    private final CategoryDictionary categories;
 
-    public ExpenseReportService(ExpenseRepository expenseRepository) {
+    public ExpenseReportService(ExpenseRepository expenseRepository, QueryCoalescer coalescer, FxRateTable fx,
+                                LedgerArchiveService archive, CategoryDictionary categories) {
         this.expenseRepository = expenseRepository;
+        this.coalescer = coalescer;
+        this.fx = fx;
+        this.archive = archive;
+        this.categories = categories;
+    }
+
+    // Identical concurrent calls (same user + params) share one query through the coalescer.
+    public Map<String, Double> getTotalByCategory(Long userId, String base) {
+        return coalescer.execute("getTotalByCategory", () -> loadTotalByCategory(userId, base), userId, base);
+    }
+
+    public Map<String, Double> getTotalByMonth(Long userId, String base) {
+        return coalescer.execute("getTotalByMonth", () -> loadTotalByMonth(userId, base), userId, base);
+    }
+
+    public Double getTotalInRange(Long userId, String base, LocalDate startDate, LocalDate endDate) {
+        return coalescer.execute("getTotalInRange",
+                () -> loadTotalInRange(userId, base, startDate, endDate), userId, base, startDate, endDate);
+    }
+
+    public Map<String, Double> getTotalByCategoryInRange(Long userId, String base, LocalDate startDate, LocalDate endDate) {
+        return coalescer.execute("getTotalByCategoryInRange",
+                () -> loadTotalByCategoryInRange(userId, base, startDate, endDate), userId, base, startDate, endDate);
+    }
+
+    /**
+     * "yyyy-MM" → category → total for a date range, archived years included. Not coalesced:
+     * only report jobs call it, and they are already deduplicated per user.
+     */
+    public Map<String, Map<String, Double>> getMonthlyCategoryTotals(Long userId, String base,
+                                                                     LocalDate startDate, LocalDate endDate) {
+        Map<String, Map<String, Double>> months = new TreeMap<>();
+        for (Object[] r : expenseRepository.getTotalByMonthAndCategoryInDateRange(
+                userId, startDate, endDate, base, fx.legacyCurrency())) {
+            String key = String.format("%04d-%02d", ((Number) r[0]).intValue(), ((Number) r[1]).intValue());
+            double sum = r[3] == null ? 0.0 : ((Number) r[3]).doubleValue();
+            months.computeIfAbsent(key, k -> new LinkedHashMap<>()).merge(category(userId, r[2]), sum, Double::sum);
+        }
+        for (Object[] r : foreign(userId, base, startDate, endDate)) {
+            LocalDate date = (LocalDate) r[2];
+            String key = String.format("%04d-%02d", date.getYear(), date.getMonthValue());
+            months.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                    .merge(category(userId, r[0]), converted(r, base), Double::sum);
+        }
+        for (LedgerArchiveTotal e : archive.expenseTotals(userId, startDate, endDate)) {
+            String key = String.format("%04d-%02d", e.getDate().getYear(), e.getDate().getMonthValue());
+            months.computeIfAbsent(key, k -> new LinkedHashMap<>()).merge(e.getCategory(), inBase(e, base), Double::sum);
+        }
+        return months;
     }
 
-    public Map<String, Double> getTotalByCategory(Long userId) {
-        List<Object[]> rows = expenseRepository.getTotalByCategory(userId);
+    private Map<String, Double> loadTotalByCategory(Long userId, String base) {
+        List<Object[]> rows = expenseRepository.getTotalByCategory(userId, base, fx.legacyCurrency());
         Map<String, Double> map = new LinkedHashMap<>();
         for (Object[] r : rows) {
-            String category = (String) r[0];
             Double sum = r[1] == null ? 0.0 : ((Number) r[1]).doubleValue();
-            map.put(category, sum);
+            map.merge(category(userId, r[0]), sum, Double::sum);
+        }
+        for (Object[] r : foreign(userId, base, ALL_START, ALL_END)) {
+            map.merge(category(userId, r[0]), converted(r, base), Double::sum);
+        }
+        for (LedgerArchiveTotal e : archive.expenseTotals(userId, ALL_START, ALL_END)) {
+            map.merge(e.getCategory(), inBase(e, base), Double::sum);
         }
         return map;
     }
 
-    public Map<String, Double> getTotalByMonth(Long userId) {
-        List<Object[]> rows = expenseRepository.getTotalByYearMonth(userId);
-        Map<String, Double> map = new LinkedHashMap<>();
+    private Map<String, Double> loadTotalByMonth(Long userId, String base) {
+        List<Object[]> rows = expenseRepository.getTotalByYearMonth(userId, base, fx.legacyCurrency());
+        Map<String, Double> map = new TreeMap<>(); // "yyyy-MM" keys sort chronologically
         for (Object[] r : rows) {
             int year = ((Number) r[0]).intValue();
             int month = ((Number) r[1]).intValue();
@@ -38,23 +111,63 @@ public class ExpenseReportService {
             String key = String.format("%04d-%02d", year, month); // e.g. "2025-08"
             map.put(key, sum);
         }
+        for (Object[] r : foreign(userId, base, ALL_START, ALL_END)) {
+            LocalDate date = (LocalDate) r[2];
+            String key = String.format("%04d-%02d", date.getYear(), date.getMonthValue());
+            map.merge(key, converted(r, base), Double::sum);
+        }
+        for (LedgerArchiveTotal e : archive.expenseTotals(userId, ALL_START, ALL_END)) {
+            String key = String.format("%04d-%02d", e.getDate().getYear(), e.getDate().getMonthValue());
+            map.merge(key, inBase(e, base), Double::sum);
+        }
         return map;
     }
 
-    public Double getTotalInRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        Double total = expenseRepository.getTotalInDateRange(userId, startDate, endDate);
-        return total == null ? 0.0 : total;
+    private Double loadTotalInRange(Long userId, String base, LocalDate startDate, LocalDate endDate) {
+        Double total = expenseRepository.getTotalInDateRange(userId, startDate, endDate, base, fx.legacyCurrency());
+        double sum = total == null ? 0.0 : total;
+        for (Object[] r : foreign(userId, base, startDate, endDate)) {
+            sum += converted(r, base);
+        }
+        for (LedgerArchiveTotal e : archive.expenseTotals(userId, startDate, endDate)) {
+            sum += inBase(e, base);
+        }
+        return sum;
     }
 
     // ✅ NEW: category summary in range
-    public Map<String, Double> getTotalByCategoryInRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<Object[]> rows = expenseRepository.getTotalByCategoryInDateRange(userId, startDate, endDate);
+    private Map<String, Double> loadTotalByCategoryInRange(Long userId, String base, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = expenseRepository.getTotalByCategoryInDateRange(
+                userId, startDate, endDate, base, fx.legacyCurrency());
         Map<String, Double> map = new LinkedHashMap<>();
         for (Object[] r : rows) {
-            String category = (String) r[0];
             Double sum = r[1] == null ? 0.0 : ((Number) r[1]).doubleValue();
-            map.put(category, sum);
+            map.merge(category(userId, r[0]), sum, Double::sum);
+        }
+        for (Object[] r : foreign(userId, base, startDate, endDate)) {
+            map.merge(category(userId, r[0]), converted(r, base), Double::sum);
+        }
+        for (LedgerArchiveTotal e : archive.expenseTotals(userId, startDate, endDate)) {
+            map.merge(e.getCategory(), inBase(e, base), Double::sum);
         }
         return map;
     }
+
+    private List<Object[]> foreign(Long userId, String base, LocalDate start, LocalDate end) {
+        return expenseRepository.getForeignCurrencyTotals(userId, start, end, base, fx.legacyCurrency());
+    }
+
+    private String category(Long userId, Object categoryId) {
+        return categories.name(userId, (Long) categoryId);
+    }
+
+    // r = [category id, currency, date, sum]
+    private double converted(Object[] r, String base) {
+        double sum = r[3] == null ? 0.0 : ((Number) r[3]).doubleValue();
+        return fx.convert(sum, (String) r[1], base, (LocalDate) r[2]);
+    }
+
+    private double inBase(LedgerArchiveTotal e, String base) {
+        return fx.convert(e.getAmount(), e.getCurrency(), base, e.getDate());
+    }
 }
@@ -1,6 +1,9 @@
 package com.myfinance.tracker.service;
 
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
 import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.MergedExpenseId;
 import com.myfinance.tracker.model.Transaction;
 import com.myfinance.tracker.model.User;
 import com.myfinance.tracker.model.Category;
@@ -8,12 +11,21 @@ import com.myfinance.tracker.repository.ExpenseRepository;
 import com.myfinance.tracker.repository.UserRepository;
 import com.myfinance.tracker.repository.TransactionRepository;
 import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.MergedExpenseIdRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Expenses are the debit rows of {@code transactions} (see Expense). Adding, updating or
+ * deleting an expense writes that one row; there is no second copy to keep in step.
+ */
 @Service
 public class ExpenseService {
 
@@ -21,116 +33,154 @@ public class ExpenseService {
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final CategoryRepository categoryRepository;
+    private final TransactionService transactionService;
+    private final BudgetService budgetService;
+    private final ApplicationEventPublisher events;
+    private final FxRateTable fx;
+    private final ChangeSequence changes;
+    private final CategoryDictionary categories;
+    private final MergedExpenseIdRepository mergedIds;
+    private final int legacyIdDays;
 
     public ExpenseService(
             ExpenseRepository expenseRepository,
             UserRepository userRepository,
             TransactionRepository transactionRepository,
-            CategoryRepository categoryRepository
+            CategoryRepository categoryRepository,
+            TransactionService transactionService,
+            BudgetService budgetService,
+            ApplicationEventPublisher events,
+            FxRateTable fx,
+            ChangeSequence changes,
+            CategoryDictionary categories,
+            MergedExpenseIdRepository mergedIds,
+            @Value("${ledger.expense-merge.legacy-id-days:30}") int legacyIdDays
     ) {
         this.expenseRepository = expenseRepository;
         this.userRepository = userRepository;
         this.transactionRepository = transactionRepository;
         this.categoryRepository = categoryRepository;
+        this.transactionService = transactionService;
+        this.budgetService = budgetService;
+        this.events = events;
+        this.fx = fx;
+        this.changes = changes;
+        this.categories = categories;
+        this.mergedIds = mergedIds;
+        this.legacyIdDays = legacyIdDays;
     }
 
-    // ✅ Add Expense + create corresponding Transaction
+    // ✅ Add Expense as a debit Transaction
+    @Transactional
     public Expense addExpense(String username, Expense expense) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        expense.setUser(user);
-        Expense saved = expenseRepository.save(expense);
-
-        createTransactionFromExpense(saved);
-        return saved;
+        Transaction tx = new Transaction();
+        tx.setDescription(expense.getTitle() != null ? expense.getTitle() : "");
+        tx.setAmount(amountOf(expense));
+        tx.setType("debit");
+        tx.setCurrency(expense.getCurrency());
+        tx.setDate(expense.getDate());
+        // budget counter, anomaly check and events all happen in the transaction write
+        return Expense.of(transactionService.save(tx, user, categoryFor(user, expense.getCategory())));
     }
 
     // ✅ Get all user expenses
+    @Transactional(readOnly = true)
     public List<Expense> getUserExpenses(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return expenseRepository.findByUser(user);
+        return categories.named(user.getId(), expenseRepository.findByUser(user));
     }
 
     // ✅ Get user expenses in a date range (for filtering)
+    @Transactional(readOnly = true)
     public List<Expense> getUserExpensesInRange(String username, LocalDate start, LocalDate end) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return expenseRepository.findByUserAndDateBetween(user, start, end);
+        return categories.named(user.getId(), expenseRepository.findByUserAndDateBetween(user, start, end));
     }
 
-    // ✅ Update Expense and matching Transaction
+    // ✅ Update Expense (its debit Transaction)
+    @Transactional
     public Expense updateExpense(String username, Long id, Expense updatedExpense) {
-        Expense existing = expenseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
-
-        if (!existing.getUser().getUsername().equals(username)) {
+        Transaction existing = findDebit(username, id);
+        User user = existing.getUser();
+        if (!user.getUsername().equals(username)) {
             throw new RuntimeException("Unauthorized");
         }
 
-        existing.setTitle(updatedExpense.getTitle());
-        existing.setAmount(updatedExpense.getAmount());
-        existing.setCategory(updatedExpense.getCategory());
-        existing.setDate(updatedExpense.getDate());
-
-        Expense saved = expenseRepository.save(existing);
-
-        transactionRepository.findByUser(existing.getUser()).stream()
-                .filter(tx -> tx.getDescription() != null
-                        && tx.getDescription().equals(existing.getTitle())
-                        && "debit".equalsIgnoreCase(tx.getType()))
-                .findFirst()
-                .ifPresent(tx -> {
-                    tx.setDescription(existing.getTitle());
-                    tx.setAmount(existing.getAmount() == null ? 0.0 : existing.getAmount());
-                    tx.setDate(existing.getDate());
-                    if (existing.getCategory() != null) {
-                        categoryRepository.findByName(existing.getCategory()).ifPresent(tx::setCategory);
-                    }
-                    transactionRepository.save(tx);
-                });
-
-        return saved;
+        LedgerEntry before = LedgerEntry.of(existing);
+        String oldCategory = before.getCategory();
+        LocalDate oldDate = existing.getDate();
+        double oldAmount = existing.getAmount();
+        String oldCurrency = existing.getCurrency();
+        // before the changes: the sequence's native UPDATE flushes the session
+        long seq = changes.next(user.getId());
+
+        existing.setDescription(updatedExpense.getTitle() != null ? updatedExpense.getTitle() : "");
+        existing.setAmount(amountOf(updatedExpense));
+        existing.setCategory(categoryFor(user, updatedExpense.getCategory()));
+        if (updatedExpense.getDate() != null) {
+            existing.setDate(updatedExpense.getDate());
+        }
+        if (updatedExpense.getCurrency() != null && !updatedExpense.getCurrency().isBlank()) {
+            existing.setCurrency(fx.resolveForWrite(updatedExpense.getCurrency(), user));
+        }
+        existing.setChangeSeq(seq);
+
+        Transaction saved = transactionRepository.save(existing);
+        LedgerEntry after = LedgerEntry.of(saved);
+        events.publishEvent(LedgerChangedEvent.updated(user, before, after));
+
+        budgetService.recordDebit(user, oldCategory, oldDate, -oldAmount, oldCurrency);
+        budgetService.recordDebit(user, after.getCategory(), saved.getDate(), saved.getAmount(), saved.getCurrency());
+        return Expense.of(saved);
     }
 
-    // ✅ Delete Expense and matching Transaction
+    // ✅ Delete Expense (its debit Transaction)
+    @Transactional
     public void deleteExpense(String username, Long id) {
-        Expense existing = expenseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
-
+        Transaction existing = findDebit(username, id);
         if (!existing.getUser().getUsername().equals(username)) {
             throw new RuntimeException("Unauthorized");
         }
+        transactionService.delete(existing);
+    }
 
-        expenseRepository.delete(existing);
-
-        transactionRepository.findByUser(existing.getUser()).stream()
-                .filter(tx -> tx.getDescription() != null
-                        && tx.getDescription().equals(existing.getTitle())
-                        && "debit".equalsIgnoreCase(tx.getType()))
-                .findFirst()
-                .ifPresent(transactionRepository::delete);
+    /**
+     * The user's category with this name, created if they have none yet; null for a blank name.
+     * Expense categories were free text, so a name the user never created as a Category is
+     * still kept.
+     */
+    Category categoryFor(User user, String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String trimmed = name.trim();
+        return categoryRepository.findFirstByUserAndNameOrderByIdAsc(user, trimmed).orElseGet(() -> {
+            Category c = new Category();
+            c.setName(trimmed);
+            c.setUser(user);
+            categories.forget(user.getId()); // the name may be remembered as missing
+            return categoryRepository.save(c);
+        });
     }
 
-    // ✅ Helper: create matching Transaction from Expense
-    private void createTransactionFromExpense(Expense expense) {
-        try {
-            Transaction tx = new Transaction();
-            tx.setDescription(expense.getTitle() != null ? expense.getTitle() : "");
-            tx.setAmount(expense.getAmount() == null ? 0.0 : expense.getAmount());
-            tx.setType("debit");
-            tx.setDate(expense.getDate());
-            tx.setUser(expense.getUser());
-
-            if (expense.getCategory() != null && !expense.getCategory().isBlank()) {
-                categoryRepository.findByName(expense.getCategory()).ifPresent(tx::setCategory);
-            } else {
-                tx.setCategory(null);
-            }
-
-            transactionRepository.save(tx);
-        } catch (Exception e) {
-            e.printStackTrace();
+    private Transaction findDebit(String username, Long id) {
+        // an id from the old expense table may now name an unrelated debit: refuse it rather than guess
+        Optional<MergedExpenseId> merged = mergedIds.findForUser(username, id)
+                .filter(m -> m.getMergedAt().isAfter(LocalDateTime.now().minusDays(legacyIdDays)));
+        if (merged.isPresent()) {
+            throw new RuntimeException("Expense id " + id + " is from before the expense merge and is now expense "
+                    + merged.get().getTransactionId() + "; sync again before changing it");
         }
+        return transactionRepository.findWithUserAndCategoryById(id)
+                .filter(t -> "debit".equalsIgnoreCase(t.getType()))
+                .orElseThrow(() -> transactionService.notFound(username, id, "Expense"));
+    }
+
+    private static double amountOf(Expense expense) {
+        return expense.getAmount() == null ? 0.0 : expense.getAmount();
     }
 }
@@ -0,0 +1,211 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory FX rates, one primitive array indexed by (currency, epoch day) and forward-filled,
+ * so a conversion is two array reads. Currency codes map to indexes through a direct
+ * 26^3 table instead of a hash lookup. Rates are the value of one unit in the pivot currency.
+ *
+ * Source file ({@code fx.rates.location}) lines: {@code yyyy-MM-dd,CODE,rate}.
+ */
+@Component
+public class FxRateTable {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRateTable.class);
+    private static final int CODE_SPACE = 26 * 26 * 26;
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final String pivotCurrency;
+    private final String legacyCurrency;
+
+    private volatile Snapshot snapshot;
+
+    public FxRateTable(ResourceLoader resourceLoader,
+                       @Value("${fx.rates.location:file:${app.data-dir}/fx-rates.csv}") String location,
+                       @Value("${fx.pivot-currency:USD}") String pivotCurrency,
+                       @Value("${fx.default-currency:INR}") String legacyCurrency) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.pivotCurrency = pivotCurrency;
+        this.legacyCurrency = legacyCurrency;
+    }
+
+    @PostConstruct
+    public void reload() {
+        Resource resource = resourceLoader.getResource(location);
+        Map<String, TreeMap<Long, Double>> rates = new TreeMap<>();
+        if (resource.exists()) {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("date")) continue;
+                    String[] f = line.split(",");
+                    String code = f[1].trim().toUpperCase();
+                    if (packedCode(code) < 0) {
+                        throw new IllegalStateException("Bad currency code in FX file: " + line);
+                    }
+                    rates.computeIfAbsent(code, k -> new TreeMap<>())
+                            .put(LocalDate.parse(f[0].trim()).toEpochDay(), Double.parseDouble(f[2].trim()));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read FX rates from " + location, e);
+            }
+        } else {
+            log.warn("FX rate file {} not found; amounts can only be kept in the currency they were entered in",
+                    location);
+        }
+        snapshot = Snapshot.build(rates, pivotCurrency);
+        log.info("Loaded FX rates for {} currencies over {} days", snapshot.codes.length, snapshot.days);
+    }
+
+    public boolean supports(String code) {
+        return indexOf(code) >= 0;
+    }
+
+    // whether amounts in one currency can be expressed in the other with the loaded rates
+    public boolean convertible(String from, String to) {
+        return from.equals(to) || (supports(from) && supports(to));
+    }
+
+    // currency stored on rows written before currencies existed
+    public String legacyCurrency() {
+        return legacyCurrency;
+    }
+
+    public String baseOf(User user) {
+        return user.getBaseCurrency() != null ? user.getBaseCurrency() : legacyCurrency;
+    }
+
+    // currency for a new row: the requested code, or the user's base currency when omitted
+    public String resolveForWrite(String requested, User user) {
+        if (requested == null || requested.isBlank()) {
+            return baseOf(user);
+        }
+        String code = requested.trim().toUpperCase();
+        if (!convertible(code, baseOf(user))) {
+            throw new RuntimeException("Unsupported currency: " + requested);
+        }
+        return code;
+    }
+
+    /**
+     * Convert {@code amount} on {@code epochDay}. A null currency means the legacy default.
+     * A currency without rates fails the conversion: adding it unconverted would silently
+     * mix units into the total.
+     */
+    public double convert(double amount, String from, String to, long epochDay) {
+        if (from == null) from = legacyCurrency;
+        if (to == null) to = legacyCurrency;
+        if (from.equals(to) || amount == 0.0) {
+            return amount;
+        }
+        Snapshot s = snapshot;
+        int f = s.indexOf(from);
+        int t = s.indexOf(to);
+        if (f < 0 || t < 0) {
+            throw new IllegalStateException("No FX rate for " + from + " → " + to);
+        }
+        int day = s.dayOffset(epochDay);
+        return amount * s.unitValue[f * s.days + day] / s.unitValue[t * s.days + day];
+    }
+
+    public double convert(double amount, String from, String to, LocalDate date) {
+        return convert(amount, from, to, date == null ? LocalDate.now().toEpochDay() : date.toEpochDay());
+    }
+
+    public int indexOf(String code) {
+        return snapshot.indexOf(code);
+    }
+
+    // "ABC" → 0..17575, or -1 when not three ASCII letters
+    static int packedCode(String code) {
+        if (code == null || code.length() != 3) return -1;
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            if (c < 'A' || c > 'Z') return -1;
+            packed = packed * 26 + (c - 'A');
+        }
+        return packed;
+    }
+
+    private static final class Snapshot {
+        final short[] indexByCode; // packed code → currency index + 1, 0 = unknown
+        final String[] codes;
+        final long firstDay;
+        final int days;
+        final double[] unitValue; // [currency * days + (epochDay - firstDay)]
+
+        private Snapshot(short[] indexByCode, String[] codes, long firstDay, int days, double[] unitValue) {
+            this.indexByCode = indexByCode;
+            this.codes = codes;
+            this.firstDay = firstDay;
+            this.days = days;
+            this.unitValue = unitValue;
+        }
+
+        static Snapshot build(Map<String, TreeMap<Long, Double>> rates, String pivot) {
+            List<String> codes = new ArrayList<>(rates.keySet());
+            if (!codes.contains(pivot)) {
+                codes.add(pivot);
+            }
+            long first = rates.values().stream().mapToLong(TreeMap::firstKey).min()
+                    .orElse(LocalDate.now().toEpochDay());
+            long last = rates.values().stream().mapToLong(TreeMap::lastKey).max().orElse(first);
+            int days = (int) (last - first + 1);
+
+            short[] indexByCode = new short[CODE_SPACE];
+            double[] unitValue = new double[codes.size() * days];
+            for (int c = 0; c < codes.size(); c++) {
+                indexByCode[packedCode(codes.get(c))] = (short) (c + 1);
+                TreeMap<Long, Double> series = rates.get(codes.get(c));
+                if (series == null) {
+                    // pivot not listed in the file: worth exactly one pivot unit every day
+                    Arrays.fill(unitValue, c * days, (c + 1) * days, 1.0);
+                    continue;
+                }
+                // forward-fill gaps; days before the first quote use the first quote
+                double current = series.firstEntry().getValue();
+                for (int d = 0; d < days; d++) {
+                    Double quote = series.get(first + d);
+                    if (quote != null) current = quote;
+                    unitValue[c * days + d] = current;
+                }
+            }
+            return new Snapshot(indexByCode, codes.toArray(new String[0]), first, days, unitValue);
+        }
+
+        int indexOf(String code) {
+            int packed = packedCode(code);
+            return packed < 0 ? -1 : indexByCode[packed] - 1;
+        }
+
+        // dates outside the loaded range clamp to the nearest known day
+        int dayOffset(long epochDay) {
+            long d = epochDay - firstDay;
+            return (int) Math.max(0, Math.min(days - 1, d));
+        }
+    }
+}
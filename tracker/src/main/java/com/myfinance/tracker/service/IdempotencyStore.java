@@ -0,0 +1,289 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.IdempotencyRecord;
+import com.myfinance.tracker.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Expiring store behind the Idempotency-Key header. The in-memory map is the front: the first
+ * request for a key installs a slot, and duplicates arriving on this instance block on that
+ * slot's future instead of executing. The {@code idempotency_keys} table is the durable half;
+ * its unique constraint settles races between instances and keeps responses across restarts.
+ *
+ * While a request runs, heartbeat() refreshes its row every {@code idempotency.heartbeat-ms}.
+ * Only a row whose heartbeat is older than {@code idempotency.stale-ms} (its instance died) is
+ * taken over, so a slow request is never executed a second time.
+ */
+@Service
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final long POLL_MS = 100;
+
+    public enum Decision { PROCEED, REPLAY, MISMATCH, IN_PROGRESS }
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlMs;
+    private final long waitMs;
+    private final long staleMs;
+    private final int maxEntries;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.wait-ms:10000}") long waitMs,
+                            @Value("${idempotency.stale-ms:60000}") long staleMs,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.repository = repository;
+        this.ttlMs = TimeUnit.HOURS.toMillis(ttlHours);
+        this.waitMs = waitMs;
+        this.staleMs = staleMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Decide what to do with a request carrying {@code key}. PROCEED means the caller now owns
+     * the key and must finish with {@link #complete} or {@link #abandon}; REPLAY carries the
+     * stored response. Blocks for at most {@code idempotency.wait-ms} behind an in-flight
+     * duplicate before answering IN_PROGRESS.
+     */
+    public Claim claim(String owner, String key, String requestHash) {
+        String id = slotId(owner, key);
+        long deadline = System.currentTimeMillis() + waitMs;
+        while (true) {
+            long now = System.currentTimeMillis();
+            Slot mine = new Slot(owner, key, requestHash, now + ttlMs);
+            Slot existing = slots.putIfAbsent(id, mine);
+            if (existing == null) {
+                trimIfFull();
+                return claimDurable(id, owner, key, mine, deadline);
+            }
+            if (existing.expiresAt < now) {
+                slots.remove(id, existing);
+                continue;
+            }
+            if (!existing.requestHash.equals(requestHash)) {
+                return new Claim(Decision.MISMATCH, null);
+            }
+            try {
+                Response response = existing.done.get(Math.max(0, deadline - now), TimeUnit.MILLISECONDS);
+                if (response != null) {
+                    return new Claim(Decision.REPLAY, response);
+                }
+                // the first request failed and gave the key up; race for it again
+            } catch (TimeoutException e) {
+                return new Claim(Decision.IN_PROGRESS, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Claim(Decision.IN_PROGRESS, null);
+            } catch (ExecutionException e) {
+                // never completed exceptionally
+                return new Claim(Decision.IN_PROGRESS, null);
+            }
+        }
+    }
+
+    // ✅ Record the response of a request that got PROCEED; waiters and later retries replay it
+    public void complete(String owner, String key, Response response) {
+        try {
+            repository.findByOwnerAndKey(owner, key).ifPresent(r -> {
+                r.setStatus(IdempotencyRecord.Status.COMPLETED);
+                r.setResponseStatus(response.getStatus());
+                r.setContentType(response.getContentType());
+                r.setResponseBody(response.getBody());
+                repository.save(r);
+            });
+        } catch (DataAccessException e) {
+            // the write itself succeeded; local retries still replay from memory
+            log.warn("Could not persist idempotent response for key '{}': {}", key, e.getMessage());
+        }
+        Slot slot = slots.get(slotId(owner, key));
+        if (slot != null) {
+            slot.done.complete(response);
+        }
+    }
+
+    // ✅ Give the key up (server error or exception) so a retry executes again
+    public void abandon(String owner, String key) {
+        String id = slotId(owner, key);
+        try {
+            repository.deleteByOwnerAndKey(owner, key);
+        } catch (DataAccessException e) {
+            log.warn("Could not release idempotency key '{}': {}", key, e.getMessage());
+        }
+        Slot slot = slots.get(id);
+        if (slot != null) {
+            release(id, slot);
+        }
+    }
+
+    // ✅ Keep the rows of requests running here fresh, so other instances do not take them over
+    @Scheduled(fixedRateString = "${idempotency.heartbeat-ms:15000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Slot slot : slots.values()) {
+            if (!slot.running || slot.done.isDone()) {
+                continue;
+            }
+            try {
+                repository.touch(slot.owner, slot.key, now);
+            } catch (DataAccessException e) {
+                log.warn("Could not refresh idempotency key '{}': {}", slot.key, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${idempotency.sweep-ms:600000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        slots.entrySet().removeIf(e -> e.getValue().expiresAt < now);
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("Removed {} expired idempotency keys", removed);
+        }
+    }
+
+    private Claim claimDurable(String id, String owner, String key, Slot mine, long deadline) {
+        try {
+            while (true) {
+                LocalDateTime now = LocalDateTime.now();
+                Optional<IdempotencyRecord> found = repository.findByOwnerAndKey(owner, key);
+                if (found.isEmpty()) {
+                    try {
+                        repository.saveAndFlush(newRecord(owner, key, mine.requestHash, now));
+                        mine.running = true;
+                        return new Claim(Decision.PROCEED, null);
+                    } catch (DataIntegrityViolationException e) {
+                        // another instance inserted the same key first
+                        continue;
+                    }
+                }
+
+                IdempotencyRecord r = found.get();
+                boolean expired = r.getExpiresAt() != null && r.getExpiresAt().isBefore(now);
+                // an IN_PROGRESS row nobody refreshed for this long was left behind by a crashed instance
+                LocalDateTime seen = r.getHeartbeatAt() != null ? r.getHeartbeatAt() : r.getCreatedAt();
+                boolean stale = r.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                        && seen != null
+                        && seen.isBefore(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(staleMs)));
+                if (expired || stale) {
+                    repository.deleteByOwnerAndKey(owner, key);
+                    continue;
+                }
+                if (!r.getRequestHash().equals(mine.requestHash)) {
+                    release(id, mine);
+                    return new Claim(Decision.MISMATCH, null);
+                }
+                if (r.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    Response response = new Response(r.getResponseStatus(), r.getContentType(), r.getResponseBody());
+                    mine.done.complete(response);
+                    return new Claim(Decision.REPLAY, response);
+                }
+                // running on another instance
+                if (System.currentTimeMillis() >= deadline) {
+                    release(id, mine);
+                    return new Claim(Decision.IN_PROGRESS, null);
+                }
+                Thread.sleep(POLL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(id, mine);
+            return new Claim(Decision.IN_PROGRESS, null);
+        } catch (RuntimeException e) {
+            release(id, mine);
+            throw e;
+        }
+    }
+
+    private IdempotencyRecord newRecord(String owner, String key, String requestHash, LocalDateTime now) {
+        IdempotencyRecord r = new IdempotencyRecord();
+        r.setOwner(owner);
+        r.setKey(key);
+        r.setRequestHash(requestHash);
+        r.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        r.setCreatedAt(now);
+        r.setHeartbeatAt(now);
+        r.setExpiresAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+        return r;
+    }
+
+    private void release(String id, Slot slot) {
+        slots.remove(id, slot);
+        slot.done.complete(null);
+    }
+
+    // completed slots are also in the table, so they can go first when memory is tight
+    private void trimIfFull() {
+        if (slots.size() <= maxEntries) {
+            return;
+        }
+        slots.entrySet().removeIf(e -> e.getValue().done.isDone());
+    }
+
+    private static String slotId(String owner, String key) {
+        return owner + '\n' + key;
+    }
+
+    private static final class Slot {
+        final String owner;
+        final String key;
+        final String requestHash;
+        final long expiresAt;
+        // response once finished; null when the owner abandoned the key
+        final CompletableFuture<Response> done = new CompletableFuture<>();
+        // set once this instance holds the durable row and runs the request
+        volatile boolean running;
+
+        Slot(String owner, String key, String requestHash, long expiresAt) {
+            this.owner = owner;
+            this.key = key;
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static final class Claim {
+        private final Decision decision;
+        private final Response response;
+
+        Claim(Decision decision, Response response) {
+            this.decision = decision;
+            this.response = response;
+        }
+
+        public Decision getDecision() { return decision; }
+        public Response getResponse() { return response; }
+    }
+
+    public static final class Response {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body != null ? body : new byte[0];
+        }
+
+        public int getStatus() { return status; }
+        public String getContentType() { return contentType; }
+        public byte[] getBody() { return body; }
+    }
+}
@@ -0,0 +1,128 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold-storage encoding for archived ledger rows: one column at a time (ids, epoch days,
+ * amounts, then dictionary-coded type/currency/category and the free text), gzip'd.
+ * Column order keeps similar values together, which is what makes the compression pay off.
+ */
+final class LedgerArchiveCodec {
+
+    private static final int FORMAT = 1;
+
+    private LedgerArchiveCodec() {
+    }
+
+    static byte[] encode(List<LedgerEntry> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            int n = rows.size();
+            out.writeInt(FORMAT);
+            out.writeInt(n);
+            for (LedgerEntry e : rows) out.writeLong(e.getId() == null ? 0L : e.getId());
+            for (LedgerEntry e : rows) out.writeInt((int) e.getDate().toEpochDay());
+            for (LedgerEntry e : rows) out.writeDouble(e.getAmount());
+            for (LedgerEntry e : rows) out.writeLong(e.getCategoryId() == null ? -1L : e.getCategoryId());
+            writeDictionary(out, rows, 0);
+            writeDictionary(out, rows, 1);
+            writeDictionary(out, rows, 2);
+            for (LedgerEntry e : rows) writeNullable(out, e.getDescription());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<LedgerEntry> decode(String kind, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int format = in.readInt();
+            if (format != FORMAT) {
+                throw new IllegalStateException("Unknown ledger archive format " + format);
+            }
+            int n = in.readInt();
+            long[] id = new long[n];
+            int[] day = new int[n];
+            double[] amount = new double[n];
+            long[] categoryId = new long[n];
+            for (int i = 0; i < n; i++) id[i] = in.readLong();
+            for (int i = 0; i < n; i++) day[i] = in.readInt();
+            for (int i = 0; i < n; i++) amount[i] = in.readDouble();
+            for (int i = 0; i < n; i++) categoryId[i] = in.readLong();
+            String[] type = readDictionary(in, n);
+            String[] currency = readDictionary(in, n);
+            String[] category = readDictionary(in, n);
+
+            List<LedgerEntry> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                rows.add(new LedgerEntry(kind, id[i], type[i], amount[i], currency[i],
+                        LocalDate.ofEpochDay(day[i]), categoryId[i] < 0 ? null : categoryId[i],
+                        category[i], readNullable(in)));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // column 0 = type, 1 = currency, 2 = category; index 0 in the dictionary means null
+    private static void writeDictionary(DataOutputStream out, List<LedgerEntry> rows, int column) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] coded = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String v = column(rows.get(i), column);
+            if (v != null) {
+                coded[i] = codes.computeIfAbsent(v, k -> {
+                    values.add(k);
+                    return values.size();
+                });
+            }
+        }
+        if (values.size() > 0xFFFF) {
+            throw new IllegalStateException("Too many distinct values to archive in one year: " + values.size());
+        }
+        out.writeInt(values.size());
+        for (String v : values) out.writeUTF(v);
+        for (int c : coded) out.writeShort(c);
+    }
+
+    private static String[] readDictionary(DataInputStream in, int n) throws IOException {
+        String[] values = new String[in.readInt() + 1];
+        for (int i = 1; i < values.length; i++) values[i] = in.readUTF();
+        String[] column = new String[n];
+        for (int i = 0; i < n; i++) column[i] = values[in.readUnsignedShort()];
+        return column;
+    }
+
+    private static String column(LedgerEntry e, int column) {
+        switch (column) {
+            case 0: return e.getType();
+            case 1: return e.getCurrency();
+            default: return e.getCategory();
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
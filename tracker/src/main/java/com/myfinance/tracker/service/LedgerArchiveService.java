@@ -0,0 +1,264 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.JournalEvent;
+import com.myfinance.tracker.model.LedgerArchive;
+import com.myfinance.tracker.model.LedgerArchiveTotal;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.JournalEventRepository;
+import com.myfinance.tracker.repository.LedgerArchiveRepository;
+import com.myfinance.tracker.repository.LedgerArchiveTotalRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Moves closed years out of the hot {@code transactions} table into compressed
+ * {@link LedgerArchive} rows, one per (user, kind, year). The last {@code ledger.archive.hot-years}
+ * calendar years always stay hot. Each archive is written with its {@link LedgerArchiveTotal}
+ * rows, which the summaries and reports read; only row-level readers (listing, export,
+ * merchant rebuild, journal baseline, filtered aggregations) decode the payloads.
+ * Archived entries are read-only: updates and deletes of their ids are refused.
+ */
+@Service
+public class LedgerArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerArchiveService.class);
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+
+    private final LedgerArchiveRepository archiveRepository;
+    private final LedgerArchiveTotalRepository totalRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final JournalEventRepository journalRepository;
+    private final LedgerPartitionManager partitions;
+    private final TransactionIndexService transactionIndex;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int hotYears;
+
+    public LedgerArchiveService(LedgerArchiveRepository archiveRepository,
+                                LedgerArchiveTotalRepository totalRepository,
+                                TransactionRepository transactionRepository,
+                                UserRepository userRepository,
+                                JournalEventRepository journalRepository,
+                                LedgerPartitionManager partitions,
+                                TransactionIndexService transactionIndex,
+                                TransactionTemplate tx,
+                                @Value("${ledger.archive.enabled:false}") boolean enabled,
+                                @Value("${ledger.archive.hot-years:2}") int hotYears) {
+        this.archiveRepository = archiveRepository;
+        this.totalRepository = totalRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.journalRepository = journalRepository;
+        this.partitions = partitions;
+        this.transactionIndex = transactionIndex;
+        this.tx = tx;
+        this.enabled = enabled;
+        this.hotYears = Math.max(1, hotYears);
+    }
+
+    @Scheduled(cron = "${ledger.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveClosedYears();
+        }
+    }
+
+    // first day that is still hot, e.g. 2025-01-01 in 2026 with two hot years
+    public LocalDate hotCutoff() {
+        return LocalDate.now().minusYears(hotYears - 1L).withDayOfYear(1);
+    }
+
+    /**
+     * Archive everything dated before {@link #hotCutoff()}, one user per database transaction,
+     * then drop year partitions that became empty. Returns the number of rows moved.
+     */
+    public int archiveClosedYears() {
+        LocalDate cutoff = hotCutoff();
+        TreeSet<Long> userIds = new TreeSet<>(transactionRepository.findUserIdsWithEntriesBefore(cutoff));
+
+        int moved = 0;
+        for (Long userId : userIds) {
+            Integer n = tx.execute(status -> archiveUser(userId, cutoff));
+            moved += n == null ? 0 : n;
+        }
+        partitions.dropEmptyPartitionsBefore(cutoff);
+        log.info("Ledger archive: moved {} rows dated before {} for {} users", moved, cutoff, userIds.size());
+        return moved;
+    }
+
+    /**
+     * Write the totals of archives that have none yet (archived before totals existed), one
+     * archive per database transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTotals() {
+        List<Long> missing = archiveRepository.findIdsWithoutTotals();
+        for (Long id : missing) {
+            tx.executeWithoutResult(status -> archiveRepository.findById(id).ifPresent(a ->
+                    writeTotals(a, LedgerArchiveCodec.decode(a.getKind(), a.getPayload()))));
+        }
+        if (!missing.isEmpty()) {
+            log.info("Ledger archive: wrote totals for {} archives", missing.size());
+        }
+    }
+
+    // pre-summed archived transactions per (day, type, currency, category)
+    public List<LedgerArchiveTotal> transactionTotals(Long userId, LocalDate start, LocalDate end) {
+        return totalRepository.findInRange(userId, LedgerEntry.TRANSACTION, start, end);
+    }
+
+    // pre-summed archived expenses, with the same legacy-year rule as archivedExpenses
+    public List<LedgerArchiveTotal> expenseTotals(Long userId, LocalDate start, LocalDate end) {
+        return totalRepository.findDebitsInRange(userId, LedgerEntry.EXPENSE, LedgerEntry.TRANSACTION, start, end);
+    }
+
+    // whether the user's archives hold this id: such entries are read-only rather than missing
+    public boolean isArchived(String username, Long entryId) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null || entryId == null) {
+            return false;
+        }
+        return read(archiveRepository.findIndex(user.getId(), List.of(LedgerEntry.TRANSACTION, LedgerEntry.EXPENSE),
+                        ALL_START.getYear(), LocalDate.now().getYear()), ALL_START, LocalDate.now()).stream()
+                .anyMatch(e -> entryId.equals(e.getId()));
+    }
+
+    public List<LedgerEntry> archivedTransactions(Long userId, LocalDate start, LocalDate end) {
+        return read(archiveRepository.findIndex(userId, List.of(LedgerEntry.TRANSACTION), start.getYear(), end.getYear()),
+                start, end);
+    }
+
+    /**
+     * Archived expenses: the debit rows of the transaction archive, except for years archived
+     * while expenses still had their own table, which keep reading that (expense) archive so
+     * no spend is counted twice.
+     */
+    public List<LedgerEntry> archivedExpenses(Long userId, LocalDate start, LocalDate end) {
+        Map<Boolean, List<Object[]>> index = archiveRepository.findIndex(userId,
+                        List.of(LedgerEntry.EXPENSE, LedgerEntry.TRANSACTION), start.getYear(), end.getYear())
+                .stream()
+                .collect(Collectors.partitioningBy(r -> LedgerEntry.EXPENSE.equals(r[3])));
+        Set<Integer> legacyYears = index.get(true).stream().map(r -> (Integer) r[2]).collect(Collectors.toSet());
+        List<LedgerEntry> out = new ArrayList<>(read(index.get(true), start, end));
+        for (LedgerEntry t : read(index.get(false), start, end)) {
+            if ("debit".equalsIgnoreCase(t.getType()) && !legacyYears.contains(t.getDate().getYear())) {
+                out.add(new LedgerEntry(LedgerEntry.EXPENSE, t.getId(), t.getType(), t.getAmount(), t.getCurrency(),
+                        t.getDate(), t.getCategoryId(), t.getCategory(), t.getDescription()));
+            }
+        }
+        return out;
+    }
+
+    private int archiveUser(Long userId, LocalDate cutoff) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return 0;
+        }
+        // the move writes no journal events, so it waits for a journal baseline copy to finish;
+        // copy pages hold this lock, and the user is archived on the next run instead
+        userRepository.lockById(userId);
+        Long baseline = journalRepository.findBaselineId(userId);
+        if (baseline != null && !journalRepository.existsByUserIdAndActionAndIdGreaterThan(
+                userId, JournalEvent.BASELINE_END, baseline)) {
+            log.info("Ledger archive: skipping user {} while their journal baseline is copied", userId);
+            return 0;
+        }
+        LocalDate last = cutoff.minusDays(1);
+
+        List<Transaction> txns = transactionRepository.findByUserAndDateBetween(user, ALL_START, last);
+        append(user, LedgerEntry.TRANSACTION, txns.stream().map(LedgerEntry::of).collect(Collectors.toList()));
+        transactionRepository.deleteAllInBatch(txns);
+        if (!txns.isEmpty()) {
+            transactionIndex.invalidate(userId); // the move takes no change sequence
+        }
+        return txns.size();
+    }
+
+    // Helper: merge rows into the (user, kind, year) archives, creating them as needed
+    private void append(User user, String kind, List<LedgerEntry> rows) {
+        Map<Integer, List<LedgerEntry>> byYear = rows.stream()
+                .collect(Collectors.groupingBy(e -> e.getDate().getYear(), TreeMap::new, Collectors.toList()));
+
+        for (Map.Entry<Integer, List<LedgerEntry>> year : byYear.entrySet()) {
+            LedgerArchive archive = archiveRepository.findByUserAndKindAndYear(user, kind, year.getKey())
+                    .orElseGet(() -> {
+                        LedgerArchive a = new LedgerArchive();
+                        a.setUser(user);
+                        a.setKind(kind);
+                        a.setYear(year.getKey());
+                        return a;
+                    });
+
+            List<LedgerEntry> all = new ArrayList<>();
+            if (archive.getPayload() != null) {
+                all.addAll(LedgerArchiveCodec.decode(kind, archive.getPayload()));
+            }
+            all.addAll(year.getValue());
+            all.sort(Comparator.comparing(LedgerEntry::getDate).thenComparing(LedgerEntry::getId));
+
+            archive.setPayload(LedgerArchiveCodec.encode(all));
+            archive.setRowCount(all.size());
+            archive.setFirstDate(all.get(0).getDate());
+            archive.setLastDate(all.get(all.size() - 1).getDate());
+            archive.setArchivedAt(LocalDateTime.now());
+            writeTotals(archiveRepository.save(archive), all);
+        }
+    }
+
+    // Helper: replace the archive's totals with sums over all of its rows
+    private void writeTotals(LedgerArchive archive, List<LedgerEntry> rows) {
+        totalRepository.deleteByArchiveId(archive.getId());
+        Map<List<Object>, LedgerArchiveTotal> totals = new LinkedHashMap<>();
+        for (LedgerEntry e : rows) {
+            LedgerArchiveTotal t = totals.computeIfAbsent(
+                    Arrays.asList(e.getDate(), e.getType(), e.getCurrency(), e.getCategoryId(), e.getCategory()),
+                    k -> new LedgerArchiveTotal(null, archive.getId(), archive.getUser().getId(), archive.getKind(),
+                            archive.getYear(), e.getDate(), e.getType(), e.getCurrency(), e.getCategoryId(),
+                            e.getCategory(), 0.0, 0));
+            t.setAmount(t.getAmount() + e.getAmount());
+            t.setEntries(t.getEntries() + 1);
+        }
+        totalRepository.saveAll(totals.values());
+    }
+
+    private List<LedgerEntry> read(List<Object[]> index, LocalDate start, LocalDate end) {
+        if (index.isEmpty()) {
+            return List.of();
+        }
+        List<LedgerEntry> out = new ArrayList<>();
+        for (Object[] r : index) {
+            String kind = (String) r[3];
+            for (LedgerEntry e : LedgerArchiveCodec.decode(kind, archiveRepository.findPayload((Long) r[0]))) {
+                if (!e.getDate().isBefore(start) && !e.getDate().isAfter(end)) {
+                    out.add(e);
+                }
+            }
+        }
+        return out;
+    }
+
+}
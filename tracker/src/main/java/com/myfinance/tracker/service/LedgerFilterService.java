@@ -0,0 +1,309 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.LedgerFilter;
+import com.myfinance.tracker.dto.LedgerPage;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.ExpenseRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles a LedgerFilter into one Criteria query: the user and date range lead, matching
+ * (user_id, date), or (user_id, category_id, date) when categories are given; results walk
+ * that index newest first, with keyset pagination on (date, id) instead of OFFSET. Category
+ * names become ids through CategoryDictionary. Years moved to cold storage are matched against
+ * the archive's decoded rows and merged in on the same (date, id) order, flagged archived; a
+ * range that starts after the archive cutoff never reads the archive.
+ *
+ * No index covers amount, type or description, so those are checked row by row within the
+ * range the index selects. They are only accepted together with a start and end at most
+ * {@code ledger.filter.max-scan-days} apart; otherwise one request could read a user's whole
+ * history to find a handful of rows.
+ */
+@Service
+public class LedgerFilterService {
+
+    static final int MAX_LIMIT = 200;
+    static final int MAX_CATEGORIES = 20;
+    private static final int MIN_DESCRIPTION = 3;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
+    private final TransactionRepository transactionRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final CategoryDictionary categories;
+    private final LedgerArchiveService archive;
+    private final int maxScanDays;
+
+    public LedgerFilterService(TransactionRepository transactionRepository,
+                               ExpenseRepository expenseRepository,
+                               UserRepository userRepository,
+                               CategoryDictionary categories,
+                               LedgerArchiveService archive,
+                               @Value("${ledger.filter.max-scan-days:366}") int maxScanDays) {
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.categories = categories;
+        this.archive = archive;
+        this.maxScanDays = maxScanDays;
+    }
+
+    @Transactional(readOnly = true)
+    public LedgerPage<TransactionDto> transactions(String username, LedgerFilter filter) {
+        check(filter);
+        User user = findUser(username);
+        Set<Long> categoryIds = categories.ids(user.getId(), filter.getCategories());
+        if (!filter.getCategories().isEmpty() && categoryIds.isEmpty()) {
+            return new LedgerPage<>(List.of(), null); // none of the user's categories has those names
+        }
+        Specification<Transaction> spec = (root, query, cb) -> {
+            // fetch the category for the DTO in the same select
+            if (Long.class != query.getResultType()) {
+                root.fetch("category", JoinType.LEFT);
+            }
+            List<Predicate> where = common(filter, user, root, cb, root.get("description"));
+            if (!filter.getCategories().isEmpty()) {
+                where.add(root.get("category").get("id").in(categoryIds));
+            }
+            if (filter.getType() != null) {
+                where.add(cb.equal(cb.lower(root.get("type")), filter.getType().toLowerCase(Locale.ROOT)));
+            }
+            return cb.and(where.toArray(new Predicate[0]));
+        };
+        List<TransactionDto> rows = transactionRepository.findBy(spec,
+                q -> q.sortBy(NEWEST_FIRST).limit(filter.getLimit() + 1).all()).stream()
+                .map(TransactionDto::of)
+                .collect(Collectors.toList());
+        rows = withArchived(rows, filter, categoryIds,
+                (start, end) -> archive.archivedTransactions(user.getId(), start, end),
+                TransactionDto::archived, TransactionDto::getDate, TransactionDto::getId);
+        return page(rows, filter.getLimit(), TransactionDto::getDate, TransactionDto::getId, Function.identity());
+    }
+
+    @Transactional(readOnly = true)
+    public LedgerPage<Expense> expenses(String username, LedgerFilter filter) {
+        check(filter);
+        User user = findUser(username);
+        if (filter.getType() != null && !"debit".equalsIgnoreCase(filter.getType())) {
+            return new LedgerPage<>(List.of(), null); // every expense is a debit
+        }
+        Set<Long> categoryIds = categories.ids(user.getId(), filter.getCategories());
+        if (!filter.getCategories().isEmpty() && categoryIds.isEmpty()) {
+            return new LedgerPage<>(List.of(), null); // none of the user's categories has those names
+        }
+        Specification<Expense> spec = (root, query, cb) -> {
+            List<Predicate> where = common(filter, user, root, cb, root.get("title"));
+            if (!filter.getCategories().isEmpty()) {
+                where.add(root.get("categoryId").in(categoryIds));
+            }
+            return cb.and(where.toArray(new Predicate[0]));
+        };
+        List<Expense> rows = categories.named(user.getId(), expenseRepository.findBy(spec,
+                q -> q.sortBy(NEWEST_FIRST).limit(filter.getLimit() + 1).all()));
+        rows = withArchived(rows, filter, categoryIds,
+                (start, end) -> archive.archivedExpenses(user.getId(), start, end),
+                LedgerFilterService::archivedExpense, Expense::getDate, Expense::getId);
+        return page(rows, filter.getLimit(), Expense::getDate, Expense::getId, Function.identity());
+    }
+
+    /**
+     * Reject filters that are malformed or that no index can serve. Runs before any query, so a
+     * rejected filter costs nothing.
+     */
+    void check(LedgerFilter f) {
+        if (f.getLimit() < 1 || f.getLimit() > MAX_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (f.getStart() != null && f.getEnd() != null && f.getEnd().isBefore(f.getStart())) {
+            throw new RuntimeException("end must not be before start");
+        }
+        if (f.getMinAmount() != null && f.getMaxAmount() != null && f.getMaxAmount() < f.getMinAmount()) {
+            throw new RuntimeException("maxAmount must not be below minAmount");
+        }
+        f.setCategories(f.getCategories() == null ? new ArrayList<>() : f.getCategories().stream()
+                .map(String::trim).filter(c -> !c.isEmpty()).distinct().collect(Collectors.toList()));
+        if (f.getCategories().size() > MAX_CATEGORIES) {
+            throw new RuntimeException("At most " + MAX_CATEGORIES + " categories per filter");
+        }
+        if (f.getDescription() != null) {
+            f.setDescription(f.getDescription().trim());
+            if (f.getDescription().isEmpty()) {
+                f.setDescription(null);
+            } else if (f.getDescription().length() < MIN_DESCRIPTION) {
+                throw new RuntimeException("description must be at least " + MIN_DESCRIPTION + " characters");
+            }
+        }
+        if (f.getType() != null && f.getType().isBlank()) {
+            f.setType(null);
+        }
+        boolean residual = f.getMinAmount() != null || f.getMaxAmount() != null
+                || f.getType() != null || f.getDescription() != null;
+        if (residual && (f.getStart() == null || f.getEnd() == null
+                || ChronoUnit.DAYS.between(f.getStart(), f.getEnd()) >= maxScanDays)) {
+            throw new RuntimeException("amount, type and description filters are not indexed: they need a start "
+                    + "and end at most " + maxScanDays + " days apart");
+        }
+        cursor(f.getAfter()); // fail on a malformed cursor before touching the database
+    }
+
+    // predicates every source shares; user and date first, in index order
+    private static List<Predicate> common(LedgerFilter f, User user, From<?, ?> root,
+                                          CriteriaBuilder cb, Path<String> description) {
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(root.get("user"), user));
+        Path<LocalDate> date = root.get("date");
+        if (f.getStart() != null) {
+            where.add(cb.greaterThanOrEqualTo(date, f.getStart()));
+        }
+        if (f.getEnd() != null) {
+            where.add(cb.lessThanOrEqualTo(date, f.getEnd()));
+        }
+        Object[] after = cursor(f.getAfter());
+        if (after != null) {
+            LocalDate d = (LocalDate) after[0];
+            Path<Long> id = root.get("id");
+            where.add(cb.or(cb.lessThan(date, d), cb.and(cb.equal(date, d), cb.lessThan(id, (Long) after[1]))));
+        }
+        Path<Double> amount = root.get("amount");
+        if (f.getMinAmount() != null) {
+            where.add(cb.greaterThanOrEqualTo(amount, f.getMinAmount()));
+        }
+        if (f.getMaxAmount() != null) {
+            where.add(cb.lessThanOrEqualTo(amount, f.getMaxAmount()));
+        }
+        if (f.getDescription() != null) {
+            Expression<String> text = cb.lower(description);
+            where.add(cb.like(text, "%" + escapeLike(f.getDescription().toLowerCase(Locale.ROOT)) + "%", '\\'));
+        }
+        return where;
+    }
+
+    /**
+     * Merge in the archived rows that match the filter. The live rows are the first limit+1 after
+     * the cursor, so the first limit+1 of both sources together are the page.
+     */
+    private <T> List<T> withArchived(List<T> rows, LedgerFilter f, Set<Long> categoryIds,
+                                     BiFunction<LocalDate, LocalDate, List<LedgerEntry>> archived,
+                                     Function<LedgerEntry, T> map, Function<T, LocalDate> date, Function<T, Long> id) {
+        if (f.getStart() != null && !f.getStart().isBefore(archive.hotCutoff())) {
+            return rows;
+        }
+        Object[] after = cursor(f.getAfter());
+        LocalDate end = f.getEnd() != null ? f.getEnd() : ALL_END;
+        if (after != null && end.isAfter((LocalDate) after[0])) {
+            end = (LocalDate) after[0];
+        }
+        List<T> merged = new ArrayList<>(rows);
+        for (LedgerEntry e : archived.apply(f.getStart() != null ? f.getStart() : ALL_START, end)) {
+            if (matches(e, f, categoryIds, after)) {
+                merged.add(map.apply(e));
+            }
+        }
+        if (merged.size() == rows.size()) {
+            return rows;
+        }
+        merged.sort(Comparator.comparing(date).thenComparing(id).reversed());
+        return merged.size() > f.getLimit() + 1 ? merged.subList(0, f.getLimit() + 1) : merged;
+    }
+
+    // the predicates of common() and the category/type filters, for one archived row
+    private static boolean matches(LedgerEntry e, LedgerFilter f, Set<Long> categoryIds, Object[] after) {
+        if (after != null) {
+            int c = e.getDate().compareTo((LocalDate) after[0]);
+            if (c > 0 || (c == 0 && e.getId() >= (Long) after[1])) {
+                return false;
+            }
+        }
+        if (f.getMinAmount() != null && e.getAmount() < f.getMinAmount()) {
+            return false;
+        }
+        if (f.getMaxAmount() != null && e.getAmount() > f.getMaxAmount()) {
+            return false;
+        }
+        if (f.getDescription() != null && (e.getDescription() == null || !e.getDescription().toLowerCase(Locale.ROOT)
+                .contains(f.getDescription().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (!f.getCategories().isEmpty() && !categoryIds.contains(e.getCategoryId())) {
+            return false;
+        }
+        return f.getType() == null || f.getType().equalsIgnoreCase(e.getType());
+    }
+
+    private static Expense archivedExpense(LedgerEntry e) {
+        Expense x = new Expense();
+        x.setId(e.getId());
+        x.setTitle(e.getDescription());
+        x.setAmount(e.getAmount());
+        x.setCategoryId(e.getCategoryId());
+        x.setCategory(e.getCategory());
+        x.setCurrency(e.getCurrency());
+        x.setDate(e.getDate());
+        x.setArchived(true);
+        return x;
+    }
+
+    // Helper: the limit+1'th row only says there is a next page
+    private static <T, R> LedgerPage<R> page(List<T> rows, int limit, Function<T, LocalDate> date,
+                                             Function<T, Long> id, Function<T, R> map) {
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            T last = rows.get(limit - 1);
+            next = date.apply(last) + ":" + id.apply(last);
+        }
+        return new LedgerPage<>(rows.stream().map(map).collect(Collectors.toList()), next);
+    }
+
+    // "2026-07-14:1234" → {date, id}; null for no cursor
+    private static Object[] cursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        int colon = after.indexOf(':');
+        try {
+            return new Object[]{LocalDate.parse(after.substring(0, colon)), Long.parseLong(after.substring(colon + 1))};
+        } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + after);
+        }
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+}
@@ -0,0 +1,425 @@
+package com.myfinance.tracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myfinance.tracker.dto.ProjectionCheck;
+import com.myfinance.tracker.dto.ProjectionView;
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.JournalEvent;
+import com.myfinance.tracker.model.LedgerArchiveTotal;
+import com.myfinance.tracker.model.ProjectionSnapshot;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.ExpenseRepository;
+import com.myfinance.tracker.repository.JournalEventRepository;
+import com.myfinance.tracker.repository.ProjectionSnapshotRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Append-only journal of ledger writes and the LedgerProjections folded from it.
+ *
+ * Every LedgerChangedEvent is appended inside the writer's transaction, under the user row
+ * lock the write already holds, so a user's events commit in id order and a reader always
+ * sees a prefix of them. Rows older than the journal enter it through a per-user BASELINE:
+ * on the first projection read a BASELINE marker and the archived rows are written, then the
+ * current rows are copied in id order as CREATED events, one page per database transaction
+ * with the user row locked only for that page (see JournalEvent for how replay treats writes
+ * that land between pages). Expenses are the debit transactions, so only transactions are
+ * copied. Replay starts at the latest BASELINE.
+ *
+ * A projection is read from its snapshot plus the events after it; once that tail reaches
+ * {@code ledger.journal.snapshot-every} events a new snapshot is written, so reads replay
+ * a bounded tail. rebuild() replays from the baseline and checks the result against both the
+ * live state and the report queries the /transactions and /expenses summaries run.
+ */
+@Service
+public class LedgerJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerJournalService.class);
+    private static final int PAGE = 1000;
+    private static final int MAX_LIMIT = 1000;
+    private static final double TOLERANCE = 1e-6;
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+    private static final TypeReference<TreeMap<String, Double>> STATE = new TypeReference<>() {};
+
+    private final JournalEventRepository journalRepository;
+    private final ProjectionSnapshotRepository snapshotRepository;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final ExpenseRepository expenseRepository;
+    private final CategoryDictionary categories;
+    private final LedgerArchiveService archive;
+    private final ChangeSequence changes;
+    private final FxRateTable fx;
+    private final ObjectMapper json;
+    private final TransactionTemplate tx;
+    private final int snapshotEvery;
+
+    public LedgerJournalService(JournalEventRepository journalRepository,
+                                ProjectionSnapshotRepository snapshotRepository,
+                                UserRepository userRepository,
+                                TransactionRepository transactionRepository,
+                                ExpenseRepository expenseRepository,
+                                CategoryDictionary categories,
+                                LedgerArchiveService archive,
+                                ChangeSequence changes,
+                                FxRateTable fx,
+                                ObjectMapper json,
+                                TransactionTemplate tx,
+                                @Value("${ledger.journal.snapshot-every:500}") int snapshotEvery) {
+        this.journalRepository = journalRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.categories = categories;
+        this.archive = archive;
+        this.changes = changes;
+        this.fx = fx;
+        this.json = json;
+        this.tx = tx;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    // a projection's state while folding: per-currency totals as of lastEventId
+    private static class Fold {
+        final Map<String, Double> state = new TreeMap<>();
+        long lastEventId;
+        int replayed;
+        // while the baseline copy is running: the last row it copied, and its change sequence
+        Long copiedUpTo;
+        long baselineSeq;
+
+        Fold(long lastEventId) {
+            this.lastEventId = lastEventId;
+        }
+    }
+
+    // runs inside the writer's transaction, so the event commits (or rolls back) with the row
+    @EventListener
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        LedgerEntry entry = event.getEntry();
+        journalRepository.save(new JournalEvent(null, event.getUserId(), changes.next(event.getUserId()),
+                event.getAction().name(), entry.getKind(), entry.getId(),
+                write(event.getBefore()), write(event.getAfter()), LocalDateTime.now()));
+    }
+
+    // ✅ Journal events after an id, oldest first
+    @Transactional(readOnly = true)
+    public List<JournalEvent> events(String username, long after, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return journalRepository.findAfter(user(username).getId(), after, PageRequest.of(0, limit));
+    }
+
+    // ✅ A projection from its snapshot and the journal tail
+    public ProjectionView projection(String username, String name) {
+        LedgerProjection p = LedgerProjection.of(name);
+        Long userId = user(username).getId();
+        long baseline = baseline(userId);
+        Fold live = tx.execute(s -> live(userId, p, baseline));
+        if (live.replayed >= snapshotEvery) {
+            saveSnapshot(userId, p, live);
+        }
+        return view(p, live);
+    }
+
+    /**
+     * Replay a projection from the baseline up to the event the live state is at, and compare
+     * it with the live state and with the report queries over the ledger tables. The user row
+     * is locked meanwhile, so no write commits between reading the journal and the tables.
+     * With {@code replace} the rebuilt state becomes the snapshot.
+     */
+    public ProjectionCheck rebuild(String username, String name, boolean replace) {
+        LedgerProjection p = LedgerProjection.of(name);
+        User user = user(username);
+        Long userId = user.getId();
+        long baseline = baseline(userId);
+        Fold[] folds = tx.execute(s -> {
+            userRepository.lockById(userId);
+            Fold live = live(userId, p, baseline);
+            Fold rebuilt = new Fold(baseline - 1);
+            replay(userId, p, rebuilt, live.lastEventId);
+            Fold reported = new Fold(live.lastEventId);
+            reported.state.putAll(reported(user, p));
+            return new Fold[] {live, rebuilt, reported};
+        });
+        List<ProjectionCheck.Difference> differences = compare(folds[0].state, folds[1].state, folds[2].state);
+        if (replace) {
+            saveSnapshot(userId, p, folds[1]);
+        }
+        return new ProjectionCheck(p.key(), folds[1].lastEventId, folds[1].replayed, differences.isEmpty(),
+                replace, differences);
+    }
+
+    // Helper: id of the user's latest BASELINE, writing the first one or finishing its copy if needed
+    private long baseline(Long userId) {
+        Long id = journalRepository.findBaselineId(userId);
+        if (id == null) {
+            id = tx.execute(s -> startBaseline(userId));
+        }
+        if (!journalRepository.existsByUserIdAndActionAndIdGreaterThan(userId, JournalEvent.BASELINE_END, id)) {
+            long marker = id;
+            int pages = 0;
+            while (!Boolean.TRUE.equals(tx.execute(s -> copyPage(userId, marker)))) {
+                pages++;
+            }
+            log.info("Journal baseline for user {} copied in {} pages", userId, pages + 1);
+        }
+        return id;
+    }
+
+    // the marker and the archived rows, which no write can change while the copy runs
+    private long startBaseline(Long userId) {
+        long seq = changes.next(userId); // takes the user row lock
+        Long existing = journalRepository.findBaselineId(userId);
+        if (existing != null) {
+            return existing;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        JournalEvent marker = journalRepository.save(
+                new JournalEvent(null, userId, seq, JournalEvent.BASELINE, null, null, null, null, now));
+        journalRepository.saveAll(created(userId, seq, archive.archivedTransactions(userId, ALL_START, ALL_END), now));
+        return marker.getId();
+    }
+
+    // Helper: copy the next page of the user's rows after the baseline; true once the copy is done
+    private boolean copyPage(Long userId, long marker) {
+        userRepository.lockById(userId);
+        List<JournalEvent> progress = journalRepository.findCopyProgress(userId, marker, PageRequest.of(0, 1));
+        if (!progress.isEmpty() && JournalEvent.BASELINE_END.equals(progress.get(0).getAction())) {
+            return true; // finished by a concurrent read
+        }
+        long cursor = progress.isEmpty() ? 0 : progress.get(0).getEntryId();
+        long seq = journalRepository.findById(marker).map(JournalEvent::getChangeSeq)
+                .orElseThrow(() -> new RuntimeException("Journal baseline not found: " + marker));
+
+        List<LedgerEntry> rows = new ArrayList<>();
+        for (Transaction t : transactionRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                userId, cursor, PageRequest.of(0, PAGE))) {
+            rows.add(LedgerEntry.of(t));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean last = rows.size() < PAGE;
+        List<JournalEvent> events = created(userId, seq, rows, now);
+        events.add(new JournalEvent(null, userId, seq, last ? JournalEvent.BASELINE_END : JournalEvent.BASELINE_PAGE,
+                null, last ? null : rows.get(rows.size() - 1).getId(), null, null, now));
+        journalRepository.saveAll(events);
+        return last;
+    }
+
+    private List<JournalEvent> created(Long userId, long seq, List<LedgerEntry> rows, LocalDateTime now) {
+        List<JournalEvent> created = new ArrayList<>(rows.size() + 1);
+        for (LedgerEntry e : rows) {
+            created.add(new JournalEvent(null, userId, seq, LedgerChangedEvent.Action.CREATED.name(),
+                    e.getKind(), e.getId(), null, write(e), now));
+        }
+        return created;
+    }
+
+    // Helper: the snapshot if it is still usable, plus every event after it
+    private Fold live(Long userId, LedgerProjection p, long baseline) {
+        Fold f = new Fold(baseline - 1); // from the BASELINE event itself
+        snapshotRepository.findByUserIdAndName(userId, p.key())
+                .filter(s -> s.getVersion() == p.getVersion() && s.getLastEventId() >= baseline)
+                .ifPresent(s -> {
+                    f.state.putAll(readState(s.getState()));
+                    f.lastEventId = s.getLastEventId();
+                });
+        replay(userId, p, f, Long.MAX_VALUE);
+        return f;
+    }
+
+    private void replay(Long userId, LedgerProjection p, Fold f, long upTo) {
+        String legacy = fx.legacyCurrency();
+        while (true) {
+            List<JournalEvent> page = journalRepository.findAfter(userId, f.lastEventId, PageRequest.of(0, PAGE));
+            for (JournalEvent e : page) {
+                if (e.getId() > upTo) {
+                    return;
+                }
+                if (JournalEvent.BASELINE.equals(e.getAction())) {
+                    f.state.clear(); // a later baseline restates every row
+                    f.copiedUpTo = 0L;
+                    f.baselineSeq = e.getChangeSeq();
+                } else if (JournalEvent.BASELINE_PAGE.equals(e.getAction())) {
+                    f.copiedUpTo = e.getEntryId();
+                } else if (JournalEvent.BASELINE_END.equals(e.getAction())) {
+                    f.copiedUpTo = null;
+                } else if (f.copiedUpTo != null && e.getChangeSeq() != null && e.getChangeSeq() > f.baselineSeq
+                        && e.getEntryId() != null && e.getEntryId() > f.copiedUpTo) {
+                    // a write between copy pages to a row not copied yet: the copy will read its new state
+                } else {
+                    p.apply(f.state, read(e.getBefore()), -1, legacy);
+                    p.apply(f.state, read(e.getAfter()), 1, legacy);
+                }
+                f.lastEventId = e.getId();
+                f.replayed++;
+            }
+            if (page.size() < PAGE) {
+                return;
+            }
+        }
+    }
+
+    // best effort: a failed or raced save only means the next read replays a longer tail
+    private void saveSnapshot(Long userId, LedgerProjection p, Fold f) {
+        try {
+            tx.executeWithoutResult(s -> {
+                ProjectionSnapshot snapshot = snapshotRepository.findByUserIdAndName(userId, p.key())
+                        .orElseGet(() -> new ProjectionSnapshot(null, userId, p.key(), 0, 0, null, null));
+                if (snapshot.getVersion() == p.getVersion() && snapshot.getLastEventId() > f.lastEventId) {
+                    return; // someone saved a newer one
+                }
+                snapshot.setVersion(p.getVersion());
+                snapshot.setLastEventId(f.lastEventId);
+                snapshot.setState(writeState(f.state));
+                snapshot.setCreatedAt(LocalDateTime.now());
+                snapshotRepository.save(snapshot);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not save the {} snapshot of user {}: {}", p.key(), userId, e.toString());
+        }
+    }
+
+    /**
+     * The projection as the report queries compute it, in its per-currency keys: the same grouped
+     * queries and archive totals the /transactions and /expenses summaries read, before they
+     * convert to the base currency. Each group is applied as one ledger row.
+     */
+    private Map<String, Double> reported(User user, LedgerProjection p) {
+        Long userId = user.getId();
+        String base = fx.baseOf(user);
+        String legacy = fx.legacyCurrency();
+        Map<String, Double> state = new TreeMap<>();
+        if (p == LedgerProjection.SUMMARY) {
+            for (Object[] r : transactionRepository.getTotalsByTypeAndCurrency(userId)) {
+                p.apply(state, group((String) r[0], r[2], (String) r[1], null, null), 1, legacy);
+            }
+            for (LedgerArchiveTotal t : archive.transactionTotals(userId, ALL_START, ALL_END)) {
+                p.apply(state, group(t.getType(), t.getAmount(), t.getCurrency(), t.getDate(), t.getCategory()), 1, legacy);
+            }
+            return state;
+        }
+        boolean byCategory = p == LedgerProjection.CATEGORY;
+        if (byCategory) {
+            for (Object[] r : expenseRepository.getTotalByCategory(userId, base, legacy)) {
+                p.apply(state, group("debit", r[1], base, null, categories.name(userId, (Long) r[0])), 1, legacy);
+            }
+        } else {
+            for (Object[] r : expenseRepository.getTotalByYearMonth(userId, base, legacy)) {
+                LocalDate month = LocalDate.of(((Number) r[0]).intValue(), ((Number) r[1]).intValue(), 1);
+                p.apply(state, group("debit", r[2], base, month, null), 1, legacy);
+            }
+        }
+        // rows: [category id, currency, date, sum] outside the base currency
+        for (Object[] r : expenseRepository.getForeignCurrencyTotals(userId, ALL_START, ALL_END, base, legacy)) {
+            String category = byCategory ? categories.name(userId, (Long) r[0]) : null;
+            p.apply(state, group("debit", r[3], (String) r[1], (LocalDate) r[2], category), 1, legacy);
+        }
+        for (LedgerArchiveTotal t : archive.expenseTotals(userId, ALL_START, ALL_END)) {
+            p.apply(state, group(t.getType(), t.getAmount(), t.getCurrency(), t.getDate(), t.getCategory()), 1, legacy);
+        }
+        return state;
+    }
+
+    private static LedgerEntry group(String type, Object sum, String currency, LocalDate date, String category) {
+        double amount = sum == null ? 0.0 : ((Number) sum).doubleValue();
+        return new LedgerEntry(LedgerEntry.TRANSACTION, null, type, amount, currency, date, null, category, null);
+    }
+
+    private static List<ProjectionCheck.Difference> compare(Map<String, Double> live, Map<String, Double> rebuilt,
+                                                            Map<String, Double> reported) {
+        List<ProjectionCheck.Difference> out = new ArrayList<>();
+        TreeSet<String> keys = new TreeSet<>(live.keySet());
+        keys.addAll(rebuilt.keySet());
+        keys.addAll(reported.keySet());
+        for (String key : keys) {
+            Double a = live.get(key);
+            Double b = rebuilt.get(key);
+            Double c = reported.get(key);
+            if (!same(a, b) || !same(b, c)) {
+                int bar = key.lastIndexOf('|');
+                out.add(new ProjectionCheck.Difference(key.substring(0, bar), key.substring(bar + 1), a, b, c));
+            }
+        }
+        return out;
+    }
+
+    private static boolean same(Double a, Double b) {
+        return a != null && b != null && Math.abs(a - b) <= TOLERANCE;
+    }
+
+    // "Food|EUR" → Food → EUR → total, rounded to cents
+    private static ProjectionView view(LedgerProjection p, Fold f) {
+        Map<String, Map<String, Double>> values = new TreeMap<>();
+        f.state.forEach((key, v) -> {
+            int bar = key.lastIndexOf('|');
+            values.computeIfAbsent(key.substring(0, bar), k -> new TreeMap<>())
+                    .put(key.substring(bar + 1), Math.round(v * 100.0) / 100.0);
+        });
+        return new ProjectionView(p.key(), f.lastEventId, values);
+    }
+
+    private User user(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    }
+
+    private String write(LedgerEntry entry) {
+        try {
+            return entry == null ? null : json.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not write journal entry", e);
+        }
+    }
+
+    private LedgerEntry read(String entry) {
+        try {
+            return entry == null ? null : json.readValue(entry, LedgerEntry.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not read journal entry", e);
+        }
+    }
+
+    private String writeState(Map<String, Double> state) {
+        try {
+            return json.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not write projection state", e);
+        }
+    }
+
+    private Map<String, Double> readState(String state) {
+        try {
+            return json.readValue(state, STATE);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not read projection state", e);
+        }
+    }
+}
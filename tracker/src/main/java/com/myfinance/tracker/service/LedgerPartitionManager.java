@@ -0,0 +1,87 @@
+package com.myfinance.tracker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the yearly RANGE COLUMNS(date) partitions of the ledger tables rolling once
+ * db/mysql/partition-ledger.sql has been applied: splits the catch-all {@code pmax}
+ * partition so the current and next year always have their own partition, and drops
+ * year partitions the archiver has emptied (a metadata change instead of row deletes).
+ * Does nothing unless {@code ledger.partitioning.enabled=true}.
+ */
+@Component
+public class LedgerPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerPartitionManager.class);
+    private static final List<String> TABLES = List.of("transactions");
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+
+    public LedgerPartitionManager(JdbcTemplate jdbc,
+                                  @Value("${ledger.partitioning.enabled:false}") boolean enabled) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ledger.partitioning.cron:0 0 3 1 * *}")
+    public void ensureFuturePartitions() {
+        if (!enabled) {
+            return;
+        }
+        int year = LocalDate.now().getYear();
+        for (String table : TABLES) {
+            List<String> names = partitionNames(table);
+            if (names.isEmpty()) {
+                log.warn("Table {} is not partitioned; run db/mysql/partition-ledger.sql first", table);
+                continue;
+            }
+            for (int y = year; y <= year + 1; y++) {
+                if (!names.contains("p" + y) && names.contains("pmax")) {
+                    jdbc.execute("ALTER TABLE " + table + " REORGANIZE PARTITION pmax INTO ("
+                            + "PARTITION p" + y + " VALUES LESS THAN ('" + (y + 1) + "-01-01'), "
+                            + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+                    log.info("Added partition p{} to {}", y, table);
+                }
+            }
+        }
+    }
+
+    // called by the archiver once everything before the cutoff has been moved out
+    public void dropEmptyPartitionsBefore(LocalDate cutoff) {
+        if (!enabled) {
+            return;
+        }
+        for (String table : TABLES) {
+            for (String name : partitionNames(table)) {
+                if (!name.matches("p\\d{4}") || Integer.parseInt(name.substring(1)) >= cutoff.getYear()) {
+                    continue;
+                }
+                Long rows = jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " PARTITION (" + name + ")", Long.class);
+                if (rows != null && rows == 0) {
+                    jdbc.execute("ALTER TABLE " + table + " DROP PARTITION " + name);
+                    log.info("Dropped archived partition {} of {}", name, table);
+                }
+            }
+        }
+    }
+
+    private List<String> partitionNames(String table) {
+        return jdbc.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table);
+    }
+}
@@ -0,0 +1,87 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerEntry;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read models folded from the ledger journal. Each projection says what one ledger row adds
+ * to it; an event applies {@code after} and takes back {@code before}. Totals are kept per
+ * currency ("Food|EUR") so a projection never depends on exchange rates or the user's base
+ * currency at replay time. Bump {@code version} when a projection's meaning changes: older
+ * snapshots are then ignored and the projection is replayed from the baseline.
+ */
+public enum LedgerProjection {
+
+    // income/expense over transactions, as in /transactions/summary/my
+    SUMMARY(1),
+    // expense (debit) totals per month, as in /expenses/summary/monthly
+    MONTHLY(2),
+    // expense (debit) totals per category, as in /expenses/summary/category
+    CATEGORY(2);
+
+    private final int version;
+
+    LedgerProjection(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static LedgerProjection of(String name) {
+        for (LedgerProjection p : values()) {
+            if (p.key().equalsIgnoreCase(name)) {
+                return p;
+            }
+        }
+        throw new RuntimeException("Unknown projection: " + name + " (summary, monthly or category)");
+    }
+
+    // add sign × the entry's contribution to state
+    public void apply(Map<String, Double> state, LedgerEntry e, int sign, String legacyCurrency) {
+        if (e == null) {
+            return;
+        }
+        String currency = e.getCurrency() != null ? e.getCurrency() : legacyCurrency;
+        switch (this) {
+            case SUMMARY:
+                if (e.isTransaction()) {
+                    add(state, (e.isCredit() ? "income|" : "expense|") + currency, sign * e.getAmount());
+                }
+                break;
+            case MONTHLY:
+                if (isExpense(e)) {
+                    add(state, String.format("%04d-%02d|%s", e.getDate().getYear(), e.getDate().getMonthValue(), currency),
+                            sign * e.getAmount());
+                }
+                break;
+            default:
+                if (isExpense(e)) {
+                    add(state, (e.getCategory() != null ? e.getCategory() : "Uncategorized") + "|" + currency,
+                            sign * e.getAmount());
+                }
+        }
+    }
+
+    // expenses are debit transactions; the expense events journalled before that was so are skipped
+    private static boolean isExpense(LedgerEntry e) {
+        return e.isTransaction() && "debit".equalsIgnoreCase(e.getType());
+    }
+
+    private static void add(Map<String, Double> state, String key, double delta) {
+        double v = state.getOrDefault(key, 0.0) + delta;
+        // drop keys that cancelled out, so replays compare equal however the rows came and went
+        if (Math.abs(v) < 1e-9) {
+            state.remove(key);
+        } else {
+            state.put(key, v);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user registry of Server-Sent Event subscribers. Writers only enqueue into each
+ * subscriber's bounded queue; a small sender pool drains the queues, so a slow client
+ * never blocks a request thread. When a queue overflows it is replaced by a single
+ * "resync" event telling the client to refetch.
+ */
+@Service
+public class LedgerStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerStreamService.class);
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger senderIds = new AtomicInteger();
+    private final ExecutorService sender = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "ledger-sse-" + senderIds.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int bufferSize;
+    private final int maxPerUser;
+    private final long timeoutMs;
+    private final FxRateTable fx;
+
+    public LedgerStreamService(FxRateTable fx,
+                               @Value("${ledger.stream.buffer-size:64}") int bufferSize,
+                               @Value("${ledger.stream.max-per-user:8}") int maxPerUser,
+                               @Value("${ledger.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        this.timeoutMs = timeoutMs;
+        this.fx = fx;
+    }
+
+    // ✅ Register a new stream; the first event carries the full summary
+    public SseEmitter subscribe(String username, Map<String, Double> initialSummary) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber sub = new Subscriber(username, emitter, bufferSize);
+
+        Set<Subscriber> existing = subscribers.get(username);
+        if (existing != null && existing.size() >= maxPerUser) {
+            // oldest connection makes room; the browser will reconnect it if still open
+            existing.stream().findFirst().ifPresent(old -> remove(old, true));
+        }
+        Set<Subscriber> set = subscribers.compute(username, (k, s) -> {
+            Set<Subscriber> target = s != null ? s : new CopyOnWriteArraySet<>();
+            target.add(sub);
+            return target;
+        });
+
+        emitter.onCompletion(() -> remove(sub, false));
+        emitter.onTimeout(() -> remove(sub, true));
+        emitter.onError(e -> remove(sub, false));
+
+        enqueue(sub, SseEmitter.event().name("summary").data(initialSummary));
+        log.debug("SSE subscribe user='{}' ({} open)", username, set.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        Set<Subscriber> set = subscribers.get(event.getUsername());
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("action", event.getAction());
+        payload.put("entry", event.getEntry());
+        payload.put("summaryDelta", summaryDelta(event));
+        for (Subscriber sub : set) {
+            enqueue(sub, SseEmitter.event().name("ledger").data(payload));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${ledger.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber sub : set) {
+                // a full queue already proves the connection is busy, no need to add to it
+                if (sub.queue.remainingCapacity() > 0) {
+                    enqueue(sub, SseEmitter.event().comment("hb"));
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(sub -> sub.emitter.complete()));
+        subscribers.clear();
+    }
+
+    // Helper: summary delta contributed by one change (only transactions feed the summary),
+    // in the user's base currency like the summary itself
+    private Map<String, Double> summaryDelta(LedgerChangedEvent event) {
+        double income = 0.0;
+        double expense = 0.0;
+        LedgerEntry before = event.getBefore();
+        LedgerEntry after = event.getAfter();
+        if (before != null && before.isTransaction()) {
+            double amount = inBase(before, event.getBaseCurrency());
+            if (before.isCredit()) income -= amount; else expense -= amount;
+        }
+        if (after != null && after.isTransaction()) {
+            double amount = inBase(after, event.getBaseCurrency());
+            if (after.isCredit()) income += amount; else expense += amount;
+        }
+        Map<String, Double> delta = new LinkedHashMap<>();
+        delta.put("income", income);
+        delta.put("expense", expense);
+        delta.put("balance", income - expense);
+        return delta;
+    }
+
+    private double inBase(LedgerEntry entry, String base) {
+        return fx.convert(entry.getAmount(), entry.getCurrency(), base, entry.getDate());
+    }
+
+    private void enqueue(Subscriber sub, SseEmitter.SseEventBuilder event) {
+        if (!sub.queue.offer(event)) {
+            // slow consumer: drop the backlog and ask the client to refetch once
+            sub.queue.clear();
+            sub.queue.offer(SseEmitter.event().name("resync").data("buffer overflow"));
+            log.debug("SSE buffer overflow for user='{}', sent resync", sub.username);
+        }
+        if (sub.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(sub));
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        try {
+            SseEmitter.SseEventBuilder next;
+            while ((next = sub.queue.poll()) != null) {
+                sub.emitter.send(next);
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(sub, false);
+            return;
+        } finally {
+            sub.draining.set(false);
+        }
+        // an event may have arrived between the last poll and releasing the flag
+        if (!sub.queue.isEmpty() && sub.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(sub));
+        }
+    }
+
+    private void remove(Subscriber sub, boolean complete) {
+        subscribers.computeIfPresent(sub.username, (k, set) -> {
+            set.remove(sub);
+            return set.isEmpty() ? null : set;
+        });
+        sub.queue.clear();
+        if (complete) {
+            sub.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        final String username;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String username, SseEmitter emitter, int capacity) {
+            this.username = username;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.TopMerchants;
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.MerchantSketch;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.MerchantSketchRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Top merchants per user without a GROUP BY over the ledger. Every debit transaction is
+ * folded into the user's MerchantSketch in the same database transaction as the write.
+ * An expense is a debit transaction (its title is the description), so each spend is
+ * counted once. Edits and deletes arrive as LedgerChangedEvents too; they take the old row out
+ * and put the new one in. Reading the top N is one row and O(capacity).
+ */
+@Service
+public class MerchantSketchService {
+
+    // widest range MySQL DATE accepts, used when reading every archived year
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+    // digits and punctuation are store numbers, card references and dates: "UBER *TRIP 4411" → "uber trip"
+    private static final Pattern NOT_LETTERS = Pattern.compile("[^\\p{L}]+");
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final MerchantSketchRepository sketchRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final LedgerArchiveService archive;
+    private final FxRateTable fx;
+    private final int capacity;
+
+    public MerchantSketchService(MerchantSketchRepository sketchRepository,
+                                 TransactionRepository transactionRepository,
+                                 UserRepository userRepository,
+                                 LedgerArchiveService archive,
+                                 FxRateTable fx,
+                                 @Value("${merchants.sketch.capacity:64}") int capacity) {
+        this.sketchRepository = sketchRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.archive = archive;
+        this.fx = fx;
+        this.capacity = capacity;
+    }
+
+    // runs inside the writer's transaction, so the sketch commits or rolls back with the row
+    @EventListener
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        String removed = keyOf(event.getBefore());
+        String added = keyOf(event.getAfter());
+        if (removed == null && added == null) {
+            return;
+        }
+        if (removed != null && removed.equals(added) && sameWeight(event.getBefore(), event.getAfter())) {
+            return; // e.g. only the tags changed
+        }
+        MerchantSketch row = sketchRepository.findForUpdate(event.getUserId())
+                .orElseGet(() -> newSketch(userRepository.getReferenceById(event.getUserId())));
+        SpaceSaving byAmount = SpaceSaving.decode(row.getByAmount(), capacity);
+        SpaceSaving byCount = SpaceSaving.decode(row.getByCount(), capacity);
+        if (removed != null) {
+            byAmount.remove(removed, inBase(event.getBefore(), event.getBaseCurrency()));
+            byCount.remove(removed, 1.0);
+        }
+        if (added != null) {
+            byAmount.add(added, inBase(event.getAfter(), event.getBaseCurrency()));
+            byCount.add(added, 1.0);
+        }
+        row.setByAmount(byAmount.encode());
+        row.setByCount(byCount.encode());
+        row.setUpdatedAt(LocalDateTime.now());
+        sketchRepository.save(row);
+    }
+
+    // ✅ Top N from the sketch, with per-merchant error bounds
+    @Transactional(readOnly = true)
+    public TopMerchants top(String username, int n, String by) {
+        boolean amount = parseBy(by);
+        checkN(n);
+        User user = findUser(username);
+        SpaceSaving sketch = sketchRepository.findByUserId(user.getId())
+                .map(row -> SpaceSaving.decode(amount ? row.getByAmount() : row.getByCount(), capacity))
+                .orElseGet(() -> new SpaceSaving(capacity));
+
+        List<SpaceSaving.Counter> top = sketch.top(n + 1);
+        // every merchant outside the first n weighs at most this much
+        double unlisted = Math.max(sketch.floor(), top.size() > n ? top.get(n).getWeight() : 0.0);
+        List<TopMerchants.Merchant> merchants = new ArrayList<>();
+        for (SpaceSaving.Counter c : top.subList(0, Math.min(n, top.size()))) {
+            merchants.add(new TopMerchants.Merchant(c.getKey(), c.getWeight(), c.getError(),
+                    c.getWeight() - c.getError() >= unlisted));
+        }
+        return new TopMerchants(amount ? "amount" : "count", false, amount ? fx.baseOf(user) : null,
+                sketch.total(), unlisted, merchants);
+    }
+
+    // ✅ Same answer computed from every debit, archived years included, to check the sketch
+    @Transactional(readOnly = true)
+    public TopMerchants exact(String username, int n, String by) {
+        boolean amount = parseBy(by);
+        checkN(n);
+        User user = findUser(username);
+        Map<String, Double> totals = new HashMap<>();
+        exactTotals(user, amount ? totals : null, amount ? null : totals);
+
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(totals.entrySet());
+        sorted.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<TopMerchants.Merchant> merchants = new ArrayList<>();
+        for (Map.Entry<String, Double> e : sorted.subList(0, Math.min(n, sorted.size()))) {
+            merchants.add(new TopMerchants.Merchant(e.getKey(), e.getValue(), 0.0, true));
+        }
+        double unlisted = sorted.size() > n ? sorted.get(n).getValue() : 0.0;
+        double total = totals.values().stream().mapToDouble(Double::doubleValue).sum();
+        return new TopMerchants(amount ? "amount" : "count", true, amount ? fx.baseOf(user) : null,
+                total, unlisted, merchants);
+    }
+
+    /**
+     * Replace the sketch with exact totals: for users whose ledger predates the sketch, after a
+     * base currency change, or when /exact disagrees. The sketch row is locked first, so debits
+     * written meanwhile wait and then apply on top of the rebuilt counters.
+     */
+    @Transactional
+    public void rebuild(String username) {
+        rebuild(findUser(username));
+    }
+
+    @Transactional
+    public void rebuild(User user) {
+        MerchantSketch row = sketchRepository.findForUpdate(user.getId()).orElseGet(() -> newSketch(user));
+        Map<String, Double> byAmount = new HashMap<>();
+        Map<String, Double> byCount = new HashMap<>();
+        exactTotals(user, byAmount, byCount);
+        row.setByAmount(SpaceSaving.of(byAmount, capacity).encode());
+        row.setByCount(SpaceSaving.of(byCount, capacity).encode());
+        row.setRebuiltAt(LocalDateTime.now());
+        row.setUpdatedAt(row.getRebuiltAt());
+        sketchRepository.save(row);
+    }
+
+    static String normalise(String description) {
+        if (description == null) {
+            return null;
+        }
+        String key = NOT_LETTERS.matcher(description.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH).trim();
+        }
+        return key.isEmpty() ? null : key;
+    }
+
+    // one pass over the ledger fills either or both maps (null = not wanted)
+    private void exactTotals(User user, Map<String, Double> byAmount, Map<String, Double> byCount) {
+        String base = fx.baseOf(user);
+        // rows: [description, currency, date, sum, count]
+        for (Object[] r : transactionRepository.getDebitTotalsByDescription(user.getId())) {
+            String key = normalise((String) r[0]);
+            if (key == null) continue;
+            if (byAmount != null) {
+                byAmount.merge(key, fx.convert(((Number) r[3]).doubleValue(), (String) r[1], base, (LocalDate) r[2]),
+                        Double::sum);
+            }
+            if (byCount != null) {
+                byCount.merge(key, ((Number) r[4]).doubleValue(), Double::sum);
+            }
+        }
+        for (LedgerEntry e : archive.archivedTransactions(user.getId(), ALL_START, ALL_END)) {
+            String key = keyOf(e);
+            if (key == null) continue;
+            if (byAmount != null) {
+                byAmount.merge(key, inBase(e, base), Double::sum);
+            }
+            if (byCount != null) {
+                byCount.merge(key, 1.0, Double::sum);
+            }
+        }
+    }
+
+    // sketch key of a debit transaction; null for credits, pre-unification expense events and blank descriptions
+    private static String keyOf(LedgerEntry entry) {
+        if (entry == null || !entry.isTransaction() || !"debit".equalsIgnoreCase(entry.getType())) {
+            return null;
+        }
+        return normalise(entry.getDescription());
+    }
+
+    // same amount at the same rate: an update that leaves both counters as they were
+    private static boolean sameWeight(LedgerEntry a, LedgerEntry b) {
+        return a.getAmount() == b.getAmount() && Objects.equals(a.getCurrency(), b.getCurrency())
+                && Objects.equals(a.getDate(), b.getDate());
+    }
+
+    private double inBase(LedgerEntry entry, String base) {
+        return fx.convert(entry.getAmount(), entry.getCurrency(), base, entry.getDate());
+    }
+
+    private static boolean parseBy(String by) {
+        if ("amount".equalsIgnoreCase(by)) {
+            return true;
+        }
+        if ("count".equalsIgnoreCase(by)) {
+            return false;
+        }
+        throw new RuntimeException("by must be amount or count");
+    }
+
+    private void checkN(int n) {
+        if (n < 1 || n > capacity) {
+            throw new RuntimeException("n must be between 1 and " + capacity);
+        }
+    }
+
+    private static MerchantSketch newSketch(User user) {
+        MerchantSketch row = new MerchantSketch();
+        row.setUser(user);
+        return row;
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
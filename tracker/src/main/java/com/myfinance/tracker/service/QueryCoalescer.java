@@ -0,0 +1,95 @@
+package com.myfinance.tracker.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for read-only report queries: concurrent callers with the same
+ * (method, user, params) key share one in-flight computation and its result. Nothing is
+ * cached once the computation finishes, so a later caller always sees fresh data.
+ * Map, List and Set results are handed out as unmodifiable views, since every joiner gets
+ * the same instance.
+ *
+ * The leader runs its query in one read-only transaction, so it uses a single connection
+ * for all of its statements; callers that join never touch a connection at all.
+ */
+@Component
+public class QueryCoalescer {
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meters;
+    private final TransactionOperations readOnly;
+
+    @Autowired
+    public QueryCoalescer(MeterRegistry meters, PlatformTransactionManager transactionManager) {
+        this.meters = meters;
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        this.readOnly = template;
+    }
+
+    QueryCoalescer(MeterRegistry meters) {
+        this.meters = meters;
+        this.readOnly = TransactionOperations.withoutTransaction();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Supplier<T> query, Object... keyParts) {
+        List<Object> key = key(method, keyParts);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+
+        if (leader != null) {
+            meters.counter("coalescer.queries", "method", method, "outcome", "joined").increment();
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        meters.counter("coalescer.queries", "method", method, "outcome", "executed").increment();
+        try {
+            T result = (T) readOnlyView(readOnly.execute(status -> query.get()));
+            mine.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: a joiner waits on this future with no timeout
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object readOnlyView(Object result) {
+        if (result instanceof Map<?, ?> m) return Collections.unmodifiableMap(m);
+        if (result instanceof List<?> l) return Collections.unmodifiableList(l);
+        if (result instanceof Set<?> s) return Collections.unmodifiableSet(s);
+        return result;
+    }
+
+    private static List<Object> key(String method, Object[] keyParts) {
+        List<Object> key = new ArrayList<>(keyParts.length + 1);
+        key.add(method);
+        Collections.addAll(key, keyParts);
+        return key;
+    }
+}
@@ -0,0 +1,212 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.LedgerArchiveTotal;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking twin of the report reads behind {@code /transactions/my},
+ * {@code /transactions/summary/my} and {@code /expenses/summary/*}. Queries go through R2DBC,
+ * so no request thread waits on MySQL. Rows come back grouped per (key, currency, day) and are
+ * folded and converted in memory, the same way ExpenseReportService does it.
+ *
+ * Archived years are still read through JPA. That read runs on the bounded-elastic scheduler.
+ *
+ * The connection pool is owned here and is not a bean: a ConnectionFactory bean would make
+ * Boot back off from the JDBC DataSource that JPA needs.
+ */
+@Service
+@ConditionalOnProperty(name = "reports.reactive.enabled", havingValue = "true")
+public class ReactiveReportService {
+
+    // widest range MySQL DATE accepts, used for the all-time reports
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
+    private final ConnectionPool pool;
+    private final DatabaseClient db;
+    private final FxRateTable fx;
+    private final LedgerArchiveService archive;
+
+    public ReactiveReportService(FxRateTable fx,
+                                 LedgerArchiveService archive,
+                                 @Value("${reports.reactive.url}") String url,
+                                 @Value("${reports.reactive.username:${spring.datasource.username}}") String username,
+                                 @Value("${reports.reactive.password:${spring.datasource.password}}") String password,
+                                 @Value("${reports.reactive.pool.max-size:20}") int maxSize) {
+        this.fx = fx;
+        this.archive = archive;
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+        this.db = DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    /**
+     * Transactions in [start, end], newest first, then archived years. Rows are emitted as the
+     * driver decodes them; downstream demand limits how far ahead the driver reads.
+     */
+    public Flux<TransactionDto> transactionsInRange(String username, LocalDate start, LocalDate end) {
+        return owner(username).flatMapMany(o -> db.sql(
+                        "SELECT t.id, t.description, t.amount, t.date, t.type, c.name AS category, t.currency " +
+                        "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+                        "WHERE t.date BETWEEN :start AND :end AND t.user_id = :userId " +
+                        "ORDER BY t.date DESC, t.id DESC")
+                .bind("start", start)
+                .bind("end", end)
+                .bind("userId", o.id)
+                .map(row -> new TransactionDto(
+                        row.get("id", Long.class),
+                        row.get("description", String.class),
+                        number(row, "amount"),
+                        row.get("date", LocalDate.class),
+                        row.get("type", String.class),
+                        row.get("category", String.class),
+                        row.get("currency", String.class)))
+                .all()
+                // archived years are all older than the hot rows
+                .concatWith(archived(() -> archive.archivedTransactions(o.id, start, end))
+                        .sort(Comparator.comparing(LedgerEntry::getDate).reversed())
+                        .map(TransactionDto::archived)));
+    }
+
+    // income / expense / balance in the base currency, archived years included
+    public Mono<Map<String, Double>> transactionSummary(String username) {
+        return owner(username).flatMap(o -> {
+            Flux<Group> live = db.sql(
+                            "SELECT type, currency, date, SUM(amount) AS total FROM transactions " +
+                            "WHERE user_id = :userId GROUP BY type, currency, date")
+                    .bind("userId", o.id)
+                    .map(row -> group(row, "type"))
+                    .all();
+            Flux<Group> cold = archived(() -> archive.transactionTotals(o.id, ALL_START, ALL_END))
+                    .map(t -> new Group(t.getType(), t.getCurrency(), t.getDate(), t.getAmount()));
+            return fold(live.concatWith(cold), o.base,
+                    g -> "credit".equalsIgnoreCase(g.key) ? "income" : "expense", HashMap::new)
+                    .map(totals -> {
+                        double income = totals.getOrDefault("income", 0.0);
+                        double expense = totals.getOrDefault("expense", 0.0);
+                        Map<String, Double> map = new HashMap<>();
+                        map.put("income", income);
+                        map.put("expense", expense);
+                        map.put("balance", income - expense);
+                        return map;
+                    });
+        });
+    }
+
+    public Mono<Map<String, Double>> expenseTotalByCategory(String username) {
+        return expenseReport(username, ALL_START, ALL_END, g -> g.key, LinkedHashMap::new);
+    }
+
+    public Mono<Map<String, Double>> expenseTotalByMonth(String username) {
+        // "yyyy-MM" keys sort chronologically
+        return expenseReport(username, ALL_START, ALL_END,
+                g -> String.format("%04d-%02d", g.date.getYear(), g.date.getMonthValue()), TreeMap::new);
+    }
+
+    public Mono<Double> expenseTotalInRange(String username, LocalDate start, LocalDate end) {
+        return expenseReport(username, start, end, g -> "total", HashMap::new)
+                .map(m -> m.getOrDefault("total", 0.0));
+    }
+
+    public Mono<Map<String, Double>> expenseTotalByCategoryInRange(String username, LocalDate start, LocalDate end) {
+        return expenseReport(username, start, end, g -> g.key, LinkedHashMap::new);
+    }
+
+    private Mono<Map<String, Double>> expenseReport(String username, LocalDate start, LocalDate end,
+                                                    Function<Group, String> key,
+                                                    Supplier<Map<String, Double>> result) {
+        return owner(username).flatMap(o -> {
+            Flux<Group> live = db.sql(
+                            "SELECT c.name AS category, t.currency, t.date, SUM(t.amount) AS total " +
+                            "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+                            "WHERE t.date BETWEEN :start AND :end AND t.user_id = :userId " +
+                            "AND LOWER(t.type) = 'debit' " +
+                            "GROUP BY c.name, t.currency, t.date")
+                    .bind("start", start)
+                    .bind("end", end)
+                    .bind("userId", o.id)
+                    .map(row -> group(row, "category"))
+                    .all();
+            Flux<Group> cold = archived(() -> archive.expenseTotals(o.id, start, end))
+                    .map(t -> new Group(t.getCategory(), t.getCurrency(), t.getDate(), t.getAmount()));
+            return fold(live.concatWith(cold), o.base, key, result);
+        });
+    }
+
+    private Mono<Owner> owner(String username) {
+        return db.sql("SELECT id, base_currency FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> {
+                    String base = row.get("base_currency", String.class);
+                    return new Owner(row.get("id", Long.class), base != null ? base : fx.legacyCurrency());
+                })
+                .one()
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found: " + username)));
+    }
+
+    // Helper: convert each group at its own day's rate while folding it into the result
+    private Mono<Map<String, Double>> fold(Flux<Group> groups, String base, Function<Group, String> key,
+                                           Supplier<Map<String, Double>> result) {
+        return groups.collect(result, (map, g) ->
+                map.merge(key.apply(g), fx.convert(g.total, g.currency, base, g.date), Double::sum));
+    }
+
+    private static <T> Flux<T> archived(Supplier<List<T>> read) {
+        return Mono.fromCallable(read::get)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    private static Group group(Readable row, String keyColumn) {
+        return new Group(row.get(keyColumn, String.class), row.get("currency", String.class),
+                row.get("date", LocalDate.class), number(row, "total"));
+    }
+
+    private static double number(Readable row, String column) {
+        Number n = row.get(column, Number.class);
+        return n == null ? 0.0 : n.doubleValue();
+    }
+
+    private record Owner(long id, String base) {
+    }
+
+    // one (key, currency, day) bucket; a null currency is the legacy default, as in FxRateTable
+    private record Group(String key, String currency, LocalDate date, double total) {
+    }
+}
@@ -0,0 +1,284 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.ReportJobRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs heavy reports off the request thread. Jobs go to a fixed worker pool with a bounded
+ * queue; each user may have at most {@code reports.jobs.max-per-user} unfinished jobs, counted
+ * in the database under the user's row lock so the limit holds across instances. Output is
+ * streamed to a temp file in the report store and moved into place when complete.
+ * A finished job is reused for an identical request until the user's change sequence moves
+ * (see ChangeSequence); stale results are swept after {@code reports.jobs.retention-hours}.
+ * Unfinished jobs are heartbeated by the instance that queued them; any instance fails those
+ * without a heartbeat for {@code reports.jobs.stale-ms}.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+    public static final String ANNUAL_STATEMENT = "annual-statement";
+    private static final EnumSet<ReportJob.Status> UNFINISHED =
+            EnumSet.of(ReportJob.Status.QUEUED, ReportJob.Status.RUNNING);
+
+    private final ReportJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final AnnualStatementWriter statementWriter;
+    private final TransactionTemplate tx;
+    private final FxRateTable fx;
+    private final Path store;
+    private final int maxPerUser;
+    private final int maxYears;
+    private final long retentionHours;
+    private final long staleMs;
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> local = ConcurrentHashMap.newKeySet(); // queued or running here
+
+    public ReportJobService(ReportJobRepository jobRepository,
+                            UserRepository userRepository,
+                            AnnualStatementWriter statementWriter,
+                            TransactionTemplate tx,
+                            FxRateTable fx,
+                            @Value("${reports.jobs.dir:${java.io.tmpdir}/tracker-reports}") String dir,
+                            @Value("${reports.jobs.workers:2}") int workerCount,
+                            @Value("${reports.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${reports.jobs.max-per-user:2}") int maxPerUser,
+                            @Value("${reports.jobs.max-years:30}") int maxYears,
+                            @Value("${reports.jobs.retention-hours:24}") long retentionHours,
+                            @Value("${reports.jobs.stale-ms:60000}") long staleMs) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.statementWriter = statementWriter;
+        this.tx = tx;
+        this.fx = fx;
+        this.store = Paths.get(dir);
+        this.maxPerUser = maxPerUser;
+        this.maxYears = maxYears;
+        this.retentionHours = retentionHours;
+        this.staleMs = staleMs;
+        AtomicInteger ids = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "report-job-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // ✅ Submit, or hand back an identical job that is pending or still fresh
+    public ReportJob submit(String username, ReportJob request) {
+        User user = findUser(username);
+        int endYear = request.getEndYear() > 0 ? request.getEndYear() : LocalDate.now().getYear();
+        int startYear = request.getStartYear() > 0 ? request.getStartYear() : endYear;
+        String format = request.getFormat() == null ? "csv" : request.getFormat().toLowerCase();
+        if (!"csv".equals(format) && !"json".equals(format)) {
+            throw new RuntimeException("Format must be csv or json");
+        }
+        if (endYear < startYear || endYear - startYear + 1 > maxYears) {
+            throw new RuntimeException("Year range must be 1 to " + maxYears + " years");
+        }
+        String base = fx.baseOf(user);
+
+        ReportJob existing = jobRepository
+                .findFirstByUserAndTypeAndFormatAndStartYearAndEndYearAndCurrencyAndStatusInOrderByCreatedAtDesc(
+                        user, ANNUAL_STATEMENT, format, startYear, endYear, base,
+                        EnumSet.of(ReportJob.Status.QUEUED, ReportJob.Status.RUNNING, ReportJob.Status.DONE))
+                .orElse(null);
+        if (existing != null && (existing.getStatus() != ReportJob.Status.DONE || isFresh(existing))) {
+            return existing;
+        }
+
+        ReportJob job = new ReportJob();
+        job.setType(ANNUAL_STATEMENT);
+        job.setFormat(format);
+        job.setStartYear(startYear);
+        job.setEndYear(endYear);
+        job.setCurrency(base);
+        job.setStatus(ReportJob.Status.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setHeartbeatAt(job.getCreatedAt());
+        job.setUser(user);
+        ReportJob saved = tx.execute(status -> {
+            // ✅ the user's row lock serialises submits on every instance, so the count is exact
+            userRepository.lockById(user.getId());
+            if (jobRepository.countByUserAndStatusIn(user, UNFINISHED) >= maxPerUser) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "At most " + maxPerUser + " report jobs can run at once");
+            }
+            return jobRepository.save(job);
+        });
+
+        local.add(saved.getId());
+        try {
+            workers.execute(() -> run(saved.getId(), user.getId()));
+        } catch (RejectedExecutionException e) {
+            local.remove(saved.getId());
+            finish(saved, ReportJob.Status.FAILED, "Report queue is full", null);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, try again later");
+        }
+        return saved;
+    }
+
+    public ReportJob getJob(String username, Long id) {
+        ReportJob job = jobRepository.findWithUserById(id)
+                .orElseThrow(() -> new RuntimeException("Report job not found"));
+        if (!job.getUser().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized");
+        }
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReportJob> getJobs(String username) {
+        return jobRepository.findTop20ByUserOrderByCreatedAtDesc(findUser(username));
+    }
+
+    // result file of a finished job
+    public Path getResult(String username, Long id) {
+        ReportJob job = getJob(username, id);
+        if (job.getStatus() != ReportJob.Status.DONE || job.getResultPath() == null) {
+            throw new RuntimeException("Report job is not finished");
+        }
+        Path path = Paths.get(job.getResultPath());
+        if (!Files.exists(path)) {
+            throw new RuntimeException("Report result has expired");
+        }
+        return path;
+    }
+
+    // ✅ Keep the jobs queued or running here fresh, so other instances do not fail them
+    @Scheduled(fixedRateString = "${reports.jobs.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (local.isEmpty()) {
+            return;
+        }
+        try {
+            jobRepository.touch(List.copyOf(local), LocalDateTime.now());
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh report jobs: {}", e.getMessage());
+        }
+    }
+
+    // first run at startup: also fails the jobs a restart of this instance cut off, once stale
+    @Scheduled(fixedDelayString = "${reports.jobs.sweep-ms:600000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int n = jobRepository.failStale(UNFINISHED, "Interrupted by restart",
+                now.minusNanos(TimeUnit.MILLISECONDS.toNanos(staleMs)), now);
+        if (n > 0) {
+            log.warn("Marked {} report jobs without a heartbeat as failed", n);
+        }
+        LocalDateTime cutoff = now.minusHours(retentionHours);
+        for (ReportJob job : jobRepository.findByStatusAndFinishedAtBefore(ReportJob.Status.DONE, cutoff)) {
+            deleteQuietly(job.getResultPath());
+            jobRepository.delete(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(Long jobId, Long userId) {
+        ReportJob job = jobRepository.findById(jobId).orElse(null);
+        try {
+            if (job == null || job.getStatus() != ReportJob.Status.QUEUED) {
+                return; // deleted, or failed as stale while it waited
+            }
+            // capture the version before reading, so a concurrent write makes this result stale
+            job.setDataVersion(dataVersion(userId));
+            job.setStatus(ReportJob.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            jobRepository.save(job);
+
+            Path dir = Files.createDirectories(store.resolve(String.valueOf(userId)));
+            Path tmp = dir.resolve(jobId + "." + job.getFormat() + ".part");
+            Path target = dir.resolve(jobId + "." + job.getFormat());
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                statementWriter.write(userId, job.getCurrency(), job.getStartYear(), job.getEndYear(),
+                        job.getFormat(), out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.setResultBytes(Files.size(target));
+            finish(job, ReportJob.Status.DONE, null, target);
+            log.info("Report job {} done: {} bytes in {}", jobId, job.getResultBytes(), target);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Report job {} failed", jobId, e);
+            if (job != null) {
+                finish(job, ReportJob.Status.FAILED, e instanceof UncheckedIOException ? "I/O error" : e.getMessage(), null);
+            }
+        } finally {
+            local.remove(jobId);
+        }
+    }
+
+    private void finish(ReportJob job, ReportJob.Status status, String error, Path result) {
+        job.setStatus(status);
+        job.setError(error != null && error.length() > 255 ? error.substring(0, 255) : error);
+        job.setResultPath(result == null ? null : result.toString());
+        job.setFinishedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private boolean isFresh(ReportJob job) {
+        return job.getDataVersion() != null
+                && job.getDataVersion().equals(dataVersion(job.getUser().getId()))
+                && job.getResultPath() != null
+                && Files.exists(Paths.get(job.getResultPath()));
+    }
+
+    // the persisted change sequence, so a write on any instance makes earlier results stale
+    private String dataVersion(Long userId) {
+        return String.valueOf(userRepository.findChangeSeq(userId));
+    }
+
+    private static void deleteQuietly(String path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            log.debug("Could not delete report file {}", path, e);
+        }
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.myfinance.tracker.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary (Metwally et al.) holding at most {@code capacity} keys.
+ * Each counter overestimates its key: {@code weight - error <= true weight <= weight}.
+ * A key that is not tracked has a true weight of at most {@link #floor()}.
+ *
+ * A new key takes over the smallest counter and starts from the floor, the largest weight
+ * ever evicted. Removals (edited or deleted rows) subtract from a tracked counter. With only
+ * adds this is plain Space-Saving, because the smallest counter never shrinks; the floor
+ * keeps the bounds above true after removals.
+ */
+public class SpaceSaving {
+
+    private static final byte FORMAT = 1;
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private double total;
+    private double floor;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String key, double weight) {
+        total += weight;
+        Counter c = counters.get(key);
+        if (c != null) {
+            c.weight += weight;
+            return;
+        }
+        while (counters.size() >= capacity) {
+            Counter min = counters.values().stream().min(Comparator.comparingDouble(x -> x.weight)).orElseThrow();
+            counters.remove(min.key);
+            floor = Math.max(floor, min.weight);
+        }
+        // the key may have been evicted or left out by a rebuild: it can already weigh up to the floor
+        counters.put(key, new Counter(key, floor + weight, floor));
+    }
+
+    public void remove(String key, double weight) {
+        total = Math.max(0.0, total - weight);
+        Counter c = counters.get(key);
+        if (c != null) {
+            c.weight = Math.max(0.0, c.weight - weight);
+            c.error = Math.min(c.error, c.weight);
+        }
+    }
+
+    // exact weights, e.g. from a full rescan: keep the heaviest keys, the rest only raise the floor
+    public static SpaceSaving of(Map<String, Double> exact, int capacity) {
+        SpaceSaving s = new SpaceSaving(capacity);
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(exact.entrySet());
+        sorted.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        for (int i = 0; i < sorted.size(); i++) {
+            Map.Entry<String, Double> e = sorted.get(i);
+            s.total += e.getValue();
+            if (i < capacity) {
+                s.counters.put(e.getKey(), new Counter(e.getKey(), e.getValue(), 0.0));
+            } else {
+                s.floor = Math.max(s.floor, e.getValue());
+            }
+        }
+        return s;
+    }
+
+    // heaviest first
+    public List<Counter> top(int n) {
+        List<Counter> all = new ArrayList<>(counters.values());
+        all.sort(Comparator.comparingDouble((Counter c) -> c.weight).reversed().thenComparing(c -> c.key));
+        return all.subList(0, Math.min(n, all.size()));
+    }
+
+    public int capacity() { return capacity; }
+    public int size() { return counters.size(); }
+    public double total() { return total; }
+    public double floor() { return floor; }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + counters.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeDouble(total);
+            out.writeDouble(floor);
+            out.writeInt(counters.size());
+            for (Counter c : counters.values()) {
+                out.writeUTF(c.key);
+                out.writeDouble(c.weight);
+                out.writeDouble(c.error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // a payload written with a larger capacity is trimmed by the next add
+    public static SpaceSaving decode(byte[] payload, int capacity) {
+        SpaceSaving s = new SpaceSaving(capacity);
+        if (payload == null || payload.length == 0) {
+            return s;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = in.readByte();
+            if (format != FORMAT) {
+                throw new IllegalStateException("Unknown sketch format " + format);
+            }
+            s.total = in.readDouble();
+            s.floor = in.readDouble();
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Counter c = new Counter(in.readUTF(), in.readDouble(), in.readDouble());
+                s.counters.put(c.key, c);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return s;
+    }
+
+    public static class Counter {
+        private final String key;
+        private double weight;
+        private double error;
+
+        Counter(String key, double weight, double error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        public String getKey() { return key; }
+        public double getWeight() { return weight; }
+        public double getError() { return error; }
+    }
+}
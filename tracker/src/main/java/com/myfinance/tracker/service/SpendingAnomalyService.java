@@ -0,0 +1,209 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.SpendingAnomaly;
+import com.myfinance.tracker.model.SpendingStats;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.SpendingAnomalyRepository;
+import com.myfinance.tracker.repository.SpendingStatsRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flags unusual debits as they are written. Each (user, category) keeps one SpendingStats
+ * row: Welford mean/variance of the amounts and an exponentially decayed debit count.
+ * A debit is scored against the row, folded into it and saved: two statements, whatever
+ * the size of the ledger.
+ */
+@Service
+public class SpendingAnomalyService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingAnomalyService.class);
+    static final String UNCATEGORIZED = "Uncategorized";
+    // a category whose amounts never vary still needs some spread before a z-score means anything
+    private static final double MIN_RELATIVE_STD_DEV = 0.05;
+
+    private final SpendingStatsRepository statsRepository;
+    private final SpendingAnomalyRepository anomalyRepository;
+    private final UserRepository userRepository;
+    private final FxRateTable fx;
+    private final boolean enabled;
+    private final int minSamples;
+    private final double zThreshold;
+    private final double halfLifeDays;
+    private final double burstFactor;
+
+    public SpendingAnomalyService(SpendingStatsRepository statsRepository,
+                                  SpendingAnomalyRepository anomalyRepository,
+                                  UserRepository userRepository,
+                                  FxRateTable fx,
+                                  @Value("${anomaly.enabled:true}") boolean enabled,
+                                  @Value("${anomaly.min-samples:10}") int minSamples,
+                                  @Value("${anomaly.z-threshold:3.0}") double zThreshold,
+                                  @Value("${anomaly.rate.half-life-days:7}") double halfLifeDays,
+                                  @Value("${anomaly.rate.burst-factor:3.0}") double burstFactor) {
+        this.statsRepository = statsRepository;
+        this.anomalyRepository = anomalyRepository;
+        this.userRepository = userRepository;
+        this.fx = fx;
+        this.enabled = enabled;
+        this.minSamples = minSamples;
+        this.zThreshold = zThreshold;
+        this.halfLifeDays = halfLifeDays;
+        this.burstFactor = burstFactor;
+    }
+
+    /**
+     * Score a new debit against its category and fold it into the running statistics.
+     * Returns the anomalies it raised (usually none); they are also stored for /anomalies.
+     */
+    @Transactional
+    public List<SpendingAnomaly> recordDebit(User user, String category, LocalDate date, double amount,
+                                             String currency, String entryKind, Long entryId) {
+        if (!enabled || user == null || date == null || amount <= 0.0) {
+            return List.of();
+        }
+        String key = category == null || category.isBlank() ? UNCATEGORIZED : category;
+        double x = fx.convert(amount, currency, fx.baseOf(user), date);
+
+        // the first debit inserts the row; ledger writes already hold the user row (ChangeSequence),
+        // so two requests cannot both insert it
+        SpendingStats s = statsRepository.findForUpdate(user.getId(), key)
+                .orElseGet(() -> newStats(user, key));
+        List<SpendingAnomaly> found = new ArrayList<>(2);
+
+        // score against the history before this debit so a large outlier cannot mask itself
+        double mean = s.getMean();
+        double sd = stdDev(s);
+        if (s.getCount() >= minSamples) {
+            double z = (x - mean) / Math.max(sd, mean * MIN_RELATIVE_STD_DEV);
+            if (z >= zThreshold) {
+                found.add(anomaly(s, "AMOUNT", entryKind, entryId, x, mean, sd, z, date));
+            }
+        }
+
+        fold(s, x);
+        if (s.getFirstDay() == null || date.isBefore(s.getFirstDay())) {
+            s.setFirstDay(date);
+        }
+        if (addToRate(s, date, halfLifeDays)) {
+            // only the newest debit moves the rate clock; backdated imports are not a burst
+            double ratio = rateRatio(s);
+            boolean burst = s.getCount() >= minSamples
+                    && ChronoUnit.DAYS.between(s.getFirstDay(), s.getRateDay()) >= 4 * halfLifeDays
+                    && ratio >= burstFactor;
+            if (burst && !s.isBurst()) {
+                found.add(anomaly(s, "FREQUENCY", entryKind, entryId, x, mean, sd, ratio, date));
+            }
+            s.setBurst(burst);
+        }
+        statsRepository.save(s);
+
+        for (SpendingAnomaly a : found) {
+            anomalyRepository.save(a);
+            log.info("Spending anomaly {} for user={} category='{}' amount={} mean={} score={}",
+                    a.getKind(), user.getId(), key, x, mean, a.getScore());
+        }
+        return found;
+    }
+
+    /**
+     * Move the running statistics to a new base currency at today's rate. The mean scales by the
+     * rate and m2 by its square; counts and the debit rate do not depend on the currency.
+     */
+    @Transactional
+    public void rebase(User user, String from, String to) {
+        double k = fx.convert(1.0, from, to, LocalDate.now());
+        for (SpendingStats s : statsRepository.findByUserOrderByCategory(user)) {
+            s.setMean(s.getMean() * k);
+            s.setM2(s.getM2() * k * k);
+            statsRepository.save(s);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendingAnomaly> getRecentAnomalies(String username) {
+        return anomalyRepository.findTop50ByUserOrderByCreatedAtDesc(findUser(username));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendingStats> getStats(String username) {
+        return statsRepository.findByUserOrderByCategory(findUser(username));
+    }
+
+    // Welford's update: numerically stable mean and sum of squared deviations in O(1)
+    static void fold(SpendingStats s, double x) {
+        long n = s.getCount() + 1;
+        double delta = x - s.getMean();
+        double mean = s.getMean() + delta / n;
+        s.setCount(n);
+        s.setMean(mean);
+        s.setM2(s.getM2() + delta * (x - mean));
+    }
+
+    static double stdDev(SpendingStats s) {
+        return s.getCount() < 2 ? 0.0 : Math.sqrt(s.getM2() / (s.getCount() - 1));
+    }
+
+    /**
+     * Add one debit to the decayed count. The count is kept as of rateDay; a debit dated
+     * later moves rateDay forward and decays the count first, an earlier one adds its
+     * already-decayed weight. Returns true when the debit is the newest one seen.
+     */
+    static boolean addToRate(SpendingStats s, LocalDate date, double halfLifeDays) {
+        if (s.getRateDay() == null || !date.isBefore(s.getRateDay())) {
+            long days = s.getRateDay() == null ? 0 : ChronoUnit.DAYS.between(s.getRateDay(), date);
+            s.setRate(s.getRate() * Math.pow(0.5, days / halfLifeDays) + 1.0);
+            s.setRateDay(date);
+            return true;
+        }
+        s.setRate(s.getRate() + Math.pow(0.5, ChronoUnit.DAYS.between(date, s.getRateDay()) / halfLifeDays));
+        return false;
+    }
+
+    // recent debits per day (decayed count over its mean lifetime) against the all-time average
+    private double rateRatio(SpendingStats s) {
+        double recent = s.getRate() * Math.log(2) / halfLifeDays;
+        long days = ChronoUnit.DAYS.between(s.getFirstDay(), s.getRateDay()) + 1;
+        double longRun = (double) s.getCount() / Math.max(days, halfLifeDays);
+        return recent / longRun;
+    }
+
+    private SpendingAnomaly anomaly(SpendingStats s, String kind, String entryKind, Long entryId,
+                                    double amount, double mean, double sd, double score, LocalDate date) {
+        SpendingAnomaly a = new SpendingAnomaly();
+        a.setCategory(s.getCategory());
+        a.setKind(kind);
+        a.setEntryKind(entryKind);
+        a.setEntryId(entryId);
+        a.setAmount(amount);
+        a.setMean(mean);
+        a.setStdDev(sd);
+        a.setScore(score);
+        a.setDate(date);
+        a.setCreatedAt(LocalDateTime.now());
+        a.setUser(s.getUser());
+        return a;
+    }
+
+    private static SpendingStats newStats(User user, String category) {
+        SpendingStats s = new SpendingStats();
+        s.setUser(user);
+        s.setCategory(category);
+        return s;
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
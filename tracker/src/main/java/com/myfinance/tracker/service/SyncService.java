@@ -0,0 +1,123 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.SyncChanges;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.LedgerTombstone;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.ExpenseRepository;
+import com.myfinance.tracker.repository.LedgerTombstoneRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync over the per-user change sequence (see ChangeSequence). Each of the three
+ * sources (transactions, expenses, tombstones) is one index range scan on
+ * (user_id, change_seq). A page ends on a sequence boundary, so the rows of one write
+ * never get split across two responses.
+ */
+@Service
+public class SyncService {
+
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final ExpenseRepository expenseRepository;
+    private final LedgerTombstoneRepository tombstoneRepository;
+    private final CategoryDictionary categories;
+    private final int maxLimit;
+
+    public SyncService(UserRepository userRepository,
+                       TransactionRepository transactionRepository,
+                       ExpenseRepository expenseRepository,
+                       LedgerTombstoneRepository tombstoneRepository,
+                       CategoryDictionary categories,
+                       @Value("${sync.max-limit:5000}") int maxLimit) {
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.expenseRepository = expenseRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.categories = categories;
+        this.maxLimit = maxLimit;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncChanges changesSince(String username, long since, int limit) {
+        if (since < 0) {
+            throw new RuntimeException("since must not be negative");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new RuntimeException("limit must be between 1 and " + maxLimit);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = user.getId();
+
+        // one extra row per source tells whether that source has more
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<Transaction> txns = transactionRepository.findChangedSince(userId, since, page);
+        List<Expense> expenses = expenseRepository.findChangedSince(userId, since, page);
+        List<LedgerTombstone> deleted = tombstoneRepository.findChangedSince(userId, since, page);
+
+        // a truncated source may hold more rows at its last sequence: only lower ones are complete
+        long complete = Long.MAX_VALUE;
+        complete = Math.min(complete, completeBelow(txns, limit, Transaction::getChangeSeq));
+        complete = Math.min(complete, completeBelow(expenses, limit, Expense::getChangeSeq));
+        complete = Math.min(complete, completeBelow(deleted, limit, LedgerTombstone::getChangeSeq));
+
+        TreeMap<Long, Integer> rowsPerSeq = new TreeMap<>();
+        txns.forEach(t -> rowsPerSeq.merge(t.getChangeSeq(), 1, Integer::sum));
+        expenses.forEach(e -> rowsPerSeq.merge(e.getChangeSeq(), 1, Integer::sum));
+        deleted.forEach(d -> rowsPerSeq.merge(d.getChangeSeq(), 1, Integer::sum));
+
+        long upTo = since;
+        int taken = 0;
+        for (Map.Entry<Long, Integer> e : rowsPerSeq.headMap(complete).entrySet()) {
+            if (taken > 0 && taken + e.getValue() > limit) {
+                break;
+            }
+            upTo = e.getKey();
+            taken += e.getValue();
+        }
+        if (upTo == since && !rowsPerSeq.isEmpty()) {
+            // a single write larger than the page: send that sequence whole
+            upTo = rowsPerSeq.firstKey();
+            txns = transactionRepository.findByUserIdAndChangeSeq(userId, upTo);
+            expenses = expenseRepository.findByUserIdAndChangeSeq(userId, upTo);
+            deleted = tombstoneRepository.findByUserIdAndChangeSeq(userId, upTo);
+        }
+
+        long last = upTo;
+        boolean more = complete != Long.MAX_VALUE || (!rowsPerSeq.isEmpty() && rowsPerSeq.lastKey() > last);
+        long seq = more ? last : Math.max(last, user.getChangeSeq() == null ? 0 : user.getChangeSeq());
+        return new SyncChanges(since, seq, more,
+                txns.stream()
+                        .filter(t -> t.getChangeSeq() <= last)
+                        .map(t -> new TransactionDto(t.getId(), t.getDescription(), t.getAmount(), t.getDate(),
+                                t.getType(), t.getCategory() != null ? t.getCategory().getName() : null,
+                                t.getCurrency()))
+                        .collect(Collectors.toList()),
+                categories.named(userId, expenses.stream()
+                        .filter(e -> e.getChangeSeq() <= last)
+                        .collect(Collectors.toList())),
+                deleted.stream()
+                        .filter(d -> d.getChangeSeq() <= last)
+                        .map(d -> new SyncChanges.Deleted(d.getKind(), d.getEntryId()))
+                        .collect(Collectors.toList()));
+    }
+
+    private static <T> long completeBelow(List<T> rows, int limit, ToLongFunction<T> seq) {
+        return rows.size() > limit ? seq.applyAsLong(rows.get(rows.size() - 1)) : Long.MAX_VALUE;
+    }
+}
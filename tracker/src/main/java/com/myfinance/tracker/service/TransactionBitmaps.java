@@ -0,0 +1,263 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.TagFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One user's transactions as bitmaps: each row gets a dense ordinal, and every tag, category,
+ * type and month has a CompressedBitmap of the ordinals carrying it. A filter is answered with
+ * bitmap AND/OR/ANDNOT alone; only the matching ids are then read from the database.
+ *
+ * Ordinals are never reused while the index lives: a deleted or rewritten row keeps its old
+ * ordinal out of {@code live}, and compact() renumbers once most ordinals are dead.
+ * {@code seq} is the user's change sequence the bitmaps are known to include.
+ */
+public class TransactionBitmaps {
+
+    private static final byte FORMAT = 1;
+
+    private long seq;
+    private long[] ids = new long[64];
+    private int count;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private CompressedBitmap live = new CompressedBitmap();
+    private final Map<String, CompressedBitmap> bitmaps = new HashMap<>();
+
+    // bitmap keys for one row; categories and types are matched case-insensitively
+    public static List<String> keys(String type, String category, LocalDate date, Collection<String> tags) {
+        List<String> keys = new ArrayList<>();
+        if (type != null) {
+            keys.add("type:" + type.toLowerCase(Locale.ROOT));
+        }
+        if (category != null) {
+            keys.add("category:" + category.toLowerCase(Locale.ROOT));
+        }
+        if (date != null) {
+            keys.add("month:" + YearMonth.from(date));
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                keys.add("tag:" + tag);
+            }
+        }
+        return keys;
+    }
+
+    // insert or replace the row with this id
+    public void put(long id, Collection<String> keys) {
+        remove(id);
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        int ordinal = count++;
+        ids[ordinal] = id;
+        ordinals.put(id, ordinal);
+        live.add(ordinal);
+        for (String key : keys) {
+            bitmaps.computeIfAbsent(key, k -> new CompressedBitmap()).add(ordinal);
+        }
+    }
+
+    public void remove(long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        live.remove(ordinal);
+        Iterator<CompressedBitmap> it = bitmaps.values().iterator();
+        while (it.hasNext()) {
+            CompressedBitmap b = it.next();
+            if (b.remove(ordinal) && b.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    // ordinals of the live rows matching the filter
+    public CompressedBitmap match(TagFilter f) {
+        CompressedBitmap hits = live;
+        for (String tag : f.getTags()) {
+            hits = hits.and(get("tag:" + tag.toLowerCase(Locale.ROOT)));
+        }
+        if (!f.getAnyTags().isEmpty()) {
+            hits = hits.and(anyOf("tag:", f.getAnyTags()));
+        }
+        if (!f.getCategories().isEmpty()) {
+            hits = hits.and(anyOf("category:", f.getCategories()));
+        }
+        if (f.getType() != null) {
+            hits = hits.and(get("type:" + f.getType().toLowerCase(Locale.ROOT)));
+        }
+        if (f.getFrom() != null || f.getTo() != null) {
+            hits = hits.and(months(f.getFrom(), f.getTo()));
+        }
+        if (!f.getNotTags().isEmpty()) {
+            hits = hits.andNot(anyOf("tag:", f.getNotTags()));
+        }
+        if (!f.getNotCategories().isEmpty()) {
+            hits = hits.andNot(anyOf("category:", f.getNotCategories()));
+        }
+        return hits == live ? live.copy() : hits;
+    }
+
+    // ids for the highest (most recently written) ordinals in hits, newest first
+    public List<Long> newestIds(CompressedBitmap hits, int limit) {
+        int[] ordinals = hits.toArray();
+        List<Long> out = new ArrayList<>(Math.min(limit, ordinals.length));
+        for (int i = ordinals.length - 1; i >= 0 && out.size() < limit; i--) {
+            out.add(ids[ordinals[i]]);
+        }
+        return out;
+    }
+
+    public boolean contains(long id) {
+        return ordinals.containsKey(id);
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    public int bitmapCount() {
+        return bitmaps.size();
+    }
+
+    public long sizeInBytes() {
+        long bytes = live.sizeInBytes() + count * 8L;
+        for (CompressedBitmap b : bitmaps.values()) {
+            bytes += b.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    /**
+     * Renumber the live rows 0..n-1 in their current order once more than half of the
+     * ordinals are dead, so the bitmaps stay dense.
+     */
+    public boolean compact() {
+        int alive = ordinals.size();
+        if (count < 1024 || alive * 2 > count) {
+            return false;
+        }
+        int[] renumber = new int[count];
+        long[] packed = new long[Math.max(64, alive)];
+        int[] next = {0};
+        live.forEach(o -> {
+            renumber[o] = next[0];
+            packed[next[0]++] = ids[o];
+        });
+        for (Map.Entry<String, CompressedBitmap> e : bitmaps.entrySet()) {
+            CompressedBitmap moved = new CompressedBitmap();
+            e.getValue().forEach(o -> moved.add(renumber[o]));
+            e.setValue(moved);
+        }
+        CompressedBitmap all = new CompressedBitmap();
+        ordinals.clear();
+        for (int o = 0; o < alive; o++) {
+            all.add(o);
+            ordinals.put(packed[o], o);
+        }
+        ids = packed;
+        count = alive;
+        live = all;
+        return true;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(seq);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+            }
+            live.write(out);
+            out.writeInt(bitmaps.size());
+            for (Map.Entry<String, CompressedBitmap> e : bitmaps.entrySet()) {
+                out.writeUTF(e.getKey());
+                e.getValue().write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // null for a payload written in another format; the caller rebuilds from the database
+    public static TransactionBitmaps decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readByte() != FORMAT) {
+                return null;
+            }
+            TransactionBitmaps b = new TransactionBitmaps();
+            b.seq = in.readLong();
+            b.count = in.readInt();
+            b.ids = new long[Math.max(64, b.count)];
+            for (int i = 0; i < b.count; i++) {
+                b.ids[i] = in.readLong();
+            }
+            b.live = CompressedBitmap.read(in);
+            b.live.forEach(o -> b.ordinals.put(b.ids[o], o));
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                b.bitmaps.put(in.readUTF(), CompressedBitmap.read(in));
+            }
+            return b;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompressedBitmap get(String key) {
+        CompressedBitmap b = bitmaps.get(key);
+        return b != null ? b : new CompressedBitmap();
+    }
+
+    private CompressedBitmap anyOf(String prefix, Collection<String> values) {
+        List<CompressedBitmap> parts = new ArrayList<>();
+        for (String v : values) {
+            parts.add(get(prefix + v.toLowerCase(Locale.ROOT)));
+        }
+        return CompressedBitmap.orAll(parts);
+    }
+
+    // OR of the month bitmaps in [from, to]; either bound may be open
+    private CompressedBitmap months(YearMonth from, YearMonth to) {
+        List<CompressedBitmap> parts = new ArrayList<>();
+        for (Map.Entry<String, CompressedBitmap> e : bitmaps.entrySet()) {
+            if (!e.getKey().startsWith("month:")) {
+                continue;
+            }
+            YearMonth m = YearMonth.parse(e.getKey().substring("month:".length()));
+            if ((from == null || !m.isBefore(from)) && (to == null || !m.isAfter(to))) {
+                parts.add(e.getValue());
+            }
+        }
+        return CompressedBitmap.orAll(parts);
+    }
+}
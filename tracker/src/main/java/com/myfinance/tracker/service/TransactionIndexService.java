@@ -0,0 +1,293 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.TagFilter;
+import com.myfinance.tracker.dto.TaggedTransactions;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.LedgerTombstone;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.TransactionIndexSnapshot;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.LedgerTombstoneRepository;
+import com.myfinance.tracker.repository.TransactionIndexSnapshotRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory TransactionBitmaps per user for tag/category/type/month filters.
+ *
+ * A user's bitmaps are loaded on their first filter, from the saved snapshot when there is one,
+ * else from all their transactions. Every ledger write is captured in the writer's transaction
+ * and applied after commit, provided its change sequence is the next one the bitmaps expect.
+ * Anything that arrives out of order is skipped; each filter compares the bitmaps' sequence with
+ * the user row first and replays the rows and tombstones written since, so answers are never
+ * older than the request. Dirty bitmaps are saved every {@code transactions.index.flush-ms}
+ * and on shutdown. Archived years are not indexed.
+ */
+@Service
+public class TransactionIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionIndexService.class);
+    private static final int MAX_LIMIT = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerTombstoneRepository tombstoneRepository;
+    private final UserRepository userRepository;
+    private final TransactionIndexSnapshotRepository snapshotRepository;
+    private final ChangeSequence changes;
+    private final Map<Long, TransactionBitmaps> loaded;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public TransactionIndexService(TransactionRepository transactionRepository,
+                                   LedgerTombstoneRepository tombstoneRepository,
+                                   UserRepository userRepository,
+                                   TransactionIndexSnapshotRepository snapshotRepository,
+                                   ChangeSequence changes,
+                                   @Value("${transactions.index.max-users:1000}") int maxUsers) {
+        this.transactionRepository = transactionRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.userRepository = userRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.changes = changes;
+        // least recently filtered users drop out; their snapshot plus the replay brings them back
+        this.loaded = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TransactionBitmaps> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    // one write transaction's changes for one user, all under the same change sequence
+    private static class Pending {
+        final long seq;
+        final List<Consumer<TransactionBitmaps>> ops = new ArrayList<>();
+
+        Pending(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    // runs inside the writer's transaction; the bitmaps change only once it has committed
+    @EventListener
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<Long, Pending> pending = pendingForTransaction();
+        // expense-only writes are recorded too, so the sequence stays contiguous
+        Pending p = pending.computeIfAbsent(event.getUserId(), id -> new Pending(changes.next(id)));
+        LedgerEntry entry = event.getEntry();
+        if (!entry.isTransaction()) {
+            return;
+        }
+        LedgerEntry after = event.getAfter();
+        if (after == null) {
+            p.ops.add(b -> b.remove(entry.getId()));
+        } else {
+            List<String> keys = TransactionBitmaps.keys(after.getType(), after.getCategory(), after.getDate(),
+                    after.getTags());
+            p.ops.add(b -> b.put(after.getId(), keys));
+        }
+    }
+
+    // ✅ Transactions matching a TagFilter, answered from the bitmaps
+    @Transactional(readOnly = true)
+    public TaggedTransactions filter(String username, TagFilter filter, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+        TransactionBitmaps b = current(user);
+
+        CompressedBitmap hits;
+        List<Long> ids;
+        synchronized (b) {
+            hits = b.match(filter);
+            ids = b.newestIds(hits, limit);
+        }
+        List<TransactionDto> rows = ids.isEmpty() ? List.of()
+                : transactionRepository.findByUserIdAndIdIn(user.getId(), ids).stream()
+                        .sorted(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId).reversed())
+                        .map(TransactionDto::of)
+                        .collect(Collectors.toList());
+        return new TaggedTransactions(hits.cardinality(), rows);
+    }
+
+    /**
+     * Forget a user's bitmaps and snapshot, for changes that bypass the change sequence
+     * (LedgerArchiveService moving rows out). The next filter rebuilds from the table.
+     */
+    public void invalidate(Long userId) {
+        snapshotRepository.deleteByUserId(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loaded.remove(userId);
+                }
+            });
+        } else {
+            loaded.remove(userId);
+        }
+        dirty.remove(userId);
+    }
+
+    // Save the bitmaps of users written to since the last flush
+    @Scheduled(fixedDelayString = "${transactions.index.flush-ms:300000}",
+               initialDelayString = "${transactions.index.flush-ms:300000}")
+    @PreDestroy
+    public void flush() {
+        for (Long userId : new ArrayList<>(dirty)) {
+            dirty.remove(userId);
+            TransactionBitmaps b = loaded.get(userId);
+            if (b == null) {
+                continue;
+            }
+            byte[] data;
+            long seq;
+            int rows;
+            synchronized (b) {
+                b.compact();
+                data = b.encode();
+                seq = b.getSeq();
+                rows = b.size();
+            }
+            try {
+                TransactionIndexSnapshot s = snapshotRepository.findByUserId(userId)
+                        .orElseGet(() -> new TransactionIndexSnapshot(null, userId, null, 0, 0, null));
+                if (s.getChangeSeq() > seq) {
+                    continue; // another instance saved a newer one
+                }
+                s.setData(data);
+                s.setChangeSeq(seq);
+                s.setRowCount(rows);
+                s.setUpdatedAt(LocalDateTime.now());
+                snapshotRepository.save(s);
+            } catch (RuntimeException e) {
+                log.warn("Could not save the transaction index of user {}: {}", userId, e.toString());
+                dirty.add(userId);
+            }
+        }
+    }
+
+    // Helper: the user's bitmaps, loaded and caught up to the change sequence read with the user
+    private TransactionBitmaps current(User user) {
+        long seq = user.getChangeSeq() == null ? 0L : user.getChangeSeq();
+        TransactionBitmaps b = loaded.get(user.getId());
+        if (b == null) {
+            TransactionBitmaps fresh = load(user.getId(), seq);
+            b = loaded.putIfAbsent(user.getId(), fresh);
+            if (b == null) {
+                b = fresh;
+            }
+        }
+        synchronized (b) {
+            if (b.getSeq() < seq) {
+                catchUp(user.getId(), b, seq);
+            }
+        }
+        return b;
+    }
+
+    private TransactionBitmaps load(Long userId, long seq) {
+        TransactionBitmaps b = snapshotRepository.findByUserId(userId)
+                .map(s -> TransactionBitmaps.decode(s.getData()))
+                .orElse(null);
+        if (b != null && b.getSeq() <= seq) {
+            return b;
+        }
+        // no usable snapshot: every row, however old; rows committed meanwhile are replayed again
+        b = new TransactionBitmaps();
+        for (Object[] r : transactionRepository.findIndexRows(userId)) {
+            put(b, r);
+        }
+        b.setSeq(seq);
+        dirty.add(userId);
+        return b;
+    }
+
+    // Helper: replay rows and deletes written after the bitmaps' sequence
+    private void catchUp(Long userId, TransactionBitmaps b, long seq) {
+        for (Object[] r : transactionRepository.findIndexRowsChangedSince(userId, b.getSeq())) {
+            put(b, r);
+        }
+        for (LedgerTombstone t : tombstoneRepository.findChangedSince(userId, b.getSeq(), Pageable.unpaged())) {
+            if (LedgerEntry.TRANSACTION.equals(t.getKind())) {
+                b.remove(t.getEntryId());
+            }
+        }
+        b.setSeq(seq);
+        dirty.add(userId);
+    }
+
+    // row: [id, type, category name, date, tags]
+    @SuppressWarnings("unchecked")
+    private static void put(TransactionBitmaps b, Object[] r) {
+        b.put((Long) r[0], TransactionBitmaps.keys((String) r[1], (String) r[2], (LocalDate) r[3],
+                (List<String>) r[4]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Pending> pendingForTransaction() {
+        Map<Long, Pending> pending = (Map<Long, Pending>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Long, Pending> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                created.forEach(TransactionIndexService.this::apply);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionIndexService.this);
+            }
+        });
+        return created;
+    }
+
+    private void apply(Long userId, Pending p) {
+        TransactionBitmaps b = loaded.get(userId);
+        if (b == null) {
+            return; // not loaded: the snapshot plus the replay covers it
+        }
+        synchronized (b) {
+            if (p.seq == b.getSeq() + 1) {
+                p.ops.forEach(op -> op.accept(b));
+                b.setSeq(p.seq);
+                dirty.add(userId);
+            }
+        }
+    }
+}
@@ -1,60 +1,107 @@
 package com.myfinance.tracker.service;
 import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.event.LedgerChangedEvent;
+import com.myfinance.tracker.event.LedgerEntry;
 import com.myfinance.tracker.model.Category;
-import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.LedgerArchiveTotal;
 import com.myfinance.tracker.model.Transaction;
 import com.myfinance.tracker.model.User;
 import com.myfinance.tracker.repository.CategoryRepository;
-import com.myfinance.tracker.repository.ExpenseRepository;
 import com.myfinance.tracker.repository.TransactionRepository;
 import com.myfinance.tracker.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
+    // widest range MySQL DATE accepts, used when reading every archived year
+    private static final LocalDate ALL_START = LocalDate.of(1000, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
+    private static final int MAX_TAGS = 10;
+    private static final Pattern TAG = Pattern.compile("[a-z0-9][a-z0-9_-]{0,31}");
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final ExpenseRepository expenseRepository;
+    private final BudgetService budgetService;
+    private final ApplicationEventPublisher events;
+    private final QueryCoalescer coalescer;
+    private final FxRateTable fx;
+    private final LedgerArchiveService archive;
+    private final ChangeSequence changes;
+    private final SpendingAnomalyService anomalies;
 
     public TransactionService(TransactionRepository transactionRepository,
                               UserRepository userRepository,
                               CategoryRepository categoryRepository,
-                              ExpenseRepository expenseRepository) {
+                              BudgetService budgetService,
+                              ApplicationEventPublisher events,
+                              QueryCoalescer coalescer,
+                              FxRateTable fx,
+                              LedgerArchiveService archive,
+                              ChangeSequence changes,
+                              SpendingAnomalyService anomalies) {
         this.transactionRepository = transactionRepository;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
-        this.expenseRepository = expenseRepository;
+        this.budgetService = budgetService;
+        this.events = events;
+        this.coalescer = coalescer;
+        this.fx = fx;
+        this.archive = archive;
+        this.changes = changes;
+        this.anomalies = anomalies;
     }
 
     /**
      * Save new transaction (with optional category) by userId.
-     * If type = "debit", also add entry in Expense table
+     * A debit is also what /expenses lists (Expense is a view over debit rows).
      */
+    @Transactional
     public Transaction saveTransaction(Transaction transaction, Long userId, Long categoryId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-        transaction.setUser(user);
-
+        Category category = null;
         if (categoryId != null) {
-            Category category = categoryRepository.findById(categoryId)
+            category = categoryRepository.findById(categoryId)
                     .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
-            transaction.setCategory(category);
-        } else {
-            transaction.setCategory(null);
+        }
+        return save(transaction, user, category);
+    }
+
+    /**
+     * Save a new transaction for a loaded user and category; also the write behind
+     * ExpenseService.addExpense.
+     */
+    @Transactional
+    public Transaction save(Transaction transaction, User user, Category category) {
+        transaction.setUser(user);
+        transaction.setCategory(category);
+        transaction.setCurrency(fx.resolveForWrite(transaction.getCurrency(), user));
+        transaction.setTags(normaliseTags(transaction.getTags()));
+        transaction.setChangeSeq(changes.next(user.getId()));
+        if (transaction.getDate() == null) {
+            transaction.setDate(LocalDate.now()); // date is the partition key, never null
         }
 
         Transaction saved = transactionRepository.save(transaction);
+        events.publishEvent(LedgerChangedEvent.created(user, LedgerEntry.of(saved)));
 
-        // if debit, add to expense table as well
         if (transaction.getType() != null && transaction.getType().equalsIgnoreCase("debit")) {
-            createExpenseFromTransaction(saved, transaction.getCategory());
+            budgetService.recordDebit(user, categoryName(saved), saved.getDate(), saved.getAmount(),
+                    saved.getCurrency());
+            saved.setAnomalies(anomalies.recordDebit(user, categoryName(saved), saved.getDate(), saved.getAmount(),
+                    saved.getCurrency(), LedgerEntry.TRANSACTION, saved.getId()));
         }
 
         return saved;
@@ -63,16 +110,38 @@ public class TransactionService {
     /**
      * Save transaction for currently authenticated user (by username).
      */
+    @Transactional
     public Transaction saveTransactionByUsername(Transaction transaction, String username, Long categoryId) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
         return saveTransaction(transaction, user.getId(), categoryId);
     }
 
+    /**
+     * Replace a transaction's tags. This is a ledger write like any other: it takes a change
+     * sequence, so /sync clients pick it up, and publishes UPDATED, so the tag index follows.
+     */
+    @Transactional
+    public Transaction updateTags(String username, Long transactionId, List<String> tags) {
+        Transaction transaction = transactionRepository.findWithUserAndCategoryById(transactionId)
+                .orElseThrow(() -> notFound(username, transactionId, "Transaction"));
+        if (!transaction.getUser().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized update attempt");
+        }
+
+        LedgerEntry before = LedgerEntry.of(transaction);
+        transaction.setTags(normaliseTags(tags));
+        transaction.setChangeSeq(changes.next(transaction.getUser().getId()));
+        Transaction saved = transactionRepository.save(transaction);
+        events.publishEvent(LedgerChangedEvent.updated(saved.getUser(), before, LedgerEntry.of(saved)));
+        return saved;
+    }
+
     /**
      * Get all transactions for a user (ordered newest first).
      */
     // ✅ This method returns entity objects for internal logic (no change to old code)
+@Transactional(readOnly = true)
 public List<Transaction> getTransactionsByUserId(Long userId) {
     User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -80,6 +149,7 @@ public List<Transaction> getTransactionsByUserId(Long userId) {
 }
 
 // ✅ This one returns lightweight TransactionDto objects for frontend display
+@Transactional(readOnly = true)
 public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
     User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -91,7 +161,8 @@ public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
                     t.getAmount(),
                     t.getDate(),
                     t.getType(),
-                    t.getCategory() != null ? t.getCategory().getName() : null
+                    t.getCategory() != null ? t.getCategory().getName() : null,
+                    t.getCurrency()
             ))
             .collect(Collectors.toList());
 }
@@ -100,6 +171,7 @@ public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
     /**
      * Get all transactions for a user by username (ordered newest first).
      */
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByUsername(String username) {
     User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -109,6 +181,7 @@ public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
     /**
      * Get transactions for a user within a date range (inclusive), ordered newest first.
      */
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByUsernameInRange(String username, LocalDate start, LocalDate end) {
     User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -124,6 +197,7 @@ public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
     /**
      * Fetch transactions for a given month (by userId)
      */
+    @Transactional(readOnly = true)
     public List<Transaction> getMonthlyTransactions(Long userId, int year, int month) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -131,102 +205,163 @@ public List<TransactionDto> getTransactionsByUserIdDto(Long userId) {
         LocalDate start = LocalDate.of(year, month, 1);
         LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
 
-        return transactionRepository.findByUserAndDateBetween(user, start, end)
-                .stream()
-                .sorted(Comparator.comparing(Transaction::getDate).reversed())
-                .collect(Collectors.toList());
+        return transactionRepository.findByUserAndDateBetweenOrderByDateDesc(user, start, end);
     }
 
     /**
-     * Delete a transaction by id after verifying ownership. If transaction is a debit,
-     * attempt to find & delete a corresponding Expense record (best-effort).
+     * Delete a transaction by id after verifying ownership. A debit is also an expense, so
+     * /sync clients get a tombstone for both.
      */
+    @Transactional
     public void deleteTransaction(String username, Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        Transaction transaction = transactionRepository.findWithUserAndCategoryById(transactionId)
+                .orElseThrow(() -> notFound(username, transactionId, "Transaction"));
 
         if (!transaction.getUser().getUsername().equals(username)) {
             throw new RuntimeException("Unauthorized deletion attempt");
         }
+        delete(transaction);
+    }
 
-        // Best-effort: delete matching expense when transaction is debit.
-        try {
-            if ("debit".equalsIgnoreCase(transaction.getType())) {
-                // match by title/amount/date heuristic (same as ExpenseService uses)
-                List<Expense> possible = expenseRepository.findByUserOrderByDateDesc(transaction.getUser());
-                Optional<Expense> match = possible.stream()
-                        .filter(e -> Objects.equals(e.getAmount(), transaction.getAmount())
-                                && Objects.equals(e.getDate(), transaction.getDate())
-                                && (transaction.getDescription() == null || transaction.getDescription().isEmpty()
-                                    || Objects.equals(e.getTitle(), transaction.getDescription())))
-                        .findFirst();
-                match.ifPresent(expenseRepository::delete);
-            }
-        } catch (Exception e) {
-            // log and continue; do not block deletion of transaction on expense-delete failure
-            e.printStackTrace();
-        }
-
+    /**
+     * Delete a loaded, already authorised transaction; also the write behind
+     * ExpenseService.deleteExpense.
+     */
+    @Transactional
+    public void delete(Transaction transaction) {
+        String category = categoryName(transaction);
+        LedgerEntry before = LedgerEntry.of(transaction);
         transactionRepository.delete(transaction);
+        changes.recordDelete(transaction.getUser().getId(), LedgerEntry.TRANSACTION, transaction.getId());
+        events.publishEvent(LedgerChangedEvent.deleted(transaction.getUser(), before));
+
+        if ("debit".equalsIgnoreCase(transaction.getType())) {
+            changes.recordDelete(transaction.getUser().getId(), LedgerEntry.EXPENSE, transaction.getId());
+            budgetService.recordDebit(transaction.getUser(), category,
+                    transaction.getDate(), -transaction.getAmount(), transaction.getCurrency());
+        }
     }
 
     /**
      * Get summary grouped by category for transactions (by userId).
      */
     public Map<String, Double> getCategorySummary(Long userId) {
-        List<Transaction> transactions = getTransactionsByUserId(userId);
-
-        return transactions.stream()
-                .filter(t -> t.getCategory() != null)
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory().getName(),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
-    }
-
-    // Helper: create corresponding Expense from Transaction
-    private void createExpenseFromTransaction(Transaction tx, Category category) {
-        try {
-            Expense exp = new Expense();
-            exp.setTitle(tx.getDescription() != null ? tx.getDescription() : "");
-            exp.setAmount(tx.getAmount());
-            exp.setCategory(category != null ? category.getName() : null);
-            exp.setDate(tx.getDate());
-            exp.setUser(tx.getUser());
-            expenseRepository.save(exp);
-        } catch (Exception e) {
-            e.printStackTrace();
+        return coalescer.execute("getCategorySummary", () -> loadCategorySummary(userId), userId);
+    }
+
+    private Map<String, Double> loadCategorySummary(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        String base = fx.baseOf(user);
+
+        // grouped in SQL; only the foreign-currency groups are converted here
+        Map<String, Double> summary = new HashMap<>();
+        for (Object[] r : transactionRepository.getTotalByCategory(userId, base, fx.legacyCurrency())) {
+            summary.put((String) r[0], r[1] == null ? 0.0 : ((Number) r[1]).doubleValue());
+        }
+        for (Object[] r : transactionRepository.getForeignCurrencyTotalsByCategory(userId, base, fx.legacyCurrency())) {
+            double sum = r[3] == null ? 0.0 : ((Number) r[3]).doubleValue();
+            summary.merge((String) r[0], fx.convert(sum, (String) r[1], base, (LocalDate) r[2]), Double::sum);
         }
+        for (LedgerArchiveTotal t : archive.transactionTotals(userId, ALL_START, ALL_END)) {
+            if (t.getCategory() != null) {
+                summary.merge(t.getCategory(), inBase(t, base), Double::sum);
+            }
+        }
+        return summary;
+    }
+
+    // Helper: a missing id can be an archived entry, which is read-only rather than gone
+    RuntimeException notFound(String username, Long id, String what) {
+        if (archive.isArchived(username, id)) {
+            return new RuntimeException(what + " " + id + " is archived and read-only");
+        }
+        return new RuntimeException(what + " not found");
+    }
+
+    // Helper: archived amount in the user's base currency, at the rate of its date
+    private double inBase(LedgerArchiveTotal t, String base) {
+        return fx.convert(t.getAmount(), t.getCurrency(), base, t.getDate());
+    }
+
+    private static String categoryName(Transaction tx) {
+        return tx.getCategory() != null ? tx.getCategory().getName() : null;
     }
+
+    // Helper: lower-case, trimmed, distinct and sorted; at most MAX_TAGS tags of [a-z0-9_-]
+    static List<String> normaliseTags(Collection<String> tags) {
+        if (tags == null) {
+            return new ArrayList<>();
+        }
+        TreeSet<String> out = new TreeSet<>();
+        for (String tag : tags) {
+            String t = tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+            if (t.isEmpty()) {
+                continue;
+            }
+            if (!TAG.matcher(t).matches()) {
+                throw new RuntimeException("Invalid tag: '" + tag + "' (letters, digits, '-' and '_', up to 32)");
+            }
+            out.add(t);
+        }
+        if (out.size() > MAX_TAGS) {
+            throw new RuntimeException("At most " + MAX_TAGS + " tags per transaction");
+        }
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * DTOs for a date range (or everything when either bound is null), newest first.
+     * Includes years already moved to cold storage; also used by the CSV export.
+     */
+    @Transactional(readOnly = true)
     public List<TransactionDto> getTransactionsByUsernameInRangeDto(String username, LocalDate start, LocalDate end) {
     // re-use existing logic
     List<com.myfinance.tracker.model.Transaction> txns = getTransactionsByUsernameInRange(username, start, end);
-    return txns.stream()
-            .map(t -> new TransactionDto(
-                    t.getId(),
-                    t.getDescription(),
-                    t.getAmount(),
-                    t.getDate(),
-                    t.getType(),
-                    t.getCategory() != null ? t.getCategory().getName() : null
-            ))
+    User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
+    boolean all = start == null || end == null;
+    List<TransactionDto> archived = archive.archivedTransactions(user.getId(),
+                    all ? ALL_START : start, all ? ALL_END : end).stream()
+            .map(TransactionDto::archived)
+            .collect(Collectors.toList());
+    return Stream.concat(txns.stream()
+            .map(TransactionDto::of), archived.stream())
             .sorted(Comparator.comparing((TransactionDto d) -> d.getDate()).reversed())
             .collect(Collectors.toList());
 }
+/**
+ * Income/expense/balance totals; concurrent identical calls share one query.
+ */
 public Map<String, Double> getSummaryByUsername(String username) {
+    return coalescer.execute("getSummaryByUsername", () -> loadSummaryByUsername(username), username);
+}
+
+private Map<String, Double> loadSummaryByUsername(String username) {
     User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
 
-    List<Transaction> txns = transactionRepository.findByUser(user);
+    String base = fx.baseOf(user);
 
     double income = 0.0;
     double expense = 0.0;
 
-    for (Transaction t : txns) {
-        if (t.getType() != null && t.getType().equalsIgnoreCase("credit")) {
-            income += t.getAmount();
+    // grouped in SQL; one conversion per (type, currency, day) instead of per row
+    for (Object[] r : transactionRepository.getTotalsByTypeCurrencyAndDate(user.getId())) {
+        double sum = r[3] == null ? 0.0 : ((Number) r[3]).doubleValue();
+        double amount = fx.convert(sum, (String) r[1], base, (LocalDate) r[2]);
+        if (r[0] != null && ((String) r[0]).equalsIgnoreCase("credit")) {
+            income += amount;
         } else { // treat null/other as debit/expense (or you can check explicit "debit")
-            expense += t.getAmount();
+            expense += amount;
+        }
+    }
+    // closed years in cold storage still count towards the balance
+    for (LedgerArchiveTotal t : archive.transactionTotals(user.getId(), ALL_START, ALL_END)) {
+        if (t.isCredit()) {
+            income += inBase(t, base);
+        } else {
+            expense += inBase(t, base);
         }
     }
 
@@ -5,6 +5,7 @@ import com.myfinance.tracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
@@ -15,7 +16,23 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private FxRateTable fx;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private SpendingAnomalyService anomalyService;
+
+    @Autowired
+    private MerchantSketchService merchantSketchService;
+
     // ✅ Register a new user
+    @Transactional
     public User registerUser(User user) {
 
         // Validate required fields
@@ -39,12 +56,18 @@ public class UserService {
             throw new RuntimeException("Email already registered. Please log in instead.");
         }
 
+        // ✅ Optional reporting currency; defaults to fx.default-currency when absent
+        if (user.getBaseCurrency() != null) {
+            user.setBaseCurrency(fx.resolveForWrite(user.getBaseCurrency(), user));
+        }
+
         // ✅ Encode password and save user
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         return userRepository.save(user);
     }
 
     // ✅ Login validation
+    @Transactional(readOnly = true)
     public User login(String username, String rawPassword) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -76,4 +99,28 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("User not found"));
 }
 
+    // ✅ Change the currency reports and summaries are expressed in
+    @Transactional
+    public User updateBaseCurrency(String username, String currency) {
+        User user = getUserByUsername(username);
+        if (currency == null || currency.isBlank()) {
+            throw new RuntimeException("Currency is required");
+        }
+        String from = fx.baseOf(user);
+        String to = fx.resolveForWrite(currency, user);
+        if (to.equals(from)) {
+            return user;
+        }
+        // hold the user row like a ledger write, so no debit lands in the old currency mid-rebase
+        changes.next(user.getId());
+        user.setBaseCurrency(to);
+        User saved = userRepository.save(user);
+
+        // the running totals were accumulated in the old base currency
+        budgetService.rebase(saved, from, to);
+        anomalyService.rebase(saved, from, to);
+        merchantSketchService.rebuild(saved);
+        return saved;
+    }
+
 }
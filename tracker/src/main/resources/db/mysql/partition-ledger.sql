@@ -0,0 +1,45 @@
+-- One-off migration: yearly RANGE COLUMNS(date) partitions for the ledger table, so
+-- date-bounded queries (findByUserAndDateBetween, the range reports) only touch the
+-- partitions for the years they ask about. Run once against MySQL 8 while the app is stopped,
+-- then set ledger.partitioning.enabled=true so LedgerPartitionManager keeps adding years.
+--
+-- MySQL requirements this works around:
+--   * every unique key, including the primary key, must contain the partitioning column,
+--     so the primary key becomes (id, date) and date becomes NOT NULL;
+--   * partitioned InnoDB tables cannot have foreign keys, so the user/category FKs are
+--     dropped here; with ledger.partitioning.enabled=true ddl-auto no longer touches the
+--     table (LedgerSchemaConfig), so later column changes to it must be applied by hand.
+--
+-- Adjust the first partition so it covers your oldest rows (older rows land in it anyway).
+
+-- transactions ----------------------------------------------------------------------------
+UPDATE transactions SET date = CURRENT_DATE WHERE date IS NULL;
+
+SET @fks = (SELECT GROUP_CONCAT(CONCAT('DROP FOREIGN KEY ', CONSTRAINT_NAME))
+            FROM information_schema.TABLE_CONSTRAINTS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'transactions'
+              AND CONSTRAINT_TYPE = 'FOREIGN KEY');
+SET @sql = IF(@fks IS NULL, 'DO 0', CONCAT('ALTER TABLE transactions ', @fks));
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+ALTER TABLE transactions
+    MODIFY date DATE NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, date),
+    ADD INDEX idx_transactions_user_date (user_id, date);
+
+ALTER TABLE transactions
+    PARTITION BY RANGE COLUMNS(date) (
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- expense ---------------------------------------------------------------------------------
+-- Not partitioned: expenses are the debit rows of transactions, and the former expense table
+-- is only read (and emptied) by ExpenseMergeService.
+
+-- check pruning: the plan should list a single partition
+-- EXPLAIN SELECT * FROM transactions WHERE user_id = 1 AND date BETWEEN '2026-01-01' AND '2026-01-31';
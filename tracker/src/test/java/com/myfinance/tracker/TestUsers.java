@@ -0,0 +1,29 @@
+package com.myfinance.tracker;
+
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.UserRepository;
+
+import java.util.UUID;
+
+/**
+ * A fresh saved user per test, so tests sharing the Spring context never see each other's rows.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    // "<prefix>-xxxxxxxx" with a matching email and a placeholder password
+    public static User create(UserRepository userRepository, String prefix) {
+        return create(userRepository, prefix, "x");
+    }
+
+    // for tests that log in: pass the encoded password
+    public static User create(UserRepository userRepository, String prefix, String password) {
+        User user = new User();
+        user.setUsername(prefix + "-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword(password);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,161 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.TestUsers;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.AttachmentRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import com.myfinance.tracker.security.JwtUtil;
+import com.myfinance.tracker.service.AttachmentStore;
+import com.myfinance.tracker.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AttachmentControllerTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper json;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AttachmentRepository attachmentRepository;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private AttachmentStore store;
+    @Autowired private JwtUtil jwtUtil;
+
+    private User user;
+    private String token;
+    private byte[] png;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser();
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername());
+        png = new byte[200_000];
+        new Random().nextBytes(png);
+        byte[] signature = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+        System.arraycopy(signature, 0, png, 0, signature.length);
+    }
+
+    @Test
+    void sameContentIsStoredOnceAndServedWithRanges() throws Exception {
+        Long first = newExpense(user).getId();
+        Long second = newExpense(user).getId();
+
+        JsonNode a = upload(first, png, 201);
+        assertEquals("image/png", a.get("contentType").asText());
+        assertEquals(png.length, a.get("size").asLong());
+        assertEquals(a.get("id"), upload(first, png, 201).get("id")); // retry → same row
+        JsonNode b = upload(second, png, 201);
+        assertEquals(a.get("sha256"), b.get("sha256"));
+        Path file = store.path(a.get("sha256").asText());
+        assertTrue(Files.exists(file));
+
+        String content = "/attachments/" + a.get("id").asLong() + "/content";
+        MvcResult whole = mvc.perform(get(content).header("Authorization", token)).andReturn();
+        assertEquals(200, whole.getResponse().getStatus());
+        assertArrayEquals(png, whole.getResponse().getContentAsByteArray());
+        String etag = whole.getResponse().getHeader("ETag");
+
+        MvcResult part = mvc.perform(get(content).header("Authorization", token).header("Range", "bytes=100-199"))
+                .andReturn();
+        assertEquals(206, part.getResponse().getStatus());
+        assertEquals("bytes 100-199/" + png.length, part.getResponse().getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(png, 100, 200), part.getResponse().getContentAsByteArray());
+
+        MvcResult tail = mvc.perform(get(content).header("Authorization", token).header("Range", "bytes=-10"))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(png, png.length - 10, png.length), tail.getResponse().getContentAsByteArray());
+
+        assertEquals(416, status(get(content).header("Authorization", token).header("Range", "bytes=999999-")));
+        assertEquals(304, status(get(content).header("Authorization", token).header("If-None-Match", etag)));
+        // a stale If-Range gets the whole file
+        assertEquals(200, status(get(content).header("Authorization", token)
+                .header("Range", "bytes=0-9").header("If-Range", "\"other\"")));
+    }
+
+    @Test
+    void rejectsOtherTypesAndOtherUsers() throws Exception {
+        Long expenseId = newExpense(user).getId();
+        upload(expenseId, "<svg onload=alert(1)>".getBytes(), 400);
+
+        JsonNode a = upload(expenseId, png, 201);
+        String otherToken = "Bearer " + jwtUtil.generateToken(newUser().getUsername());
+        assertEquals(404, status(get("/attachments/" + a.get("id").asLong() + "/content")
+                .header("Authorization", otherToken)));
+        assertEquals(400, mvc.perform(post("/attachments").param("kind", "expense").param("entryId", expenseId.toString())
+                .header("Authorization", otherToken).content(png)).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void deletingTheEntryDropsRowsAndSweepRemovesTheFile() throws Exception {
+        byte[] pdf = ("%PDF-1.4 " + UUID.randomUUID()).getBytes();
+        Expense expense = newExpense(user);
+        String sha = upload(expense.getId(), pdf, 201).get("sha256").asText();
+
+        expenseService.deleteExpense(user.getUsername(), expense.getId());
+        assertFalse(attachmentRepository.existsBySha256(sha));
+
+        store.sweep(Instant.now().plusSeconds(1), attachmentRepository::existsBySha256);
+        assertFalse(Files.exists(store.path(sha)));
+    }
+
+    private JsonNode upload(Long expenseId, byte[] body, int expectedStatus) throws Exception {
+        MvcResult result = mvc.perform(post("/attachments")
+                        .param("kind", "expense")
+                        .param("entryId", expenseId.toString())
+                        .param("name", "C:\\scans\\receipt.png")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body))
+                .andReturn();
+        assertEquals(expectedStatus, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        JsonNode node = json.readTree(result.getResponse().getContentAsString());
+        if (expectedStatus == 201) {
+            assertEquals("receipt.png", node.get("fileName").asText());
+        }
+        return node;
+    }
+
+    private int status(org.springframework.test.web.servlet.RequestBuilder request) throws Exception {
+        return mvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private User newUser() {
+        return TestUsers.create(userRepository, "att");
+    }
+
+    private Expense newExpense(User owner) {
+        Expense e = new Expense();
+        e.setTitle("receipt " + UUID.randomUUID());
+        e.setAmount(10.0);
+        e.setCategory("Misc");
+        e.setDate(LocalDate.now());
+        return expenseService.addExpense(owner.getUsername(), e);
+    }
+}
@@ -0,0 +1,391 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.Attachment;
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.monitoring.StatementCounter;
+import com.myfinance.tracker.repository.BudgetRepository;
+import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.ReportJobRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import com.myfinance.tracker.security.JwtUtil;
+import com.myfinance.tracker.service.AttachmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Statement budgets per endpoint. Each endpoint is called once on a small ledger and once
+ * after many more rows and categories were added; both calls must issue the same number of
+ * JDBC statements, and no more than the budget. A lazy association touched per row, or an
+ * eager one loaded per row, shows up here as a count that grows with the data.
+ *
+ * When an endpoint legitimately needs another query, raise its budget in the same change.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCounter.Config.class)
+class EndpointQueryBudgetTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String START = TODAY.minusDays(60).toString();
+    private static final String END = TODAY.toString();
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 'b', 'u', 'd', 'g', 'e', 't'};
+
+    @Autowired private MockMvc mvc;
+    @Autowired private StatementCounter counter;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private BudgetRepository budgetRepository;
+    @Autowired private ReportJobRepository reportJobRepository;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private AttachmentService attachmentService;
+
+    private User user;
+    private String token;
+    private int seeded;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, "budget", passwordEncoder.encode("secret"));
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername());
+        seeded = 0;
+    }
+
+    // seed() adds categories between the two calls, so category names cost one CategoryDictionary reload
+    @ParameterizedTest(name = "{1} {2}")
+    @CsvSource({
+            "5, GET, /transactions/my?start={start}&end={end}",
+            "4, GET, /transactions/summary/my",
+            "5, GET, /transactions/export",
+            "7, GET, /transactions/balance",
+            "4, GET, /expenses/my?start={start}&end={end}",
+            "6, GET, /expenses/summary/category",
+            "5, GET, /expenses/summary/monthly",
+            "5, GET, /expenses/summary/range?start={start}&end={end}",
+            "6, GET, /expenses/summary/range/category?start={start}&end={end}",
+            "4, GET, /reports/aggregate?source=expenses&dimension=category",
+            "4, GET, /reports/aggregate?source=transactions&dimension=type&measure=count",
+            "3, GET, /budgets",
+            "3, GET, /budgets/alerts",
+            "2, GET, /categories",
+            "2, GET, /users/profile",
+            "2, GET, /users/{userId}",
+            "3, GET, /reports/jobs",
+            "5, GET, /sync?since=0",
+            "3, GET, /anomalies",
+            "3, GET, /anomalies/stats",
+            "3, GET, /reports/merchants/top",
+            "5, GET, /reports/merchants/exact",
+            "3, GET, /transactions/filter?start={start}&end={end}&minAmount=1&description=tmp",
+            "4, GET, /expenses/filter?start={start}&end={end}&type=debit",
+    })
+    void readEndpointsStayWithinBudget(int budget, String method, String path) throws Exception {
+        assertFlatWithinBudget(budget, () -> get(expand(path)));
+    }
+
+    @Test
+    void addTransaction() throws Exception {
+        assertFlatWithinBudget(14, () -> post("/transactions/add?categoryId=" + newCategory().getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":12.5,\"type\":\"debit\",\"description\":\"lunch\",\"date\":\"" + END + "\"}"));
+    }
+
+    @Test
+    void taggedTransactionsOnALoadedIndex() throws Exception {
+        statements(get("/transactions/tagged")); // the first filter loads the user's bitmaps
+        assertFlatWithinBudget(3, () -> get("/transactions/tagged?type=debit&from=2000-01"));
+    }
+
+    @Test
+    void transactionFilterOnMissingCategories() throws Exception {
+        statements(get("/transactions/filter?categories=Food,Travel")); // remembers both names as missing
+        assertFlatWithinBudget(2, () -> get("/transactions/filter?categories=Food,Travel"));
+    }
+
+    @Test
+    void deleteTransaction() throws Exception {
+        assertFlatWithinBudget(12, () -> delete("/transactions/" + newTransaction().getId()));
+    }
+
+    @Test
+    void addExpense() throws Exception {
+        newCategory("Travel"); // created by the first expense otherwise
+        assertFlatWithinBudget(12, () -> post("/expenses/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"cab\",\"amount\":7,\"category\":\"Travel\",\"date\":\"" + END + "\"}"));
+    }
+
+    @Test
+    void updateExpense() throws Exception {
+        newCategory("Travel");
+        assertFlatWithinBudget(12, () -> put("/expenses/update/" + newExpense().getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"cab\",\"amount\":9,\"category\":\"Travel\",\"date\":\"" + END + "\"}"));
+    }
+
+    @Test
+    void deleteExpense() throws Exception {
+        assertFlatWithinBudget(13, () -> delete("/expenses/delete/" + newExpense().getId()));
+    }
+
+    @Test
+    void uploadAttachment() throws Exception {
+        assertFlatWithinBudget(6, () -> post("/attachments?kind=transaction&name=r.png&entryId=" + newTransaction().getId())
+                .content(PNG));
+    }
+
+    @Test
+    void listAttachments() throws Exception {
+        Long entryId = attach().getEntryId();
+        assertFlatWithinBudget(3, () -> get("/attachments?kind=transaction&entryId=" + entryId));
+    }
+
+    @Test
+    void attachmentContent() throws Exception {
+        Long id = attach().getId();
+        assertFlatWithinBudget(2, () -> get("/attachments/" + id + "/content"));
+    }
+
+    @Test
+    void deleteAttachment() throws Exception {
+        assertFlatWithinBudget(3, () -> delete("/attachments/" + attach().getId()));
+    }
+
+    @Test
+    void rebuildMerchantSketch() throws Exception {
+        assertFlatWithinBudget(8, () -> post("/reports/merchants/rebuild"));
+    }
+
+    @Test
+    void tagTransaction() throws Exception {
+        assertFlatWithinBudget(7, () -> put("/transactions/" + newTransaction().getId() + "/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"work\",\"trip\"]"));
+    }
+
+    @Test
+    void journalEvents() throws Exception {
+        assertFlatWithinBudget(3, () -> get("/journal?after=0&limit=100"));
+    }
+
+    @Test
+    void journalProjection() throws Exception {
+        statements(get("/journal/projections/summary")); // the first read writes the user's baseline
+        assertFlatWithinBudget(6, () -> get("/journal/projections/category"));
+    }
+
+    @Test
+    void rebuildJournalProjection() throws Exception {
+        statements(get("/journal/projections/summary"));
+        assertFlatWithinBudget(11, () -> post("/journal/projections/monthly/rebuild"));
+    }
+
+    @Test
+    void addBudget() throws Exception {
+        assertFlatWithinBudget(8, () -> post("/budgets/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"category\":\"B" + UUID.randomUUID() + "\",\"monthlyLimit\":100}"));
+    }
+
+    @Test
+    void updateBudget() throws Exception {
+        assertFlatWithinBudget(4, () -> {
+            Budget b = newBudget();
+            return put("/budgets/update/" + b.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"category\":\"" + b.getCategory() + "\",\"monthlyLimit\":250}");
+        });
+    }
+
+    @Test
+    void deleteBudget() throws Exception {
+        assertFlatWithinBudget(4, () -> delete("/budgets/delete/" + newBudget().getId()));
+    }
+
+    @Test
+    void updateBaseCurrency() throws Exception {
+        String[] currencies = {"EUR", "GBP"};
+        int[] call = {0};
+        // a different value each time, so the row is really updated and budgets, spending stats
+        // and the merchant sketch are rebased
+        assertFlatWithinBudget(11, () -> put("/users/profile/currency")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currency\":\"" + currencies[call[0]++ % 2] + "\"}"));
+    }
+
+    @Test
+    void login() throws Exception {
+        assertFlatWithinBudget(2, () -> post("/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + user.getUsername() + "\",\"password\":\"secret\"}"));
+    }
+
+    @Test
+    void register() throws Exception {
+        assertFlatWithinBudget(6, () -> {
+            String name = "reg-" + UUID.randomUUID().toString().substring(0, 8);
+            return post("/users/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"password\":\"pw\"}");
+        });
+    }
+
+    @Test
+    void eventStreamSubscription() throws Exception {
+        // only the subscribe request; the stream itself stays open
+        assertFlatWithinBudget(4, () -> get("/events/stream"));
+    }
+
+    @Test
+    void reportJobIncludingBackgroundWork() throws Exception {
+        seed(20);
+        counter.reset();
+        MvcResult submitted = mvc.perform(post("/reports/jobs").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startYear\":" + TODAY.getYear() + ",\"endYear\":" + TODAY.getYear() + ",\"format\":\"csv\"}"))
+                .andReturn();
+        assertEquals(202, submitted.getResponse().getStatus());
+        Long jobId = reportJobRepository.findTop20ByUserOrderByCreatedAtDesc(user).get(0).getId();
+
+        int polls = 1;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reportJobRepository.findById(jobId).map(ReportJob::getStatus).orElseThrow() != ReportJob.Status.DONE) {
+            polls++;
+            if (System.currentTimeMillis() > deadline) fail("report job did not finish");
+            Thread.sleep(20);
+        }
+        // the findTop20/findById calls above are the test's own
+        int statements = counter.count() - polls - 1;
+        assertTrue(statements <= 16, "POST /reports/jobs + worker used " + statements + " statements (budget 16)");
+
+        assertFlatWithinBudget(3, () -> get("/reports/jobs/" + jobId));
+        assertFlatWithinBudget(3, () -> get("/reports/jobs/" + jobId + "/result"));
+    }
+
+    // Helper: same statement count on a small and a larger ledger, and within budget
+    private void assertFlatWithinBudget(int budget, Supplier<MockHttpServletRequestBuilder> request) throws Exception {
+        seed(3);
+        MockHttpServletRequestBuilder small = request.get();
+        int before = statements(small);
+        seed(40);
+        MockHttpServletRequestBuilder large = request.get();
+        int after = statements(large);
+        String name = large.buildRequest(null).getMethod() + " " + large.buildRequest(null).getRequestURI();
+        assertEquals(before, after, name + " issues more statements as data grows (" + before + " → " + after + ")");
+        assertTrue(after <= budget, name + " issued " + after + " statements, budget is " + budget);
+    }
+
+    private int statements(MockHttpServletRequestBuilder request) throws Exception {
+        counter.reset();
+        MvcResult result = mvc.perform(request.header("Authorization", token)).andReturn();
+        // streaming downloads finish on an async dispatch; the event stream never does
+        if (result.getRequest().isAsyncStarted() && !result.getRequest().getRequestURI().startsWith("/events/")) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, "unexpected status " + status + ": "
+                + result.getResponse().getContentAsString());
+        return counter.count();
+    }
+
+    private String expand(String path) {
+        return path.replace("{start}", START).replace("{end}", END).replace("{userId}", String.valueOf(user.getId()));
+    }
+
+    // Helper: n more transactions (the debits are the expenses), a new category every 5 rows, a quarter in USD
+    private void seed(int n) {
+        Category category = null;
+        for (int i = 0; i < n; i++, seeded++) {
+            if (category == null || seeded % 5 == 0) {
+                category = newCategory();
+            }
+            String currency = seeded % 4 == 0 ? "USD" : null;
+            LocalDate date = TODAY.minusDays(seeded % 50);
+
+            Transaction t = new Transaction();
+            t.setAmount(10 + seeded);
+            t.setType(seeded % 3 == 0 ? "credit" : "debit");
+            t.setDescription("seed " + seeded);
+            t.setDate(date);
+            t.setCurrency(currency);
+            t.setUser(user);
+            t.setCategory(category);
+            transactionRepository.save(t);
+        }
+    }
+
+    private Category newCategory() {
+        return newCategory("C" + UUID.randomUUID().toString().substring(0, 6));
+    }
+
+    private Category newCategory(String name) {
+        Category c = new Category();
+        c.setName(name);
+        c.setUser(user);
+        return categoryRepository.save(c);
+    }
+
+    private Transaction newTransaction() {
+        Transaction t = new Transaction();
+        t.setAmount(3);
+        t.setDescription("tmp");
+        t.setType("debit");
+        t.setDate(TODAY);
+        t.setUser(user);
+        t.setCategory(newCategory());
+        return transactionRepository.save(t);
+    }
+
+    // an expense is a debit transaction
+    private Transaction newExpense() {
+        return newTransaction();
+    }
+
+    private Attachment attach() {
+        return attachmentService.upload(user.getUsername(), "transaction", newTransaction().getId(), "r.png",
+                new ByteArrayInputStream(PNG));
+    }
+
+    private Budget newBudget() {
+        Budget b = new Budget();
+        b.setCategory("B" + UUID.randomUUID().toString().substring(0, 8));
+        b.setMonthlyLimit(100.0);
+        b.setPeriodStart(TODAY.withDayOfMonth(1));
+        b.setUser(user);
+        return budgetRepository.save(b);
+    }
+}
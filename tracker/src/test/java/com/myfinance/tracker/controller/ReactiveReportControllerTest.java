@@ -0,0 +1,141 @@
+package com.myfinance.tracker.controller;
+
+import com.myfinance.tracker.TestUsers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import com.myfinance.tracker.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The /reactive/** endpoints must return what the blocking endpoints return for the same
+ * ledger, including rows in another currency.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactiveReportControllerTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String RANGE = "start=" + TODAY.minusDays(40) + "&end=" + TODAY;
+
+    @Autowired private MockMvc mvc;
+    @Autowired private ObjectMapper json;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private JwtUtil jwtUtil;
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        User user = TestUsers.create(userRepository, "rx");
+        token = "Bearer " + jwtUtil.generateToken(user.getUsername());
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : List.of("Food", "Rent", "Travel")) {
+            Category c = new Category();
+            c.setName(name + "-" + user.getUsername());
+            c.setUser(user);
+            categories.add(categoryRepository.save(c));
+        }
+        for (int i = 0; i < 30; i++) {
+            Category category = categories.get(i % 3);
+            String currency = i % 4 == 0 ? "USD" : null;
+            LocalDate date = TODAY.minusDays(i * 2L);
+
+            Transaction t = new Transaction();
+            t.setAmount(10 + i);
+            t.setType(i % 5 == 0 ? "credit" : "debit");
+            t.setDescription("row " + i);
+            t.setDate(date);
+            t.setCurrency(currency);
+            t.setUser(user);
+            t.setCategory(category);
+            transactionRepository.save(t); // the debits are also the expenses
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/transactions/summary/my",
+            "/expenses/summary/category",
+            "/expenses/summary/monthly",
+            "/expenses/summary/range/category?{range}",
+    })
+    void summariesMatchBlockingEndpoints(String template) throws Exception {
+        String path = template.replace("{range}", RANGE);
+        Map<String, Double> blocking = json.readValue(body(path), new TypeReference<>() {});
+        Map<String, Double> reactive = json.readValue(body("/reactive" + path), new TypeReference<>() {});
+        assertEquals(blocking.keySet(), reactive.keySet());
+        blocking.forEach((k, v) -> assertEquals(v, reactive.get(k), 1e-6, path + " " + k));
+    }
+
+    @Test
+    void rangeTotalMatchesBlockingEndpoint() throws Exception {
+        double blocking = Double.parseDouble(body("/expenses/summary/range?" + RANGE));
+        double reactive = Double.parseDouble(body("/reactive/expenses/summary/range?" + RANGE));
+        assertEquals(blocking, reactive, 1e-6);
+    }
+
+    @Test
+    void transactionsStreamAsNdjsonInSameOrder() throws Exception {
+        List<Map<String, Object>> blocking = json.readValue(body("/transactions/my?" + RANGE), new TypeReference<>() {});
+
+        String ndjson = body("/reactive/transactions/my?" + RANGE);
+        List<Map<String, Object>> reactive = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isBlank()) {
+                reactive.add(json.readValue(line, new TypeReference<>() {}));
+            }
+        }
+        assertTrue(blocking.size() > 10);
+        assertEquals(blocking.size(), reactive.size());
+        for (int i = 0; i < blocking.size(); i++) {
+            assertEquals(blocking.get(i).get("date"), reactive.get(i).get("date"));
+            assertEquals(blocking.get(i).get("categoryName"), reactive.get(i).get("categoryName"));
+            assertEquals(((Number) blocking.get(i).get("amount")).doubleValue(),
+                    ((Number) reactive.get(i).get("amount")).doubleValue(), 1e-9);
+        }
+    }
+
+    @Test
+    void reactiveEndpointsRequireToken() throws Exception {
+        int status = mvc.perform(get("/reactive/transactions/summary/my")).andReturn().getResponse().getStatus();
+        assertTrue(status == 401 || status == 403, "status " + status);
+    }
+
+    private String body(String path) throws Exception {
+        MvcResult result = mvc.perform(get(path).header("Authorization", token)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus(), path + ": " + result.getResponse().getContentAsString());
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,37 @@
+package com.myfinance.tracker.dto;
+
+import com.myfinance.tracker.dto.AggregationQuery.Dimension;
+import com.myfinance.tracker.event.LedgerEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregationQueryTest {
+
+    private static LedgerEntry on(LocalDate date) {
+        return new LedgerEntry(LedgerEntry.TRANSACTION, 1L, "debit", 10.0, null, date, null, "Food", null);
+    }
+
+    @Test
+    void archiveKeysMatchSqlLabels() {
+        // 2024-12-30 belongs to ISO week 1 of 2025; MySQL YEARWEEK(d, 3) returns 202501 for it
+        LocalDate edge = LocalDate.of(2024, 12, 30);
+        assertEquals(Dimension.WEEK.label(202501), Dimension.WEEK.keyOf(on(edge)));
+        assertEquals("2025-W01", Dimension.WEEK.keyOf(on(edge)));
+
+        assertEquals(Dimension.MONTH.label("2024-12"), Dimension.MONTH.keyOf(on(edge)));
+        assertEquals(Dimension.YEAR.label(2024), Dimension.YEAR.keyOf(on(edge)));
+        assertEquals(Dimension.DAY.label(edge), Dimension.DAY.keyOf(on(edge)));
+        assertEquals("Food", Dimension.CATEGORY.keyOf(on(edge)));
+        assertEquals("debit", Dimension.TYPE.keyOf(on(edge)));
+    }
+
+    @Test
+    void expensesGroupOnTheSameCategoryColumn() {
+        // expenses are debit transactions, so both sources join categories
+        assertEquals("c.name", Dimension.CATEGORY.sql(AggregationQuery.Source.TRANSACTIONS));
+        assertEquals("c.name", Dimension.CATEGORY.sql(AggregationQuery.Source.EXPENSES));
+    }
+}
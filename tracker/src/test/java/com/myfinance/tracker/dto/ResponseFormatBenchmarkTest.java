@@ -0,0 +1,116 @@
+package com.myfinance.tracker.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares payload size and serialisation time of the /transactions/my response formats
+ * for a year of data. Sizes and timings are published as report entries; only the size
+ * ordering is asserted. The measuring test is tagged, so it runs with -Pbenchmarks and not
+ * in the default build.
+ */
+class ResponseFormatBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+    private static final int ITERATIONS = 50;
+
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+    private final ObjectMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @Test
+    @Tag("benchmark")
+    void columnarAndBinaryFormatsAreSmallerThanRowJson(TestReporter reporter) throws Exception {
+        List<TransactionDto> rows = sampleYear();
+
+        byte[] rowJson = measure(reporter, "row json", () -> json.writeValueAsBytes(rows));
+        byte[] columnar = measure(reporter, "columnar json", () -> json.writeValueAsBytes(ColumnarTransactions.from(rows)));
+        byte[] rowCbor = measure(reporter, "row cbor", () -> cbor.writeValueAsBytes(rows));
+        byte[] rowSmile = measure(reporter, "row smile", () -> smile.writeValueAsBytes(rows));
+
+        assertTrue(columnar.length < rowJson.length, "columnar should be smaller than row JSON");
+        assertTrue(rowCbor.length < rowJson.length, "CBOR should be smaller than row JSON");
+        assertTrue(rowSmile.length < rowJson.length, "Smile should be smaller than row JSON");
+        assertTrue(gzip(columnar) < gzip(rowJson), "columnar should stay smaller after gzip");
+    }
+
+    @Test
+    void columnarLayoutDictionaryEncodesCategories() {
+        List<TransactionDto> rows = List.of(
+                new TransactionDto(1L, "Rent", 900, LocalDate.of(2026, 1, 1), "debit", "Housing"),
+                new TransactionDto(2L, "Salary", 3000, LocalDate.of(2026, 1, 2), "credit", null),
+                new TransactionDto(3L, "Water", 40, LocalDate.of(2026, 1, 3), "debit", "Housing"));
+
+        ColumnarTransactions c = ColumnarTransactions.from(rows);
+
+        assertEquals(3, c.getCount());
+        assertEquals(1, c.getCategories().length);
+        assertEquals(0, c.getCategory()[0]);
+        assertEquals(-1, c.getCategory()[1]);
+        assertEquals(0, c.getCategory()[2]);
+        assertEquals(LocalDate.of(2026, 1, 3).toEpochDay(), c.getDate()[2]);
+        assertEquals("credit", c.getTypes()[c.getType()[1]]);
+    }
+
+    private byte[] measure(TestReporter reporter, String label, ThrowingSupplier body) throws Exception {
+        byte[] out = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            out = body.get(); // warm-up
+        }
+        long startNs = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            out = body.get();
+        }
+        long avgMicros = (System.nanoTime() - startNs) / ITERATIONS / 1_000;
+        reporter.publishEntry(label, String.format("%d bytes, %d gzip, %d us/op", out.length, gzip(out), avgMicros));
+        return out;
+    }
+
+    private static int gzip(byte[] data) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(data);
+        }
+        return bos.size();
+    }
+
+    private static List<TransactionDto> sampleYear() {
+        String[] categories = {"Food", "Rent", "Travel", "Utilities", "Shopping", "Health"};
+        String[] places = {"Grocery store", "Coffee shop", "Train ticket", "Electricity bill", "Pharmacy"};
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        List<TransactionDto> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            boolean credit = i % 20 == 0;
+            rows.add(new TransactionDto(
+                    (long) i + 1,
+                    credit ? "Salary" : places[i % places.length],
+                    credit ? 2500.0 : 5 + (i * 37 % 20_000) / 100.0,
+                    start.plusDays(i % 365),
+                    credit ? "credit" : "debit",
+                    credit ? null : categories[i % categories.length]));
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        byte[] get() throws Exception;
+    }
+}
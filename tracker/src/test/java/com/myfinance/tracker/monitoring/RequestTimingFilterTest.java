@@ -0,0 +1,87 @@
+package com.myfinance.tracker.monitoring;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.UserRepository;
+import com.myfinance.tracker.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {"monitoring.slow-request-ms=0", "monitoring.slow-query-ms=0"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestTimingFilterTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtil jwtUtil;
+
+    private final ListAppender<ILoggingEvent> requests = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> queries = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        attach("tracker.slowrequest", requests);
+        attach("tracker.slowquery", queries);
+    }
+
+    @AfterEach
+    void detach() {
+        ((Logger) LoggerFactory.getLogger("tracker.slowrequest")).detachAppender(requests);
+        ((Logger) LoggerFactory.getLogger("tracker.slowquery")).detachAppender(queries);
+    }
+
+    @Test
+    void accessTokenIsRedactedFromTheLoggedQuery() {
+        assertEquals("access_token=[redacted]", RequestTimingFilter.redact("access_token=eyJhbGciOi.x.y"));
+        assertEquals("since=4&access_token=[redacted]&x=1", RequestTimingFilter.redact("since=4&access_token=abc&x=1"));
+        assertEquals("my_access_token=keep", RequestTimingFilter.redact("my_access_token=keep"));
+        assertNull(RequestTimingFilter.redact(null));
+    }
+
+    @Test
+    void authenticatedRequestsLogTheirUser() throws Exception {
+        User user = TestUsers.create(userRepository, "timing");
+        mvc.perform(get("/transactions/summary/my")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(user.getUsername())));
+
+        assertTrue(messages(requests).stream().anyMatch(m -> m.contains("path=\"/transactions/summary/my\"")
+                && m.contains("user=" + user.getUsername() + " ")), "slow_request line with the user");
+
+        // slow queries are written on a background thread
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (messages(queries).stream().noneMatch(m -> m.contains("\"user\":\"" + user.getUsername() + "\""))) {
+            if (System.currentTimeMillis() > deadline) fail("no slow_query line with the user");
+            Thread.sleep(20);
+        }
+    }
+
+    private static void attach(String name, ListAppender<ILoggingEvent> appender) {
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(name)).addAppender(appender);
+    }
+
+    private static List<String> messages(ListAppender<ILoggingEvent> appender) {
+        synchronized (appender.list) {
+            return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.myfinance.tracker.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimedDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private final SlowQueryLog slowLog = mock(SlowQueryLog.class);
+
+    @AfterEach
+    void clear() {
+        RequestQueryStats.end();
+    }
+
+    @Test
+    void slowQueryIsRecordedWithParamsRowsAndCallerWhenResultSetCloses() throws Exception {
+        String sql = "select * from expense where user_id=? and date>=?";
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(slowLog.isSlow(anyLong())).thenReturn(true);
+
+        RequestQueryStats stats = RequestQueryStats.begin();
+        TimedDataSource ds = new TimedDataSource(pool, () -> slowLog, () -> null);
+        try (Connection c = ds.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, 42L);
+            ps.setString(2, "2025-01-01");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) { }
+            }
+        }
+
+        verify(slowLog).record(eq(pool), eq(sql), eq(List.of(42L, "2025-01-01")), eq(3L), anyLong(),
+                startsWith("TimedDataSourceTest.slowQueryIsRecorded"));
+        assertEquals(1, stats.getStatements());
+        assertEquals(sql, stats.getSlowestSql());
+    }
+
+    @Test
+    void fastStatementsAreOnlyCounted() throws Exception {
+        String sql = "update budget set spent=? where id=?";
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+        when(slowLog.isSlow(anyLong())).thenReturn(false);
+
+        RequestQueryStats stats = RequestQueryStats.begin();
+        TimedDataSource ds = new TimedDataSource(pool, () -> slowLog, () -> null);
+        try (Connection c = ds.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setDouble(1, 10.0);
+            ps.setLong(2, 1L);
+            assertEquals(1, ps.executeUpdate());
+            assertEquals(1, ps.executeUpdate());
+        }
+
+        verify(slowLog, never()).record(eq(pool), eq(sql), eq(List.of(10.0, 1L)), anyLong(), anyLong(), eq("-"));
+        assertEquals(2, stats.getStatements());
+    }
+}
@@ -0,0 +1,30 @@
+package com.myfinance.tracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    @Test
+    void reportWeightNeverExceedsTheUserBucket() {
+        // capacity 10, report weight 5, one extra token per 90 days
+        RateLimitFilter filter = new RateLimitFilter(new SimpleMeterRegistry(), true, 10, 1.0,
+                400, 100, 400, 100, 1000, 300, 5, 2, 1, 90, 100);
+
+        assertEquals(5, filter.weightOf(report("2026-01-01", "2026-02-01"), RateLimitFilter.EndpointClass.REPORT));
+        assertEquals(7, filter.weightOf(report("2026-01-01", "2026-07-01"), RateLimitFilter.EndpointClass.REPORT));
+        // a ten-year range would cost 45 tokens, which a 10-token bucket could never hold
+        assertEquals(10, filter.weightOf(report("2016-01-01", "2026-01-01"), RateLimitFilter.EndpointClass.REPORT));
+    }
+
+    private static MockHttpServletRequest report(String start, String end) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/expenses/summary/range");
+        request.setServletPath("/expenses/summary/range");
+        request.setParameter("start", start);
+        request.setParameter("end", end);
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.myfinance.tracker.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(5, 1.0);
+        long now = 10 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(1, now));
+        }
+        long wait = bucket.tryAcquire(1, now);
+        assertTrue(wait > 0 && wait <= SECOND, "should wait about one refill interval, was " + wait);
+    }
+
+    @Test
+    void refillsOverTimeAndHonoursWeights() {
+        TokenBucket bucket = new TokenBucket(10, 2.0);
+        long now = 10 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(10, now));
+        assertTrue(bucket.tryAcquire(4, now + SECOND) > 0, "only 2 tokens back after 1s");
+        assertEquals(0, bucket.tryAcquire(4, now + 2 * SECOND));
+    }
+
+    @Test
+    void refundAndIdleDetection() {
+        TokenBucket bucket = new TokenBucket(2, 1.0);
+        long now = 10 * SECOND;
+
+        assertEquals(0, bucket.tryAcquire(2, now));
+        assertTrue(bucket.tryAcquire(1, now) > 0);
+        bucket.refund(1);
+        assertEquals(0, bucket.tryAcquire(1, now));
+        assertTrue(bucket.isIdle(now + 3 * SECOND));
+    }
+
+    @Test
+    void worksWhenTheClockIsNegative() {
+        // System.nanoTime() may return negative values
+        TokenBucket bucket = new TokenBucket(2, 1.0);
+        long now = -50 * SECOND;
+
+        assertTrue(bucket.isIdle(now), "an unused bucket carries no state");
+        assertEquals(0, bucket.tryAcquire(1, now));
+        assertEquals(0, bucket.tryAcquire(1, now));
+        long wait = bucket.tryAcquire(1, now);
+        assertTrue(wait > 0 && wait <= SECOND, "should wait about one refill interval, was " + wait);
+        assertFalse(bucket.isIdle(now + SECOND));
+        assertTrue(bucket.isIdle(now + 2 * SECOND));
+        assertEquals(0, bucket.tryAcquire(2, now + 2 * SECOND));
+    }
+}
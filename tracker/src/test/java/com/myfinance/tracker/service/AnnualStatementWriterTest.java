@@ -0,0 +1,66 @@
+package com.myfinance.tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnnualStatementWriterTest {
+
+    private AnnualStatementWriter writer() {
+        ExpenseReportService reports = mock(ExpenseReportService.class);
+        Map<String, Map<String, Double>> months = new TreeMap<>();
+        months.put("2024-01", new LinkedHashMap<>(Map.of("Food", 10.0)));
+        Map<String, Double> feb = new LinkedHashMap<>();
+        feb.put("Food", 5.5);
+        feb.put("Rent, flat", 100.0);
+        months.put("2024-02", feb);
+        when(reports.getMonthlyCategoryTotals(eq(1L), eq("EUR"), eq(LocalDate.of(2024, 1, 1)), any()))
+                .thenReturn(months);
+        when(reports.getMonthlyCategoryTotals(eq(1L), eq("EUR"), eq(LocalDate.of(2025, 1, 1)), any()))
+                .thenReturn(new TreeMap<>());
+        return new AnnualStatementWriter(reports, new ObjectMapper());
+    }
+
+    @Test
+    void csvHasMonthRowsThenYearTotals() throws Exception {
+        StringWriter out = new StringWriter();
+        writer().write(1L, "EUR", 2024, 2025, "csv", out);
+
+        assertEquals(String.join("\n",
+                "year,month,category,amount,currency",
+                "2024,2024-01,Food,10.0,EUR",
+                "2024,2024-02,Food,5.5,EUR",
+                "2024,2024-02,\"Rent, flat\",100.0,EUR",
+                "2024,ALL,Food,15.5,EUR",
+                "2024,ALL,\"Rent, flat\",100.0,EUR",
+                "2024,ALL,,115.5,EUR",
+                "2025,ALL,,0.0,EUR",
+                ""), out.toString());
+    }
+
+    @Test
+    void jsonNestsMonthsUnderYears() throws Exception {
+        StringWriter out = new StringWriter();
+        writer().write(1L, "EUR", 2024, 2025, "json", out);
+
+        JsonNode root = new ObjectMapper().readTree(out.toString());
+        assertEquals("EUR", root.get("currency").asText());
+        JsonNode y2024 = root.get("years").get(0);
+        assertEquals(115.5, y2024.get("total").asDouble());
+        assertEquals(15.5, y2024.get("byCategory").get("Food").asDouble());
+        assertEquals(105.5, y2024.get("months").get(1).get("total").asDouble());
+        assertEquals(0, root.get("years").get(1).get("months").size());
+    }
+}
@@ -0,0 +1,44 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.dto.BalanceSeries;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BalanceSeriesServiceTest {
+
+    @Test
+    void dailySeriesIsOpeningPlusPrefixSums() {
+        BalanceSeries s = BalanceSeriesService.fold("INR", LocalDate.of(2025, 3, 1), 100.0,
+                new double[]{10, 0, -30, 5}, false);
+
+        assertEquals(4, s.getPoints().size());
+        assertEquals(100.0, s.getOpening());
+        assertEquals(110.0, s.getPoints().get(0).getBalance());
+        assertEquals(110.0, s.getPoints().get(1).getBalance());
+        assertEquals(80.0, s.getPoints().get(2).getBalance());
+        assertEquals(85.0, s.getPoints().get(3).getBalance());
+        assertEquals(LocalDate.of(2025, 3, 4), s.getPoints().get(3).getDate());
+    }
+
+    @Test
+    void weeklySeriesSamplesSundaysAndTheLastDay() {
+        // 2025-03-05 is a Wednesday; Sundays fall on 03-09 and 03-16
+        double[] delta = new double[14];
+        delta[0] = 50;   // Wed
+        delta[6] = -20;  // Tue after the first Sunday
+        delta[13] = 7;   // last day (Tue)
+        BalanceSeries s = BalanceSeriesService.fold("INR", LocalDate.of(2025, 3, 5), 0.0, delta, true);
+
+        assertEquals(3, s.getPoints().size());
+        assertEquals(LocalDate.of(2025, 3, 9), s.getPoints().get(0).getDate());
+        assertEquals(50.0, s.getPoints().get(0).getBalance());
+        assertEquals(LocalDate.of(2025, 3, 16), s.getPoints().get(1).getDate());
+        assertEquals(30.0, s.getPoints().get(1).getBalance());
+        assertEquals(-20.0, s.getPoints().get(1).getChange());
+        assertEquals(37.0, s.getPoints().get(2).getBalance());
+        assertEquals(7.0, s.getPoints().get(2).getChange());
+    }
+}
@@ -0,0 +1,128 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.BudgetAlert;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.BudgetRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BudgetServiceTest {
+
+    @Autowired private BudgetService budgetService;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private BudgetRepository budgetRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void eachLevelAlertsOnceWhenCrossed() {
+        User user = newUser();
+        budget(user, 100.0);
+
+        expenseService.addExpense(user.getUsername(), expense("Lunch", 50.0));
+        assertEquals(List.of(), levels(user));
+
+        expenseService.addExpense(user.getUsername(), expense("Dinner", 30.0));
+        expenseService.addExpense(user.getUsername(), expense("Snack", 5.0));
+        assertEquals(List.of("THRESHOLD"), levels(user));
+
+        expenseService.addExpense(user.getUsername(), expense("Party", 20.0));
+        expenseService.addExpense(user.getUsername(), expense("Coffee", 5.0));
+        assertEquals(List.of("EXCEEDED", "THRESHOLD"), levels(user));
+        assertEquals(2, budgetOf(user).getAlertLevel());
+    }
+
+    @Test
+    void staleCounterRollsToTheCurrentMonth() {
+        User user = newUser();
+        Budget budget = budget(user, 100.0);
+        budget.setPeriodStart(LocalDate.now().withDayOfMonth(1).minusMonths(1));
+        budget.setSpent(150.0);
+        budget.setAlertLevel(2);
+        budgetRepository.save(budget);
+
+        Budget rolled = budgetOf(user);
+        assertEquals(LocalDate.now().withDayOfMonth(1), rolled.getPeriodStart());
+        assertEquals(0.0, rolled.getSpent());
+        assertEquals(0, rolled.getAlertLevel());
+
+        // the new month alerts again from zero
+        expenseService.addExpense(user.getUsername(), expense("Groceries", 90.0));
+        assertEquals(List.of("THRESHOLD"), levels(user));
+    }
+
+    @Test
+    void updatesAndDeletesMoveTheCounter() {
+        User user = newUser();
+        budget(user, 1000.0);
+        Long id = expenseService.addExpense(user.getUsername(), expense("Groceries", 60.0)).getId();
+        Long other = expenseService.addExpense(user.getUsername(), expense("Bakery", 15.0)).getId();
+        assertEquals(75.0, budgetOf(user).getSpent());
+
+        expenseService.updateExpense(user.getUsername(), id, expense("Groceries", 40.0));
+        assertEquals(55.0, budgetOf(user).getSpent());
+
+        Expense moved = expense("Groceries", 40.0);
+        moved.setCategory("Travel");
+        expenseService.updateExpense(user.getUsername(), id, moved);
+        assertEquals(15.0, budgetOf(user).getSpent());
+
+        transactionService.deleteTransaction(user.getUsername(), other);
+        assertEquals(0.0, budgetOf(user).getSpent());
+    }
+
+    @Test
+    void removingMoreThanWasCountedStopsAtZero() {
+        User user = newUser();
+        Long id = expenseService.addExpense(user.getUsername(), expense("Groceries", 60.0)).getId();
+        Budget budget = budget(user, 1000.0);
+        budget.setSpent(10.0);
+        budgetRepository.save(budget);
+
+        expenseService.deleteExpense(user.getUsername(), id);
+
+        assertEquals(0.0, budgetOf(user).getSpent());
+    }
+
+    private User newUser() {
+        return TestUsers.create(userRepository, "budget");
+    }
+
+    private Budget budget(User user, double limit) {
+        Budget budget = new Budget();
+        budget.setCategory("Food");
+        budget.setMonthlyLimit(limit);
+        return budgetService.addBudget(user.getUsername(), budget);
+    }
+
+    private Budget budgetOf(User user) {
+        return budgetService.getBudgets(user.getUsername()).get(0);
+    }
+
+    // newest first
+    private List<String> levels(User user) {
+        return budgetService.getRecentAlerts(user.getUsername()).stream().map(BudgetAlert::getLevel).toList();
+    }
+
+    private static Expense expense(String title, double amount) {
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(amount);
+        e.setCategory("Food");
+        e.setDate(LocalDate.now());
+        return e;
+    }
+}
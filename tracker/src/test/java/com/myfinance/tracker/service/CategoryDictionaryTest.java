@@ -0,0 +1,50 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryDictionaryTest {
+
+    private final CategoryRepository repository = mock(CategoryRepository.class);
+    private final List<Object[]> rows = new ArrayList<>();
+
+    CategoryDictionaryTest() {
+        when(repository.findIdsAndNamesByUserId(1L)).thenAnswer(i -> List.copyOf(rows));
+    }
+
+    @Test
+    void aMissingNameIsRememberedOnlyForTheMissingTtl() {
+        CategoryDictionary remembering = new CategoryDictionary(repository, 100, 60_000, 60_000);
+        CategoryDictionary expiring = new CategoryDictionary(repository, 100, 60_000, 0);
+        assertEquals(Set.of(), remembering.ids(1L, List.of("Travel")));
+        assertEquals(Set.of(), expiring.ids(1L, List.of("Travel")));
+
+        // created on another instance: found as soon as the miss has expired
+        rows.add(new Object[]{7L, "Travel"});
+        assertEquals(Set.of(), remembering.ids(1L, List.of("Travel")));
+        assertEquals(Set.of(7L), expiring.ids(1L, List.of("travel")));
+        verify(repository, times(3)).findIdsAndNamesByUserId(1L);
+    }
+
+    @Test
+    void entriesOlderThanTheTtlAreReloaded() {
+        rows.add(new Object[]{7L, "Travel"});
+        CategoryDictionary dictionary = new CategoryDictionary(repository, 100, 0, 0);
+        assertEquals("Travel", dictionary.name(1L, 7L));
+
+        // renamed on another instance
+        rows.set(0, new Object[]{7L, "Trips"});
+        assertEquals("Trips", dictionary.name(1L, 7L));
+        assertEquals(Set.of(7L), dictionary.ids(1L, List.of("trips")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.myfinance.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedBitmapTest {
+
+    @Test
+    void setOperationsMatchBitSetAcrossSparseAndDenseChunks() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            // chunk 0 dense, chunk 1 sparse, chunk 3 either: both chunk forms meet every operation
+            BitSet ea = new BitSet();
+            BitSet eb = new BitSet();
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            fill(random, a, ea, 0, 30_000, round % 2 == 0 ? 9_000 : 500);
+            fill(random, a, ea, 65_536, 65_536, 300);
+            fill(random, b, eb, 0, 65_536, round % 3 == 0 ? 6_000 : 2_000);
+            fill(random, b, eb, 3 * 65_536, 65_536, round % 2 == 0 ? 8_000 : 100);
+            for (int i = 0; i < 3_000; i++) {
+                int v = random.nextInt(40_000);
+                a.remove(v);
+                ea.clear(v);
+            }
+
+            assertSame(ea, a);
+            BitSet and = (BitSet) ea.clone();
+            and.and(eb);
+            assertSame(and, a.and(b));
+            BitSet or = (BitSet) ea.clone();
+            or.or(eb);
+            assertSame(or, a.or(b));
+            BitSet andNot = (BitSet) ea.clone();
+            andNot.andNot(eb);
+            assertSame(andNot, a.andNot(b));
+            BitSet notA = (BitSet) eb.clone();
+            notA.andNot(ea);
+            assertSame(notA, b.andNot(a));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            a.write(new DataOutputStream(bytes));
+            assertSame(ea, CompressedBitmap.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+    }
+
+    @Test
+    void denseChunksTurnBackIntoArraysWhenEmptied() {
+        CompressedBitmap b = new CompressedBitmap();
+        for (int v = 0; v < 10_000; v++) {
+            b.add(v);
+        }
+        assertEquals(8 * 1024 + 2, b.sizeInBytes());
+        for (int v = 100; v < 10_000; v++) {
+            b.remove(v);
+        }
+        assertEquals(100, b.cardinality());
+        assertEquals(100 * 2 + 2, b.sizeInBytes());
+        for (int v = 0; v < 100; v++) {
+            b.remove(v);
+        }
+        assertTrue(b.isEmpty());
+    }
+
+    private static void fill(Random random, CompressedBitmap b, BitSet expected, int from, int span, int n) {
+        for (int i = 0; i < n; i++) {
+            int v = from + random.nextInt(span);
+            assertEquals(!expected.get(v), b.add(v));
+            expected.set(v);
+        }
+    }
+
+    private static void assertSame(BitSet expected, CompressedBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+        expected.stream().limit(200).forEach(v -> assertTrue(actual.contains(v)));
+    }
+}
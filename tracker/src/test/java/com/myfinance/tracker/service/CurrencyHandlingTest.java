@@ -0,0 +1,69 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.Budget;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CurrencyHandlingTest {
+
+    @Autowired private ExpenseService expenseService;
+    @Autowired private BudgetService budgetService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private FxRateTable fx;
+
+    @Test
+    void updateWithoutCurrencyKeepsTheStoredOne() {
+        User user = newUser();
+        Expense expense = expense("Train", 40.0);
+        expense.setCurrency("EUR");
+        Long id = expenseService.addExpense(user.getUsername(), expense).getId();
+
+        Expense edited = expenseService.updateExpense(user.getUsername(), id, expense("Train ticket", 45.0));
+
+        assertEquals("EUR", edited.getCurrency());
+        assertEquals(45.0, edited.getAmount());
+    }
+
+    @Test
+    void baseCurrencyChangeRebasesBudgets() {
+        User user = newUser();
+        expenseService.addExpense(user.getUsername(), expense("Groceries", 300.0));
+        Budget budget = new Budget();
+        budget.setCategory("Food");
+        budget.setMonthlyLimit(1000.0);
+        budgetService.addBudget(user.getUsername(), budget);
+
+        userService.updateBaseCurrency(user.getUsername(), "EUR");
+
+        Budget rebased = budgetService.getBudgets(user.getUsername()).get(0);
+        LocalDate today = LocalDate.now();
+        assertEquals(fx.convert(1000.0, "INR", "EUR", today), rebased.getMonthlyLimit(), 1e-6);
+        assertEquals(fx.convert(300.0, "INR", "EUR", today), rebased.getSpent(), 1e-6);
+    }
+
+    private User newUser() {
+        return TestUsers.create(userRepository, "fx");
+    }
+
+    private static Expense expense(String title, double amount) {
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(amount);
+        e.setCategory("Food");
+        e.setDate(LocalDate.now());
+        return e;
+    }
+}
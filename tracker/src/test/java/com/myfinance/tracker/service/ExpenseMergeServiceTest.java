@@ -0,0 +1,95 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.LedgerTombstone;
+import com.myfinance.tracker.model.LegacyExpense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.LedgerTombstoneRepository;
+import com.myfinance.tracker.repository.LegacyExpenseRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExpenseMergeServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 10);
+
+    @Autowired private ExpenseMergeService merge;
+    @Autowired private LegacyExpenseRepository legacyRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private LedgerTombstoneRepository tombstoneRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void legacyRowsPairWithTheirDebitOrBecomeOne() {
+        User user = TestUsers.create(userRepository, "merge");
+
+        // the debit copy of an expense, written before categories reached it
+        Transaction lunch = new Transaction();
+        lunch.setDescription("Lunch");
+        lunch.setAmount(12.0);
+        lunch.setType("debit");
+        lunch.setDate(DAY);
+        lunch.setUser(user);
+        lunch.setChangeSeq(5L);
+        lunch = transactionRepository.save(lunch);
+
+        LegacyExpense paired = legacyRepository.save(new LegacyExpense(null, "Lunch", 12.0, "Food", null, 5L, DAY, user.getId()));
+        LegacyExpense orphan = legacyRepository.save(new LegacyExpense(null, "Book", 20.0, "Books", null, null, DAY, user.getId()));
+
+        assertEquals(2, merge.mergeAll());
+        assertEquals(0, merge.remaining());
+
+        List<Expense> expenses = expenseService.getUserExpenses(user.getUsername()).stream()
+                .sorted(Comparator.comparing(Expense::getAmount))
+                .collect(Collectors.toList());
+        assertEquals(2, expenses.size());
+        assertEquals(lunch.getId(), expenses.get(0).getId());
+        assertEquals("Food", expenses.get(0).getCategory());
+        assertEquals("Book", expenses.get(1).getTitle());
+        assertEquals("Books", expenses.get(1).getCategory());
+
+        // /sync clients drop the old expense ids and fetch the rows under their new ones
+        Set<Long> deleted = tombstoneRepository.findChangedSince(user.getId(), 0, Pageable.unpaged()).stream()
+                .filter(t -> LedgerEntry.EXPENSE.equals(t.getKind()))
+                .map(LedgerTombstone::getEntryId)
+                .collect(Collectors.toSet());
+        for (LegacyExpense e : List.of(paired, orphan)) {
+            assertTrue(deleted.contains(e.getId()) || expenses.stream().anyMatch(x -> x.getId().equals(e.getId())));
+        }
+        long seq = userRepository.findById(user.getId()).orElseThrow().getChangeSeq();
+        assertTrue(expenses.stream().allMatch(e -> e.getChangeSeq() == seq));
+
+        assertEquals(0, merge.mergeAll()); // nothing left to do
+
+        // a stale client editing by an old id must not reach whatever row has that id now
+        String username = user.getUsername();
+        for (LegacyExpense e : List.of(paired, orphan)) {
+            if (expenses.stream().noneMatch(x -> x.getId().equals(e.getId()))) {
+                RuntimeException refused = assertThrows(RuntimeException.class,
+                        () -> expenseService.deleteExpense(username, e.getId()));
+                assertTrue(refused.getMessage().contains("before the expense merge"), refused.getMessage());
+            }
+        }
+    }
+}
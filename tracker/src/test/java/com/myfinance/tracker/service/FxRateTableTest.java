@@ -0,0 +1,59 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FxRateTableTest {
+
+    private FxRateTable table() {
+        FxRateTable fx = new FxRateTable(new DefaultResourceLoader(), "classpath:fx-rates-sample.csv", "USD", "INR");
+        fx.reload();
+        return fx;
+    }
+
+    @Test
+    void convertsThroughPivotAndRoundTrips() {
+        FxRateTable fx = table();
+        LocalDate day = LocalDate.of(2025, 3, 15);
+
+        double inr = fx.convert(100.0, "EUR", "INR", day);
+        assertTrue(inr > 100.0, "one euro is worth many rupees");
+        assertEquals(100.0, fx.convert(inr, "INR", "EUR", day), 1e-9);
+        assertEquals(42.0, fx.convert(42.0, "GBP", "GBP", day));
+    }
+
+    @Test
+    void forwardFillsAndClampsOutsideRange() {
+        FxRateTable fx = table();
+
+        // mid-month uses the last quote on or before the day
+        assertEquals(fx.convert(1.0, "EUR", "USD", LocalDate.of(2025, 3, 1)),
+                fx.convert(1.0, "EUR", "USD", LocalDate.of(2025, 3, 20)));
+        // far past/future clamp to the first/last known day instead of failing
+        assertEquals(fx.convert(1.0, "EUR", "USD", LocalDate.of(2024, 1, 1)),
+                fx.convert(1.0, "EUR", "USD", LocalDate.of(1990, 1, 1)));
+    }
+
+    @Test
+    void nullCurrencyIsLegacyAndUnknownCodesAreRejectedOnWrite() {
+        FxRateTable fx = table();
+        LocalDate day = LocalDate.of(2025, 6, 1);
+
+        assertEquals(fx.convert(10.0, "INR", "EUR", day), fx.convert(10.0, null, "EUR", day));
+        assertTrue(fx.supports("USD"));
+        assertFalse(fx.supports("XYZ"));
+        assertFalse(fx.supports("usd!"));
+        assertThrows(IllegalStateException.class, () -> fx.convert(10.0, "XYZ", "EUR", day));
+        assertThrows(RuntimeException.class, () -> fx.resolveForWrite("XYZ", new User()));
+        assertEquals("EUR", fx.resolveForWrite(" eur ", new User()));
+        assertEquals("INR", fx.resolveForWrite(null, new User()));
+    }
+}
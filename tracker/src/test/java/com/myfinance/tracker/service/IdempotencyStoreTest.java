@@ -0,0 +1,119 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.model.IdempotencyRecord;
+import com.myfinance.tracker.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyStore store = new IdempotencyStore(repository, 24, 5000, 60000, 100);
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAndReplaysIt() throws Exception {
+        when(repository.findByOwnerAndKey("alice", "k1")).thenReturn(Optional.empty());
+
+        IdempotencyStore.Claim first = store.claim("alice", "k1", "h");
+        assertEquals(IdempotencyStore.Decision.PROCEED, first.getDecision());
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<IdempotencyStore.Claim> second = pool.submit(() -> store.claim("alice", "k1", "h"));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        byte[] body = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+        store.complete("alice", "k1", new IdempotencyStore.Response(200, "application/json", body));
+
+        IdempotencyStore.Claim replay = second.get(2, TimeUnit.SECONDS);
+        assertEquals(IdempotencyStore.Decision.REPLAY, replay.getDecision());
+        assertEquals(200, replay.getResponse().getStatus());
+        assertArrayEquals(body, replay.getResponse().getBody());
+        pool.shutdown();
+    }
+
+    @Test
+    void abandonedKeyCanBeClaimedAgain() {
+        when(repository.findByOwnerAndKey("alice", "k2")).thenReturn(Optional.empty());
+
+        assertEquals(IdempotencyStore.Decision.PROCEED, store.claim("alice", "k2", "h").getDecision());
+        store.abandon("alice", "k2");
+        assertEquals(IdempotencyStore.Decision.PROCEED, store.claim("alice", "k2", "h").getDecision());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        when(repository.findByOwnerAndKey("alice", "k3")).thenReturn(Optional.empty());
+
+        store.claim("alice", "k3", "h1");
+        assertEquals(IdempotencyStore.Decision.MISMATCH, store.claim("alice", "k3", "h2").getDecision());
+    }
+
+    @Test
+    void completedRowFromTheDatabaseIsReplayedWithoutInserting() {
+        IdempotencyRecord row = new IdempotencyRecord();
+        row.setOwner("bob");
+        row.setKey("k4");
+        row.setRequestHash("h");
+        row.setStatus(IdempotencyRecord.Status.COMPLETED);
+        row.setResponseStatus(201);
+        row.setContentType("application/json");
+        row.setResponseBody(new byte[]{'{', '}'});
+        row.setCreatedAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findByOwnerAndKey("bob", "k4")).thenReturn(Optional.of(row));
+
+        IdempotencyStore.Claim claim = store.claim("bob", "k4", "h");
+        assertEquals(IdempotencyStore.Decision.REPLAY, claim.getDecision());
+        assertEquals(201, claim.getResponse().getStatus());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void slowRequestWithAFreshHeartbeatIsNotTakenOver() {
+        IdempotencyRecord row = new IdempotencyRecord();
+        row.setOwner("carol");
+        row.setKey("k5");
+        row.setRequestHash("h");
+        row.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        row.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        row.setHeartbeatAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findByOwnerAndKey("carol", "k5")).thenReturn(Optional.of(row));
+        IdempotencyStore impatient = new IdempotencyStore(repository, 24, 200, 60000, 100);
+
+        assertEquals(IdempotencyStore.Decision.IN_PROGRESS, impatient.claim("carol", "k5", "h").getDecision());
+        verify(repository, never()).deleteByOwnerAndKey("carol", "k5");
+    }
+
+    @Test
+    void heartbeatRefreshesOnlyRunningKeys() {
+        when(repository.findByOwnerAndKey("dave", "k6")).thenReturn(Optional.empty());
+        when(repository.findByOwnerAndKey("dave", "k7")).thenReturn(Optional.empty());
+        store.claim("dave", "k6", "h");
+        store.claim("dave", "k7", "h");
+        store.complete("dave", "k7", new IdempotencyStore.Response(200, null, null));
+
+        store.heartbeat();
+
+        verify(repository).touch(eq("dave"), eq("k6"), any());
+        verify(repository, never()).touch(eq("dave"), eq("k7"), any());
+    }
+}
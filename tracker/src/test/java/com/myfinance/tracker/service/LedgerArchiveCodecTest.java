@@ -0,0 +1,61 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.event.LedgerEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerArchiveCodecTest {
+
+    @Test
+    void roundTripsEveryFieldIncludingNulls() {
+        List<LedgerEntry> rows = List.of(
+                new LedgerEntry(LedgerEntry.TRANSACTION, 7L, "credit", 1200.5, "EUR",
+                        LocalDate.of(2023, 1, 31), 3L, "Salary", "January, \"net\""),
+                new LedgerEntry(LedgerEntry.TRANSACTION, 8L, "debit", 42.0, null,
+                        LocalDate.of(2023, 2, 1), null, null, null));
+
+        List<LedgerEntry> back = LedgerArchiveCodec.decode(LedgerEntry.TRANSACTION, LedgerArchiveCodec.encode(rows));
+
+        assertEquals(2, back.size());
+        LedgerEntry a = back.get(0);
+        assertEquals(7L, a.getId());
+        assertEquals("credit", a.getType());
+        assertEquals(1200.5, a.getAmount());
+        assertEquals("EUR", a.getCurrency());
+        assertEquals(LocalDate.of(2023, 1, 31), a.getDate());
+        assertEquals(3L, a.getCategoryId());
+        assertEquals("Salary", a.getCategory());
+        assertEquals("January, \"net\"", a.getDescription());
+        assertTrue(a.isTransaction());
+
+        LedgerEntry b = back.get(1);
+        assertNull(b.getCurrency());
+        assertNull(b.getCategoryId());
+        assertNull(b.getCategory());
+        assertNull(b.getDescription());
+    }
+
+    @Test
+    void yearOfRowsCompressesWellBelowRawSize() {
+        List<LedgerEntry> rows = new ArrayList<>();
+        String[] categories = {"Food", "Rent", "Travel", "Bills"};
+        for (int i = 0; i < 5000; i++) {
+            rows.add(new LedgerEntry(LedgerEntry.EXPENSE, 1000L + i, "debit", 10 + (i % 97),
+                    "INR", LocalDate.of(2022, 1, 1).plusDays(i % 365), null,
+                    categories[i % categories.length], "Groceries"));
+        }
+
+        byte[] payload = LedgerArchiveCodec.encode(rows);
+
+        // 8+4+8+8 fixed bytes per row before dictionaries and text
+        assertTrue(payload.length < rows.size() * 28 / 2, "payload " + payload.length + " bytes");
+        assertEquals(rows.size(), LedgerArchiveCodec.decode(LedgerEntry.EXPENSE, payload).size());
+    }
+}
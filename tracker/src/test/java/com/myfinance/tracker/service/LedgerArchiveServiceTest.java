@@ -0,0 +1,81 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerArchiveServiceTest {
+
+    private static final LocalDate OLD = LocalDate.of(2022, 5, 3);
+
+    @Autowired private LedgerArchiveService archive;
+    @Autowired private TransactionService transactionService;
+    @Autowired private ExpenseReportService reportService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+
+    @Test
+    void reportsReadArchiveTotalsAndArchivedRowsAreReadOnly() {
+        User user = TestUsers.create(userRepository, "archive");
+        Category food = new Category();
+        food.setName("Food");
+        food.setUser(user);
+        food = categoryRepository.save(food);
+
+        save(user, "Salary", 1000.0, "credit", null, OLD, null);
+        save(user, "Lunch", 12.0, "debit", null, OLD, food);
+        save(user, "Dinner", 30.0, "debit", null, OLD, food);
+        Transaction paris = save(user, "Paris", 40.0, "debit", "EUR", OLD.plusDays(1), food);
+        save(user, "Groceries", 50.0, "debit", null, LocalDate.now(), food);
+
+        Map<String, Double> summary = transactionService.getSummaryByUsername(user.getUsername());
+        Map<String, Double> byCategory = transactionService.getCategorySummary(user.getId());
+        Map<String, Double> expenses = reportService.getTotalByCategory(user.getId(), "INR");
+
+        assertTrue(archive.archiveClosedYears() >= 4);
+
+        assertEquals(summary, transactionService.getSummaryByUsername(user.getUsername()));
+        assertEquals(byCategory, transactionService.getCategorySummary(user.getId()));
+        assertEquals(expenses, reportService.getTotalByCategory(user.getId(), "INR"));
+
+        List<TransactionDto> listed = transactionService.getTransactionsByUsernameInRangeDto(
+                user.getUsername(), OLD, LocalDate.now());
+        assertEquals(5, listed.size());
+        assertEquals(4, listed.stream().filter(TransactionDto::isArchived).count());
+
+        String username = user.getUsername();
+        Long id = paris.getId();
+        RuntimeException refused = assertThrows(RuntimeException.class,
+                () -> transactionService.deleteTransaction(username, id));
+        assertEquals("Transaction " + id + " is archived and read-only", refused.getMessage());
+    }
+
+    private Transaction save(User user, String description, double amount, String type, String currency,
+                             LocalDate date, Category category) {
+        Transaction t = new Transaction();
+        t.setDescription(description);
+        t.setAmount(amount);
+        t.setType(type);
+        t.setCurrency(currency);
+        t.setDate(date);
+        return transactionService.saveTransaction(t, user.getId(), category != null ? category.getId() : null);
+    }
+}
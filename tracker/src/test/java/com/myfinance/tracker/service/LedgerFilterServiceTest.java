@@ -0,0 +1,176 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.dto.LedgerFilter;
+import com.myfinance.tracker.dto.LedgerPage;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerFilterServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Autowired private LedgerFilterService filterService;
+    @Autowired private LedgerArchiveService archive;
+    @Autowired private TransactionService transactionService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+
+    private User user;
+    private Category travel;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository, "filter");
+        travel = category("Travel");
+        food = category("Food");
+    }
+
+    @Test
+    void combinedFilterOnTransactionsAndExpenses() {
+        save("Uber trip", 25, "debit", DAY, travel);
+        save("UBER eats", 18, "debit", DAY.plusDays(1), food);
+        save("Uber refund", 25, "credit", DAY.plusDays(2), travel);
+        save("Train", 60, "debit", DAY.plusDays(3), travel);
+        save("Uber trip", 9, "debit", DAY.plusDays(4), travel);
+
+        LedgerFilter f = range(DAY, DAY.plusDays(10));
+        f.setDescription("uber");
+        f.setMinAmount(10.0);
+        f.setType("debit");
+        f.setCategories(List.of("Travel", "Food"));
+        LedgerPage<TransactionDto> page = filterService.transactions(user.getUsername(), f);
+        assertEquals(List.of("UBER eats", "Uber trip"), page.getItems().stream()
+                .map(TransactionDto::getDescription).collect(Collectors.toList()));
+        assertEquals("Food", page.getItems().get(0).getCategoryName());
+        assertNull(page.getNextCursor());
+
+        // debits are mirrored as expenses, matched on the title
+        LedgerFilter e = range(DAY, DAY.plusDays(10));
+        e.setDescription("trip");
+        assertEquals(List.of(DAY.plusDays(4), DAY), filterService.expenses(user.getUsername(), e).getItems().stream()
+                .map(Expense::getDate).collect(Collectors.toList()));
+        e.setType("credit");
+        assertTrue(filterService.expenses(user.getUsername(), e).getItems().isEmpty());
+    }
+
+    @Test
+    void archivedYearsAreMergedInByCategoryId() {
+        LocalDate old = LocalDate.of(2022, 5, 3);
+        save("Uber trip", 30, "debit", old, travel);
+        save("Lunch", 12, "debit", old.plusDays(1), food);
+        save("Uber trip", 20, "debit", DAY, travel);
+        archive.archiveClosedYears();
+
+        LedgerFilter f = new LedgerFilter();
+        f.setCategories(List.of("travel"));
+        f.setLimit(1);
+        LedgerPage<TransactionDto> first = filterService.transactions(user.getUsername(), f);
+        assertEquals(List.of(DAY), first.getItems().stream().map(TransactionDto::getDate).collect(Collectors.toList()));
+        f.setAfter(first.getNextCursor());
+        LedgerPage<TransactionDto> second = filterService.transactions(user.getUsername(), f);
+        assertEquals(List.of(old), second.getItems().stream().map(TransactionDto::getDate).collect(Collectors.toList()));
+        assertTrue(second.getItems().get(0).isArchived());
+        assertEquals("Travel", second.getItems().get(0).getCategoryName());
+        assertNull(second.getNextCursor());
+
+        LedgerFilter e = new LedgerFilter();
+        e.setCategories(List.of("Food"));
+        List<Expense> expenses = filterService.expenses(user.getUsername(), e).getItems();
+        assertEquals(1, expenses.size());
+        assertTrue(expenses.get(0).isArchived());
+        assertEquals("Lunch", expenses.get(0).getTitle());
+    }
+
+    @Test
+    void keysetPagesCoverEveryRowOnceAcrossEqualDates() {
+        List<Long> written = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            // four rows a day; prepending keeps the list newest first (later day, then higher id)
+            written.add(0, save("Row " + i, 1 + i, "credit", DAY.plusDays(i / 4), null).getId());
+        }
+
+        LedgerFilter f = new LedgerFilter();
+        f.setLimit(3);
+        List<Long> seen = new ArrayList<>();
+        int pages = 0;
+        do {
+            LedgerPage<TransactionDto> page = filterService.transactions(user.getUsername(), f);
+            page.getItems().forEach(t -> seen.add(t.getId()));
+            f.setAfter(page.getNextCursor());
+            pages++;
+        } while (f.getAfter() != null);
+        assertEquals(written, seen);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void rejectsShapesNoIndexCovers() {
+        LedgerFilter noRange = new LedgerFilter();
+        noRange.setMinAmount(100.0);
+        assertThrows(RuntimeException.class, () -> filterService.transactions(user.getUsername(), noRange));
+
+        LedgerFilter tooWide = range(DAY.minusYears(2), DAY);
+        tooWide.setDescription("rent");
+        assertThrows(RuntimeException.class, () -> filterService.expenses(user.getUsername(), tooWide));
+
+        LedgerFilter shortText = range(DAY, DAY.plusDays(1));
+        shortText.setDescription("ub");
+        assertThrows(RuntimeException.class, () -> filterService.transactions(user.getUsername(), shortText));
+
+        LedgerFilter badCursor = new LedgerFilter();
+        badCursor.setAfter("yesterday");
+        assertThrows(RuntimeException.class, () -> filterService.transactions(user.getUsername(), badCursor));
+
+        // indexed predicates alone are fine without a range
+        LedgerFilter byCategory = new LedgerFilter();
+        byCategory.setCategories(List.of("Travel"));
+        assertTrue(filterService.transactions(user.getUsername(), byCategory).getItems().isEmpty());
+    }
+
+    private static LedgerFilter range(LocalDate start, LocalDate end) {
+        LedgerFilter f = new LedgerFilter();
+        f.setStart(start);
+        f.setEnd(end);
+        return f;
+    }
+
+    private Category category(String name) {
+        Category c = new Category();
+        c.setName(name);
+        c.setUser(user);
+        return categoryRepository.save(c);
+    }
+
+    private Transaction save(String description, double amount, String type, LocalDate date, Category category) {
+        Transaction t = new Transaction();
+        t.setDescription(description);
+        t.setAmount(amount);
+        t.setType(type);
+        t.setDate(date);
+        return transactionService.saveTransaction(t, user.getId(), category != null ? category.getId() : null);
+    }
+}
@@ -0,0 +1,94 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.monitoring.StatementCounter;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Write throughput of the two ways a debit enters the ledger: POST /expenses/add and a debit
+ * POST /transactions/add, measured at the service. Writes per second, statements per write
+ * and ledger rows per write are published as report entries; only the row count is asserted.
+ * Tagged, so it runs with -Pbenchmarks and not in the default build.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCounter.Config.class)
+class LedgerWriteBenchmarkTest {
+
+    private static final int WARM_UP = 100;
+    private static final int WRITES = 500;
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Autowired private ExpenseService expenseService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private StatementCounter statements;
+    @Autowired private JdbcTemplate jdbc;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository, "bench");
+    }
+
+    @Test
+    void eachDebitIsWrittenOnce(TestReporter reporter) {
+        measure(reporter, "expense add", i -> {
+            Expense e = new Expense();
+            e.setTitle("Lunch " + i);
+            e.setAmount(5.0 + i % 40);
+            e.setCategory("Food");
+            e.setDate(DAY.plusDays(i % 90));
+            expenseService.addExpense(user.getUsername(), e);
+        });
+        measure(reporter, "debit add", i -> {
+            Transaction t = new Transaction();
+            t.setDescription("Train " + i);
+            t.setAmount(3.0 + i % 25);
+            t.setType("debit");
+            t.setDate(DAY.plusDays(i % 90));
+            transactionService.saveTransaction(t, user.getId(), null);
+        });
+    }
+
+    private void measure(TestReporter reporter, String label, IntConsumer write) {
+        for (int i = 0; i < WARM_UP; i++) {
+            write.accept(i);
+        }
+        long rowsBefore = ledgerRows();
+        statements.reset();
+        long startNs = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            write.accept(i);
+        }
+        long elapsedNs = System.nanoTime() - startNs;
+        long rows = ledgerRows() - rowsBefore;
+        reporter.publishEntry(label, String.format("%.0f writes/s, %.1f statements/write, %.1f ledger rows/write",
+                WRITES * 1e9 / elapsedNs, statements.count() / (double) WRITES, rows / (double) WRITES));
+        assertEquals(WRITES, rows, label);
+    }
+
+    private long ledgerRows() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM transactions WHERE user_id = ?", Long.class, user.getId())
+                + jdbc.queryForObject("SELECT COUNT(*) FROM expense WHERE user_id = ?", Long.class, user.getId());
+    }
+}
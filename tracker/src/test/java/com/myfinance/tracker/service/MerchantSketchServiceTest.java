@@ -0,0 +1,112 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.dto.TopMerchants;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.MerchantSketchRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MerchantSketchServiceTest {
+
+    @Autowired private MerchantSketchService merchantService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MerchantSketchRepository sketchRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, "merch");
+    }
+
+    @Test
+    void normaliseDropsStoreNumbersAndPunctuation() {
+        assertEquals("uber trip", MerchantSketchService.normalise("UBER *TRIP 4411"));
+        assertEquals("starbucks", MerchantSketchService.normalise("  Starbucks #1203 "));
+        assertNull(MerchantSketchService.normalise("12/04 #99"));
+    }
+
+    @Test
+    void sketchFollowsWritesAndMatchesExact() {
+        transaction("Starbucks #12", 5, "debit");
+        transaction("STARBUCKS #40", 7, "debit");
+        transaction("Salary", 3000, "credit");
+        Transaction gone = transaction("Uber *trip", 30, "debit");
+        Expense rent = expenseService.addExpense(user.getUsername(), expense("Rent", 900));
+        expenseService.addExpense(user.getUsername(), expense("Uber trip", 15));
+
+        transactionService.deleteTransaction(user.getUsername(), gone.getId());
+        rent.setAmount(950.0);
+        expenseService.updateExpense(user.getUsername(), rent.getId(), rent);
+
+        TopMerchants top = merchantService.top(user.getUsername(), 10, "amount");
+        assertEquals(List.of("rent", "uber trip", "starbucks"), names(top));
+        assertEquals(950.0, top.getMerchants().get(0).getWeight(), 1e-9);
+        assertEquals(977.0, top.getTotal(), 1e-9);
+        assertTrue(top.getMerchants().stream().allMatch(TopMerchants.Merchant::isGuaranteed));
+        assertSame(merchantService.exact(user.getUsername(), 10, "amount"), top);
+        assertSame(merchantService.exact(user.getUsername(), 10, "count"),
+                merchantService.top(user.getUsername(), 10, "count"));
+    }
+
+    @Test
+    void rebuildPicksUpLedgerWrittenWithoutTheSketch() {
+        transaction("Cafe Nero", 4, "debit");
+        transaction("Cafe Nero", 4, "debit");
+        sketchRepository.findByUserId(user.getId()).ifPresent(sketchRepository::delete); // as if these rows predated the sketch
+        assertTrue(merchantService.top(user.getUsername(), 5, "count").getMerchants().isEmpty());
+
+        merchantService.rebuild(user.getUsername());
+        TopMerchants top = merchantService.top(user.getUsername(), 5, "count");
+        assertEquals(List.of("cafe nero"), names(top));
+        assertEquals(2.0, top.getMerchants().get(0).getWeight());
+    }
+
+    private static void assertSame(TopMerchants exact, TopMerchants sketch) {
+        assertEquals(names(exact), names(sketch));
+        for (int i = 0; i < exact.getMerchants().size(); i++) {
+            assertEquals(exact.getMerchants().get(i).getWeight(), sketch.getMerchants().get(i).getWeight(), 1e-9);
+        }
+    }
+
+    private static List<String> names(TopMerchants top) {
+        return top.getMerchants().stream().map(TopMerchants.Merchant::getName).collect(Collectors.toList());
+    }
+
+    private Transaction transaction(String description, double amount, String type) {
+        Transaction t = new Transaction();
+        t.setDescription(description);
+        t.setAmount(amount);
+        t.setType(type);
+        t.setDate(LocalDate.now());
+        return transactionService.saveTransaction(t, user.getId(), null);
+    }
+
+    private static Expense expense(String title, double amount) {
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(amount);
+        e.setCategory("Misc");
+        e.setDate(LocalDate.now());
+        return e;
+    }
+}
@@ -0,0 +1,104 @@
+package com.myfinance.tracker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryCoalescerTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final QueryCoalescer coalescer = new QueryCoalescer(meters);
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> coalescer.execute("sum", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return 42;
+            }, 1L)));
+        }
+        // let every caller reach the coalescer before the leader finishes
+        while (meters.counter("coalescer.queries", "method", "sum", "outcome", "joined").count() < callers - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<Integer> f : results) {
+            assertEquals(42, f.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void differentKeysAndLaterCallsRunSeparately() {
+        AtomicInteger executions = new AtomicInteger();
+        coalescer.execute("sum", executions::incrementAndGet, 1L);
+        coalescer.execute("sum", executions::incrementAndGet, 2L);
+        coalescer.execute("sum", executions::incrementAndGet, 1L);
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void failuresPropagateAndAreNotRemembered() {
+        assertThrows(IllegalStateException.class,
+                () -> coalescer.execute("boom", () -> { throw new IllegalStateException("db down"); }, 1L));
+        assertEquals("ok", coalescer.execute("boom", () -> "ok", 1L));
+    }
+
+    @Test
+    void errorsReachJoinersAndResultsAreReadOnly() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<Object> leader = pool.submit(() -> coalescer.execute("oom", () -> {
+            await(release);
+            throw new OutOfMemoryError("simulated");
+        }, 1L));
+        while (meters.counter("coalescer.queries", "method", "oom", "outcome", "executed").count() < 1) {
+            Thread.sleep(5);
+        }
+        Future<Object> joiner = pool.submit(() -> coalescer.execute("oom", () -> "never", 1L));
+        while (meters.counter("coalescer.queries", "method", "oom", "outcome", "joined").count() < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> joiner.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, failed.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        Map<String, Double> totals = coalescer.execute("totals", () -> new HashMap<>(Map.of("Food", 1.0)), 1L);
+        assertThrows(UnsupportedOperationException.class, () -> totals.put("Rent", 2.0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
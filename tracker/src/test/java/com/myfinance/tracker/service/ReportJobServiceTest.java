@@ -0,0 +1,73 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.ReportJob;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.ReportJobRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportJobServiceTest {
+
+    @Autowired private ReportJobService jobs;
+    @Autowired private ReportJobRepository jobRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TransactionTemplate tx;
+
+    @Test
+    void aWriteOnAnyInstanceMakesTheFinishedJobStale() throws Exception {
+        User user = TestUsers.create(userRepository, "jobs");
+        Long first = awaitDone(jobs.submit(user.getUsername(), new ReportJob()).getId());
+        assertEquals(first, jobs.submit(user.getUsername(), new ReportJob()).getId());
+
+        // another instance's write moves only the persisted sequence
+        tx.executeWithoutResult(s -> userRepository.incrementChangeSeq(user.getId()));
+
+        assertNotEquals(first, awaitDone(jobs.submit(user.getUsername(), new ReportJob()).getId()));
+    }
+
+    @Test
+    void onlyJobsWithoutAHeartbeatAreFailed() {
+        User user = TestUsers.create(userRepository, "jobs");
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob live = jobRepository.save(running(user, now.minusSeconds(5)));
+        ReportJob orphaned = jobRepository.save(running(user, now.minusMinutes(10)));
+
+        jobs.sweepExpired();
+
+        assertEquals(ReportJob.Status.RUNNING, jobRepository.findById(live.getId()).orElseThrow().getStatus());
+        assertEquals(ReportJob.Status.FAILED, jobRepository.findById(orphaned.getId()).orElseThrow().getStatus());
+    }
+
+    private Long awaitDone(Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jobRepository.findById(id).map(ReportJob::getStatus).orElseThrow() != ReportJob.Status.DONE) {
+            if (System.currentTimeMillis() > deadline) fail("report job did not finish");
+            Thread.sleep(20);
+        }
+        return id;
+    }
+
+    private static ReportJob running(User user, LocalDateTime heartbeatAt) {
+        ReportJob job = new ReportJob();
+        job.setType(ReportJobService.ANNUAL_STATEMENT);
+        job.setFormat("csv");
+        job.setStatus(ReportJob.Status.RUNNING);
+        job.setCreatedAt(heartbeatAt);
+        job.setHeartbeatAt(heartbeatAt);
+        job.setUser(user);
+        return job;
+    }
+}
@@ -0,0 +1,78 @@
+package com.myfinance.tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    void boundsHoldUnderAddsAndRemovals() {
+        Random random = new Random(42);
+        SpaceSaving sketch = new SpaceSaving(16);
+        Map<String, Double> exact = new HashMap<>();
+        List<String[]> written = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 7 == 3 && !written.isEmpty()) {
+                // delete an earlier row
+                String[] row = written.remove(random.nextInt(written.size()));
+                double w = Double.parseDouble(row[1]);
+                sketch.remove(row[0], w);
+                exact.merge(row[0], -w, Double::sum);
+            } else {
+                // skewed keys: a few merchants take most of the spend
+                String key = "m" + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 200);
+                double w = 1 + random.nextInt(100);
+                sketch.add(key, w);
+                exact.merge(key, w, Double::sum);
+                written.add(new String[]{key, Double.toString(w)});
+            }
+        }
+
+        assertBounds(sketch, exact);
+        assertBounds(SpaceSaving.decode(sketch.encode(), 16), exact);
+        assertEquals(exact.values().stream().mapToDouble(Double::doubleValue).sum(), sketch.total(), 1e-6);
+    }
+
+    @Test
+    void rebuiltSketchKeepsHeaviestKeysExactly() {
+        Map<String, Double> exact = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            exact.put("m" + i, (double) (i + 1));
+        }
+        SpaceSaving sketch = SpaceSaving.of(exact, 10);
+        List<SpaceSaving.Counter> top = sketch.top(10);
+        assertEquals("m39", top.get(0).getKey());
+        assertEquals(0.0, top.get(9).getError());
+        assertEquals(30.0, sketch.floor());
+
+        // a key that was left out comes back with the floor as its possible error
+        sketch.add("m5", 1);
+        exact.merge("m5", 1.0, Double::sum);
+        assertBounds(sketch, exact);
+    }
+
+    private static void assertBounds(SpaceSaving sketch, Map<String, Double> exact) {
+        Map<String, SpaceSaving.Counter> tracked = new HashMap<>();
+        sketch.top(sketch.size()).forEach(c -> tracked.put(c.getKey(), c));
+        exact.forEach((key, truth) -> {
+            SpaceSaving.Counter c = tracked.get(key);
+            if (c == null) {
+                assertTrue(truth <= sketch.floor() + EPS, key + " untracked " + truth + " > floor " + sketch.floor());
+            } else {
+                assertTrue(truth <= c.getWeight() + EPS, key + " underestimated");
+                assertTrue(truth >= c.getWeight() - c.getError() - EPS, key + " outside error bound");
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.SpendingAnomaly;
+import com.myfinance.tracker.model.SpendingStats;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SpendingAnomalyServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired private SpendingAnomalyService anomalyService;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, "anom");
+    }
+
+    @Test
+    void largeExpenseIsFlaggedAndStatsMatchTwoPass() {
+        List<Double> amounts = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            double amount = 40 + (i % 5) * 2.5;
+            amounts.add(amount);
+            Expense e = expenseService.addExpense(user.getUsername(), expense(amount, TODAY.minusDays(60 - i * 5L)));
+            assertTrue(e.getAnomalies().isEmpty(), "ordinary expense " + i);
+        }
+
+        Expense big = expenseService.addExpense(user.getUsername(), expense(400, TODAY));
+        amounts.add(400.0);
+        assertEquals(1, big.getAnomalies().size());
+        SpendingAnomaly flagged = big.getAnomalies().get(0);
+        assertEquals("AMOUNT", flagged.getKind());
+        assertEquals(big.getId(), flagged.getEntryId());
+        assertTrue(flagged.getScore() > 3);
+        assertEquals(flagged.getId(), anomalyService.getRecentAnomalies(user.getUsername()).get(0).getId());
+
+        double mean = amounts.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+        double var = amounts.stream().mapToDouble(a -> (a - mean) * (a - mean)).sum() / (amounts.size() - 1);
+        SpendingStats stats = anomalyService.getStats(user.getUsername()).get(0);
+        assertEquals(amounts.size(), stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(var, stats.getM2() / (stats.getCount() - 1), 1e-6);
+    }
+
+    @Test
+    void burstOfDebitsIsFlaggedOnce() {
+        // one debit a week for twelve weeks, then a run of debits on one day
+        for (int week = 11; week >= 0; week--) {
+            Transaction t = transactionService.saveTransaction(debit(TODAY.minusWeeks(week)), user.getId(), null);
+            assertTrue(t.getAnomalies().isEmpty(), "weekly debit " + week);
+        }
+        int flagged = 0;
+        for (int i = 0; i < 8; i++) {
+            Transaction t = transactionService.saveTransaction(debit(TODAY), user.getId(), null);
+            if (!t.getAnomalies().isEmpty()) {
+                assertEquals("FREQUENCY", t.getAnomalies().get(0).getKind());
+                flagged++;
+            }
+        }
+        assertEquals(1, flagged);
+        assertEquals(SpendingAnomalyService.UNCATEGORIZED,
+                anomalyService.getRecentAnomalies(user.getUsername()).get(0).getCategory());
+    }
+
+    private static Expense expense(double amount, LocalDate date) {
+        Expense e = new Expense();
+        e.setTitle("groceries");
+        e.setAmount(amount);
+        e.setCategory("Food");
+        e.setDate(date);
+        return e;
+    }
+
+    private static Transaction debit(LocalDate date) {
+        Transaction t = new Transaction();
+        t.setDescription("coffee");
+        t.setAmount(20);
+        t.setType("debit");
+        t.setDate(date);
+        return t;
+    }
+}
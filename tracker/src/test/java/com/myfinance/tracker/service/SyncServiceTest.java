@@ -0,0 +1,116 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.dto.SyncChanges;
+import com.myfinance.tracker.event.LedgerEntry;
+import com.myfinance.tracker.model.Expense;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncServiceTest {
+
+    @Autowired private SyncService syncService;
+    @Autowired private TransactionService transactionService;
+    @Autowired private ExpenseService expenseService;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = TestUsers.create(userRepository, "sync");
+    }
+
+    @Test
+    void debitAndItsMirrorShareOneSequence() {
+        Transaction saved = transactionService.saveTransaction(debit("lunch", 12), user.getId(), null);
+
+        SyncChanges changes = syncService.changesSince(user.getUsername(), 0, 100);
+        assertEquals(1, changes.getTransactions().size());
+        assertEquals(1, changes.getExpenses().size());
+        assertEquals(saved.getChangeSeq(), changes.getExpenses().get(0).getChangeSeq());
+        assertEquals(saved.getChangeSeq().longValue(), changes.getSeq());
+        assertFalse(changes.isMore());
+    }
+
+    @Test
+    void warmClientOnlySeesLaterWritesAndTombstones() {
+        transactionService.saveTransaction(debit("cab", 7), user.getId(), null);
+        Expense kept = expenseService.addExpense(user.getUsername(), expense("books", 20.0));
+        long seen = syncService.changesSince(user.getUsername(), 0, 100).getSeq();
+
+        assertTrue(syncService.changesSince(user.getUsername(), seen, 100).getTransactions().isEmpty());
+
+        Expense gone = expenseService.addExpense(user.getUsername(), expense("snacks", 3.0));
+        expenseService.deleteExpense(user.getUsername(), gone.getId());
+        kept.setAmount(25.0);
+        expenseService.updateExpense(user.getUsername(), kept.getId(), kept);
+
+        SyncChanges delta = syncService.changesSince(user.getUsername(), seen, 100);
+        assertEquals(1, delta.getExpenses().size());
+        assertEquals(25.0, delta.getExpenses().get(0).getAmount());
+        Set<String> deleted = new HashSet<>();
+        delta.getDeleted().forEach(d -> deleted.add(d.getKind() + ":" + d.getId()));
+        assertTrue(deleted.contains(LedgerEntry.EXPENSE + ":" + gone.getId()));
+        assertEquals(2, deleted.size()); // the expense and its mirrored transaction
+        assertTrue(delta.getSeq() > seen);
+    }
+
+    @Test
+    void pagesEndOnSequenceBoundaries() {
+        for (int i = 0; i < 5; i++) {
+            transactionService.saveTransaction(debit("row " + i, 10 + i), user.getId(), null);
+        }
+        long since = 0;
+        int pages = 0;
+        int transactions = 0;
+        int expenses = 0;
+        SyncChanges page;
+        do {
+            page = syncService.changesSince(user.getUsername(), since, 3);
+            // each write is a transaction plus its expense; a page never holds half of one
+            assertEquals(page.getTransactions().size(), page.getExpenses().size());
+            transactions += page.getTransactions().size();
+            expenses += page.getExpenses().size();
+            since = page.getSeq();
+            pages++;
+        } while (page.isMore() && pages < 20);
+        assertEquals(5, transactions);
+        assertEquals(5, expenses);
+        assertEquals(5, pages);
+    }
+
+    private static Transaction debit(String description, double amount) {
+        Transaction t = new Transaction();
+        t.setDescription(description);
+        t.setAmount(amount);
+        t.setType("debit");
+        t.setDate(LocalDate.now());
+        return t;
+    }
+
+    private static Expense expense(String title, double amount) {
+        Expense e = new Expense();
+        e.setTitle(title);
+        e.setAmount(amount);
+        e.setCategory("Misc");
+        e.setDate(LocalDate.now());
+        return e;
+    }
+}
@@ -0,0 +1,134 @@
+package com.myfinance.tracker.service;
+
+import com.myfinance.tracker.TestUsers;
+import com.myfinance.tracker.dto.TagFilter;
+import com.myfinance.tracker.dto.TaggedTransactions;
+import com.myfinance.tracker.dto.TransactionDto;
+import com.myfinance.tracker.model.Category;
+import com.myfinance.tracker.model.Transaction;
+import com.myfinance.tracker.model.User;
+import com.myfinance.tracker.repository.CategoryRepository;
+import com.myfinance.tracker.repository.LedgerTombstoneRepository;
+import com.myfinance.tracker.repository.TransactionIndexSnapshotRepository;
+import com.myfinance.tracker.repository.TransactionRepository;
+import com.myfinance.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionIndexServiceTest {
+
+    @Autowired private TransactionIndexService index;
+    @Autowired private TransactionService transactionService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private LedgerTombstoneRepository tombstoneRepository;
+    @Autowired private TransactionIndexSnapshotRepository snapshotRepository;
+    @Autowired private ChangeSequence changes;
+
+    private User user;
+    private Category travel;
+    private Category groceries;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.create(userRepository, "tags");
+        travel = category("Travel");
+        groceries = category("Groceries");
+    }
+
+    @Test
+    void booleanFiltersFollowWrites() {
+        Transaction hotel = save("Hotel", "2026-07-14", travel, "Work", "trip-2026");
+        save("Market", "2026-08-02", groceries, "work", "trip-2026");
+        save("Taxi", "2026-10-01", travel, "work", "trip-2026");   // outside Q3
+        save("Train", "2026-09-20", travel, "work");               // not on the trip
+        TagFilter q3Trip = q3("work", "trip-2026");
+        q3Trip.setNotCategories(List.of("groceries"));
+
+        assertEquals(List.of("Hotel"), descriptions(index.filter(user.getUsername(), q3Trip, 10)));
+
+        // loaded now: these go through the after-commit path
+        Transaction flight = save("Flight", "2026-09-01", travel, "trip-2026");
+        transactionService.updateTags(user.getUsername(), flight.getId(), List.of("WORK", "trip-2026", "reimbursable"));
+        transactionService.deleteTransaction(user.getUsername(), hotel.getId());
+        assertEquals(List.of("Flight"), descriptions(index.filter(user.getUsername(), q3Trip, 10)));
+
+        TagFilter anyOf = new TagFilter();
+        anyOf.setAnyTags(List.of("reimbursable", "nothing"));
+        anyOf.setType("DEBIT");
+        TaggedTransactions reimbursable = index.filter(user.getUsername(), anyOf, 10);
+        assertEquals(1, reimbursable.getTotal());
+        assertEquals(List.of("reimbursable", "trip-2026", "work"), reimbursable.getTransactions().get(0).getTags());
+
+        TagFilter untagged = new TagFilter();
+        untagged.setNotTags(List.of("work", "trip-2026"));
+        assertEquals(0, index.filter(user.getUsername(), untagged, 10).getTotal());
+        assertThrows(RuntimeException.class,
+                () -> transactionService.updateTags(user.getUsername(), flight.getId(), List.of("no,commas")));
+    }
+
+    @Test
+    void restartLoadsTheSnapshotAndReplaysLaterWrites() {
+        save("Hotel", "2026-07-14", travel, "work");
+        save("Museum", "2026-07-15", travel, "trip-2026");
+        TagFilter work = q3("work");
+        assertEquals(1, index.filter(user.getUsername(), work, 10).getTotal());
+        index.flush();
+        assertTrue(snapshotRepository.findByUserId(user.getId()).isPresent());
+
+        // written while the restarted instance had nothing loaded
+        Transaction museum = transactionRepository.findByUser(user).stream()
+                .filter(t -> t.getDescription().equals("Museum")).findFirst().orElseThrow();
+        transactionService.updateTags(user.getUsername(), museum.getId(), List.of("work"));
+        save("Dinner", "2026-07-15", travel, "work");
+
+        TransactionIndexService restarted = new TransactionIndexService(transactionRepository, tombstoneRepository,
+                userRepository, snapshotRepository, changes, 10);
+        assertEquals(List.of("Dinner", "Museum", "Hotel"), descriptions(restarted.filter(user.getUsername(), work, 10)));
+        assertEquals(List.of("Dinner", "Museum"), descriptions(restarted.filter(user.getUsername(), work, 2)));
+    }
+
+    private TagFilter q3(String... tags) {
+        TagFilter f = new TagFilter();
+        f.setTags(List.of(tags));
+        f.setFrom(YearMonth.of(2026, 7));
+        f.setTo(YearMonth.of(2026, 9));
+        return f;
+    }
+
+    private static List<String> descriptions(TaggedTransactions result) {
+        return result.getTransactions().stream().map(TransactionDto::getDescription).collect(Collectors.toList());
+    }
+
+    private Category category(String name) {
+        Category c = new Category();
+        c.setName(name);
+        c.setUser(user);
+        return categoryRepository.save(c);
+    }
+
+    private Transaction save(String description, String date, Category category, String... tags) {
+        Transaction t = new Transaction();
+        t.setDescription(description);
+        t.setAmount(20);
+        t.setType("debit");
+        t.setDate(LocalDate.parse(date));
+        t.setTags(List.of(tags));
+        return transactionService.saveTransaction(t, user.getId(), category.getId());
+    }
+}